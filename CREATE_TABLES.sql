@@ -3,6 +3,8 @@ DROP SEQUENCE SEQ_CLIENT;
 DROP SEQUENCE SEQ_COMMANDE;
 DROP SEQUENCE SEQ_PRODUIT;
 
+DROP TABLE VENTES_PRODUIT_JOUR CASCADE CONSTRAINTS;
+DROP TABLE VENTES_RESTAURANT_JOUR CASCADE CONSTRAINTS;
 DROP TABLE PRODUIT_COMMANDE CASCADE CONSTRAINTS;
 DROP TABLE COMMANDE CASCADE CONSTRAINTS;
 DROP TABLE CLIENT CASCADE CONSTRAINTS;
@@ -57,11 +59,14 @@ CREATE TABLE COMMANDE (
     fk_resto number(9) NOT NULL,
     a_emporter char(1) NOT NULL,
     quand date NOT NULL,
+    montant_total number(9,2), /* Ajout : total et nombre de produits enregistrés à l'écriture */
+    nb_produits number(4),
     PRIMARY KEY (numero)
 );
 ALTER TABLE COMMANDE ADD CONSTRAINT FK_COMMANDE_CLIENT FOREIGN KEY (fk_client) REFERENCES CLIENT(numero) ON DELETE CASCADE;
 ALTER TABLE COMMANDE ADD CONSTRAINT FK_COMMANDE_RESTO FOREIGN KEY (fk_resto) REFERENCES RESTAURANT(numero) ON DELETE CASCADE; /* Ajout ON DELETE CASCADE */
 ALTER TABLE COMMANDE ADD CONSTRAINT CK_A_EMPORTER CHECK (a_emporter IN('O', 'N'));
+CREATE INDEX IX_COMMANDE_QUAND ON COMMANDE (quand); /* Ajout : bornes de la reconstruction des ventes journalières */
 
 CREATE TABLE PRODUIT_COMMANDE (
      fk_commande number(9) NOT NULL,
@@ -71,6 +76,25 @@ CREATE TABLE PRODUIT_COMMANDE (
 ALTER TABLE PRODUIT_COMMANDE ADD CONSTRAINT FK_PRODUIT_COMMANDE_COMMANDE FOREIGN KEY (fk_commande) REFERENCES COMMANDE(numero) ON DELETE CASCADE;
 ALTER TABLE PRODUIT_COMMANDE ADD CONSTRAINT FK_PRODUIT_COMMANDE_PRODUIT FOREIGN KEY (fk_produit) REFERENCES PRODUIT(numero) ON DELETE CASCADE;
 
+/* Ajout : ventes journalières tenues à jour avec les commandes, lues par les statistiques */
+CREATE TABLE VENTES_RESTAURANT_JOUR (
+    jour date NOT NULL,
+    fk_resto number(9) NOT NULL,
+    nb_commandes number(9) NOT NULL,
+    montant_total number(12,2) NOT NULL,
+    nb_emporter number(9) NOT NULL,
+    PRIMARY KEY (jour, fk_resto)
+);
+ALTER TABLE VENTES_RESTAURANT_JOUR ADD CONSTRAINT FK_VENTES_RESTO_JOUR FOREIGN KEY (fk_resto) REFERENCES RESTAURANT(numero) ON DELETE CASCADE;
+
+CREATE TABLE VENTES_PRODUIT_JOUR (
+    jour date NOT NULL,
+    fk_produit number(9) NOT NULL,
+    quantite number(9) NOT NULL,
+    PRIMARY KEY (jour, fk_produit)
+);
+ALTER TABLE VENTES_PRODUIT_JOUR ADD CONSTRAINT FK_VENTES_PRODUIT_JOUR FOREIGN KEY (fk_produit) REFERENCES PRODUIT(numero) ON DELETE CASCADE;
+
 CREATE SEQUENCE SEQ_RESTAURANT;
 CREATE SEQUENCE SEQ_CLIENT;
 CREATE SEQUENCE SEQ_COMMANDE;
@@ -29,6 +29,3 @@ INSERT INTO CLIENT(type, email, est_une_femme, nom, prenom, forme_sociale, code_
     VALUES ('O', 'info@rhne.ch', NULL, 'Hôpital Pourtales', NULL, 'SA', '2000', 'Neuchâtel', 'Rue du test', '5b', 'CH', '+41 32 000 00 00');
 COMMIT;
 
-
-INSERT INTO VILLES(code_postal, nom_ville) VALUES ('2000', 'Neuch�tel');
-COMMIT;
\ No newline at end of file
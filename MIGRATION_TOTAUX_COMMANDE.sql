@@ -0,0 +1,3 @@
+-- Ajoute le total et le nombre de produits aux commandes d'une base existante.
+-- Les commandes existantes sont ensuite complétées par OrderTotalsBackfill.
+ALTER TABLE COMMANDE ADD (montant_total number(9,2), nb_produits number(4));
@@ -0,0 +1,19 @@
+-- Ajoute les tables de ventes journalières à une base existante.
+-- Elles sont ensuite remplies par SalesRollupRebuild.
+CREATE TABLE VENTES_RESTAURANT_JOUR (
+    jour date NOT NULL,
+    fk_resto number(9) NOT NULL,
+    nb_commandes number(9) NOT NULL,
+    montant_total number(12,2) NOT NULL,
+    nb_emporter number(9) NOT NULL,
+    PRIMARY KEY (jour, fk_resto)
+);
+ALTER TABLE VENTES_RESTAURANT_JOUR ADD CONSTRAINT FK_VENTES_RESTO_JOUR FOREIGN KEY (fk_resto) REFERENCES RESTAURANT(numero) ON DELETE CASCADE;
+
+CREATE TABLE VENTES_PRODUIT_JOUR (
+    jour date NOT NULL,
+    fk_produit number(9) NOT NULL,
+    quantite number(9) NOT NULL,
+    PRIMARY KEY (jour, fk_produit)
+);
+ALTER TABLE VENTES_PRODUIT_JOUR ADD CONSTRAINT FK_VENTES_PRODUIT_JOUR FOREIGN KEY (fk_produit) REFERENCES PRODUIT(numero) ON DELETE CASCADE;
@@ -0,0 +1,116 @@
+package ch.hearc.ig.orderresto.bench;
+
+import ch.hearc.ig.orderresto.business.Address;
+import ch.hearc.ig.orderresto.business.Customer;
+import ch.hearc.ig.orderresto.business.Order;
+import ch.hearc.ig.orderresto.business.PrivateCustomer;
+import ch.hearc.ig.orderresto.business.Product;
+import ch.hearc.ig.orderresto.business.Restaurant;
+import ch.hearc.ig.orderresto.persistence.EntityCache;
+import ch.hearc.ig.orderresto.persistence.H2TestDatabase;
+import ch.hearc.ig.orderresto.persistence.mappers.CustomerMapper;
+import ch.hearc.ig.orderresto.persistence.mappers.OrderMapper;
+import ch.hearc.ig.orderresto.persistence.mappers.ProductMapper;
+import ch.hearc.ig.orderresto.persistence.mappers.RestaurantMapper;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * In-memory H2 database seeded through the mappers with a configurable volume of
+ * restaurants × products × customers × orders. The seed is fixed so that every run measures the same data.
+ */
+public class BenchmarkDatabase implements AutoCloseable {
+
+    private final Connection connection;
+    private final List<Restaurant> restaurants = new ArrayList<>();
+    private final List<List<Product>> productsByRestaurant = new ArrayList<>();
+    private final List<Customer> customers = new ArrayList<>();
+    private final List<Long> orderIds = new ArrayList<>();
+
+    private BenchmarkDatabase(Connection connection) {
+        this.connection = connection;
+    }
+
+    public static BenchmarkDatabase create(String name, int restaurantCount, int productsPerRestaurant,
+                                           int customerCount, int ordersPerCustomer) throws Exception {
+        BenchmarkDatabase db = new BenchmarkDatabase(H2TestDatabase.open(name));
+        db.seed(restaurantCount, productsPerRestaurant, customerCount, ordersPerCustomer);
+        return db;
+    }
+
+    private void seed(int restaurantCount, int productsPerRestaurant, int customerCount, int ordersPerCustomer) throws Exception {
+        Random random = new Random(42);
+        RestaurantMapper restaurantMapper = new RestaurantMapper();
+        ProductMapper productMapper = new ProductMapper();
+        CustomerMapper customerMapper = new CustomerMapper();
+        OrderMapper orderMapper = new OrderMapper();
+
+        for (int r = 0; r < restaurantCount; r++) {
+            Restaurant restaurant = new Restaurant(null, "Restaurant " + r, new Address("CH", "2000", "Neuchâtel", "Rue du Lac", String.valueOf(r % 1000)));
+            restaurantMapper.insert(restaurant, connection);
+            restaurants.add(restaurant);
+
+            List<Product> products = new ArrayList<>();
+            for (int p = 0; p < productsPerRestaurant; p++) {
+                Product product = new Product(null, "Produit " + r + "-" + p, BigDecimal.valueOf(500 + random.nextInt(3000), 2), "Description", restaurant);
+                productMapper.insert(product, connection);
+                products.add(product);
+            }
+            productsByRestaurant.add(products);
+        }
+
+        for (int c = 0; c < customerCount; c++) {
+            Customer customer = new PrivateCustomer(null, "0791234567", "client" + c + "@bench.ch",
+                    new Address("CH", "2300", "La Chaux-de-Fonds", "Rue", String.valueOf(c % 1000)), c % 2 == 0 ? "O" : "N", "Prénom", "Nom " + c);
+            customerMapper.insert(customer, connection);
+            customers.add(customer);
+
+            for (int o = 0; o < ordersPerCustomer; o++) {
+                Order order = newOrder(customer, random);
+                orderMapper.insert(order, connection);
+                orderIds.add(order.getId());
+            }
+        }
+        connection.commit();
+        EntityCache.getInstance().clear();
+    }
+
+    /**
+     * Builds an unsaved order of up to three products of a random restaurant.
+     */
+    public Order newOrder(Customer customer, Random random) {
+        int r = random.nextInt(restaurants.size());
+        Order order = new Order(null, customer, restaurants.get(r), random.nextBoolean(), LocalDateTime.now().minusDays(random.nextInt(365)));
+        List<Product> products = productsByRestaurant.get(r);
+        for (int i = 0; i < Math.min(3, products.size()); i++) {
+            order.addProduct(products.get(random.nextInt(products.size())));
+        }
+        return order;
+    }
+
+    public Connection getConnection() {
+        return connection;
+    }
+
+    public List<Restaurant> getRestaurants() {
+        return restaurants;
+    }
+
+    public List<Customer> getCustomers() {
+        return customers;
+    }
+
+    public List<Long> getOrderIds() {
+        return orderIds;
+    }
+
+    @Override
+    public void close() throws Exception {
+        connection.close();
+    }
+}
@@ -0,0 +1,57 @@
+package ch.hearc.ig.orderresto.bench;
+
+import ch.hearc.ig.orderresto.persistence.IdentityMap;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link IdentityMap} lookups and insertions, single-threaded and contended.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IdentityMapBenchmarks {
+
+    @Param({"1000", "10000"})
+    public int size;
+
+    private IdentityMap<Object> map;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        map = new IdentityMap<>(size, 0, TimeUnit.SECONDS);
+        for (long id = 0; id < size; id++) {
+            map.put(id, new Object());
+        }
+    }
+
+    @Benchmark
+    public Object getHit() {
+        return map.get(ThreadLocalRandom.current().nextLong(size));
+    }
+
+    @Benchmark
+    public Object getMiss() {
+        return map.get(size + ThreadLocalRandom.current().nextLong(size));
+    }
+
+    /**
+     * Half of the puts replace an entry, the other half evict the least recently used one.
+     */
+    @Benchmark
+    public void put() {
+        long id = ThreadLocalRandom.current().nextLong(2L * size);
+        map.put(id, Boolean.TRUE);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Object getHitContended() {
+        return map.get(ThreadLocalRandom.current().nextLong(size));
+    }
+}
@@ -0,0 +1,113 @@
+package ch.hearc.ig.orderresto.bench;
+
+import ch.hearc.ig.orderresto.business.Customer;
+import ch.hearc.ig.orderresto.business.Order;
+import ch.hearc.ig.orderresto.business.Product;
+import ch.hearc.ig.orderresto.persistence.EntityCache;
+import ch.hearc.ig.orderresto.persistence.UnitOfWork;
+import ch.hearc.ig.orderresto.persistence.mappers.CustomerMapper;
+import ch.hearc.ig.orderresto.persistence.mappers.OrderMapper;
+import ch.hearc.ig.orderresto.persistence.mappers.ProductMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the mappers against an embedded H2 database.
+ * <p>
+ * {@code cache=cold} empties the shared entity cache before each call, so that the mapper SQL is measured;
+ * {@code cache=warm} measures the cached path. Run with {@code -prof gc} to get the allocation rate.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MapperBenchmarks {
+
+    @Param("10")
+    public int restaurants;
+
+    @Param("20")
+    public int productsPerRestaurant;
+
+    @Param("200")
+    public int customers;
+
+    @Param("10")
+    public int ordersPerCustomer;
+
+    @Param({"cold", "warm"})
+    public String cache;
+
+    private BenchmarkDatabase db;
+    private final OrderMapper orderMapper = new OrderMapper();
+    private final ProductMapper productMapper = new ProductMapper();
+    private final CustomerMapper customerMapper = new CustomerMapper();
+    private final Random random = new Random(7);
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        db = BenchmarkDatabase.create("bench", restaurants, productsPerRestaurant, customers, ordersPerCustomer);
+    }
+
+    @Setup(Level.Invocation)
+    public void clearCache() {
+        if ("cold".equals(cache)) {
+            EntityCache.getInstance().clear();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        db.close();
+        EntityCache.getInstance().clear();
+    }
+
+    private int nextIndex(int size) {
+        next = (next + 1) % size;
+        return next;
+    }
+
+    @Benchmark
+    public Order orderRead() throws Exception {
+        List<Long> ids = db.getOrderIds();
+        return orderMapper.read(ids.get(nextIndex(ids.size())), db.getConnection());
+    }
+
+    @Benchmark
+    public List<Order> orderFindByCustomer() throws Exception {
+        List<Customer> all = db.getCustomers();
+        return orderMapper.findOrdersByCustomer(all.get(nextIndex(all.size())), db.getConnection());
+    }
+
+    /**
+     * Inserts an order inside a unit of work, then rolls both back as {@code TransactionHandler} would,
+     * so that the database and the cache keep the seeded volume.
+     */
+    @Benchmark
+    public Order orderInsert() throws Exception {
+        List<Customer> all = db.getCustomers();
+        Order order = db.newOrder(all.get(nextIndex(all.size())), random);
+        try (UnitOfWork unitOfWork = UnitOfWork.begin()) {
+            orderMapper.insert(order, db.getConnection());
+            db.getConnection().rollback();
+            unitOfWork.rollback();
+        }
+        return order;
+    }
+
+    @Benchmark
+    public List<Product> productsByRestaurant() throws Exception {
+        return productMapper.getProductsByRestaurantId(db.getRestaurants().get(nextIndex(restaurants)).getId(), db.getConnection());
+    }
+
+    @Benchmark
+    public Customer customerFindByEmail() throws Exception {
+        return customerMapper.findByEmail("client" + nextIndex(customers) + "@bench.ch", db.getConnection());
+    }
+}
@@ -0,0 +1,112 @@
+package ch.hearc.ig.orderresto.bench;
+
+import ch.hearc.ig.orderresto.business.Address;
+import ch.hearc.ig.orderresto.business.Customer;
+import ch.hearc.ig.orderresto.business.Order;
+import ch.hearc.ig.orderresto.business.PrivateCustomer;
+import ch.hearc.ig.orderresto.business.Product;
+import ch.hearc.ig.orderresto.business.Restaurant;
+import ch.hearc.ig.orderresto.persistence.EntityCache;
+import ch.hearc.ig.orderresto.service.CustomerService;
+import ch.hearc.ig.orderresto.service.OrderService;
+import ch.hearc.ig.orderresto.service.ProductService;
+import ch.hearc.ig.orderresto.service.RestaurantService;
+import ch.hearc.ig.orderresto.service.async.AsyncExecutor;
+import ch.hearc.ig.orderresto.service.utils.ConnectionManager;
+import ch.hearc.ig.orderresto.service.utils.PoolConfig;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to serve a burst of concurrent order lookups through {@code OrderService}, on the embedded database
+ * and its connection pool, depending on the threads running the calls. The entity cache is cleared before
+ * each burst, so every order is read from the database once per burst.
+ * <ul>
+ *     <li>{@code pooled}: as many platform threads as pooled connections, the other calls queued;</li>
+ *     <li>{@code platform}: one platform thread per call, parked in the connection pool;</li>
+ *     <li>{@code virtual}: one virtual thread per call (Java 21 or later, {@code mvn -Pjdk21,bench}).</li>
+ * </ul>
+ * <p>
+ * Run with {@code -prof gc} to compare the memory each mode needs for the burst.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Ddb.profile=embedded")
+@State(Scope.Benchmark)
+public class ThreadModeBenchmarks {
+
+    @Param({"pooled", "platform", "virtual"})
+    public String threads;
+
+    @Param("10000")
+    public int lookups;
+
+    @Param("1000")
+    public int orders;
+
+    private AsyncExecutor executor;
+    private final OrderService orderService = new OrderService();
+    private final List<Long> orderIds = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        // Les données de démonstration ne contiennent aucune commande
+        Customer customer = new PrivateCustomer(null, "0791234567", "threads@bench.ch",
+                new Address("CH", "2000", "Neuchâtel", "Rue", "1"), "N", "Prénom", "Nom");
+        new CustomerService().addCustomer(customer);
+        List<Restaurant> restaurants = new RestaurantService().getAllRestaurants();
+        ProductService productService = new ProductService();
+        for (int i = 0; i < orders; i++) {
+            Restaurant restaurant = restaurants.get(i % restaurants.size());
+            Order order = new Order(null, customer, restaurant, i % 2 == 0, LocalDateTime.now().minusMinutes(i));
+            for (Product product : productService.getProductsByRestaurantId(restaurant.getId())) {
+                order.addProduct(product);
+            }
+            orderService.createOrder(order);
+            orderIds.add(order.getId());
+        }
+        PoolConfig pool = ConnectionManager.getPoolConfig();
+        long timeoutMs = TimeUnit.MINUTES.toMillis(1);
+        switch (threads) {
+            case "pooled":
+                executor = new AsyncExecutor(pool.getMaxSize(), lookups, timeoutMs);
+                break;
+            case "platform":
+                executor = new AsyncExecutor(lookups, 0, timeoutMs);
+                break;
+            case "virtual":
+                executor = AsyncExecutor.virtual(lookups, timeoutMs);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown thread mode: " + threads);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void clearCache() {
+        EntityCache.getInstance().clear();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.close();
+    }
+
+    @Benchmark
+    public int concurrentOrderLookups() {
+        List<CompletableFuture<Order>> futures = new ArrayList<>(lookups);
+        for (int i = 0; i < lookups; i++) {
+            Long id = orderIds.get(i % orderIds.size());
+            futures.add(executor.submit(() -> orderService.getOrderById(id)));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        return futures.size();
+    }
+}
@@ -0,0 +1,354 @@
+package ch.hearc.ig.orderresto.application.data;
+
+import ch.hearc.ig.orderresto.persistence.dialect.SqlDialect;
+import ch.hearc.ig.orderresto.persistence.dialect.SqlScripts;
+import ch.hearc.ig.orderresto.persistence.mappers.SalesRollupMapper;
+import ch.hearc.ig.orderresto.persistence.utils.SqlUtils;
+import ch.hearc.ig.orderresto.service.utils.ConnectionManager;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+
+/**
+ * Fills a database with a realistic volume of data: customers (private and organizations), restaurants
+ * with their menus, and years of orders, so that scaling problems show up before production does.
+ * <p>
+ * Rows are written with JDBC batches; IDs are reserved from the sequences by blocks, so the generated
+ * data never collides with rows inserted by the application afterwards. Distributions are skewed like
+ * real activity: a few customers order a lot, a few restaurants and dishes get most of the orders,
+ * orders peak at lunch and dinner, on weekends, and grow over time. The same seed and options always
+ * produce the same data.
+ * <pre>
+ * java ... ch.hearc.ig.orderresto.application.data.DataGenerator --customers 1000000 --restaurants 5000 --orders 10000000
+ * </pre>
+ */
+public class DataGenerator {
+
+    private static final String INSERT_RESTAURANT =
+            "INSERT INTO RESTAURANT (numero, nom, code_postal, localite, rue, num_rue, pays) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_PRODUCT =
+            "INSERT INTO PRODUIT (numero, fk_resto, prix_unitaire, nom, description) VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_CUSTOMER =
+            "INSERT INTO CLIENT (numero, email, telephone, nom, code_postal, localite, rue, num_rue, pays, est_une_femme, prenom, forme_sociale, type) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_ORDER =
+            "INSERT INTO COMMANDE (numero, fk_client, fk_resto, a_emporter, quand, montant_total, nb_produits) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_ORDER_LINE =
+            "INSERT INTO PRODUIT_COMMANDE (fk_commande, fk_produit) VALUES (?, ?)";
+
+    private static final String[][] LOCALITIES = {
+            {"2000", "Neuchâtel"}, {"2300", "La Chaux-de-Fonds"}, {"2400", "Le Locle"}, {"1003", "Lausanne"},
+            {"1201", "Genève"}, {"3011", "Berne"}, {"2502", "Bienne"}, {"1700", "Fribourg"}, {"1950", "Sion"},
+            {"8001", "Zurich"}, {"4051", "Bâle"}, {"6003", "Lucerne"}, {"2800", "Delémont"}, {"1400", "Yverdon-les-Bains"}
+    };
+    private static final String[] STREETS = {
+            "Rue du Seyon", "Avenue de la Gare", "Rue de l'Hôpital", "Chemin des Pêcheurs", "Rue du Lac",
+            "Grand-Rue", "Rue de la Paix", "Avenue Léopold-Robert", "Rue des Moulins", "Route de Berne"
+    };
+    private static final String[] FIRST_NAMES = {
+            "Léa", "Emma", "Chloé", "Sara", "Julie", "Anna", "Laura", "Camille", "Zoé", "Mia",
+            "Noah", "Luca", "Gabriel", "Liam", "Léo", "David", "Samuel", "Nathan", "Louis", "Thomas"
+    };
+    private static final String[] LAST_NAMES = {
+            "Müller", "Meier", "Schmid", "Keller", "Weber", "Huber", "Rochat", "Favre", "Perret", "Jeanneret",
+            "Bonvin", "Rossi", "Bianchi", "Dubois", "Girard", "Monnier", "Robert", "Matthey", "Vuille", "Python"
+    };
+    private static final String[] COMPANY_NAMES = {
+            "Horlogerie", "Fiduciaire", "Informatique", "Construction", "Transports", "Imprimerie", "Assurances", "Consulting"
+    };
+    private static final String[] LEGAL_FORMS = {"SA", "F", "A"};
+
+    /** Per cuisine: the restaurant name prefix, then dish name, description and price range in CHF. */
+    private static final Object[][][] CUISINES = {
+            {{"Pizzeria"}, {"Margherita", "Pizza tomate mozzarella", 14, 18}, {"Regina", "Pizza jambon champignons", 17, 21},
+                    {"Quattro Formaggi", "Pizza aux quatre fromages", 18, 23}, {"Calzone", "Pizza pliée", 18, 22},
+                    {"Tiramisu", "Dessert maison", 7, 10}, {"Lasagne", "Lasagne au four", 19, 24}},
+            {{"Le Wok"}, {"Pad Thaï", "Nouilles sautées", 18, 24}, {"Curry vert", "Curry au lait de coco", 20, 26},
+                    {"Rouleaux de printemps", "Entrée", 8, 11}, {"Riz cantonais", "Riz sauté", 14, 18},
+                    {"Canard laqué", "Spécialité du chef", 28, 36}, {"Nems", "Entrée frite", 9, 12}},
+            {{"Burger"}, {"Cheeseburger", "Bœuf suisse, cheddar", 17, 22}, {"Veggie burger", "Galette de légumes", 16, 20},
+                    {"Frites", "Frites maison", 5, 8}, {"Onion rings", "Beignets d'oignons", 6, 9},
+                    {"Milkshake", "Vanille ou chocolat", 6, 9}, {"Chicken burger", "Poulet croustillant", 17, 21}},
+            {{"Brasserie"}, {"Fondue moitié-moitié", "Vacherin et gruyère", 24, 29}, {"Rösti", "Rösti au lard", 19, 25},
+                    {"Filets de perche", "Perches du lac, frites", 32, 42}, {"Croûte au fromage", "Pain, vin blanc, fromage", 18, 23},
+                    {"Meringue double-crème", "Dessert gruérien", 9, 13}, {"Saucisse neuchâteloise", "Avec lentilles", 22, 27}},
+            {{"Sushi"}, {"Maki saumon", "6 pièces", 8, 11}, {"Nigiri thon", "2 pièces", 7, 10}, {"California roll", "8 pièces", 12, 16},
+                    {"Plateau mixte", "24 pièces", 38, 48}, {"Soupe miso", "Entrée", 5, 7}, {"Edamame", "Fèves de soja", 6, 8}},
+    };
+    private static final int MIN_MENU_SIZE = 6;
+    private static final int MAX_MENU_SIZE = 40;
+    private static final String[] VARIANTS = {"", " maison", " du jour", " XL", " épicé", " végétarien", " classique", " du chef"};
+
+    private final DataOptions options;
+    private final SplittableRandom random;
+    private long[] restaurantIds;
+    private long[][] menus;
+    /** Unit prices of the menus, in centimes. */
+    private long[][] menuPrices;
+    private long[] customerIds;
+    private final ZipfSampler[] dishSamplers = new ZipfSampler[MAX_MENU_SIZE + 1];
+
+    public DataGenerator(DataOptions options) {
+        this.options = options;
+        this.random = new SplittableRandom(options.getSeed());
+    }
+
+    public static void main(String[] args) throws Exception {
+        DataOptions options = DataOptions.parse(args);
+        System.out.println("Generating " + options);
+        try (Connection conn = connect(options)) {
+            conn.setAutoCommit(false);
+            if (options.isSchema()) {
+                SqlScripts.run(conn, SqlDialect.getInstance(), SqlScripts.SCHEMA);
+            }
+            new DataGenerator(options).generate(conn);
+        }
+        System.exit(0);
+    }
+
+    private static Connection connect(DataOptions options) throws SQLException {
+        if (options.getUrl() == null) {
+            return ConnectionManager.getConnection();
+        }
+        SqlDialect.setInstance(SqlDialect.forUrl(options.getUrl()));
+        return DriverManager.getConnection(options.getUrl(), options.getUser(), options.getPassword());
+    }
+
+    /**
+     * Inserts restaurants, menus, customers then orders, committing after each batch, and rebuilds the
+     * daily sales of the generated period.
+     *
+     * @param conn A connection in manual commit mode.
+     */
+    public void generate(Connection conn) throws SQLException {
+        long start = System.nanoTime();
+        generateRestaurants(conn);
+        progress("restaurants", options.getRestaurants(), start);
+        int products = generateMenus(conn);
+        progress("products", products, start);
+        generateCustomers(conn);
+        progress("customers", options.getCustomers(), start);
+        long lines = generateOrders(conn);
+        progress("orders", options.getOrders(), start);
+        progress("order lines", lines, start);
+        // Les commandes sont insérées sans passer par OrderMapper : les ventes journalières sont recalculées
+        int days = new SalesRollupMapper().rebuild(options.getUntil().minusYears(options.getYears()), options.getUntil(), conn);
+        conn.commit();
+        progress("daily sales", days, start);
+    }
+
+    private void generateRestaurants(Connection conn) throws SQLException {
+        int count = options.getRestaurants();
+        restaurantIds = new long[count];
+        menus = new long[count][];
+        menuPrices = new long[count][];
+        try (PreparedStatement stmt = conn.prepareStatement(INSERT_RESTAURANT)) {
+            for (int from = 0; from < count; from += options.getBatchSize()) {
+                int size = Math.min(options.getBatchSize(), count - from);
+                long[] ids = SqlUtils.nextValues(conn, "SEQ_RESTAURANT", size);
+                for (int i = 0; i < size; i++) {
+                    int index = from + i;
+                    restaurantIds[index] = ids[i];
+                    String[] locality = pick(LOCALITIES);
+                    stmt.setLong(1, ids[i]);
+                    stmt.setString(2, cuisine(index)[0][0] + " " + pick(STREETS).replaceAll("^\\S+ ", "") + " " + (index + 1));
+                    stmt.setString(3, locality[0]);
+                    stmt.setString(4, locality[1]);
+                    stmt.setString(5, pick(STREETS));
+                    stmt.setString(6, String.valueOf(1 + random.nextInt(150)));
+                    stmt.setString(7, "CH");
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+                conn.commit();
+            }
+        }
+    }
+
+    private int generateMenus(Connection conn) throws SQLException {
+        int total = 0;
+        int pending = 0;
+        try (PreparedStatement stmt = conn.prepareStatement(INSERT_PRODUCT)) {
+            for (int r = 0; r < restaurantIds.length; r++) {
+                Object[][] cuisine = cuisine(r);
+                // Cartes de 6 à 40 plats : variantes des plats de la cuisine du restaurant
+                int size = MIN_MENU_SIZE + random.nextInt(MAX_MENU_SIZE - MIN_MENU_SIZE + 1);
+                menus[r] = SqlUtils.nextValues(conn, "SEQ_PRODUIT", size);
+                menuPrices[r] = new long[size];
+                for (int p = 0; p < size; p++) {
+                    Object[] dish = cuisine[1 + p % (cuisine.length - 1)];
+                    int low = (Integer) dish[2];
+                    int high = (Integer) dish[3];
+                    // Prix arrondi au demi-franc dans la fourchette du plat
+                    long halfFrancs = low * 2L + random.nextInt((high - low) * 2 + 1);
+                    menuPrices[r][p] = halfFrancs * 50;
+                    stmt.setLong(1, menus[r][p]);
+                    stmt.setLong(2, restaurantIds[r]);
+                    stmt.setBigDecimal(3, BigDecimal.valueOf(halfFrancs * 50, 2));
+                    stmt.setString(4, dish[0] + VARIANTS[p / (cuisine.length - 1) % VARIANTS.length]);
+                    stmt.setString(5, (String) dish[1]);
+                    stmt.addBatch();
+                    if (++pending == options.getBatchSize()) {
+                        stmt.executeBatch();
+                        conn.commit();
+                        pending = 0;
+                    }
+                }
+                total += size;
+            }
+            stmt.executeBatch();
+            conn.commit();
+        }
+        return total;
+    }
+
+    private void generateCustomers(Connection conn) throws SQLException {
+        int count = options.getCustomers();
+        customerIds = new long[count];
+        try (PreparedStatement stmt = conn.prepareStatement(INSERT_CUSTOMER)) {
+            for (int from = 0; from < count; from += options.getBatchSize()) {
+                int size = Math.min(options.getBatchSize(), count - from);
+                long[] ids = SqlUtils.nextValues(conn, "SEQ_CLIENT", size);
+                for (int i = 0; i < size; i++) {
+                    customerIds[from + i] = ids[i];
+                    String[] locality = pick(LOCALITIES);
+                    String lastName = pick(LAST_NAMES);
+                    boolean organization = random.nextInt(100) < 15;
+                    String name = organization ? pick(COMPANY_NAMES) + " " + lastName : lastName;
+                    String firstName = organization ? null : pick(FIRST_NAMES);
+                    String email = (organization ? "contact." + lastName : firstName + "." + lastName) + "." + ids[i] + "@example.ch";
+
+                    stmt.setLong(1, ids[i]);
+                    stmt.setString(2, email.toLowerCase().replace(' ', '-'));
+                    stmt.setString(3, String.format("+41 7%d %03d %02d %02d", 6 + random.nextInt(4), random.nextInt(1000), random.nextInt(100), random.nextInt(100)));
+                    stmt.setString(4, name);
+                    stmt.setString(5, locality[0]);
+                    stmt.setString(6, locality[1]);
+                    stmt.setString(7, pick(STREETS));
+                    stmt.setString(8, String.valueOf(1 + random.nextInt(150)));
+                    stmt.setString(9, "CH");
+                    stmt.setString(10, organization ? null : random.nextBoolean() ? "O" : "N");
+                    stmt.setString(11, firstName);
+                    stmt.setString(12, organization ? pick(LEGAL_FORMS) : null);
+                    stmt.setString(13, organization ? "O" : "P");
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+                conn.commit();
+            }
+        }
+    }
+
+    private long generateOrders(Connection conn) throws SQLException {
+        ZipfSampler customers = new ZipfSampler(customerIds.length, 0.8);
+        ZipfSampler restaurants = new ZipfSampler(restaurantIds.length, 0.9);
+        LocalDateTime end = options.getUntil().atStartOfDay();
+        long days = end.toLocalDate().toEpochDay() - end.toLocalDate().minusYears(options.getYears()).toEpochDay();
+        long lines = 0;
+
+        try (PreparedStatement orderStmt = conn.prepareStatement(INSERT_ORDER);
+             PreparedStatement lineStmt = conn.prepareStatement(INSERT_ORDER_LINE)) {
+            for (int from = 0; from < options.getOrders(); from += options.getBatchSize()) {
+                int size = Math.min(options.getBatchSize(), options.getOrders() - from);
+                long[] ids = SqlUtils.nextValues(conn, "SEQ_COMMANDE", size);
+                for (int i = 0; i < size; i++) {
+                    int r = restaurants.index(random);
+                    orderStmt.setLong(1, ids[i]);
+                    orderStmt.setLong(2, customerIds[customers.index(random)]);
+                    orderStmt.setLong(3, restaurantIds[r]);
+                    orderStmt.setString(4, random.nextInt(100) < 40 ? "O" : "N");
+                    orderStmt.setTimestamp(5, Timestamp.valueOf(orderTime(end, days)));
+
+                    int[] dishes = chooseDishes(menus[r].length);
+                    long totalCentimes = 0;
+                    for (int dish : dishes) {
+                        totalCentimes += menuPrices[r][dish];
+                        lineStmt.setLong(1, ids[i]);
+                        lineStmt.setLong(2, menus[r][dish]);
+                        lineStmt.addBatch();
+                    }
+                    orderStmt.setBigDecimal(6, BigDecimal.valueOf(totalCentimes, 2));
+                    orderStmt.setInt(7, dishes.length);
+                    orderStmt.addBatch();
+                    lines += dishes.length;
+                }
+                orderStmt.executeBatch();
+                lineStmt.executeBatch();
+                conn.commit();
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Chooses 1 to 4 distinct dishes of a menu, the first dishes of the menu being the most ordered.
+     *
+     * @return Indexes in the menu.
+     */
+    private int[] chooseDishes(int menuSize) {
+        int count = Math.min(menuSize, 1 + random.nextInt(4));
+        ZipfSampler sampler = dishSamplers[menuSize];
+        if (sampler == null) {
+            sampler = dishSamplers[menuSize] = new ZipfSampler(menuSize, 0.7);
+        }
+        int[] chosen = new int[count];
+        int added = 0;
+        while (added < count) {
+            int dish = sampler.rank(random);
+            boolean duplicate = false;
+            for (int i = 0; i < added; i++) {
+                duplicate |= chosen[i] == dish;
+            }
+            if (!duplicate) {
+                chosen[added++] = dish;
+            }
+        }
+        return chosen;
+    }
+
+    /**
+     * Draws an order time: more recent days are more likely (growing activity), weekend days are
+     * favoured, and most orders fall in the lunch and dinner peaks.
+     */
+    private LocalDateTime orderTime(LocalDateTime end, long days) {
+        LocalDateTime day;
+        do {
+            day = end.minusDays(1 + (long) (days * (1 - Math.sqrt(random.nextDouble()))));
+        } while (!isWeekend(day.getDayOfWeek()) && random.nextInt(100) < 25);
+
+        int minute;
+        int peak = random.nextInt(100);
+        if (peak < 35) {
+            minute = 11 * 60 + 30 + random.nextInt(120);
+        } else if (peak < 80) {
+            minute = 18 * 60 + 30 + random.nextInt(180);
+        } else {
+            minute = 10 * 60 + random.nextInt(13 * 60);
+        }
+        return day.plusMinutes(minute).plusSeconds(random.nextInt(60));
+    }
+
+    private static boolean isWeekend(DayOfWeek day) {
+        return day == DayOfWeek.SATURDAY || day == DayOfWeek.SUNDAY;
+    }
+
+    private Object[][] cuisine(int restaurantIndex) {
+        return CUISINES[restaurantIndex % CUISINES.length];
+    }
+
+    private <T> T pick(T[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static void progress(String what, long count, long start) {
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%-12s %,12d  (%.1f s)%n", what, count, seconds);
+    }
+}
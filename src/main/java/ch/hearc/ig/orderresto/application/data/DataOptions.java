@@ -0,0 +1,161 @@
+package ch.hearc.ig.orderresto.application.data;
+
+import java.time.LocalDate;
+
+/**
+ * Command line options of the {@link DataGenerator}.
+ * <pre>
+ * --customers 1000000 --restaurants 5000 --orders 10000000 --years 3 --until 2026-01-01
+ * --seed 42 --batch 1000 --schema --url jdbc:h2:./target/orderresto;MODE=Oracle --user sa --password ""
+ * </pre>
+ */
+public class DataOptions {
+
+    private int customers = 100_000;
+    private int restaurants = 1_000;
+    private int orders = 500_000;
+    private int years = 3;
+    private LocalDate until = LocalDate.now();
+    private long seed = 42;
+    private int batchSize = 1_000;
+    private boolean schema;
+    private String url;
+    private String user;
+    private String password = "";
+
+    public static DataOptions parse(String[] args) {
+        DataOptions options = new DataOptions();
+        for (int i = 0; i < args.length; i++) {
+            String name = args[i];
+            if (name.equals("--schema")) {
+                options.schema = true;
+                continue;
+            }
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing value for " + name);
+            }
+            String value = args[++i];
+            switch (name) {
+                case "--customers":
+                    options.customers = Integer.parseInt(value);
+                    break;
+                case "--restaurants":
+                    options.restaurants = Integer.parseInt(value);
+                    break;
+                case "--orders":
+                    options.orders = Integer.parseInt(value);
+                    break;
+                case "--years":
+                    options.years = Integer.parseInt(value);
+                    break;
+                case "--until":
+                    options.until = LocalDate.parse(value);
+                    break;
+                case "--seed":
+                    options.seed = Long.parseLong(value);
+                    break;
+                case "--batch":
+                    options.batchSize = Integer.parseInt(value);
+                    break;
+                case "--url":
+                    options.url = value;
+                    break;
+                case "--user":
+                    options.user = value;
+                    break;
+                case "--password":
+                    options.password = value;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + name);
+            }
+        }
+        if (options.customers < 1 || options.restaurants < 1 || options.orders < 0 || options.years < 1 || options.batchSize < 1) {
+            throw new IllegalArgumentException("customers, restaurants, years and batch must be positive");
+        }
+        return options;
+    }
+
+    public DataOptions customers(int customers) {
+        this.customers = customers;
+        return this;
+    }
+
+    public DataOptions restaurants(int restaurants) {
+        this.restaurants = restaurants;
+        return this;
+    }
+
+    public DataOptions orders(int orders) {
+        this.orders = orders;
+        return this;
+    }
+
+    public DataOptions until(LocalDate until) {
+        this.until = until;
+        return this;
+    }
+
+    public DataOptions seed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    public DataOptions batchSize(int batchSize) {
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    public int getCustomers() {
+        return customers;
+    }
+
+    public int getRestaurants() {
+        return restaurants;
+    }
+
+    public int getOrders() {
+        return orders;
+    }
+
+    public int getYears() {
+        return years;
+    }
+
+    public LocalDate getUntil() {
+        return until;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public boolean isSchema() {
+        return schema;
+    }
+
+    /**
+     * @return The JDBC URL to fill, or {@code null} to use the database configured in {@code config.properties}.
+     */
+    public String getUrl() {
+        return url;
+    }
+
+    public String getUser() {
+        return user;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    @Override
+    public String toString() {
+        return "customers=" + customers + ", restaurants=" + restaurants + ", orders=" + orders
+                + ", years=" + years + " until " + until + ", seed=" + seed + ", batch=" + batchSize;
+    }
+}
@@ -0,0 +1,87 @@
+package ch.hearc.ig.orderresto.application.data;
+
+import ch.hearc.ig.orderresto.persistence.dialect.SqlDialect;
+import ch.hearc.ig.orderresto.persistence.dialect.SqlScripts;
+import ch.hearc.ig.orderresto.persistence.mappers.OrderMapper;
+import ch.hearc.ig.orderresto.service.utils.ConnectionManager;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+/**
+ * One-off job storing the total and product count of the orders written before {@code COMMANDE}
+ * had the {@code montant_total} and {@code nb_produits} columns.
+ * <p>
+ * Orders are updated by ranges of IDs, one transaction per range, so the job can be interrupted and
+ * run again: only orders without a total are updated, unless {@code --all} is given.
+ * <pre>
+ * java ... ch.hearc.ig.orderresto.application.data.OrderTotalsBackfill [--migrate] [--all] [--batch 10000]
+ * </pre>
+ * {@code --migrate} first adds the columns ({@code MIGRATION_TOTAUX_COMMANDE.sql}).
+ */
+public class OrderTotalsBackfill {
+
+    public static void main(String[] args) throws Exception {
+        boolean migrate = false;
+        boolean all = false;
+        int batchSize = 10_000;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--migrate":
+                    migrate = true;
+                    break;
+                case "--all":
+                    all = true;
+                    break;
+                case "--batch":
+                    batchSize = Integer.parseInt(args[++i]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        try (Connection conn = ConnectionManager.getConnection()) {
+            conn.setAutoCommit(false);
+            if (migrate) {
+                SqlScripts.run(conn, SqlDialect.getInstance(), SqlScripts.ORDER_TOTALS_MIGRATION);
+            }
+            long updated = run(conn, batchSize, !all);
+            System.out.printf("%,d orders updated%n", updated);
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Updates the orders range by range, committing after each range.
+     *
+     * @param conn      A connection in manual commit mode.
+     * @param batchSize The number of order IDs per range.
+     * @param onlyNull  {@code true} to skip orders that already have a total.
+     * @return The number of updated orders.
+     */
+    public static long run(Connection conn, int batchSize, boolean onlyNull) throws Exception {
+        long minId;
+        long maxId;
+        String bounds = "SELECT MIN(numero), MAX(numero) FROM Commande" + (onlyNull ? " WHERE montant_total IS NULL" : "");
+        try (PreparedStatement statement = conn.prepareStatement(bounds); ResultSet rs = statement.executeQuery()) {
+            rs.next();
+            minId = rs.getLong(1);
+            if (rs.wasNull()) {
+                return 0;
+            }
+            maxId = rs.getLong(2);
+        }
+
+        OrderMapper orderMapper = new OrderMapper();
+        long updated = 0;
+        for (long from = minId; from <= maxId; from += batchSize) {
+            long to = Math.min(from + batchSize - 1, maxId);
+            updated += orderMapper.backfillTotals(from, to, onlyNull, conn);
+            conn.commit();
+            System.out.printf("%,d / %,d%n", to - minId + 1, maxId - minId + 1);
+        }
+        return updated;
+    }
+}
@@ -0,0 +1,100 @@
+package ch.hearc.ig.orderresto.application.data;
+
+import ch.hearc.ig.orderresto.persistence.dialect.SqlDialect;
+import ch.hearc.ig.orderresto.persistence.dialect.SqlScripts;
+import ch.hearc.ig.orderresto.persistence.mappers.SalesRollupMapper;
+import ch.hearc.ig.orderresto.service.utils.ConnectionManager;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+
+/**
+ * Recomputes the daily sales tables from the orders, to fill them on an existing database or after
+ * orders were written without going through the mappers.
+ * <p>
+ * Days are rebuilt month by month, one transaction per month, so the job can be interrupted and run
+ * again. Orders written while a month is rebuilt may be counted twice or missed: run it while the
+ * application is stopped, or rebuild the affected days again afterwards.
+ * <pre>
+ * java ... ch.hearc.ig.orderresto.application.data.SalesRollupRebuild [--migrate] [--from 2025-01-01] [--to 2026-01-01]
+ * </pre>
+ * {@code --migrate} first creates the tables ({@code MIGRATION_VENTES_JOUR.sql}). Without {@code --from}
+ * and {@code --to}, every day having orders is rebuilt.
+ */
+public class SalesRollupRebuild {
+
+    public static void main(String[] args) throws Exception {
+        boolean migrate = false;
+        LocalDate from = null;
+        LocalDate to = null;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--migrate":
+                    migrate = true;
+                    break;
+                case "--from":
+                    from = LocalDate.parse(args[++i]);
+                    break;
+                case "--to":
+                    to = LocalDate.parse(args[++i]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        try (Connection conn = ConnectionManager.getConnection()) {
+            conn.setAutoCommit(false);
+            if (migrate) {
+                SqlScripts.run(conn, SqlDialect.getInstance(), SqlScripts.SALES_ROLLUP_MIGRATION);
+            }
+            long written = run(conn, from, to);
+            System.out.printf("%,d daily rows written%n", written);
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Rebuilds the days of a range month by month, committing after each month.
+     *
+     * @param conn A connection in manual commit mode.
+     * @param from The first day to rebuild, or {@code null} for the day of the first order.
+     * @param to   The day after the last day to rebuild, or {@code null} for the day after the last order.
+     * @return The number of daily rows written.
+     */
+    public static long run(Connection conn, LocalDate from, LocalDate to) throws Exception {
+        if (from == null || to == null) {
+            try (PreparedStatement statement = conn.prepareStatement("SELECT MIN(quand), MAX(quand) FROM Commande");
+                 ResultSet rs = statement.executeQuery()) {
+                rs.next();
+                Timestamp first = rs.getTimestamp(1);
+                if (first == null) {
+                    return 0;
+                }
+                if (from == null) {
+                    from = first.toLocalDateTime().toLocalDate();
+                }
+                if (to == null) {
+                    to = rs.getTimestamp(2).toLocalDateTime().toLocalDate().plusDays(1);
+                }
+            }
+        }
+
+        SalesRollupMapper salesRollup = new SalesRollupMapper();
+        long written = 0;
+        for (LocalDate start = from; start.isBefore(to); ) {
+            LocalDate end = start.withDayOfMonth(1).plusMonths(1);
+            if (end.isAfter(to)) {
+                end = to;
+            }
+            written += salesRollup.rebuild(start, end, conn);
+            conn.commit();
+            System.out.printf("%s .. %s%n", start, end.minusDays(1));
+            start = end;
+        }
+        return written;
+    }
+}
@@ -0,0 +1,59 @@
+package ch.hearc.ig.orderresto.application.data;
+
+import java.util.SplittableRandom;
+
+/**
+ * Draws ranks {@code 0..n-1} with a Zipf-like (power law) skew: rank 0 is the most frequent.
+ * <p>
+ * Uses the inverse of the continuous power law CDF, which needs no table and stays O(1) for
+ * millions of ranks. Ranks are then scattered over the indexes, so that popularity does not follow
+ * insertion order.
+ */
+class ZipfSampler {
+
+    private final int n;
+    private final double exponent;
+    private final double base;
+    private final long stride;
+
+    /**
+     * @param n        The number of ranks.
+     * @param exponent The skew: 0 is uniform, around 1 a few ranks take most of the draws.
+     */
+    ZipfSampler(int n, double exponent) {
+        if (n < 1 || exponent < 0 || exponent == 1.0) {
+            throw new IllegalArgumentException("n must be positive and exponent must differ from 1");
+        }
+        this.n = n;
+        this.exponent = exponent;
+        this.base = Math.pow(n + 1, 1 - exponent) - 1;
+        this.stride = coprimeStride(n);
+    }
+
+    /**
+     * @return A rank, the most popular ones being the lowest.
+     */
+    int rank(SplittableRandom random) {
+        double x = Math.pow(base * random.nextDouble() + 1, 1 / (1 - exponent)) - 1;
+        return Math.min((int) x, n - 1);
+    }
+
+    /**
+     * @return An index in {@code [0, n)}, popular indexes being spread over the whole range.
+     */
+    int index(SplittableRandom random) {
+        return (int) (rank(random) * stride % n);
+    }
+
+    private static long coprimeStride(int n) {
+        long stride = Math.max(1, (long) (n * 0.618)) | 1;
+        while (gcd(stride, n) != 1) {
+            stride += 2;
+        }
+        return stride;
+    }
+
+    private static long gcd(long a, long b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+}
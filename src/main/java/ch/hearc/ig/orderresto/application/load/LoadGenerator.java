@@ -0,0 +1,146 @@
+package ch.hearc.ig.orderresto.application.load;
+
+import ch.hearc.ig.orderresto.monitoring.SqlProfiler;
+import ch.hearc.ig.orderresto.service.CustomerService;
+import ch.hearc.ig.orderresto.service.OrderService;
+import ch.hearc.ig.orderresto.service.ProductService;
+import ch.hearc.ig.orderresto.service.utils.ConnectionManager;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Headless load generator for capacity planning: drives the order, history and menu service calls
+ * with a configurable mix and reports throughput and latency percentiles per operation.
+ * <p>
+ * In closed mode, {@code concurrency} users chain operations without pause. In open mode, operations
+ * start at a fixed rate whatever the response time; their latency is measured from their scheduled
+ * start, so that a slow system is not hidden by a generator slowing down with it (coordinated omission).
+ * <pre>
+ * java -Ddb.profile=embedded ... ch.hearc.ig.orderresto.application.load.LoadGenerator --mode open --rate 500 --duration 2m
+ * </pre>
+ */
+public class LoadGenerator {
+
+    private final LoadOptions options;
+    private final Workload workload;
+    private final Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+
+    public LoadGenerator(LoadOptions options, Workload workload) {
+        this.options = options;
+        this.workload = workload;
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new OperationStats(operation));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadOptions options = LoadOptions.parse(args);
+        Workload workload = Workload.load(new OrderService(), new ProductService(), new CustomerService(), options.getCustomers());
+        System.out.println("Load: " + options + " on " + workload.getCustomerCount() + " customers, "
+                + workload.getRestaurantCount() + " restaurants");
+
+        LoadGenerator generator = new LoadGenerator(options, workload);
+        generator.run();
+        generator.printReport(System.out);
+        System.out.println(ConnectionManager.getPoolStats());
+        System.out.print(SqlProfiler.getInstance().report(10));
+        System.exit(0);
+    }
+
+    /**
+     * Runs the warm-up then the measure, and returns once every started operation has completed.
+     */
+    public void run() throws InterruptedException {
+        long start = System.nanoTime();
+        long measureStart = start + options.getWarmup().toNanos();
+        long end = measureStart + options.getDuration().toNanos();
+        if (options.getMode() == LoadOptions.Mode.OPEN) {
+            runOpen(start, measureStart, end);
+        } else {
+            runClosed(measureStart, end);
+        }
+    }
+
+    private void runClosed(long measureStart, long end) throws InterruptedException {
+        ExecutorService users = Executors.newFixedThreadPool(options.getConcurrency(), daemon("load-user"));
+        SplittableRandom seed = new SplittableRandom(options.getSeed());
+        for (int u = 0; u < options.getConcurrency(); u++) {
+            SplittableRandom random = seed.split();
+            users.execute(() -> {
+                long now;
+                while ((now = System.nanoTime()) < end) {
+                    execute(pick(random), random, now, measureStart);
+                }
+            });
+        }
+        users.shutdown();
+        users.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    private void runOpen(long start, long measureStart, long end) throws InterruptedException {
+        ExecutorService workers = Executors.newFixedThreadPool(options.getConcurrency(), daemon("load-worker"));
+        SplittableRandom random = new SplittableRandom(options.getSeed());
+        double intervalNanos = 1e9 / options.getRate();
+        for (long i = 0; ; i++) {
+            // Calculé depuis le début : l'arrondi de l'intervalle ne s'accumule pas
+            long scheduled = start + (long) (i * intervalNanos);
+            if (scheduled >= end) {
+                break;
+            }
+            long wait;
+            while ((wait = scheduled - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Operation operation = pick(random);
+            // Chaque opération tire ses données d'un générateur dérivé dans l'ordre du planning, quel que soit le worker
+            SplittableRandom data = random.split();
+            // Les opérations en attente d'un worker accumulent du retard, compté dans leur latence
+            workers.execute(() -> execute(operation, data, scheduled, measureStart));
+        }
+        workers.shutdown();
+        workers.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    private Operation pick(SplittableRandom random) {
+        return options.pick(random.nextInt(options.totalWeight()));
+    }
+
+    private void execute(Operation operation, SplittableRandom random, long startNanos, long measureStart) {
+        boolean measured = startNanos >= measureStart;
+        try {
+            workload.execute(operation, random);
+            if (measured) {
+                stats.get(operation).recordSuccess(System.nanoTime() - startNanos);
+            }
+        } catch (Exception e) {
+            if (measured) {
+                stats.get(operation).recordError();
+            }
+        }
+    }
+
+    public Map<Operation, OperationStats> getStats() {
+        return stats;
+    }
+
+    public void printReport(java.io.PrintStream out) {
+        double seconds = options.getDuration().toNanos() / 1e9;
+        for (Operation operation : options.getMix().keySet()) {
+            out.println(stats.get(operation).report(seconds));
+        }
+    }
+
+    private static java.util.concurrent.ThreadFactory daemon(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,167 @@
+package ch.hearc.ig.orderresto.application.load;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Settings of a {@link LoadGenerator} run, parsed from the command line.
+ * <pre>
+ * --mode open|closed         open: fixed arrival rate, closed: fixed number of users (default closed)
+ * --rate 200                 operations per second in open mode
+ * --concurrency 16           users in closed mode, maximum in-flight operations in open mode
+ * --duration 60s             measured duration (s, m or ms suffix)
+ * --warmup 10s               unmeasured duration before the measure
+ * --mix create=20,history=30,menu=50
+ * --customers 100            customer IDs 1..n probed to build the workload
+ * --seed 42
+ * </pre>
+ */
+public class LoadOptions {
+
+    public enum Mode { OPEN, CLOSED }
+
+    /** One operation per nanosecond, the resolution of the open-mode schedule. */
+    static final double MAX_RATE = 1e9;
+
+    private Mode mode = Mode.CLOSED;
+    private double rate = 100;
+    private int concurrency = 16;
+    private Duration duration = Duration.ofSeconds(60);
+    private Duration warmup = Duration.ofSeconds(10);
+    private final Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+    private int customers = 100;
+    private long seed = 42;
+
+    public LoadOptions() {
+        mix.put(Operation.CREATE, 20);
+        mix.put(Operation.HISTORY, 30);
+        mix.put(Operation.MENU, 50);
+    }
+
+    public static LoadOptions parse(String[] args) {
+        LoadOptions options = new LoadOptions();
+        for (int i = 0; i < args.length; i++) {
+            String name = args[i];
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing value for " + name);
+            }
+            String value = args[++i];
+            switch (name) {
+                case "--mode":
+                    options.mode = Mode.valueOf(value.toUpperCase());
+                    break;
+                case "--rate":
+                    options.rate = Double.parseDouble(value);
+                    break;
+                case "--concurrency":
+                    options.concurrency = Integer.parseInt(value);
+                    break;
+                case "--duration":
+                    options.duration = parseDuration(value);
+                    break;
+                case "--warmup":
+                    options.warmup = parseDuration(value);
+                    break;
+                case "--mix":
+                    options.mix.clear();
+                    for (String entry : value.split(",")) {
+                        String[] parts = entry.split("=");
+                        int weight = Integer.parseInt(parts[1].trim());
+                        if (weight < 0) {
+                            throw new IllegalArgumentException("Negative mix weight: " + entry);
+                        }
+                        options.mix.put(Operation.valueOf(parts[0].trim().toUpperCase()), weight);
+                    }
+                    break;
+                case "--customers":
+                    options.customers = Integer.parseInt(value);
+                    break;
+                case "--seed":
+                    options.seed = Long.parseLong(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + name);
+            }
+        }
+        if (!(options.rate > 0 && options.rate <= MAX_RATE)) {
+            throw new IllegalArgumentException("rate must be between 0 (excluded) and " + (long) MAX_RATE + ": " + options.rate);
+        }
+        if (options.concurrency < 1 || options.totalWeight() <= 0) {
+            throw new IllegalArgumentException("concurrency and mix weights must be positive");
+        }
+        return options;
+    }
+
+    static Duration parseDuration(String value) {
+        String v = value.trim().toLowerCase();
+        if (v.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(v.substring(0, v.length() - 2)));
+        }
+        if (v.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(v.substring(0, v.length() - 1)));
+        }
+        if (v.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(v.substring(0, v.length() - 1)));
+        }
+        return Duration.ofSeconds(Long.parseLong(v));
+    }
+
+    /**
+     * Picks an operation according to the mix weights.
+     *
+     * @param draw A uniform value in {@code [0, totalWeight)}.
+     */
+    Operation pick(int draw) {
+        int cumulated = 0;
+        for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+            cumulated += entry.getValue();
+            if (draw < cumulated) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalArgumentException("Draw out of range: " + draw);
+    }
+
+    int totalWeight() {
+        return mix.values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public double getRate() {
+        return rate;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    public Duration getWarmup() {
+        return warmup;
+    }
+
+    public Map<Operation, Integer> getMix() {
+        return mix;
+    }
+
+    public int getCustomers() {
+        return customers;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    @Override
+    public String toString() {
+        return "mode=" + mode + (mode == Mode.OPEN ? ", rate=" + rate + "/s" : "") + ", concurrency=" + concurrency
+                + ", duration=" + duration.toMillis() + "ms, warmup=" + warmup.toMillis() + "ms, mix=" + mix;
+    }
+}
@@ -0,0 +1,13 @@
+package ch.hearc.ig.orderresto.application.load;
+
+/**
+ * Service calls driven by the {@link LoadGenerator}.
+ */
+public enum Operation {
+    /** {@code OrderService.createOrder} */
+    CREATE,
+    /** {@code OrderService.findOrdersByCustomer} */
+    HISTORY,
+    /** {@code ProductService.getProductsByRestaurantId} */
+    MENU
+}
@@ -0,0 +1,66 @@
+package ch.hearc.ig.orderresto.application.load;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram and error count of one {@link Operation}, safe for concurrent recording.
+ */
+public class OperationStats {
+
+    private static final long MAX_LATENCY_NANOS = TimeUnit.MINUTES.toNanos(5);
+
+    private final Operation operation;
+    private final Recorder recorder = new Recorder(MAX_LATENCY_NANOS, 3);
+    private final Histogram histogram = new Histogram(MAX_LATENCY_NANOS, 3);
+    private final LongAdder errors = new LongAdder();
+
+    public OperationStats(Operation operation) {
+        this.operation = operation;
+    }
+
+    void recordSuccess(long latencyNanos) {
+        recorder.recordValue(Math.min(latencyNanos, MAX_LATENCY_NANOS));
+    }
+
+    void recordError() {
+        errors.increment();
+    }
+
+    /**
+     * Adds the latencies recorded since the previous call to the cumulated histogram.
+     * Called by the reporting thread only.
+     */
+    Histogram snapshot() {
+        histogram.add(recorder.getIntervalHistogram());
+        return histogram.copy();
+    }
+
+    public Operation getOperation() {
+        return operation;
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    /**
+     * @param measuredSeconds The measured duration, warm-up excluded.
+     * @return One line with the count, throughput and latency percentiles in milliseconds.
+     */
+    public String report(double measuredSeconds) {
+        Histogram h = snapshot();
+        long count = h.getTotalCount();
+        return String.format("%-8s count=%8d  errors=%6d  throughput=%9.1f/s  p50=%8.2f  p90=%8.2f  p99=%8.2f  p99.9=%8.2f  max=%8.2f ms",
+                operation, count, getErrors(), count / measuredSeconds,
+                millis(h.getValueAtPercentile(50)), millis(h.getValueAtPercentile(90)),
+                millis(h.getValueAtPercentile(99)), millis(h.getValueAtPercentile(99.9)), millis(h.getMaxValue()));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,103 @@
+package ch.hearc.ig.orderresto.application.load;
+
+import ch.hearc.ig.orderresto.business.Customer;
+import ch.hearc.ig.orderresto.business.Order;
+import ch.hearc.ig.orderresto.business.Product;
+import ch.hearc.ig.orderresto.business.Restaurant;
+import ch.hearc.ig.orderresto.service.CustomerService;
+import ch.hearc.ig.orderresto.service.OrderService;
+import ch.hearc.ig.orderresto.service.ProductService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * The data an operation is drawn from (existing customers and menus) and the service calls themselves.
+ */
+public class Workload {
+
+    private final OrderService orderService;
+    private final ProductService productService;
+    private final List<Customer> customers;
+    private final List<Restaurant> restaurants = new ArrayList<>();
+    private final List<List<Product>> menus = new ArrayList<>();
+
+    public Workload(OrderService orderService, ProductService productService, List<Customer> customers, List<Product> products) {
+        if (customers.isEmpty() || products.isEmpty()) {
+            throw new IllegalStateException("The database needs at least one customer and one product to generate load");
+        }
+        this.orderService = orderService;
+        this.productService = productService;
+        this.customers = customers;
+
+        Map<Long, List<Product>> byRestaurant = new LinkedHashMap<>();
+        Map<Long, Restaurant> restaurantById = new LinkedHashMap<>();
+        for (Product product : products) {
+            byRestaurant.computeIfAbsent(product.getRestaurant().getId(), id -> new ArrayList<>()).add(product);
+            restaurantById.putIfAbsent(product.getRestaurant().getId(), product.getRestaurant());
+        }
+        for (Map.Entry<Long, List<Product>> entry : byRestaurant.entrySet()) {
+            restaurants.add(restaurantById.get(entry.getKey()));
+            menus.add(entry.getValue());
+        }
+    }
+
+    /**
+     * Loads the products and probes the customer IDs {@code 1..customerIds} through the services.
+     */
+    public static Workload load(OrderService orderService, ProductService productService, CustomerService customerService,
+                                int customerIds) throws Exception {
+        List<Customer> customers = new ArrayList<>();
+        for (long id = 1; id <= customerIds; id++) {
+            Customer customer = customerService.getCustomerById(id);
+            if (customer != null) {
+                customers.add(customer);
+            }
+        }
+        return new Workload(orderService, productService, customers, productService.getAllProducts());
+    }
+
+    /**
+     * Runs one operation on randomly chosen data.
+     *
+     * @param random The generator of the caller, derived from the run seed so that a run can be replayed.
+     */
+    public void execute(Operation operation, SplittableRandom random) throws Exception {
+        switch (operation) {
+            case CREATE:
+                int r = random.nextInt(restaurants.size());
+                Order order = new Order(null, randomCustomer(random), restaurants.get(r), random.nextBoolean(), LocalDateTime.now());
+                List<Product> menu = menus.get(r);
+                int lines = 1 + random.nextInt(Math.min(3, menu.size()));
+                for (int i = 0; i < lines; i++) {
+                    order.addProduct(menu.get(random.nextInt(menu.size())));
+                }
+                orderService.createOrder(order);
+                break;
+            case HISTORY:
+                orderService.findOrdersByCustomer(randomCustomer(random));
+                break;
+            case MENU:
+                productService.getProductsByRestaurantId(restaurants.get(random.nextInt(restaurants.size())).getId());
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown operation: " + operation);
+        }
+    }
+
+    private Customer randomCustomer(SplittableRandom random) {
+        return customers.get(random.nextInt(customers.size()));
+    }
+
+    public int getCustomerCount() {
+        return customers.size();
+    }
+
+    public int getRestaurantCount() {
+        return restaurants.size();
+    }
+}
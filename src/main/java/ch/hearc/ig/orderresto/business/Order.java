@@ -65,6 +65,10 @@ public class Order {
         return totalAmount;
     }
 
+    public void setTotalAmount(BigDecimal totalAmount) {
+        this.totalAmount = totalAmount;
+    }
+
     public void addProduct(Product product) {
         this.products.add(product);
         this.totalAmount = this.totalAmount.add(product.getUnitPrice());
@@ -0,0 +1,49 @@
+package ch.hearc.ig.orderresto.business;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * What a customer's order history shows of an order, without its products.
+ */
+public class OrderSummary {
+
+    private final Long orderId;
+    private final Long customerId;
+    private final LocalDateTime when;
+    private final String restaurantName;
+    private final BigDecimal totalAmount;
+
+    public OrderSummary(Long orderId, Long customerId, LocalDateTime when, String restaurantName, BigDecimal totalAmount) {
+        this.orderId = orderId;
+        this.customerId = customerId;
+        this.when = when;
+        this.restaurantName = restaurantName;
+        this.totalAmount = totalAmount;
+    }
+
+    public static OrderSummary of(Order order) {
+        return new OrderSummary(order.getId(), order.getCustomer().getId(), order.getWhen(),
+                order.getRestaurant().getName(), order.getTotalAmount());
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public Long getCustomerId() {
+        return customerId;
+    }
+
+    public LocalDateTime getWhen() {
+        return when;
+    }
+
+    public String getRestaurantName() {
+        return restaurantName;
+    }
+
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+}
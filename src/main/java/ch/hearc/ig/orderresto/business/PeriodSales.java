@@ -0,0 +1,24 @@
+package ch.hearc.ig.orderresto.business;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Sales figures of one day, week or month.
+ */
+public class PeriodSales extends SalesFigures {
+
+    private final LocalDate periodStart;
+
+    public PeriodSales(LocalDate periodStart, long orderCount, BigDecimal revenue, long takeAwayCount) {
+        super(orderCount, revenue, takeAwayCount);
+        this.periodStart = periodStart;
+    }
+
+    /**
+     * @return The first day of the period; weeks start on Monday.
+     */
+    public LocalDate getPeriodStart() {
+        return periodStart;
+    }
+}
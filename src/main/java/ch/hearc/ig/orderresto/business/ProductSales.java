@@ -0,0 +1,46 @@
+package ch.hearc.ig.orderresto.business;
+
+import java.math.BigDecimal;
+
+/**
+ * How often a product was ordered over a period, and what it brought in at its current price.
+ */
+public class ProductSales {
+
+    private final Long productId;
+    private final String productName;
+    private final String restaurantName;
+    private final long quantity;
+    private final BigDecimal revenue;
+
+    public ProductSales(Long productId, String productName, String restaurantName, long quantity, BigDecimal revenue) {
+        this.productId = productId;
+        this.productName = productName;
+        this.restaurantName = restaurantName;
+        this.quantity = quantity;
+        this.revenue = revenue != null ? revenue : BigDecimal.ZERO;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public String getProductName() {
+        return productName;
+    }
+
+    public String getRestaurantName() {
+        return restaurantName;
+    }
+
+    /**
+     * @return The number of orders containing the product.
+     */
+    public long getQuantity() {
+        return quantity;
+    }
+
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+}
@@ -0,0 +1,26 @@
+package ch.hearc.ig.orderresto.business;
+
+import java.math.BigDecimal;
+
+/**
+ * Sales figures of one restaurant over a period.
+ */
+public class RestaurantSales extends SalesFigures {
+
+    private final Long restaurantId;
+    private final String restaurantName;
+
+    public RestaurantSales(Long restaurantId, String restaurantName, long orderCount, BigDecimal revenue, long takeAwayCount) {
+        super(orderCount, revenue, takeAwayCount);
+        this.restaurantId = restaurantId;
+        this.restaurantName = restaurantName;
+    }
+
+    public Long getRestaurantId() {
+        return restaurantId;
+    }
+
+    public String getRestaurantName() {
+        return restaurantName;
+    }
+}
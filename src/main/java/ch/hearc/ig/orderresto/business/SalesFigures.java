@@ -0,0 +1,49 @@
+package ch.hearc.ig.orderresto.business;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Order count, revenue and take-away count of a set of orders, as aggregated by the database.
+ */
+public class SalesFigures {
+
+    private final long orderCount;
+    private final BigDecimal revenue;
+    private final long takeAwayCount;
+
+    public SalesFigures(long orderCount, BigDecimal revenue, long takeAwayCount) {
+        this.orderCount = orderCount;
+        this.revenue = revenue != null ? revenue : BigDecimal.ZERO;
+        this.takeAwayCount = takeAwayCount;
+    }
+
+    public long getOrderCount() {
+        return orderCount;
+    }
+
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+
+    public long getTakeAwayCount() {
+        return takeAwayCount;
+    }
+
+    /**
+     * @return The share of take-away orders, between 0 and 1.
+     */
+    public double getTakeAwayShare() {
+        return orderCount == 0 ? 0 : (double) takeAwayCount / orderCount;
+    }
+
+    /**
+     * @return The mean amount of an order, rounded to the centime.
+     */
+    public BigDecimal getAverageOrder() {
+        if (orderCount == 0) {
+            return BigDecimal.ZERO;
+        }
+        return revenue.divide(BigDecimal.valueOf(orderCount), 2, RoundingMode.HALF_UP);
+    }
+}
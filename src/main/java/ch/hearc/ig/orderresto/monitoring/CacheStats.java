@@ -0,0 +1,50 @@
+package ch.hearc.ig.orderresto.monitoring;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Entity cache hits and misses of one mapper class.
+ * <p>
+ * The cache regions are shared by the mappers of the same entity type and already count their own hits
+ * and misses; these counters tell which mapper made the lookups.
+ */
+public class CacheStats implements CacheStatsMXBean {
+
+    private final String mapper;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    CacheStats(String mapper) {
+        this.mapper = mapper;
+    }
+
+    public void record(boolean hit) {
+        if (hit) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+    }
+
+    @Override
+    public String getMapper() {
+        return mapper;
+    }
+
+    @Override
+    public long getHits() {
+        return hits.sum();
+    }
+
+    @Override
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    @Override
+    public double getHitRatio() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+}
@@ -0,0 +1,15 @@
+package ch.hearc.ig.orderresto.monitoring;
+
+/**
+ * JMX view of the entity cache lookups of one mapper, since the start of the process.
+ */
+public interface CacheStatsMXBean {
+
+    String getMapper();
+
+    long getHits();
+
+    long getMisses();
+
+    double getHitRatio();
+}
@@ -0,0 +1,62 @@
+package ch.hearc.ig.orderresto.monitoring;
+
+import org.slf4j.Logger;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The method statistics of one service or mapper class. Each class keeps its own instance in a constant:
+ * <pre>
+ * private static final ComponentMetrics METRICS = Metrics.getInstance().component(OrderService.class);
+ * </pre>
+ * With the logger of the class at DEBUG level, each call is also logged with its duration, rows and statements.
+ */
+public class ComponentMetrics {
+
+    private final Metrics registry;
+    private final String name;
+    private final Logger log;
+    private final ConcurrentHashMap<String, MethodStats> methods = new ConcurrentHashMap<>();
+
+    ComponentMetrics(Metrics registry, String name, Logger log) {
+        this.registry = registry;
+        this.name = name;
+        this.log = log;
+    }
+
+    /**
+     * Opens a call of a method, recorded when the probe is closed.
+     *
+     * @param method The method name, a constant: each name gets its own statistics.
+     */
+    public Probe start(String method) {
+        if (!registry.isEnabled()) {
+            return Probe.NOOP;
+        }
+        return Probe.start(stats(method), log);
+    }
+
+    /**
+     * @return The statistics of a method, created on its first call.
+     */
+    public MethodStats stats(String method) {
+        MethodStats stats = methods.get(method);
+        if (stats == null) {
+            MethodStats created = new MethodStats(name, method);
+            stats = methods.putIfAbsent(method, created);
+            if (stats == null) {
+                stats = created;
+                registry.register(created, "type=Method,component=" + name + ",name=" + method);
+            }
+        }
+        return stats;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    Iterable<MethodStats> methods() {
+        return methods.values();
+    }
+}
@@ -0,0 +1,54 @@
+package ch.hearc.ig.orderresto.monitoring;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Latencies in microseconds with two significant digits up to one minute (longer ones count as one minute),
+ * in a fixed amount of memory, about 60 KB, whatever the number of values.
+ * <p>
+ * Recording never blocks: values go to an HdrHistogram {@link Recorder}, which readers drain into a
+ * cumulative histogram under a lock.
+ */
+final class LatencyHistogram {
+
+    static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final LongAdder totalNanos = new LongAdder();
+    private final Recorder recorder = new Recorder(MAX_LATENCY_MICROS, 2);
+    private final Histogram latencies = new Histogram(MAX_LATENCY_MICROS, 2);
+    private final ReentrantLock lock = new ReentrantLock();
+    private Histogram interval;
+
+    void record(long nanos) {
+        totalNanos.add(nanos);
+        recorder.recordValue(Math.min(Math.max(nanos / 1_000, 0), MAX_LATENCY_MICROS));
+    }
+
+    /**
+     * @param percentiles The percentiles to read, between 0 and 100.
+     * @return The latency at each percentile, in seconds.
+     */
+    double[] seconds(double... percentiles) {
+        double[] values = new double[percentiles.length];
+        lock.lock();
+        try {
+            interval = recorder.getIntervalHistogram(interval);
+            latencies.add(interval);
+            for (int i = 0; i < percentiles.length; i++) {
+                values[i] = latencies.getValueAtPercentile(percentiles[i]) / 1_000_000.0;
+            }
+        } finally {
+            lock.unlock();
+        }
+        return values;
+    }
+
+    long totalNanos() {
+        return totalNanos.sum();
+    }
+}
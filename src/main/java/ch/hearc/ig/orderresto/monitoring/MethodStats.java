@@ -0,0 +1,122 @@
+package ch.hearc.ig.orderresto.monitoring;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Call, error, row and statement counts and latency histogram of one service or mapper method.
+ * <p>
+ * Recording never blocks: counters are {@link LongAdder}s and latencies go to a {@link LatencyHistogram},
+ * so each method uses a fixed amount of memory, about 60 KB, whatever the number of calls.
+ */
+public class MethodStats implements MethodStatsMXBean {
+
+    private final String component;
+    private final String method;
+    private final String qualifiedName;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder statements = new LongAdder();
+    private final LatencyHistogram latencies = new LatencyHistogram();
+
+    MethodStats(String component, String method) {
+        this.component = component;
+        this.method = method;
+        this.qualifiedName = component + "." + method;
+    }
+
+    void record(long nanos, boolean failed, long rowCount, long statementCount) {
+        calls.increment();
+        if (failed) {
+            errors.increment();
+        }
+        if (rowCount > 0) {
+            rows.add(rowCount);
+        }
+        if (statementCount > 0) {
+            statements.add(statementCount);
+        }
+        latencies.record(nanos);
+    }
+
+    /**
+     * @param percentiles The percentiles to read, between 0 and 100.
+     * @return The latency at each percentile, in seconds.
+     */
+    public double[] latencySeconds(double... percentiles) {
+        return latencies.seconds(percentiles);
+    }
+
+    public double getTotalSeconds() {
+        return latencies.totalNanos() / 1_000_000_000.0;
+    }
+
+    /**
+     * @return {@code Component.method}, the name of the spans of this method.
+     */
+    String qualifiedName() {
+        return qualifiedName;
+    }
+
+    @Override
+    public String getComponent() {
+        return component;
+    }
+
+    @Override
+    public String getMethod() {
+        return method;
+    }
+
+    @Override
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    @Override
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    @Override
+    public long getRows() {
+        return rows.sum();
+    }
+
+    @Override
+    public long getStatements() {
+        return statements.sum();
+    }
+
+    @Override
+    public double getMeanMillis() {
+        long count = calls.sum();
+        return count == 0 ? 0 : latencies.totalNanos() / 1_000_000.0 / count;
+    }
+
+    @Override
+    public double getP50Millis() {
+        return latencySeconds(50)[0] * 1_000;
+    }
+
+    @Override
+    public double getP90Millis() {
+        return latencySeconds(90)[0] * 1_000;
+    }
+
+    @Override
+    public double getP99Millis() {
+        return latencySeconds(99)[0] * 1_000;
+    }
+
+    @Override
+    public double getMaxMillis() {
+        return latencySeconds(100)[0] * 1_000;
+    }
+
+    @Override
+    public String toString() {
+        return component + "." + method + " calls=" + getCalls() + ", errors=" + getErrors()
+                + ", rows=" + getRows() + ", statements=" + getStatements();
+    }
+}
@@ -0,0 +1,29 @@
+package ch.hearc.ig.orderresto.monitoring;
+
+/**
+ * JMX view of the statistics of one service or mapper method, since the start of the process.
+ */
+public interface MethodStatsMXBean {
+
+    String getComponent();
+
+    String getMethod();
+
+    long getCalls();
+
+    long getErrors();
+
+    long getRows();
+
+    long getStatements();
+
+    double getMeanMillis();
+
+    double getP50Millis();
+
+    double getP90Millis();
+
+    double getP99Millis();
+
+    double getMaxMillis();
+}
@@ -0,0 +1,144 @@
+package ch.hearc.ig.orderresto.monitoring;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of the statistics of the service and mapper methods and of the mapper cache lookups.
+ * <p>
+ * The shared instance publishes each statistic as an MXBean under {@value #DOMAIN} as soon as it is created,
+ * and the whole registry in the Prometheus text format through the {@code type=Metrics} MXBean.
+ * {@code -Dmetrics.file=<path>} also writes this text to a file every {@code metrics.fileIntervalSeconds}
+ * (15 by default) and at exit, for the textfile collector of the Prometheus node exporter.
+ * {@code -Dmetrics.enabled=false} turns the recording off.
+ */
+public class Metrics implements MetricsMXBean {
+
+    public static final String DOMAIN = "ch.hearc.ig.orderresto";
+
+    private static final Logger LOG = LoggerFactory.getLogger(Metrics.class);
+
+    private final boolean enabled;
+    private final boolean jmx;
+    private final ConcurrentHashMap<String, ComponentMetrics> components = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, CacheStats> caches = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a registry that is not published through JMX, e.g. for tests.
+     */
+    public Metrics(boolean enabled) {
+        this(enabled, false);
+    }
+
+    private Metrics(boolean enabled, boolean jmx) {
+        this.enabled = enabled;
+        this.jmx = jmx;
+    }
+
+    /**
+     * @return The registry shared by the services and mappers.
+     */
+    public static Metrics getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    private static class Holder {
+        private static final Metrics INSTANCE = create();
+
+        private static Metrics create() {
+            Metrics metrics = new Metrics(Boolean.parseBoolean(System.getProperty("metrics.enabled", "true")), true);
+            metrics.register(metrics, "type=Metrics");
+            String file = System.getProperty("metrics.file");
+            if (file != null && !file.isBlank()) {
+                PrometheusExporter.startFileExport(metrics, Paths.get(file), Long.getLong("metrics.fileIntervalSeconds", 15));
+            }
+            return metrics;
+        }
+    }
+
+    /**
+     * @return The statistics of the methods of a class, named after its simple name.
+     */
+    public ComponentMetrics component(Class<?> type) {
+        return components.computeIfAbsent(type.getSimpleName(), name -> new ComponentMetrics(this, name, LoggerFactory.getLogger(type)));
+    }
+
+    /**
+     * @return The cache lookup counters of a mapper class, named after its simple name.
+     */
+    public CacheStats cache(Class<?> mapperType) {
+        CacheStats stats = caches.get(mapperType.getSimpleName());
+        if (stats == null) {
+            CacheStats created = new CacheStats(mapperType.getSimpleName());
+            stats = caches.putIfAbsent(created.getMapper(), created);
+            if (stats == null) {
+                stats = created;
+                register(created, "type=MapperCache,name=" + created.getMapper());
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * @return The statistics of every method called so far, by component and method name.
+     */
+    public List<MethodStats> getMethods() {
+        List<MethodStats> methods = new ArrayList<>();
+        for (ComponentMetrics component : components.values()) {
+            component.methods().forEach(methods::add);
+        }
+        methods.sort(Comparator.comparing(MethodStats::getComponent).thenComparing(MethodStats::getMethod));
+        return methods;
+    }
+
+    /**
+     * @return The cache lookup counters of every mapper created so far, by mapper name.
+     */
+    public List<CacheStats> getCaches() {
+        List<CacheStats> list = new ArrayList<>(caches.values());
+        list.sort(Comparator.comparing(CacheStats::getMapper));
+        return list;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public String getPrometheusText() {
+        return PrometheusExporter.format(this);
+    }
+
+    void register(Object mbean, String properties) {
+        if (jmx) {
+            registerMBean(mbean, properties);
+        }
+    }
+
+    /**
+     * Publishes an MXBean under {@value #DOMAIN} in the platform MBean server, unless already there.
+     */
+    static void registerMBean(Object mbean, String properties) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(DOMAIN + ":" + properties);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(mbean, name);
+            }
+        } catch (JMException e) {
+            // Les statistiques restent disponibles au format Prometheus
+            LOG.warn("Cannot register {} in JMX: {}", properties, e.getMessage());
+        }
+    }
+}
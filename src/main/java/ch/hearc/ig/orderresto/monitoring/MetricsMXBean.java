@@ -0,0 +1,14 @@
+package ch.hearc.ig.orderresto.monitoring;
+
+/**
+ * JMX entry point of the metrics registry.
+ */
+public interface MetricsMXBean {
+
+    boolean isEnabled();
+
+    /**
+     * @return Every statistic in the Prometheus text exposition format.
+     */
+    String getPrometheusText();
+}
@@ -0,0 +1,149 @@
+package ch.hearc.ig.orderresto.monitoring;
+
+import org.slf4j.Logger;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * One call of an instrumented method, opened by {@link ComponentMetrics#start} and recorded when closed:
+ * <pre>
+ * try (Probe probe = METRICS.start("getOrderById")) {
+ *     return probe.ok(transactionHandler.executeReadOnly(conn -> orderMapper.read(id, conn)));
+ * }
+ * </pre>
+ * A call that leaves without {@link #ok} is counted as an error, so a probe needs no catch block.
+ * <p>
+ * The probes opened on a thread form a stack: a statement prepared by a mapper counts for the mapper call
+ * and for the service call around it. A probe is used by the thread that opened it only.
+ * <p>
+ * Each probe also opens a {@link Span} of the shared {@link Tracer}, which gets the rows and statements
+ * as attributes.
+ */
+public final class Probe implements AutoCloseable {
+
+    /** Probe of a disabled registry: records nothing. */
+    static final Probe NOOP = new Probe(null, null, null, Span.NOOP);
+
+    private static final ThreadLocal<Probe> CURRENT = new ThreadLocal<>();
+
+    private final MethodStats stats;
+    private final Logger log;
+    private final Probe parent;
+    private final Span span;
+    private final long startNanos;
+    private long rows;
+    private long statements;
+    private boolean succeeded;
+    private boolean closed;
+
+    private Probe(MethodStats stats, Logger log, Probe parent, Span span) {
+        this.stats = stats;
+        this.log = log;
+        this.parent = parent;
+        this.span = span;
+        this.startNanos = stats == null ? 0 : System.nanoTime();
+    }
+
+    static Probe start(MethodStats stats, Logger log) {
+        Probe probe = new Probe(stats, log, CURRENT.get(), Tracer.getInstance().start(stats.qualifiedName()));
+        CURRENT.set(probe);
+        return probe;
+    }
+
+    /**
+     * Counts a statement executed on a pooled connection for every call in progress on this thread.
+     */
+    public static void statementExecuted() {
+        for (Probe probe = CURRENT.get(); probe != null; probe = probe.parent) {
+            probe.statements++;
+        }
+    }
+
+    /**
+     * Marks the call as successful and counts the rows it returns: the size of a collection or a map,
+     * 1 for another object, 0 for {@code null}.
+     *
+     * @return The result, unchanged.
+     */
+    public <T> T ok(T result) {
+        if (stats != null) {
+            rows += rowCount(result);
+            succeeded = true;
+        }
+        return result;
+    }
+
+    /**
+     * Marks the call as successful.
+     */
+    public void ok() {
+        if (stats != null) {
+            succeeded = true;
+        }
+    }
+
+    /**
+     * Adds an attribute to the span of the call, e.g. the id of the entity read.
+     */
+    public void attribute(String key, Object value) {
+        span.attribute(key, value);
+    }
+
+    /**
+     * Counts the entities handed to a consumer as rows returned by the call.
+     */
+    public <T> Consumer<T> counting(Consumer<T> consumer) {
+        if (stats == null) {
+            return consumer;
+        }
+        return entity -> {
+            rows++;
+            consumer.accept(entity);
+        };
+    }
+
+    @Override
+    public void close() {
+        if (stats == null || closed) {
+            return;
+        }
+        closed = true;
+        if (parent == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(parent);
+        }
+        long nanos = System.nanoTime() - startNanos;
+        stats.record(nanos, !succeeded, rows, statements);
+        if (span.isRecording()) {
+            span.attribute("rows", rows).attribute("statements", statements);
+            if (!succeeded) {
+                span.markFailed();
+            }
+        }
+        span.close();
+        if (log.isDebugEnabled()) {
+            log.atDebug()
+                    .addKeyValue("operation", stats.getMethod())
+                    .addKeyValue("durationMs", nanos / 1_000_000.0)
+                    .addKeyValue("rows", rows)
+                    .addKeyValue("statements", statements)
+                    .log(succeeded ? "Call completed" : "Call failed");
+        }
+    }
+
+    private static long rowCount(Object result) {
+        if (result == null) {
+            return 0;
+        }
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        if (result instanceof Map) {
+            return ((Map<?, ?>) result).size();
+        }
+        return 1;
+    }
+}
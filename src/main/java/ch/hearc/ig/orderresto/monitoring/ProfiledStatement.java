@@ -0,0 +1,234 @@
+package ch.hearc.ig.orderresto.monitoring;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Statement handed out by {@link SqlProfiler#wrap}: times each {@code execute*} call, counts it for the
+ * {@link Probe probes} in progress, counts the rows read or updated and remembers the type of each bind
+ * value for the slow statement log. The time of a query adds up its execution and the {@code next()} and
+ * {@code close()} calls of its result set, recorded once the result set is closed: fetching the rows is
+ * included, the work the caller does between two rows is not.
+ * <p>
+ * Like the connection it comes from, a statement is used by one thread at a time.
+ */
+final class ProfiledStatement implements InvocationHandler {
+
+    private static final int MAX_BINDS = 1_000;
+
+    private final SqlProfiler profiler;
+    private final Statement statement;
+    private String sql;
+    private SqlStats stats;
+    private final List<String> bindTypes = new ArrayList<>();
+    /** The query whose result set is still open, if any. */
+    private OpenQuery query;
+
+    /**
+     * @param sql The SQL of a prepared statement, {@code null} for a plain statement.
+     */
+    ProfiledStatement(SqlProfiler profiler, Statement statement, String sql) {
+        this.profiler = profiler;
+        this.statement = statement;
+        this.sql = sql;
+        this.stats = sql == null ? null : profiler.stats(sql);
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+        switch (name) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return "Profiled[" + statement + "]";
+            case "close":
+                finishQuery();
+                break;
+            case "clearParameters":
+                bindTypes.clear();
+                break;
+            case "addBatch":
+                if (args != null && args[0] instanceof String) {
+                    use((String) args[0]);
+                }
+                break;
+            case "getResultSet":
+                return resultSet(proxy, (ResultSet) invokeStatement(method, args), null);
+            default:
+                if (name.startsWith("execute")) {
+                    return execute(proxy, method, args);
+                }
+                if (name.startsWith("set") && method.getDeclaringClass() == PreparedStatement.class
+                        && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                    bind((Integer) args[0], name.equals("setNull") ? null : args[1]);
+                }
+                break;
+        }
+        return invokeStatement(method, args);
+    }
+
+    private Object execute(Object proxy, Method method, Object[] args) throws Throwable {
+        Probe.statementExecuted();
+        // Une nouvelle exécution ferme le résultat précédent
+        finishQuery();
+        if (args != null && args.length > 0 && args[0] instanceof String) {
+            use((String) args[0]);
+        }
+        if (stats == null) {
+            Object result = invokeStatement(method, args);
+            return result instanceof ResultSet ? resultSet(proxy, (ResultSet) result, null) : result;
+        }
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = invokeStatement(method, args);
+        } catch (Throwable e) {
+            profiler.executed(stats, sql, System.nanoTime() - start, true, bindTypes);
+            throw e;
+        }
+
+        if (result instanceof ResultSet) {
+            query = new OpenQuery(stats, sql, new ArrayList<>(bindTypes), System.nanoTime() - start);
+            return resultSet(proxy, (ResultSet) result, query);
+        }
+        profiler.executed(stats, sql, System.nanoTime() - start, false, bindTypes);
+        if (result instanceof Integer || result instanceof Long) {
+            stats.addRows(((Number) result).longValue());
+        } else if (result instanceof int[]) {
+            for (int count : (int[]) result) {
+                stats.addRows(count);
+            }
+        } else if (result instanceof long[]) {
+            for (long count : (long[]) result) {
+                stats.addRows(count);
+            }
+        }
+        return result;
+    }
+
+    private void use(String executedSql) {
+        if (!executedSql.equals(sql)) {
+            sql = executedSql;
+            stats = profiler.stats(executedSql);
+        }
+    }
+
+    private void bind(int index, Object value) {
+        if (index < 1 || index > MAX_BINDS) {
+            return;
+        }
+        while (bindTypes.size() < index) {
+            bindTypes.add("?");
+        }
+        bindTypes.set(index - 1, value == null ? "null" : value.getClass().getSimpleName());
+    }
+
+    private void finishQuery() {
+        if (query != null) {
+            query.finish();
+            query = null;
+        }
+    }
+
+    /**
+     * Wraps a result set so that it counts its rows, adds the time of its {@code next()} and {@code close()}
+     * calls to its query, records the query when closed and returns the profiled statement from
+     * {@code getStatement()}.
+     *
+     * @param timed The query recorded when the result set is closed, {@code null} if not timed.
+     */
+    private ResultSet resultSet(Object statementProxy, ResultSet resultSet, OpenQuery timed) {
+        if (resultSet == null) {
+            return null;
+        }
+        SqlStats target = stats;
+        return (ResultSet) Proxy.newProxyInstance(
+                ResultSet.class.getClassLoader(),
+                new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "getStatement":
+                            return statementProxy;
+                        default:
+                            break;
+                    }
+                    boolean fetching = timed != null
+                            && (method.getName().equals("next") || method.getName().equals("close"));
+                    long start = fetching ? System.nanoTime() : 0;
+                    Object result;
+                    try {
+                        result = invokeOn(resultSet, method, args);
+                    } catch (Throwable e) {
+                        if (timed != null) {
+                            timed.failed = true;
+                        }
+                        throw e;
+                    } finally {
+                        if (fetching) {
+                            timed.nanos += System.nanoTime() - start;
+                            if (method.getName().equals("close")) {
+                                timed.finish();
+                            }
+                        }
+                    }
+                    if (target != null && Boolean.TRUE.equals(result) && method.getName().equals("next")) {
+                        target.addRows(1);
+                    }
+                    return result;
+                }
+        );
+    }
+
+    private Object invokeStatement(Method method, Object[] args) throws Throwable {
+        return invokeOn(statement, method, args);
+    }
+
+    private static Object invokeOn(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * A query executed by the statement, recorded once its result set is closed.
+     */
+    private final class OpenQuery {
+        private final SqlStats stats;
+        private final String sql;
+        private final List<String> bindTypes;
+        /** Time spent in the driver so far: the execution, then each fetch. */
+        private long nanos;
+        private boolean failed;
+        private boolean finished;
+
+        private OpenQuery(SqlStats stats, String sql, List<String> bindTypes, long executionNanos) {
+            this.stats = stats;
+            this.sql = sql;
+            this.bindTypes = bindTypes;
+            this.nanos = executionNanos;
+        }
+
+        private void finish() {
+            if (!finished) {
+                finished = true;
+                profiler.executed(stats, sql, nanos, failed, bindTypes);
+            }
+        }
+    }
+}
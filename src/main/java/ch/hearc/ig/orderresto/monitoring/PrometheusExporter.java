@@ -0,0 +1,124 @@
+package ch.hearc.ig.orderresto.monitoring;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Writes a {@link Metrics} registry in the Prometheus text exposition format (version 0.0.4).
+ */
+public final class PrometheusExporter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PrometheusExporter.class);
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private PrometheusExporter() {
+    }
+
+    public static String format(Metrics metrics) {
+        List<MethodStats> methods = metrics.getMethods();
+        List<CacheStats> caches = metrics.getCaches();
+        StringBuilder out = new StringBuilder(256 + methods.size() * 1_024);
+
+        counter(out, "orderresto_calls_total", "Calls of a service or mapper method.", methods, MethodStats::getCalls);
+        counter(out, "orderresto_errors_total", "Calls of a service or mapper method that threw an exception.", methods, MethodStats::getErrors);
+        counter(out, "orderresto_rows_total", "Entities returned by a service or mapper method.", methods, MethodStats::getRows);
+        counter(out, "orderresto_statements_total", "JDBC statements executed during a service or mapper method.", methods, MethodStats::getStatements);
+
+        header(out, "orderresto_call_duration_seconds", "summary", "Duration of a service or mapper method.");
+        double[] percentiles = new double[QUANTILES.length];
+        for (int i = 0; i < QUANTILES.length; i++) {
+            percentiles[i] = QUANTILES[i] * 100;
+        }
+        for (MethodStats stats : methods) {
+            String labels = methodLabels(stats);
+            double[] latencies = stats.latencySeconds(percentiles);
+            for (int i = 0; i < QUANTILES.length; i++) {
+                sample(out, "orderresto_call_duration_seconds", labels + ",quantile=\"" + QUANTILES[i] + "\"", latencies[i]);
+            }
+            sample(out, "orderresto_call_duration_seconds_sum", labels, stats.getTotalSeconds());
+            sample(out, "orderresto_call_duration_seconds_count", labels, stats.getCalls());
+        }
+
+        header(out, "orderresto_cache_hits_total", "counter", "Entity cache lookups of a mapper that found the entity.");
+        for (CacheStats stats : caches) {
+            sample(out, "orderresto_cache_hits_total", mapperLabel(stats), stats.getHits());
+        }
+        header(out, "orderresto_cache_misses_total", "counter", "Entity cache lookups of a mapper that missed.");
+        for (CacheStats stats : caches) {
+            sample(out, "orderresto_cache_misses_total", mapperLabel(stats), stats.getMisses());
+        }
+        return out.toString();
+    }
+
+    /**
+     * Writes the registry to a file, replaced atomically so that a reader never sees a partial file.
+     */
+    public static void write(Metrics metrics, Path file) throws IOException {
+        Path absolute = file.toAbsolutePath();
+        Path temporary = absolute.resolveSibling(absolute.getFileName() + ".tmp");
+        Files.write(temporary, format(metrics).getBytes(StandardCharsets.UTF_8));
+        Files.move(temporary, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Writes the registry to a file periodically, on a daemon thread, and one last time at exit.
+     */
+    static void startFileExport(Metrics metrics, Path file, long intervalSeconds) {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-export");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Runnable export = () -> {
+            try {
+                write(metrics, file);
+            } catch (IOException e) {
+                LOG.warn("Cannot write the metrics to {}: {}", file, e.getMessage());
+            }
+        };
+        scheduler.scheduleAtFixedRate(export, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(export, "metrics-export-shutdown"));
+    }
+
+    private static void counter(StringBuilder out, String name, String help, List<MethodStats> methods,
+                                ToDoubleFunction<MethodStats> value) {
+        header(out, name, "counter", help);
+        for (MethodStats stats : methods) {
+            sample(out, name, methodLabels(stats), value.applyAsDouble(stats));
+        }
+    }
+
+    private static void header(StringBuilder out, String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, double value) {
+        out.append(name).append('{').append(labels).append("} ");
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            out.append((long) value);
+        } else {
+            out.append(value);
+        }
+        out.append('\n');
+    }
+
+    private static String methodLabels(MethodStats stats) {
+        return "component=\"" + stats.getComponent() + "\",method=\"" + stats.getMethod() + "\"";
+    }
+
+    private static String mapperLabel(CacheStats stats) {
+        return "mapper=\"" + stats.getMapper() + "\"";
+    }
+}
@@ -0,0 +1,158 @@
+package ch.hearc.ig.orderresto.monitoring;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One timed step of a traced request, opened by {@link Tracer#start} and finished when closed:
+ * <pre>
+ * try (Span span = Tracer.getInstance().start("TransactionHandler.executeInTransaction")) {
+ *     ...
+ * }
+ * </pre>
+ * The spans opened on a thread form a stack: a span started while another is open becomes its child.
+ * A span is used by the thread that opened it only, and spans must be closed in the reverse order of
+ * their opening, which try-with-resources guarantees.
+ * <p>
+ * When tracing is off or the request is not sampled, {@link Tracer#start} returns a span that records
+ * nothing; {@link #isRecording()} tells whether computing an attribute is worth it.
+ */
+public final class Span implements AutoCloseable {
+
+    /** Span of a request that is not traced: records nothing. */
+    static final Span NOOP = new Span(null, null, 0, 0, null, 0);
+
+    private final Tracer tracer;
+    private final Span parent;
+    private final long traceId;
+    private final long spanId;
+    private final String name;
+    private final long startNanos;
+    private final String thread;
+    private long durationNanos = -1;
+    private boolean failed;
+    private List<Map.Entry<String, Object>> attributes;
+
+    Span(Tracer tracer, Span parent, long traceId, long spanId, String name, long startNanos) {
+        this.tracer = tracer;
+        this.parent = parent;
+        this.traceId = traceId;
+        this.spanId = spanId;
+        this.name = name;
+        this.startNanos = startNanos;
+        this.thread = tracer == null ? null : Thread.currentThread().getName();
+    }
+
+    public boolean isRecording() {
+        return name != null && durationNanos < 0;
+    }
+
+    /**
+     * Adds an attribute, e.g. the id of the entity read or the number of rows returned.
+     *
+     * @return This span.
+     */
+    public Span attribute(String key, Object value) {
+        if (isRecording()) {
+            if (attributes == null) {
+                attributes = new ArrayList<>(4);
+            }
+            attributes.add(Map.entry(key, String.valueOf(value)));
+        }
+        return this;
+    }
+
+    /**
+     * Marks the step as failed.
+     *
+     * @return This span.
+     */
+    public Span markFailed() {
+        if (isRecording()) {
+            failed = true;
+        }
+        return this;
+    }
+
+    @Override
+    public void close() {
+        if (tracer == null) {
+            return;
+        }
+        if (name == null) {
+            // Racine d'une requête non échantillonnée : seule la pile du thread est à rétablir
+            tracer.unsampledClosed();
+        } else if (durationNanos < 0) {
+            durationNanos = System.nanoTime() - startNanos;
+            tracer.finished(this);
+        }
+    }
+
+    Span getParent() {
+        return parent;
+    }
+
+    public String getTraceId() {
+        return Tracer.hex(traceId);
+    }
+
+    public String getSpanId() {
+        return Tracer.hex(spanId);
+    }
+
+    /**
+     * @return The id of the parent span, or {@code null} for the root span of a trace.
+     */
+    public String getParentId() {
+        return parent == null ? null : parent.getSpanId();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getThread() {
+        return thread;
+    }
+
+    long getTraceIdValue() {
+        return traceId;
+    }
+
+    long getSpanIdValue() {
+        return spanId;
+    }
+
+    long getStartNanos() {
+        return startNanos;
+    }
+
+    /**
+     * @return The start time, in microseconds since the epoch.
+     */
+    public long getStartEpochMicros() {
+        return tracer.toEpochMicros(startNanos);
+    }
+
+    /**
+     * @return The duration, or -1 while the span is open.
+     */
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    public boolean isFailed() {
+        return failed;
+    }
+
+    public List<Map.Entry<String, Object>> getAttributes() {
+        return attributes == null ? Collections.emptyList() : Collections.unmodifiableList(attributes);
+    }
+
+    @Override
+    public String toString() {
+        return name + " trace=" + getTraceId() + " span=" + getSpanId() + " parent=" + getParentId();
+    }
+}
@@ -0,0 +1,159 @@
+package ch.hearc.ig.orderresto.monitoring;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Appends the finished spans to a JSON Lines file, one span per line, on a daemon thread.
+ * <p>
+ * A request thread only puts its finished span in a bounded queue and the writer serializes it; when the
+ * writer is behind, spans are dropped and counted rather than making the request wait. The file is
+ * flushed whenever the queue is empty and at exit.
+ */
+final class SpanFileExporter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SpanFileExporter.class);
+    private static final int QUEUE_SIZE = 8_192;
+
+    private final Path file;
+    private final BlockingQueue<Span> queue = new ArrayBlockingQueue<>(QUEUE_SIZE);
+    private final LongAdder dropped = new LongAdder();
+
+    private SpanFileExporter(Path file) {
+        this.file = file;
+    }
+
+    static SpanFileExporter start(Path file) {
+        SpanFileExporter exporter = new SpanFileExporter(file);
+        Thread writer = new Thread(exporter::writeLoop, "tracing-export");
+        writer.setDaemon(true);
+        writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(exporter::drain, "tracing-export-shutdown"));
+        return exporter;
+    }
+
+    void export(Span span) {
+        if (!queue.offer(span)) {
+            dropped.increment();
+        }
+    }
+
+    Path getFile() {
+        return file;
+    }
+
+    long getDropped() {
+        return dropped.sum();
+    }
+
+    private void writeLoop() {
+        try {
+            while (true) {
+                Span span = queue.take();
+                try (BufferedWriter writer = open()) {
+                    do {
+                        writer.write(toJson(span));
+                        writer.newLine();
+                        span = queue.poll(100, TimeUnit.MILLISECONDS);
+                    } while (span != null);
+                } catch (IOException e) {
+                    LOG.warn("Cannot write the spans to {}: {}", file, e.getMessage());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void drain() {
+        List<Span> spans = new ArrayList<>();
+        queue.drainTo(spans);
+        if (spans.isEmpty()) {
+            return;
+        }
+        try (BufferedWriter writer = open()) {
+            for (Span span : spans) {
+                writer.write(toJson(span));
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            LOG.warn("Cannot write the spans to {}: {}", file, e.getMessage());
+        }
+    }
+
+    private BufferedWriter open() throws IOException {
+        return Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    static String toJson(Span span) {
+        StringBuilder out = new StringBuilder(256);
+        out.append("{\"traceId\":\"").append(span.getTraceId())
+                .append("\",\"spanId\":\"").append(span.getSpanId()).append('"');
+        if (span.getParentId() != null) {
+            out.append(",\"parentId\":\"").append(span.getParentId()).append('"');
+        }
+        out.append(",\"name\":");
+        string(out, span.getName());
+        out.append(",\"startMicros\":").append(span.getStartEpochMicros())
+                .append(",\"durationMicros\":").append(span.getDurationNanos() / 1_000)
+                .append(",\"thread\":");
+        string(out, span.getThread());
+        out.append(",\"failed\":").append(span.isFailed()).append(",\"attributes\":{");
+        boolean first = true;
+        for (Map.Entry<String, Object> attribute : span.getAttributes()) {
+            if (!first) {
+                out.append(',');
+            }
+            first = false;
+            string(out, attribute.getKey());
+            out.append(':');
+            string(out, String.valueOf(attribute.getValue()));
+        }
+        return out.append("}}").toString();
+    }
+
+    private static void string(StringBuilder out, String value) {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    out.append("\\\"");
+                    break;
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+        out.append('"');
+    }
+}
@@ -0,0 +1,248 @@
+package ch.hearc.ig.orderresto.monitoring;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Times the JDBC statements executed on the pooled connections, aggregated by normalized SQL text.
+ * <p>
+ * The pool wraps each statement it hands out with {@link #wrap}. Statements are grouped once their
+ * literals are replaced by {@code ?}, so that SQL built with inline values does not create one entry
+ * per value; past {@code maxStatements} distinct statements, the others are counted together.
+ * An execution longer than the slow threshold is logged at WARN level with the type of its bind values,
+ * never the values themselves.
+ * <p>
+ * The shared instance is configured by {@code -Dsql.profiler.enabled} (true by default),
+ * {@code -Dsql.profiler.slowThresholdMillis} (1000 by default, negative to log nothing) and
+ * {@code -Dsql.profiler.maxStatements} (256 by default), and published through JMX as
+ * {@code type=SqlProfiler}, whose {@code report} operation lists the most expensive statements.
+ */
+public class SqlProfiler implements SqlProfilerMXBean {
+
+    static final String OTHER_STATEMENTS = "(other statements)";
+
+    private static final Logger LOG = LoggerFactory.getLogger(SqlProfiler.class);
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bIN \\(\\?(?: ?, ?\\?)+\\)");
+
+    private final boolean enabled;
+    private final int maxStatements;
+    private volatile long slowThresholdMillis;
+    private final LongAdder slowExecutions = new LongAdder();
+    private final ConcurrentHashMap<String, SqlStats> statements = new ConcurrentHashMap<>();
+    // SQL tel que préparé -> statistiques, pour ne normaliser chaque texte qu'une fois
+    private final ConcurrentHashMap<String, SqlStats> bySqlText = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a profiler that is not published through JMX, e.g. for tests.
+     */
+    public SqlProfiler(boolean enabled, long slowThresholdMillis, int maxStatements) {
+        this.enabled = enabled;
+        this.slowThresholdMillis = slowThresholdMillis;
+        this.maxStatements = maxStatements;
+    }
+
+    /**
+     * @return The profiler of the connections lent by {@code ConnectionManager}.
+     */
+    public static SqlProfiler getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    private static class Holder {
+        private static final SqlProfiler INSTANCE = create();
+
+        private static SqlProfiler create() {
+            SqlProfiler profiler = new SqlProfiler(
+                    Boolean.parseBoolean(System.getProperty("sql.profiler.enabled", "true")),
+                    Long.getLong("sql.profiler.slowThresholdMillis", 1_000),
+                    Integer.getInteger("sql.profiler.maxStatements", 256));
+            Metrics.registerMBean(profiler, "type=SqlProfiler");
+            return profiler;
+        }
+    }
+
+    /**
+     * @return A statement that records each execution of {@code sql}, or the statement itself if disabled.
+     */
+    public PreparedStatement wrap(PreparedStatement statement, String sql) {
+        if (!enabled) {
+            return statement;
+        }
+        return (PreparedStatement) Proxy.newProxyInstance(
+                PreparedStatement.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class},
+                new ProfiledStatement(this, statement, sql)
+        );
+    }
+
+    /**
+     * @return A statement that records each SQL it executes, or the statement itself if disabled.
+     */
+    public Statement wrap(Statement statement) {
+        if (!enabled) {
+            return statement;
+        }
+        return (Statement) Proxy.newProxyInstance(
+                Statement.class.getClassLoader(),
+                new Class<?>[]{Statement.class},
+                new ProfiledStatement(this, statement, null)
+        );
+    }
+
+    SqlStats stats(String sql) {
+        SqlStats stats = bySqlText.get(sql);
+        if (stats != null) {
+            return stats;
+        }
+        String normalized = normalize(sql);
+        stats = statements.get(normalized);
+        if (stats == null) {
+            String key = statements.size() < maxStatements ? normalized : OTHER_STATEMENTS;
+            SqlStats created = new SqlStats(key);
+            stats = statements.putIfAbsent(key, created);
+            if (stats == null) {
+                stats = created;
+            }
+        }
+        if (bySqlText.size() < maxStatements) {
+            bySqlText.putIfAbsent(sql, stats);
+        }
+        return stats;
+    }
+
+    void executed(SqlStats stats, String sql, long nanos, boolean failed, List<String> bindTypes) {
+        stats.record(nanos, failed);
+        long threshold = slowThresholdMillis;
+        if (threshold >= 0 && nanos >= threshold * 1_000_000) {
+            slowExecutions.increment();
+            LOG.atWarn()
+                    .addKeyValue("sql", normalize(sql))
+                    .addKeyValue("durationMs", nanos / 1_000_000.0)
+                    .addKeyValue("binds", bindTypes.toString())
+                    .addKeyValue("failed", failed)
+                    .log("Slow SQL");
+        }
+    }
+
+    /**
+     * Replaces the string and number literals by {@code ?}, collapses the whitespace and shortens
+     * the {@code IN (?, ?, ...)} lists, whose length changes with the number of values.
+     */
+    static String normalize(String sql) {
+        StringBuilder out = new StringBuilder(sql.length());
+        int length = sql.length();
+        int i = 0;
+        while (i < length) {
+            char c = sql.charAt(i);
+            if (Character.isWhitespace(c)) {
+                while (i < length && Character.isWhitespace(sql.charAt(i))) {
+                    i++;
+                }
+                if (out.length() > 0 && i < length) {
+                    out.append(' ');
+                }
+            } else if (c == '\'') {
+                // Littéral chaîne, '' compris
+                i++;
+                while (i < length) {
+                    if (sql.charAt(i) == '\'') {
+                        if (i + 1 < length && sql.charAt(i + 1) == '\'') {
+                            i += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    i++;
+                }
+                i++;
+                out.append('?');
+            } else if (Character.isDigit(c) && !isIdentifierEnd(out)) {
+                while (i < length && (Character.isDigit(sql.charAt(i)) || sql.charAt(i) == '.')) {
+                    i++;
+                }
+                out.append('?');
+            } else {
+                out.append(c);
+                i++;
+            }
+        }
+        return IN_LIST.matcher(out).replaceAll("IN (?...)");
+    }
+
+    private static boolean isIdentifierEnd(StringBuilder out) {
+        if (out.length() == 0) {
+            return false;
+        }
+        char last = out.charAt(out.length() - 1);
+        return Character.isLetterOrDigit(last) || last == '_' || last == '$' || last == '#';
+    }
+
+    /**
+     * @return Every statement recorded so far, by decreasing total time.
+     */
+    public List<SqlStats> getStatements() {
+        List<SqlStats> list = new ArrayList<>(statements.values());
+        list.sort(Comparator.comparingDouble(SqlStats::getTotalMillis).reversed());
+        return list;
+    }
+
+    @Override
+    public String report(int count) {
+        List<SqlStats> list = getStatements();
+        List<SqlStats> top = list.subList(0, Math.max(0, Math.min(count, list.size())));
+        StringBuilder out = new StringBuilder();
+        out.append(String.format(Locale.ROOT, "Top %d of %d SQL statements by total time%n", top.size(), list.size()));
+        out.append(String.format(Locale.ROOT, "%10s %9s %9s %9s %9s %10s %7s  %s%n",
+                "total ms", "count", "mean ms", "p50 ms", "p99 ms", "rows", "errors", "sql"));
+        for (SqlStats stats : top) {
+            double[] latencies = stats.latencyMillis(50, 99);
+            out.append(String.format(Locale.ROOT, "%10.1f %9d %9.2f %9.2f %9.2f %10d %7d  %s%n",
+                    stats.getTotalMillis(), stats.getExecutions(), stats.getMeanMillis(), latencies[0], latencies[1],
+                    stats.getRows(), stats.getErrors(), stats.getSql()));
+        }
+        return out.toString();
+    }
+
+    @Override
+    public void reset() {
+        bySqlText.clear();
+        statements.clear();
+        slowExecutions.reset();
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public long getSlowThresholdMillis() {
+        return slowThresholdMillis;
+    }
+
+    @Override
+    public void setSlowThresholdMillis(long millis) {
+        this.slowThresholdMillis = millis;
+    }
+
+    @Override
+    public long getSlowExecutions() {
+        return slowExecutions.sum();
+    }
+
+    @Override
+    public int getStatementCount() {
+        return statements.size();
+    }
+}
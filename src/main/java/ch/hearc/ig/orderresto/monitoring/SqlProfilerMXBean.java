@@ -0,0 +1,31 @@
+package ch.hearc.ig.orderresto.monitoring;
+
+/**
+ * JMX view of the SQL statement profiler.
+ */
+public interface SqlProfilerMXBean {
+
+    boolean isEnabled();
+
+    /**
+     * @return The duration from which an execution is logged, or a negative value if none is.
+     */
+    long getSlowThresholdMillis();
+
+    void setSlowThresholdMillis(long millis);
+
+    long getSlowExecutions();
+
+    int getStatementCount();
+
+    /**
+     * @param count The number of statements to list.
+     * @return The statements that took the most time in total, one per line.
+     */
+    String report(int count);
+
+    /**
+     * Forgets every statement recorded so far.
+     */
+    void reset();
+}
@@ -0,0 +1,84 @@
+package ch.hearc.ig.orderresto.monitoring;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Executions, errors, rows and latency histogram of one normalized SQL statement.
+ * <p>
+ * The latency is the time spent in {@code execute*}: for a query, reading the rows of the result set
+ * afterwards is not included, but the rows read are counted.
+ */
+public class SqlStats {
+
+    private final String sql;
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LatencyHistogram latencies = new LatencyHistogram();
+
+    SqlStats(String sql) {
+        this.sql = sql;
+    }
+
+    void record(long nanos, boolean failed) {
+        executions.increment();
+        if (failed) {
+            errors.increment();
+        }
+        latencies.record(nanos);
+    }
+
+    void addRows(long count) {
+        if (count > 0) {
+            rows.add(count);
+        }
+    }
+
+    /**
+     * @return The SQL text, with literals replaced by {@code ?} and whitespace collapsed.
+     */
+    public String getSql() {
+        return sql;
+    }
+
+    public long getExecutions() {
+        return executions.sum();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    /**
+     * @return The rows read from the result sets, or updated.
+     */
+    public long getRows() {
+        return rows.sum();
+    }
+
+    public double getTotalMillis() {
+        return latencies.totalNanos() / 1_000_000.0;
+    }
+
+    public double getMeanMillis() {
+        long count = executions.sum();
+        return count == 0 ? 0 : getTotalMillis() / count;
+    }
+
+    /**
+     * @param percentiles The percentiles to read, between 0 and 100.
+     * @return The latency at each percentile, in milliseconds.
+     */
+    public double[] latencyMillis(double... percentiles) {
+        double[] values = latencies.seconds(percentiles);
+        for (int i = 0; i < values.length; i++) {
+            values[i] *= 1_000;
+        }
+        return values;
+    }
+
+    @Override
+    public String toString() {
+        return sql + " executions=" + getExecutions() + ", errors=" + getErrors() + ", rows=" + getRows();
+    }
+}
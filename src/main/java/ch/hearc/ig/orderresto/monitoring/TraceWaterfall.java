@@ -0,0 +1,74 @@
+package ch.hearc.ig.orderresto.monitoring;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Text view of a trace: one line per span with its start offset and duration in milliseconds, indented
+ * under its parent.
+ * <pre>
+ * trace 3f9c0a6e1b2d4c5e, 4.81 ms
+ *     0.00    4.81  OrderService.getOrderById
+ *     0.01    4.75    TransactionHandler.executeReadOnly
+ *     0.02    0.31      ConnectionManager.getReadOnlyConnection
+ *     0.35    4.20      OrderMapper.read id=12 rows=1 statements=3
+ * </pre>
+ */
+final class TraceWaterfall {
+
+    private TraceWaterfall() {
+    }
+
+    /**
+     * @param spans The spans of one trace, by start time.
+     */
+    static String format(List<Span> spans) {
+        if (spans.isEmpty()) {
+            return "";
+        }
+        Set<String> ids = new HashSet<>();
+        Map<String, List<Span>> children = new HashMap<>();
+        for (Span span : spans) {
+            ids.add(span.getSpanId());
+            if (span.getParentId() != null) {
+                children.computeIfAbsent(span.getParentId(), id -> new ArrayList<>()).add(span);
+            }
+        }
+        long start = spans.get(0).getStartNanos();
+        long end = start;
+        for (Span span : spans) {
+            end = Math.max(end, span.getStartNanos() + span.getDurationNanos());
+        }
+
+        StringBuilder out = new StringBuilder();
+        out.append(String.format(Locale.ROOT, "trace %s, %.2f ms%n", spans.get(0).getTraceId(), (end - start) / 1_000_000.0));
+        for (Span span : spans) {
+            // Racines, et spans dont le parent est déjà sorti du tampon
+            if (span.getParentId() == null || !ids.contains(span.getParentId())) {
+                append(out, span, 0, start, children);
+            }
+        }
+        return out.toString();
+    }
+
+    private static void append(StringBuilder out, Span span, int depth, long traceStart, Map<String, List<Span>> children) {
+        out.append(String.format(Locale.ROOT, "%8.2f %7.2f  ", (span.getStartNanos() - traceStart) / 1_000_000.0,
+                span.getDurationNanos() / 1_000_000.0));
+        out.append("  ".repeat(depth)).append(span.getName());
+        for (Map.Entry<String, Object> attribute : span.getAttributes()) {
+            out.append(' ').append(attribute.getKey()).append('=').append(attribute.getValue());
+        }
+        if (span.isFailed()) {
+            out.append(" FAILED");
+        }
+        out.append(System.lineSeparator());
+        for (Span child : children.getOrDefault(span.getSpanId(), List.of())) {
+            append(out, child, depth + 1, traceStart, children);
+        }
+    }
+}
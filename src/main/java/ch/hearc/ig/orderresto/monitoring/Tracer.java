@@ -0,0 +1,231 @@
+package ch.hearc.ig.orderresto.monitoring;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.Collectors;
+
+/**
+ * In-process tracing: spans for the service and mapper calls (opened by their {@link Probe}), the
+ * transactions and the connection borrows, linked to their parent on the same thread.
+ * <p>
+ * A trace starts with the first span opened on a thread with no span open, and is kept with the
+ * probability {@code sampleRatio}; every span of a trace that is not kept is a no-op. Finished spans go
+ * to a ring buffer holding the last {@code bufferSize} spans, read through JMX, and optionally to a
+ * JSON Lines file, one span per line, to rebuild the waterfalls offline.
+ * <p>
+ * The shared instance is configured by {@code -Dtracing.sampleRatio} (0 by default: tracing off),
+ * {@code -Dtracing.bufferSize} (10 000 by default) and {@code -Dtracing.file}, and published through
+ * JMX as {@code type=Tracer}.
+ */
+public class Tracer implements TracerMXBean {
+
+    private final AtomicReferenceArray<Span> ring;
+    private final AtomicLong finishedCount = new AtomicLong();
+    private final SpanFileExporter fileExporter;
+    private final ThreadLocal<Span> current = new ThreadLocal<>();
+    private final Span unsampled = new Span(this, null, 0, 0, null, 0);
+    // Décalage entre System.nanoTime() et l'heure, mesuré une fois
+    private final long epochOffsetNanos = System.currentTimeMillis() * 1_000_000 - System.nanoTime();
+    private volatile double sampleRatio;
+
+    /**
+     * Creates a tracer that is not published through JMX and writes no file, e.g. for tests.
+     */
+    public Tracer(double sampleRatio, int bufferSize) {
+        this(sampleRatio, bufferSize, null);
+    }
+
+    private Tracer(double sampleRatio, int bufferSize, SpanFileExporter fileExporter) {
+        this.sampleRatio = sampleRatio;
+        this.ring = new AtomicReferenceArray<>(bufferSize);
+        this.fileExporter = fileExporter;
+    }
+
+    /**
+     * @return The tracer shared by the services, the transactions and the mappers.
+     */
+    public static Tracer getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    private static class Holder {
+        private static final Tracer INSTANCE = create();
+
+        private static Tracer create() {
+            String file = System.getProperty("tracing.file");
+            SpanFileExporter exporter = null;
+            if (file != null && !file.isBlank()) {
+                exporter = SpanFileExporter.start(Paths.get(file));
+            }
+            Tracer tracer = new Tracer(Double.parseDouble(System.getProperty("tracing.sampleRatio", "0")),
+                    Integer.getInteger("tracing.bufferSize", 10_000), exporter);
+            Metrics.registerMBean(tracer, "type=Tracer");
+            return tracer;
+        }
+    }
+
+    /**
+     * Opens a span, child of the span open on this thread if any.
+     *
+     * @param name The step, e.g. {@code OrderMapper.read}: a constant, so that spans can be compared.
+     */
+    public Span start(String name) {
+        if (sampleRatio <= 0) {
+            return Span.NOOP;
+        }
+        Span parent = current.get();
+        Span span;
+        if (parent == null) {
+            if (ThreadLocalRandom.current().nextDouble() >= sampleRatio) {
+                current.set(unsampled);
+                return unsampled;
+            }
+            span = new Span(this, null, newId(), newId(), name, System.nanoTime());
+        } else if (parent == unsampled) {
+            return Span.NOOP;
+        } else {
+            span = new Span(this, parent, parent.getTraceIdValue(), newId(), name, System.nanoTime());
+        }
+        current.set(span);
+        return span;
+    }
+
+    /**
+     * @return The span open on this thread, to pass to {@link #attach} on another thread, or {@code null}.
+     */
+    public Span current() {
+        return current.get();
+    }
+
+    /**
+     * Makes the spans opened on this thread children of a span of another thread, e.g. when a call is
+     * handed over to an executor thread.
+     *
+     * @param span A span returned by {@link #current}, or {@code null} to detach the thread.
+     * @return The span open on this thread until then, to attach again once the call is over.
+     */
+    public Span attach(Span span) {
+        Span previous = current.get();
+        restore(span);
+        return previous;
+    }
+
+    void finished(Span span) {
+        restore(span.getParent());
+        long index = finishedCount.getAndIncrement();
+        ring.set((int) (index % ring.length()), span);
+        if (fileExporter != null) {
+            fileExporter.export(span);
+        }
+    }
+
+    void unsampledClosed() {
+        restore(null);
+    }
+
+    private void restore(Span parent) {
+        if (parent == null) {
+            current.remove();
+        } else {
+            current.set(parent);
+        }
+    }
+
+    long toEpochMicros(long nanos) {
+        return (nanos + epochOffsetNanos) / 1_000;
+    }
+
+    /**
+     * @return The finished spans still in the ring buffer, by start time.
+     */
+    public List<Span> getRecentSpans() {
+        long end = finishedCount.get();
+        long start = Math.max(0, end - ring.length());
+        List<Span> spans = new ArrayList<>((int) (end - start));
+        for (long i = start; i < end; i++) {
+            Span span = ring.get((int) (i % ring.length()));
+            if (span != null) {
+                spans.add(span);
+            }
+        }
+        spans.sort(Comparator.comparingLong(Span::getStartNanos));
+        return spans;
+    }
+
+    /**
+     * @return The finished spans of one trace still in the ring buffer, by start time.
+     */
+    public List<Span> getTrace(String traceId) {
+        return getRecentSpans().stream()
+                .filter(span -> span.getTraceId().equals(traceId))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public String waterfall(String traceId) {
+        return TraceWaterfall.format(getTrace(traceId));
+    }
+
+    @Override
+    public String recentWaterfalls(int count) {
+        List<Span> spans = getRecentSpans();
+        List<String> traceIds = spans.stream()
+                .filter(span -> span.getParent() == null)
+                .map(Span::getTraceId)
+                .collect(Collectors.toList());
+        List<String> last = traceIds.subList(Math.max(0, traceIds.size() - count), traceIds.size());
+        StringBuilder out = new StringBuilder();
+        for (String traceId : last) {
+            out.append(TraceWaterfall.format(spans.stream()
+                    .filter(span -> span.getTraceId().equals(traceId))
+                    .collect(Collectors.toList())));
+        }
+        return out.toString();
+    }
+
+    @Override
+    public double getSampleRatio() {
+        return sampleRatio;
+    }
+
+    @Override
+    public void setSampleRatio(double ratio) {
+        this.sampleRatio = ratio;
+    }
+
+    @Override
+    public long getFinishedSpans() {
+        return finishedCount.get();
+    }
+
+    @Override
+    public long getDroppedSpans() {
+        return fileExporter == null ? 0 : fileExporter.getDropped();
+    }
+
+    /**
+     * @return The file the spans are written to, or {@code null}.
+     */
+    public Path getFile() {
+        return fileExporter == null ? null : fileExporter.getFile();
+    }
+
+    private static long newId() {
+        long id;
+        do {
+            id = ThreadLocalRandom.current().nextLong();
+        } while (id == 0);
+        return id;
+    }
+
+    static String hex(long id) {
+        String hex = Long.toHexString(id);
+        return hex.length() == 16 ? hex : "0".repeat(16 - hex.length()) + hex;
+    }
+}
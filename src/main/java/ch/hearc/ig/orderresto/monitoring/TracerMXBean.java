@@ -0,0 +1,31 @@
+package ch.hearc.ig.orderresto.monitoring;
+
+/**
+ * JMX view of the tracer.
+ */
+public interface TracerMXBean {
+
+    /**
+     * @return The share of the requests traced, between 0 (off) and 1 (all).
+     */
+    double getSampleRatio();
+
+    void setSampleRatio(double ratio);
+
+    long getFinishedSpans();
+
+    /**
+     * @return The spans not written to the file because the writer was behind.
+     */
+    long getDroppedSpans();
+
+    /**
+     * @return The spans of one trace still in the ring buffer, indented under their parent.
+     */
+    String waterfall(String traceId);
+
+    /**
+     * @return The last traces still in the ring buffer, indented under their parent.
+     */
+    String recentWaterfalls(int count);
+}
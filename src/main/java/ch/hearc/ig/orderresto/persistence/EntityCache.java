@@ -0,0 +1,82 @@
+package ch.hearc.ig.orderresto.persistence;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 🏛️ EntityCache - Process-wide second-level cache shared by every mapper instance.
+ * <p>
+ * Holds one {@link IdentityMap} region per entity type, so that an entity is cached once whatever
+ * the number of mappers and services created, and an update or a deletion made through one mapper
+ * is seen by all of them.
+ * <p>
+ * Regions are sized from the optional {@code cache.*} keys of {@code config.properties}:
+ * {@code cache.maxSize} and {@code cache.ttlSeconds} for every region, {@code cache.<Entity>.maxSize}
+ * and {@code cache.<Entity>.ttlSeconds} to override them for one entity type (e.g. {@code cache.Order.maxSize}).
+ */
+public final class EntityCache {
+    private static final EntityCache INSTANCE = new EntityCache(loadProperties());
+
+    private final Properties config;
+    private final Map<Class<?>, IdentityMap<?>> regions = new ConcurrentHashMap<>();
+
+    EntityCache(Properties config) {
+        this.config = config;
+    }
+
+    public static EntityCache getInstance() {
+        return INSTANCE;
+    }
+
+    private static Properties loadProperties() {
+        Properties prop = new Properties();
+        try (InputStream input = EntityCache.class.getClassLoader().getResourceAsStream("config.properties")) {
+            if (input != null) {
+                prop.load(input);
+            }
+        } catch (IOException e) {
+            // Sans configuration, les valeurs par défaut s'appliquent
+        }
+        return prop;
+    }
+
+    /**
+     * 🔍 Returns the cache region of an entity type, creating it on first use.
+     *
+     * @param type The entity type.
+     * @param <T>  The type of entities stored in the region.
+     * @return The {@link IdentityMap} shared by every mapper of this entity type.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> IdentityMap<T> region(Class<T> type) {
+        return (IdentityMap<T>) regions.computeIfAbsent(type, this::createRegion);
+    }
+
+    private IdentityMap<?> createRegion(Class<?> type) {
+        String name = type.getSimpleName();
+        int maxSize = Integer.parseInt(config.getProperty("cache." + name + ".maxSize",
+                config.getProperty("cache.maxSize", String.valueOf(IdentityMap.DEFAULT_MAX_SIZE))).trim());
+        long ttlSeconds = Long.parseLong(config.getProperty("cache." + name + ".ttlSeconds",
+                config.getProperty("cache.ttlSeconds", "0")).trim());
+        return new IdentityMap<>(maxSize, ttlSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * @return Every region created so far, indexed by entity type.
+     */
+    public Map<Class<?>, IdentityMap<?>> getRegions() {
+        return Collections.unmodifiableMap(regions);
+    }
+
+    /**
+     * 🧹 Empties every region.
+     */
+    public void clear() {
+        regions.values().forEach(IdentityMap::clear);
+    }
+}
@@ -1,17 +1,71 @@
 package ch.hearc.ig.orderresto.persistence;
 
-import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
 
 /**
  * 🗃️ IdentityMap - Cache for storing and retrieving entities by their ID.
  * <p>
  * Provides a local in-memory cache to improve performance and avoid redundant database queries.
+ * The map is safe for concurrent use, holds at most {@code maxSize} entities (the least recently
+ * used one is evicted first) and can expire entities after a time-to-live.
  *
  * @param <T> The type of entities stored in the cache.
  */
 public class IdentityMap<T> {
-    private final Map<Long, T> cache = new HashMap<>();
+    public static final int DEFAULT_MAX_SIZE = 10_000;
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<Long, Entry<T>> cache;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Creates a map of {@link #DEFAULT_MAX_SIZE} entities without expiration.
+     */
+    public IdentityMap() {
+        this(DEFAULT_MAX_SIZE, 0, TimeUnit.SECONDS);
+    }
+
+    /**
+     * @param maxSize The maximum number of entities kept in the cache.
+     * @param ttl     The time an entity stays in the cache after being stored, {@code 0} for no expiration.
+     * @param unit    The unit of {@code ttl}.
+     */
+    public IdentityMap(int maxSize, long ttl, TimeUnit unit) {
+        this(maxSize, unit.toNanos(ttl), System::nanoTime);
+    }
+
+    IdentityMap(int maxSize, long ttlNanos, LongSupplier clock) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be positive: " + maxSize);
+        }
+        this.maxSize = maxSize;
+        this.ttlNanos = ttlNanos;
+        this.clock = clock;
+        // Ordre d'accès : l'entrée la moins récemment utilisée est la première évincée
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry<T>> eldest) {
+                if (size() > IdentityMap.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
 
     /**
      * 🔍 Retrieves an entity from the cache by its ID.
@@ -20,7 +74,23 @@ public class IdentityMap<T> {
      * @return The entity associated with the given ID, or {@code null} if not present in cache.
      */
     public T get(Long id) {
-        return cache.get(id);
+        lock.lock();
+        try {
+            Entry<T> entry = cache.get(id);
+            if (entry != null && isExpired(entry)) {
+                cache.remove(id);
+                evictions.increment();
+                entry = null;
+            }
+            if (entry == null) {
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            return entry.value;
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
@@ -30,7 +100,12 @@ public class IdentityMap<T> {
      * @param entity The entity to add to the cache.
      */
     public void put(Long id, T entity) {
-        cache.put(id, entity);
+        lock.lock();
+        try {
+            cache.put(id, new Entry<>(entity, clock.getAsLong()));
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
@@ -39,7 +114,12 @@ public class IdentityMap<T> {
      * @param id The ID of the entity to remove.
      */
     public void remove(Long id) {
-        cache.remove(id);
+        lock.lock();
+        try {
+            cache.remove(id);
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
@@ -49,6 +129,104 @@ public class IdentityMap<T> {
      * @return {@code true} if the entity is in the cache, {@code false} otherwise.
      */
     public boolean contains(Long id) {
-        return cache.containsKey(id);
+        lock.lock();
+        try {
+            Entry<T> entry = cache.get(id);
+            return entry != null && !isExpired(entry);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 🧹 Removes every entity matching the predicate, e.g. those referencing a deleted entity.
+     *
+     * @param predicate The condition on the cached entities to remove.
+     */
+    public void removeIf(Predicate<? super T> predicate) {
+        lock.lock();
+        try {
+            cache.values().removeIf(entry -> predicate.test(entry.value));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 🧹 Removes every entity from the cache. Counters are kept.
+     */
+    public void clear() {
+        lock.lock();
+        try {
+            cache.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return The number of entities currently held, expired ones not yet purged included.
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return cache.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 🧽 Drops every expired entity. Expired entities are otherwise only dropped when read.
+     */
+    public void purgeExpired() {
+        if (ttlNanos <= 0) {
+            return;
+        }
+        lock.lock();
+        try {
+            Iterator<Entry<T>> iterator = cache.values().iterator();
+            while (iterator.hasNext()) {
+                if (isExpired(iterator.next())) {
+                    iterator.remove();
+                    evictions.increment();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * @return The number of entities dropped because the cache was full or their time-to-live elapsed.
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    private boolean isExpired(Entry<T> entry) {
+        return ttlNanos > 0 && clock.getAsLong() - entry.storedAt > ttlNanos;
+    }
+
+    private static class Entry<T> {
+        private final T value;
+        private final long storedAt;
+
+        private Entry(T value, long storedAt) {
+            this.value = value;
+            this.storedAt = storedAt;
+        }
     }
 }
@@ -0,0 +1,204 @@
+package ch.hearc.ig.orderresto.persistence;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * 📝 UnitOfWork - Stages the cache changes of a database transaction until it ends.
+ * <p>
+ * While a unit of work is bound to the current thread, mappers do not write to the shared
+ * {@link EntityCache}: their puts, removals and evictions are recorded here and only visible to the
+ * transaction itself. {@link #commit()} publishes them to the shared cache once the database has
+ * committed; {@link #rollback()} drops them, so entities that never reached the database are never
+ * served to other transactions.
+ * <p>
+ * Typical use, as in {@code TransactionHandler}:
+ * <pre>{@code
+ * try (UnitOfWork unitOfWork = UnitOfWork.begin()) {
+ *     // ... mapper calls ...
+ *     conn.commit();
+ *     unitOfWork.commit();
+ * }
+ * }</pre>
+ * A unit of work is confined to the thread that began it. Units of work may be nested (one per
+ * connection); each publishes directly to the shared cache, as its transaction commits independently.
+ */
+public final class UnitOfWork implements AutoCloseable {
+    private static final ThreadLocal<UnitOfWork> CURRENT = new ThreadLocal<>();
+
+    /** Marks an entity removed by the transaction. */
+    private static final Object REMOVED = new Object();
+
+    private final UnitOfWork previous;
+    private final Map<IdentityMap<?>, Map<Long, Object>> staged = new IdentityHashMap<>();
+    private final Map<IdentityMap<?>, List<Predicate<Object>>> evictions = new IdentityHashMap<>();
+    private boolean open = true;
+
+    private UnitOfWork(UnitOfWork previous) {
+        this.previous = previous;
+    }
+
+    /**
+     * ▶️ Begins a unit of work and binds it to the current thread.
+     *
+     * @return The new unit of work, to close once the transaction has ended.
+     */
+    public static UnitOfWork begin() {
+        UnitOfWork unitOfWork = new UnitOfWork(CURRENT.get());
+        CURRENT.set(unitOfWork);
+        return unitOfWork;
+    }
+
+    /**
+     * @return The unit of work bound to the current thread, or {@code null} outside a transaction.
+     */
+    public static UnitOfWork current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 🔍 Looks up an entity as seen by the transaction: staged changes first, then the shared cache.
+     *
+     * @param map The shared cache region.
+     * @param id  The ID of the entity.
+     * @param <T> The type of the entity.
+     * @return The entity, or {@code null} if absent or removed by the transaction.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(IdentityMap<T> map, Long id) {
+        Map<Long, Object> entries = staged.get(map);
+        if (entries != null && entries.containsKey(id)) {
+            Object value = entries.get(id);
+            return value == REMOVED ? null : (T) value;
+        }
+        T shared = map.get(id);
+        if (shared != null && isEvicted(map, shared)) {
+            return null;
+        }
+        return shared;
+    }
+
+    /**
+     * 💾 Stages the addition or replacement of an entity.
+     */
+    public <T> void put(IdentityMap<T> map, Long id, T entity) {
+        entries(map).put(id, entity);
+    }
+
+    /**
+     * 🗑️ Stages the removal of an entity.
+     */
+    public <T> void remove(IdentityMap<T> map, Long id) {
+        entries(map).put(id, REMOVED);
+    }
+
+    /**
+     * 🧹 Stages the eviction of every entity matching a predicate, hiding matching shared entries from
+     * the transaction right away.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> void removeIf(IdentityMap<T> map, Predicate<? super T> predicate) {
+        Predicate<Object> test = entity -> predicate.test((T) entity);
+        evictions.computeIfAbsent(map, m -> new ArrayList<>()).add(test);
+        Map<Long, Object> entries = staged.get(map);
+        if (entries != null) {
+            entries.values().removeIf(value -> value != REMOVED && test.test(value));
+        }
+    }
+
+    /**
+     * ✅ Publishes the staged changes to the shared cache. To be called after the database commit.
+     */
+    @SuppressWarnings("unchecked")
+    public void commit() {
+        for (Map.Entry<IdentityMap<?>, List<Predicate<Object>>> eviction : evictions.entrySet()) {
+            IdentityMap<Object> map = (IdentityMap<Object>) eviction.getKey();
+            eviction.getValue().forEach(map::removeIf);
+        }
+        for (Map.Entry<IdentityMap<?>, Map<Long, Object>> entries : staged.entrySet()) {
+            IdentityMap<Object> map = (IdentityMap<Object>) entries.getKey();
+            entries.getValue().forEach((id, value) -> {
+                if (value == REMOVED) {
+                    map.remove(id);
+                } else {
+                    map.put(id, value);
+                }
+            });
+        }
+        discard();
+    }
+
+    /**
+     * ↩️ Drops the staged changes. To be called after the database rollback.
+     * <p>
+     * The entities touched by the transaction are also evicted from the shared cache: the caller may
+     * have modified a cached instance in place before the update was rolled back.
+     */
+    @SuppressWarnings("unchecked")
+    public void rollback() {
+        for (Map.Entry<IdentityMap<?>, Map<Long, Object>> entries : staged.entrySet()) {
+            entries.getValue().keySet().forEach(entries.getKey()::remove);
+        }
+        for (Map.Entry<IdentityMap<?>, List<Predicate<Object>>> eviction : evictions.entrySet()) {
+            IdentityMap<Object> map = (IdentityMap<Object>) eviction.getKey();
+            eviction.getValue().forEach(map::removeIf);
+        }
+        discard();
+    }
+
+    /**
+     * @return The number of staged puts and removals, all regions included.
+     */
+    public int size() {
+        int size = 0;
+        for (Map<Long, Object> entries : staged.values()) {
+            size += entries.size();
+        }
+        return size;
+    }
+
+    /**
+     * Unbinds the unit of work from the thread. Staged changes neither committed nor rolled back are dropped.
+     */
+    @Override
+    public void close() {
+        if (!open) {
+            return;
+        }
+        open = false;
+        discard();
+        if (CURRENT.get() == this) {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    private Map<Long, Object> entries(IdentityMap<?> map) {
+        return staged.computeIfAbsent(map, m -> new LinkedHashMap<>());
+    }
+
+    private boolean isEvicted(IdentityMap<?> map, Object entity) {
+        List<Predicate<Object>> predicates = evictions.get(map);
+        if (predicates == null) {
+            return false;
+        }
+        for (Predicate<Object> predicate : predicates) {
+            if (predicate.test(entity)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void discard() {
+        staged.clear();
+        evictions.clear();
+    }
+}
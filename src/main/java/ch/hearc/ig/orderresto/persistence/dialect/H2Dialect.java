@@ -0,0 +1,107 @@
+package ch.hearc.ig.orderresto.persistence.dialect;
+
+import java.sql.SQLException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 🧪 H2Dialect - H2 in Oracle compatibility mode ({@code ;MODE=Oracle}), used as an embedded database.
+ * <p>
+ * H2 has no PL/SQL: the {@code BEFORE INSERT} triggers assigning IDs from a sequence become column
+ * defaults, and the {@code DROP} statements of the schema script tolerate missing objects.
+ * As a sequence used by a column default cannot be dropped before its table, sequences are dropped
+ * after the tables.
+ */
+public class H2Dialect extends SqlDialect {
+
+    private static final Pattern SEQUENCE_TRIGGER = Pattern.compile(
+            "CREATE\\s+(?:OR\\s+REPLACE\\s+)?TRIGGER\\s+\\w+\\s+BEFORE\\s+INSERT\\s+ON\\s+(\\w+).*?:NEW\\.(\\w+)\\s*:=\\s*(\\w+)\\.NEXTVAL",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    private static final Pattern DROP_TABLE = Pattern.compile(
+            "DROP\\s+TABLE\\s+(\\w+)(\\s+CASCADE\\s+CONSTRAINTS)?", Pattern.CASE_INSENSITIVE);
+    private static final Pattern DROP_SEQUENCE = Pattern.compile(
+            "DROP\\s+SEQUENCE\\s+(\\w+)", Pattern.CASE_INSENSITIVE);
+
+    @Override
+    public String getName() {
+        return "h2";
+    }
+
+    @Override
+    public String nextValue(String sequence) {
+        return "NEXT VALUE FOR " + sequence;
+    }
+
+    @Override
+    public String nextValues(String sequence) {
+        return "SELECT NEXT VALUE FOR " + sequence + " FROM SYSTEM_RANGE(1, ?)";
+    }
+
+    @Override
+    public boolean isDuplicateKey(SQLException e) {
+        return "23505".equals(e.getSQLState());
+    }
+
+    @Override
+    public String truncate(String expression, ChronoUnit unit) {
+        switch (unit) {
+            case DAYS:
+                return "DATE_TRUNC('DAY', " + expression + ")";
+            case WEEKS:
+                // WEEK suit la locale ; ISO_WEEK commence le lundi comme le 'IW' d'Oracle
+                return "DATE_TRUNC('ISO_WEEK', " + expression + ")";
+            case MONTHS:
+                return "DATE_TRUNC('MONTH', " + expression + ")";
+            default:
+                throw new IllegalArgumentException("Unité de regroupement non supportée : " + unit);
+        }
+    }
+
+    @Override
+    public List<String> parseScript(String script) {
+        List<String> statements = new ArrayList<>();
+        List<String> sequenceDrops = new ArrayList<>();
+        int afterLastTableDrop = 0;
+        for (String statement : super.parseScript(script)) {
+            String upper = statement.toUpperCase(Locale.ROOT);
+            if (upper.startsWith("DROP SEQUENCE")) {
+                sequenceDrops.add(statement);
+                continue;
+            }
+            statements.add(statement);
+            if (upper.startsWith("DROP TABLE")) {
+                afterLastTableDrop = statements.size();
+            }
+        }
+        statements.addAll(afterLastTableDrop, sequenceDrops);
+        return statements;
+    }
+
+    @Override
+    protected String translate(String statement) {
+        if (isClientCommand(statement)) {
+            return null;
+        }
+        Matcher matcher = DROP_TABLE.matcher(statement);
+        if (matcher.matches()) {
+            return "DROP TABLE IF EXISTS " + matcher.group(1) + (matcher.group(2) != null ? " CASCADE" : "");
+        }
+        matcher = DROP_SEQUENCE.matcher(statement);
+        if (matcher.matches()) {
+            return "DROP SEQUENCE IF EXISTS " + matcher.group(1);
+        }
+        if (statement.toUpperCase(Locale.ROOT).matches("(?s)CREATE\\s+(OR\\s+REPLACE\\s+)?TRIGGER\\b.*")) {
+            matcher = SEQUENCE_TRIGGER.matcher(statement);
+            if (!matcher.find()) {
+                throw new IllegalArgumentException("Trigger non supporté par H2 : " + statement);
+            }
+            return "ALTER TABLE " + matcher.group(1) + " ALTER COLUMN " + matcher.group(2)
+                    + " SET DEFAULT NEXT VALUE FOR " + matcher.group(3);
+        }
+        return statement;
+    }
+}
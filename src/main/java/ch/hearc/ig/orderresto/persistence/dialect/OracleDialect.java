@@ -0,0 +1,50 @@
+package ch.hearc.ig.orderresto.persistence.dialect;
+
+import java.sql.SQLException;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * 🏛️ OracleDialect - The SQL the application was written for; scripts are run as they are.
+ */
+public class OracleDialect extends SqlDialect {
+
+    @Override
+    public String getName() {
+        return "oracle";
+    }
+
+    @Override
+    public String nextValue(String sequence) {
+        return sequence + ".NEXTVAL";
+    }
+
+    @Override
+    public String nextValues(String sequence) {
+        return "SELECT " + sequence + ".NEXTVAL FROM DUAL CONNECT BY LEVEL <= ?";
+    }
+
+    @Override
+    public boolean isDuplicateKey(SQLException e) {
+        // ORA-00001 : violation de contrainte unique
+        return e.getErrorCode() == 1;
+    }
+
+    @Override
+    public String truncate(String expression, ChronoUnit unit) {
+        switch (unit) {
+            case DAYS:
+                return "TRUNC(" + expression + ", 'DD')";
+            case WEEKS:
+                return "TRUNC(" + expression + ", 'IW')";
+            case MONTHS:
+                return "TRUNC(" + expression + ", 'MM')";
+            default:
+                throw new IllegalArgumentException("Unité de regroupement non supportée : " + unit);
+        }
+    }
+
+    @Override
+    protected String translate(String statement) {
+        return isClientCommand(statement) ? null : statement;
+    }
+}
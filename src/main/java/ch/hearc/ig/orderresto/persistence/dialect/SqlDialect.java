@@ -0,0 +1,158 @@
+package ch.hearc.ig.orderresto.persistence.dialect;
+
+import java.sql.SQLException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * 🗣️ SqlDialect - Isolates the SQL that differs from one database to another.
+ * <p>
+ * The mappers are written for Oracle; the dialect supplies sequence access and generated key columns,
+ * and translates the Oracle schema scripts ({@code CREATE_TABLES.sql}, {@code INSERT_DATA.sql}) so that
+ * they can be run on an embedded database.
+ * <p>
+ * The dialect in use is process-wide: {@code ConnectionManager} selects it from {@code db.url}.
+ */
+public abstract class SqlDialect {
+
+    private static final Pattern BLOCK_START = Pattern.compile(
+            "^\\s*(CREATE\\s+(OR\\s+REPLACE\\s+)?(TRIGGER|PROCEDURE|FUNCTION|PACKAGE)|BEGIN|DECLARE)\\b",
+            Pattern.CASE_INSENSITIVE);
+    private static final Pattern INLINE_COMMENT = Pattern.compile("/\\*.*?\\*/");
+
+    private static volatile SqlDialect instance = new OracleDialect();
+
+    /**
+     * @return The dialect of the configured database, Oracle by default.
+     */
+    public static SqlDialect getInstance() {
+        return instance;
+    }
+
+    public static void setInstance(SqlDialect dialect) {
+        instance = dialect;
+    }
+
+    /**
+     * 🔍 Picks the dialect matching a JDBC URL.
+     *
+     * @param url The JDBC URL of the database.
+     * @return {@link H2Dialect} for {@code jdbc:h2:} URLs, {@link OracleDialect} otherwise.
+     */
+    public static SqlDialect forUrl(String url) {
+        if (url != null && url.startsWith("jdbc:h2:")) {
+            return new H2Dialect();
+        }
+        return new OracleDialect();
+    }
+
+    public abstract String getName();
+
+    /**
+     * @param sequence The name of the sequence.
+     * @return The SQL expression returning the next value of the sequence, to use in an {@code INSERT}.
+     */
+    public abstract String nextValue(String sequence);
+
+    /**
+     * @param sequence The name of the sequence.
+     * @return A query returning as many next values of the sequence as its single parameter, one per row.
+     */
+    public abstract String nextValues(String sequence);
+
+    /**
+     * @param expression A date or timestamp SQL expression.
+     * @param unit       {@link ChronoUnit#DAYS}, {@link ChronoUnit#WEEKS} (weeks start on Monday) or {@link ChronoUnit#MONTHS}.
+     * @return The SQL expression truncating the value to the start of its day, week or month.
+     * @throws IllegalArgumentException for any other unit.
+     */
+    public abstract String truncate(String expression, ChronoUnit unit);
+
+    /**
+     * @return {@code true} if the statement failed because a row with the same unique key exists, e.g.
+     * one inserted by a concurrent transaction.
+     */
+    public abstract boolean isDuplicateKey(SQLException e);
+
+    /**
+     * @param column The name of the key column assigned by the database.
+     * @return The column names to pass to {@code Connection.prepareStatement(sql, columnNames)}.
+     */
+    public String[] generatedKeyColumns(String column) {
+        return new String[]{column.toUpperCase(Locale.ROOT)};
+    }
+
+    /**
+     * 📜 Splits an Oracle SQL*Plus script into statements executable through JDBC on this database.
+     * <p>
+     * Statements end with {@code ;}, PL/SQL blocks with a line holding only {@code /}.
+     *
+     * @param script The content of the script.
+     * @return The translated statements, without terminator.
+     */
+    public List<String> parseScript(String script) {
+        List<String> statements = new ArrayList<>();
+        for (String statement : split(script)) {
+            String translated = translate(statement);
+            if (translated != null && !translated.isBlank()) {
+                statements.add(translated);
+            }
+        }
+        return statements;
+    }
+
+    /**
+     * @param statement An Oracle statement of a schema or data script.
+     * @return The equivalent statement for this database, or {@code null} to skip it.
+     */
+    protected abstract String translate(String statement);
+
+    static List<String> split(String script) {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean inBlock = false;
+
+        for (String rawLine : script.split("\\R")) {
+            String line = inBlock ? rawLine : INLINE_COMMENT.matcher(rawLine).replaceAll("");
+            String trimmed = line.trim();
+
+            if (current.length() == 0) {
+                if (trimmed.isEmpty() || trimmed.startsWith("--")) {
+                    continue;
+                }
+                inBlock = BLOCK_START.matcher(trimmed).find();
+            }
+
+            if (inBlock) {
+                if (trimmed.equals("/")) {
+                    statements.add(current.toString().trim());
+                    current.setLength(0);
+                    inBlock = false;
+                } else {
+                    current.append(line).append('\n');
+                }
+            } else if (trimmed.endsWith(";")) {
+                current.append(trimmed, 0, trimmed.length() - 1);
+                statements.add(current.toString().trim());
+                current.setLength(0);
+            } else if (!trimmed.startsWith("--")) {
+                current.append(line).append('\n');
+            }
+        }
+        if (current.toString().trim().length() > 0) {
+            statements.add(current.toString().trim());
+        }
+        return statements;
+    }
+
+    /**
+     * @return {@code true} for SQL*Plus client commands, which are not SQL.
+     */
+    protected static boolean isClientCommand(String statement) {
+        String upper = statement.trim().toUpperCase(Locale.ROOT);
+        return upper.startsWith("SET ") || upper.startsWith("PROMPT ") || upper.startsWith("SPOOL ");
+    }
+}
@@ -0,0 +1,56 @@
+package ch.hearc.ig.orderresto.persistence.dialect;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * 📜 SqlScripts - Runs the schema and data scripts shipped with the application.
+ * <p>
+ * {@code CREATE_TABLES.sql} and {@code INSERT_DATA.sql} are copied to the {@code db/} folder of the classpath
+ * by the build; they are translated by the {@link SqlDialect} before being executed.
+ */
+public final class SqlScripts {
+    public static final String SCHEMA = "db/CREATE_TABLES.sql";
+    public static final String DATA = "db/INSERT_DATA.sql";
+    public static final String ORDER_TOTALS_MIGRATION = "db/MIGRATION_TOTAUX_COMMANDE.sql";
+    public static final String SALES_ROLLUP_MIGRATION = "db/MIGRATION_VENTES_JOUR.sql";
+
+    private SqlScripts() {
+    }
+
+    /**
+     * ▶️ Executes a script of the classpath and commits.
+     *
+     * @param conn     The database connection used for the operation.
+     * @param dialect  The dialect translating the Oracle script.
+     * @param resource The classpath location of the script, e.g. {@link #SCHEMA}.
+     * @throws SQLException if a statement fails.
+     * @throws IOException  if the script cannot be read.
+     */
+    public static void run(Connection conn, SqlDialect dialect, String resource) throws SQLException, IOException {
+        String script;
+        try (InputStream input = SqlScripts.class.getClassLoader().getResourceAsStream(resource)) {
+            if (input == null) {
+                throw new IOException("Script introuvable dans le classpath : " + resource);
+            }
+            script = new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        }
+
+        try (Statement statement = conn.createStatement()) {
+            for (String sql : dialect.parseScript(script)) {
+                try {
+                    statement.execute(sql);
+                } catch (SQLException e) {
+                    throw new SQLException("Erreur lors de l'exécution de " + resource + " : " + sql, e);
+                }
+            }
+        }
+        if (!conn.getAutoCommit()) {
+            conn.commit();
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package ch.hearc.ig.orderresto.persistence.mappers;
+
+import ch.hearc.ig.orderresto.business.PeriodSales;
+import ch.hearc.ig.orderresto.business.ProductSales;
+import ch.hearc.ig.orderresto.business.RestaurantSales;
+import ch.hearc.ig.orderresto.monitoring.ComponentMetrics;
+import ch.hearc.ig.orderresto.monitoring.Metrics;
+import ch.hearc.ig.orderresto.monitoring.Probe;
+import ch.hearc.ig.orderresto.persistence.dialect.SqlDialect;
+import ch.hearc.ig.orderresto.persistence.exceptions.OrderPersistenceException;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 📊 AnalyticsMapper - Aggregates sales by restaurant, period and product.
+ * <p>
+ * Figures are read from the daily rollups maintained by {@link SalesRollupMapper}, never from the orders:
+ * the cost of a report depends on the number of days and restaurants or products, not on the number of
+ * orders. Periods are therefore whole days. Revenues are the stored order totals ({@code montant_total});
+ * orders written before totals were stored count for zero until {@code OrderTotalsBackfill} has run.
+ */
+public class AnalyticsMapper {
+    private static final ComponentMetrics METRICS = Metrics.getInstance().component(AnalyticsMapper.class);
+    private static final String FIGURES = "SUM(v.nb_commandes) AS nb_commandes, SUM(v.montant_total) AS chiffre, " +
+            "SUM(v.nb_emporter) AS nb_emporter";
+    private static final String PERIOD = "v.jour >= ? AND v.jour < ?";
+
+    /**
+     * 🏪 Aggregates the orders of a period by restaurant.
+     *
+     * @param from The first day of the period.
+     * @param to   The day after the period.
+     * @param conn The database connection used for the operation.
+     * @return The figures of every restaurant having orders in the period, highest revenue first.
+     * @throws OrderPersistenceException if an SQL error occurs.
+     */
+    public List<RestaurantSales> salesByRestaurant(LocalDate from, LocalDate to, Connection conn) throws OrderPersistenceException {
+        try (Probe probe = METRICS.start("salesByRestaurant")) {
+            String sql = "SELECT r.numero, r.nom, s.nb_commandes, s.chiffre, s.nb_emporter FROM (" +
+                    "SELECT v.fk_resto, " + FIGURES + " FROM Ventes_Restaurant_Jour v WHERE " + PERIOD +
+                    " GROUP BY v.fk_resto HAVING SUM(v.nb_commandes) > 0" +
+                    ") s JOIN Restaurant r ON r.numero = s.fk_resto " +
+                    "ORDER BY s.chiffre DESC, r.numero";
+            List<RestaurantSales> sales = new ArrayList<>();
+            try (PreparedStatement statement = conn.prepareStatement(sql)) {
+                bindPeriod(statement, from, to, null);
+                try (ResultSet rs = statement.executeQuery()) {
+                    while (rs.next()) {
+                        sales.add(new RestaurantSales(rs.getLong("numero"), rs.getString("nom"),
+                                rs.getLong("nb_commandes"), rs.getBigDecimal("chiffre"), rs.getLong("nb_emporter")));
+                    }
+                }
+            } catch (SQLException e) {
+                throw new OrderPersistenceException("Erreur lors de l'agrégation des commandes par restaurant", e);
+            }
+            return probe.ok(sales);
+        }
+    }
+
+    /**
+     * 📅 Aggregates the orders of a period by day, week or month.
+     *
+     * @param unit         {@link ChronoUnit#DAYS}, {@link ChronoUnit#WEEKS} or {@link ChronoUnit#MONTHS}.
+     * @param restaurantId The restaurant to restrict to, or {@code null} for all restaurants.
+     * @param from         The first day of the period.
+     * @param to           The day after the period.
+     * @param conn         The database connection used for the operation.
+     * @return The figures of every day, week or month having orders, in chronological order.
+     * @throws OrderPersistenceException if an SQL error occurs.
+     */
+    public List<PeriodSales> salesByPeriod(ChronoUnit unit, Long restaurantId, LocalDate from, LocalDate to,
+                                           Connection conn) throws OrderPersistenceException {
+        try (Probe probe = METRICS.start("salesByPeriod")) {
+            String bucket = SqlDialect.getInstance().truncate("v.jour", unit);
+            String sql = "SELECT " + bucket + " AS debut, " + FIGURES + " FROM Ventes_Restaurant_Jour v " +
+                    "WHERE " + PERIOD + (restaurantId != null ? " AND v.fk_resto = ?" : "") + " " +
+                    "GROUP BY " + bucket + " HAVING SUM(v.nb_commandes) > 0 ORDER BY debut";
+            List<PeriodSales> sales = new ArrayList<>();
+            try (PreparedStatement statement = conn.prepareStatement(sql)) {
+                bindPeriod(statement, from, to, restaurantId);
+                try (ResultSet rs = statement.executeQuery()) {
+                    while (rs.next()) {
+                        sales.add(new PeriodSales(rs.getTimestamp("debut").toLocalDateTime().toLocalDate(),
+                                rs.getLong("nb_commandes"), rs.getBigDecimal("chiffre"), rs.getLong("nb_emporter")));
+                    }
+                }
+            } catch (SQLException e) {
+                throw new OrderPersistenceException("Erreur lors de l'agrégation des commandes par période", e);
+            }
+            return probe.ok(sales);
+        }
+    }
+
+    /**
+     * 🏆 Lists the most ordered products of a period.
+     * <p>
+     * The order lines do not keep the price paid: a product's revenue is its number of orders times its current price.
+     *
+     * @param restaurantId The restaurant to restrict to, or {@code null} for all restaurants.
+     * @param from         The first day of the period.
+     * @param to           The day after the period.
+     * @param limit        The maximum number of products to return.
+     * @param conn         The database connection used for the operation.
+     * @return The products, most ordered first.
+     * @throws OrderPersistenceException if an SQL error occurs.
+     */
+    public List<ProductSales> topProducts(Long restaurantId, LocalDate from, LocalDate to, int limit,
+                                          Connection conn) throws OrderPersistenceException {
+        try (Probe probe = METRICS.start("topProducts")) {
+            String sql = "SELECT p.numero, p.nom, r.nom AS resto, s.quantite, s.quantite * p.prix_unitaire AS chiffre FROM (" +
+                    "SELECT v.fk_produit, SUM(v.quantite) AS quantite FROM Ventes_Produit_Jour v " +
+                    (restaurantId != null ? "JOIN Produit pr ON pr.numero = v.fk_produit " : "") +
+                    "WHERE " + PERIOD + (restaurantId != null ? " AND pr.fk_resto = ?" : "") + " " +
+                    "GROUP BY v.fk_produit HAVING SUM(v.quantite) > 0" +
+                    ") s JOIN Produit p ON p.numero = s.fk_produit " +
+                    "JOIN Restaurant r ON r.numero = p.fk_resto " +
+                    "ORDER BY s.quantite DESC, p.numero FETCH FIRST ? ROWS ONLY";
+            List<ProductSales> sales = new ArrayList<>();
+            try (PreparedStatement statement = conn.prepareStatement(sql)) {
+                int index = bindPeriod(statement, from, to, restaurantId);
+                statement.setInt(index, limit);
+                try (ResultSet rs = statement.executeQuery()) {
+                    while (rs.next()) {
+                        sales.add(new ProductSales(rs.getLong("numero"), rs.getString("nom"), rs.getString("resto"),
+                                rs.getLong("quantite"), rs.getBigDecimal("chiffre")));
+                    }
+                }
+            } catch (SQLException e) {
+                throw new OrderPersistenceException("Erreur lors du classement des produits", e);
+            }
+            return probe.ok(sales);
+        }
+    }
+
+    /**
+     * @return The index of the next parameter.
+     */
+    private static int bindPeriod(PreparedStatement statement, LocalDate from, LocalDate to, Long restaurantId) throws SQLException {
+        statement.setTimestamp(1, Timestamp.valueOf(from.atStartOfDay()));
+        statement.setTimestamp(2, Timestamp.valueOf(to.atStartOfDay()));
+        if (restaurantId == null) {
+            return 3;
+        }
+        statement.setLong(3, restaurantId);
+        return 4;
+    }
+}
@@ -1,19 +1,47 @@
 package ch.hearc.ig.orderresto.persistence.mappers;
 
+import ch.hearc.ig.orderresto.monitoring.CacheStats;
+import ch.hearc.ig.orderresto.monitoring.Metrics;
+import ch.hearc.ig.orderresto.persistence.EntityCache;
 import ch.hearc.ig.orderresto.persistence.IdentityMap;
+import ch.hearc.ig.orderresto.persistence.UnitOfWork;
 
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Predicate;
 
 /**
  * 🌐 BaseMapper - Abstract class providing basic caching operations for persistence mappers.
  * <p>
  * Manages caching of entities by ID to improve performance and reduce redundant database access.
- * Utilizes an {@link IdentityMap} to store and retrieve cached objects.
+ * Utilizes an {@link IdentityMap} to store and retrieve cached objects. By default this is the region
+ * of the process-wide {@link EntityCache}, shared by every mapper of the same entity type.
+ * <p>
+ * Inside a transaction, cache changes are staged in the thread's {@link UnitOfWork} and only reach the
+ * shared cache when the transaction commits.
+ * <p>
+ * Cache lookups are counted per mapper class in the {@link Metrics} registry.
  *
  * @param <T> The type of entity managed by the mapper.
  */
 public abstract class BaseMapper<T> {
-    protected final IdentityMap<T> identityMap = new IdentityMap<>();
+    protected final IdentityMap<T> identityMap;
+    private final CacheStats cacheStats;
+
+    /**
+     * @param entityType The entity type, whose region of the shared {@link EntityCache} is used.
+     */
+    protected BaseMapper(Class<T> entityType) {
+        this(EntityCache.getInstance().region(entityType));
+    }
+
+    /**
+     * @param identityMap The cache to use, e.g. one with a specific maximum size or time-to-live.
+     */
+    protected BaseMapper(IdentityMap<T> identityMap) {
+        this.identityMap = identityMap;
+        this.cacheStats = Metrics.getInstance().cache(getClass());
+    }
 
     /**
      * 🔍 Finds an entity in the cache.
@@ -22,7 +50,10 @@ public abstract class BaseMapper<T> {
      * @return An {@link Optional} containing the entity if found, or empty if not in cache.
      */
     protected Optional<T> findInCache(Long id) {
-        return Optional.ofNullable(identityMap.get(id));
+        UnitOfWork unitOfWork = UnitOfWork.current();
+        T entity = unitOfWork != null ? unitOfWork.get(identityMap, id) : identityMap.get(id);
+        cacheStats.record(entity != null);
+        return Optional.ofNullable(entity);
     }
 
     /**
@@ -32,7 +63,12 @@ public abstract class BaseMapper<T> {
      * @param entity The entity to add to the cache.
      */
     protected void addToCache(Long id, T entity) {
-        identityMap.put(id, entity);
+        UnitOfWork unitOfWork = UnitOfWork.current();
+        if (unitOfWork != null) {
+            unitOfWork.put(identityMap, id, entity);
+        } else {
+            identityMap.put(id, entity);
+        }
     }
 
     /**
@@ -42,7 +78,7 @@ public abstract class BaseMapper<T> {
      * @param entity The entity to update in the cache.
      */
     protected void updateInCache(Long id, T entity) {
-        identityMap.put(id, entity);
+        addToCache(id, entity);
     }
 
     /**
@@ -51,7 +87,38 @@ public abstract class BaseMapper<T> {
      * @param id The ID of the entity to remove from the cache.
      */
     protected void removeFromCache(Long id) {
-        identityMap.remove(id);
+        UnitOfWork unitOfWork = UnitOfWork.current();
+        if (unitOfWork != null) {
+            unitOfWork.remove(identityMap, id);
+        } else {
+            identityMap.remove(id);
+        }
+    }
+
+    /**
+     * 🧹 Evicts cached entities of another type that reference a modified or deleted entity.
+     * <p>
+     * Keeps the shared cache consistent with {@code ON DELETE CASCADE} and with objects holding a
+     * reference to a replaced instance.
+     *
+     * @param type      The type of the dependent entities.
+     * @param predicate Selects the dependent entities to evict.
+     * @param <E>       The type of the dependent entities.
+     */
+    protected <E> void evictDependents(Class<E> type, Predicate<? super E> predicate) {
+        IdentityMap<E> region = EntityCache.getInstance().region(type);
+        UnitOfWork unitOfWork = UnitOfWork.current();
+        if (unitOfWork != null) {
+            unitOfWork.removeIf(region, predicate);
+        } else {
+            region.removeIf(predicate);
+        }
     }
-}
 
+    /**
+     * @return {@code true} if the entity ID matches the given ID, null-safe.
+     */
+    protected static boolean sameId(Long entityId, Long id) {
+        return Objects.equals(entityId, id);
+    }
+}
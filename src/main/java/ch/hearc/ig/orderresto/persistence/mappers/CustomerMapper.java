@@ -1,11 +1,23 @@
 package ch.hearc.ig.orderresto.persistence.mappers;
 
 import ch.hearc.ig.orderresto.business.Customer;
+import ch.hearc.ig.orderresto.business.Order;
+import ch.hearc.ig.orderresto.monitoring.ComponentMetrics;
+import ch.hearc.ig.orderresto.monitoring.Metrics;
+import ch.hearc.ig.orderresto.monitoring.Probe;
+import ch.hearc.ig.orderresto.persistence.dialect.SqlDialect;
 import ch.hearc.ig.orderresto.persistence.exceptions.CustomerPersistenceException;
 import ch.hearc.ig.orderresto.persistence.utils.CustomerUtils;
+import ch.hearc.ig.orderresto.persistence.utils.SqlUtils;
 
 import java.sql.*;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * 🧭 CustomerMapper - Manages database operations for {@link Customer} entities.
@@ -13,6 +25,11 @@ import java.util.Optional;
  * Provides CRUD operations and utilizes an in-memory cache to optimize performance by reducing redundant database calls.
  */
 public class CustomerMapper extends BaseMapper<Customer> {
+    private static final ComponentMetrics METRICS = Metrics.getInstance().component(CustomerMapper.class);
+
+    public CustomerMapper() {
+        super(Customer.class);
+    }
 
     /**
      * ➕ Inserts a new customer into the database.
@@ -22,27 +39,28 @@ public class CustomerMapper extends BaseMapper<Customer> {
      * @throws CustomerPersistenceException if an SQL error occurs or no ID is generated.
      */
     public void insert(Customer customer, Connection conn) throws CustomerPersistenceException {
-        String query = "INSERT INTO CLIENT (telephone, email, nom, code_postal, localite, rue, num_rue, pays, est_une_femme, prenom, forme_sociale, type) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
-
-        try (PreparedStatement stmt = conn.prepareStatement(query, new String[]{"NUMERO"})) {
-            CustomerUtils.setPreparedStatementForCustomer(stmt, customer, CustomerUtils.QueryType.INSERT);
-            stmt.executeUpdate();
-
-            try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
-                if (generatedKeys.next()) {
-                    Long generatedId = generatedKeys.getLong(1);
-                    customer.setId(generatedId);
-                } else {
-                    throw new CustomerPersistenceException("Échec de l'insertion du client, aucun ID généré.");
+        try (Probe probe = METRICS.start("insert")) {
+            String query = "INSERT INTO CLIENT (telephone, email, nom, code_postal, localite, rue, num_rue, pays, est_une_femme, prenom, forme_sociale, type) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+            try (PreparedStatement stmt = conn.prepareStatement(query, SqlDialect.getInstance().generatedKeyColumns("numero"))) {
+                CustomerUtils.setPreparedStatementForCustomer(stmt, customer, CustomerUtils.QueryType.INSERT);
+                stmt.executeUpdate();
+
+                try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                    if (generatedKeys.next()) {
+                        Long generatedId = generatedKeys.getLong(1);
+                        customer.setId(generatedId);
+                    } else {
+                        throw new CustomerPersistenceException("Échec de l'insertion du client, aucun ID généré.");
+                    }
                 }
-            }
 
-                addToCache(customer.getId(), customer);
-        } catch (SQLException e) {
-            throw new CustomerPersistenceException("Erreur lors de l'insertion du client", e);
+                    addToCache(customer.getId(), customer);
+            } catch (SQLException e) {
+                throw new CustomerPersistenceException("Erreur lors de l'insertion du client", e);
+            }
+            probe.ok();
         }
-
-
     }
 
     /**
@@ -54,24 +72,26 @@ public class CustomerMapper extends BaseMapper<Customer> {
      * @throws CustomerPersistenceException if an SQL error occurs.
      */
     public Customer findByEmail(String email, Connection conn) throws CustomerPersistenceException {
-        String query = "SELECT * FROM CLIENT WHERE email = ?";
-        Customer customer = null;
-
-        try (PreparedStatement stmt = conn.prepareStatement(query)) {
-
-            stmt.setString(1, email);
-            ResultSet rs = stmt.executeQuery();
+        try (Probe probe = METRICS.start("findByEmail")) {
+            String query = "SELECT * FROM CLIENT WHERE email = ?";
+            Customer customer = null;
+
+            try (PreparedStatement stmt = conn.prepareStatement(query)) {
+
+                stmt.setString(1, email);
+                ResultSet rs = stmt.executeQuery();
+
+                if (rs.next()) {
+                    customer = CustomerUtils.mapCustomerFromResultSet(rs);
+                    if (customer != null) {
+                        addToCache(customer.getId(), customer);
+                    }            }
+            } catch (SQLException e) {
+                throw new CustomerPersistenceException("Erreur lors de la lecture du client", e);
+            }
 
-            if (rs.next()) {
-                customer = CustomerUtils.mapCustomerFromResultSet(rs);
-                if (customer != null) {
-                    addToCache(customer.getId(), customer);
-                }            }
-        } catch (SQLException e) {
-            throw new CustomerPersistenceException("Erreur lors de la lecture du client", e);
+            return probe.ok(customer);
         }
-
-        return customer;
     }
 
     /**
@@ -83,29 +103,82 @@ public class CustomerMapper extends BaseMapper<Customer> {
      * @throws CustomerPersistenceException if an SQL error occurs.
      */
     public Customer read(Long id, Connection conn) throws CustomerPersistenceException {
-        Optional<Customer> cachedCustomer = findInCache(id);
-        if (cachedCustomer.isPresent()) {
-            return cachedCustomer.get();
-        }
+        try (Probe probe = METRICS.start("read")) {
+            probe.attribute("id", id);
+            Optional<Customer> cachedCustomer = findInCache(id);
+            if (cachedCustomer.isPresent()) {
+                return probe.ok(cachedCustomer.get());
+            }
 
-        String query = "SELECT * FROM CLIENT WHERE numero = ?";
-        Customer customer = null;
+            String query = "SELECT * FROM CLIENT WHERE numero = ?";
+            Customer customer = null;
 
-        try (PreparedStatement stmt = conn.prepareStatement(query)) {
+            try (PreparedStatement stmt = conn.prepareStatement(query)) {
 
-            stmt.setLong(1, id);
-            ResultSet rs = stmt.executeQuery();
+                stmt.setLong(1, id);
+                ResultSet rs = stmt.executeQuery();
 
-            if (rs.next()) {
-                customer = CustomerUtils.mapCustomerFromResultSet(rs);
-                if (customer != null && customer.getId() != null) {
-                    addToCache(customer.getId(), customer);
+                if (rs.next()) {
+                    customer = CustomerUtils.mapCustomerFromResultSet(rs);
+                    if (customer != null && customer.getId() != null) {
+                        addToCache(customer.getId(), customer);
+                    }
                 }
+            } catch (SQLException e) {
+                throw new CustomerPersistenceException("Erreur lors de la recherche du client par ID", e);
             }
-        } catch (SQLException e) {
-            throw new CustomerPersistenceException("Erreur lors de la recherche du client par ID", e);
+            return probe.ok(customer);
+        }
+    }
+
+    /**
+     * 📚 Reads several customers at once, querying the database only for those not already cached.
+     *
+     * @param ids  The IDs of the customers to read.
+     * @param conn The database connection used for the operation.
+     * @return The found {@link Customer} entities indexed by ID; unknown IDs are absent from the map.
+     * @throws CustomerPersistenceException if an SQL error occurs.
+     */
+    public Map<Long, Customer> readAll(Collection<Long> ids, Connection conn) throws CustomerPersistenceException {
+        return readAll(ids, conn, LoadScope.SHARED);
+    }
+
+    Map<Long, Customer> readAll(Collection<Long> ids, Connection conn, LoadScope scope) throws CustomerPersistenceException {
+        // Sondé ici : les commandes chargent leurs clients par cette méthode
+        try (Probe probe = METRICS.start("readAll")) {
+            probe.attribute("ids", ids.size());
+            Map<Long, Customer> customers = new HashMap<>();
+            Set<Long> missing = new HashSet<>();
+            for (Long id : ids) {
+                Optional<Customer> cached = scope.find(this, id);
+                if (cached.isPresent()) {
+                    customers.put(id, cached.get());
+                } else {
+                    missing.add(id);
+                }
+            }
+
+            for (List<Long> chunk : SqlUtils.partition(missing)) {
+                String query = "SELECT * FROM CLIENT WHERE numero IN (" + SqlUtils.placeholders(chunk.size()) + ")";
+                try (PreparedStatement stmt = conn.prepareStatement(query)) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        stmt.setLong(i + 1, chunk.get(i));
+                    }
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            Customer customer = CustomerUtils.mapCustomerFromResultSet(rs);
+                            if (customer != null && customer.getId() != null) {
+                                scope.add(this, customer.getId(), customer);
+                                customers.put(customer.getId(), customer);
+                            }
+                        }
+                    }
+                } catch (SQLException e) {
+                    throw new CustomerPersistenceException("Erreur lors de la recherche des clients par lot", e);
+                }
+            }
+            return probe.ok(customers);
         }
-        return customer;
     }
 
     /**
@@ -116,14 +189,18 @@ public class CustomerMapper extends BaseMapper<Customer> {
      * @throws CustomerPersistenceException if an SQL error occurs.
      */
     public void update(Customer customer, Connection conn) throws CustomerPersistenceException {
-        String query = "UPDATE CLIENT SET telephone = ?, nom = ?, code_postal = ?, localite = ?, rue = ?, num_rue = ?, pays = ?, est_une_femme = ?, prenom = ?, forme_sociale = ? WHERE email = ?";
-
-        try (PreparedStatement stmt = conn.prepareStatement(query)) {
-            CustomerUtils.setPreparedStatementForCustomer(stmt, customer, CustomerUtils.QueryType.UPDATE);
-            stmt.executeUpdate();
-            updateInCache(customer.getId(), customer);
-        } catch (SQLException e) {
-            throw new CustomerPersistenceException("Erreur lors de la mise à jour du client", e);
+        try (Probe probe = METRICS.start("update")) {
+            String query = "UPDATE CLIENT SET telephone = ?, nom = ?, code_postal = ?, localite = ?, rue = ?, num_rue = ?, pays = ?, est_une_femme = ?, prenom = ?, forme_sociale = ? WHERE email = ?";
+
+            try (PreparedStatement stmt = conn.prepareStatement(query)) {
+                CustomerUtils.setPreparedStatementForCustomer(stmt, customer, CustomerUtils.QueryType.UPDATE);
+                stmt.executeUpdate();
+                updateInCache(customer.getId(), customer);
+                evictOrdersOf(customer.getId());
+            } catch (SQLException e) {
+                throw new CustomerPersistenceException("Erreur lors de la mise à jour du client", e);
+            }
+            probe.ok();
         }
     }
 
@@ -135,17 +212,33 @@ public class CustomerMapper extends BaseMapper<Customer> {
      * @throws CustomerPersistenceException if an SQL error occurs.
      */
     public void delete(Long id, Connection conn) throws CustomerPersistenceException {
-        String query = "DELETE FROM CLIENT WHERE numero = ?";
+        try (Probe probe = METRICS.start("delete")) {
+            String query = "DELETE FROM CLIENT WHERE numero = ?";
 
-        try (PreparedStatement stmt = conn.prepareStatement(query)) {
+            try (PreparedStatement stmt = conn.prepareStatement(query)) {
 
-            stmt.setLong(1, id);
-            stmt.executeUpdate();
-            if (findInCache(id).isPresent()) {
-                removeFromCache(id);
+                // Les commandes du client sont supprimées en cascade : leurs ventes sont retirées avant
+                new SalesRollupMapper().remove(SalesRollupMapper.CUSTOMER, conn, id);
+                stmt.setLong(1, id);
+                stmt.executeUpdate();
+                if (findInCache(id).isPresent()) {
+                    removeFromCache(id);
+                }
+                evictOrdersOf(id);
+            } catch (SQLException e) {
+                throw new CustomerPersistenceException("Erreur lors de la suppression du client", e);
             }
-        } catch (SQLException e) {
-            throw new CustomerPersistenceException("Erreur lors de la suppression du client", e);
+            probe.ok();
         }
     }
+
+    /**
+     * 🧹 Evicts cached orders of a customer, which hold a reference to the previous customer instance
+     * or were deleted by cascade.
+     *
+     * @param customerId The ID of the customer.
+     */
+    private void evictOrdersOf(Long customerId) {
+        evictDependents(Order.class, order -> order.getCustomer() != null && sameId(order.getCustomer().getId(), customerId));
+    }
 }
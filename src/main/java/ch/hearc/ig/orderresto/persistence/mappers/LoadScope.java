@@ -0,0 +1,50 @@
+package ch.hearc.ig.orderresto.persistence.mappers;
+
+import ch.hearc.ig.orderresto.persistence.IdentityMap;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 🗂️ LoadScope - Where the entities built by a loader are kept.
+ * <p>
+ * {@link #SHARED} keeps them in the shared cache, as reads by ID do. A {@link #scan()} scope, used by
+ * paginated and streaming scans, still reuses cached entities but keeps the ones it builds in a local map
+ * dropped with the page: a full scan runs in constant memory and does not push hot entries out of the cache.
+ */
+final class LoadScope {
+    static final LoadScope SHARED = new LoadScope(null);
+
+    private final Map<IdentityMap<?>, Map<Long, Object>> local;
+
+    private LoadScope(Map<IdentityMap<?>, Map<Long, Object>> local) {
+        this.local = local;
+    }
+
+    /**
+     * @return A scope for one page or chunk of a scan, to drop once its entities are handed over.
+     */
+    static LoadScope scan() {
+        return new LoadScope(new IdentityHashMap<>());
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> Optional<T> find(BaseMapper<T> mapper, Long id) {
+        Optional<T> cached = mapper.findInCache(id);
+        if (cached.isPresent() || local == null) {
+            return cached;
+        }
+        Map<Long, Object> entities = local.get(mapper.identityMap);
+        return Optional.ofNullable(entities == null ? null : (T) entities.get(id));
+    }
+
+    <T> void add(BaseMapper<T> mapper, Long id, T entity) {
+        if (local == null) {
+            mapper.addToCache(id, entity);
+        } else {
+            local.computeIfAbsent(mapper.identityMap, m -> new HashMap<>()).put(id, entity);
+        }
+    }
+}
@@ -2,22 +2,31 @@ package ch.hearc.ig.orderresto.persistence.mappers;
 
 import ch.hearc.ig.orderresto.business.Customer;
 import ch.hearc.ig.orderresto.business.Order;
+import ch.hearc.ig.orderresto.business.OrderSummary;
 import ch.hearc.ig.orderresto.business.Product;
 import ch.hearc.ig.orderresto.business.Restaurant;
+import ch.hearc.ig.orderresto.monitoring.ComponentMetrics;
+import ch.hearc.ig.orderresto.monitoring.Metrics;
+import ch.hearc.ig.orderresto.monitoring.Probe;
+import ch.hearc.ig.orderresto.persistence.dialect.SqlDialect;
 import ch.hearc.ig.orderresto.persistence.exceptions.CustomerPersistenceException;
 import ch.hearc.ig.orderresto.persistence.exceptions.OrderPersistenceException;
-import ch.hearc.ig.orderresto.persistence.exceptions.ProductPersistenceException;
 import ch.hearc.ig.orderresto.persistence.exceptions.RestaurantPersistenceException;
-import ch.hearc.ig.orderresto.service.exceptions.CustomerServiceException;
-import ch.hearc.ig.orderresto.service.exceptions.RestaurantServiceException;
+import ch.hearc.ig.orderresto.persistence.utils.SqlUtils;
 
+import java.math.BigDecimal;
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * 🧾 OrderMapper - Handles database operations for {@link Order} entities.
@@ -25,9 +34,21 @@ import java.util.Set;
  * Provides CRUD operations for orders and manages associations with customers, restaurants, and products.
  */
 public class OrderMapper extends BaseMapper<Order> {
+    private static final ComponentMetrics METRICS = Metrics.getInstance().component(OrderMapper.class);
+
+    /** Total of the current lines of the order {@code c}, for orders written before totals were stored. */
+    private static final String SUM_OF_LINES = "SELECT COALESCE(SUM(p.prix_unitaire), 0) FROM Produit_Commande pc " +
+            "JOIN Produit p ON p.numero = pc.fk_produit WHERE pc.fk_commande = c.numero";
+    private static final String SELECT = "SELECT numero, fk_client, fk_resto, a_emporter, quand, montant_total, nb_produits FROM Commande";
+
     private final CustomerMapper customerMapper = new CustomerMapper();
     private final ProductMapper productMapper = new ProductMapper();
     private final RestaurantMapper restaurantMapper = new RestaurantMapper();
+    private final SalesRollupMapper salesRollup = new SalesRollupMapper();
+
+    public OrderMapper() {
+        super(Order.class);
+    }
 
     /**
      * 🔍 Reads an order by its ID from the database.
@@ -38,29 +59,23 @@ public class OrderMapper extends BaseMapper<Order> {
      * @throws OrderPersistenceException if an SQL error or data retrieval error occurs.
      */
     public Order read(Long id, Connection conn) throws SQLException, OrderPersistenceException {
-        Optional<Order> cachedOrder = findInCache(id);
-        if (cachedOrder.isPresent()) {
-            return cachedOrder.get();
-        }
-
-        Order order = null;
-        String sql = "SELECT numero, fk_client, fk_resto, a_emporter, quand FROM Commande WHERE numero = ?";
+        try (Probe probe = METRICS.start("read")) {
+            probe.attribute("id", id);
+            Optional<Order> cachedOrder = findInCache(id);
+            if (cachedOrder.isPresent()) {
+                return probe.ok(cachedOrder.get());
+            }
 
-        try (PreparedStatement statement = conn.prepareStatement(sql)) {
-            statement.setLong(1, id);
-            ResultSet rs = statement.executeQuery();
+            String sql = SELECT + " WHERE numero = ?";
 
-            if (rs.next()) {
-                order = mapRowToOrder(rs, conn);
-                if (order.getId() != null) {
-                    addToCache(order.getId(), order);
-                }
+            try (PreparedStatement statement = conn.prepareStatement(sql)) {
+                statement.setLong(1, id);
+                List<Order> orders = loadOrders(statement, conn);
+                return probe.ok(orders.isEmpty() ? null : orders.get(0));
+            } catch (RestaurantPersistenceException | CustomerPersistenceException e) {
+                throw new OrderPersistenceException("Erreur lors de la recherche de la commande par ID", e);
             }
-        } catch (RestaurantPersistenceException | CustomerPersistenceException | ProductPersistenceException |
-                 CustomerServiceException | RestaurantServiceException e) {
-            throw new OrderPersistenceException("Erreur lors de la recherche de la commande par ID", e);
         }
-        return order;
     }
 
     /**
@@ -71,24 +86,11 @@ public class OrderMapper extends BaseMapper<Order> {
      * @throws OrderPersistenceException if an SQL error occurs.
      */
     public List<Order> findAll(Connection conn) throws SQLException, OrderPersistenceException {
-        List<Order> orders = new ArrayList<>();
-        String sql = "SELECT numero, fk_client, fk_resto, a_emporter, quand FROM Commande";
-
-        try (PreparedStatement statement = conn.prepareStatement(sql);
-             ResultSet rs = statement.executeQuery()) {
-
-            while (rs.next()) {
-                Order order = mapRowToOrder(rs, conn);
-                if (order.getId() != null) {
-                    addToCache(order.getId(), order);
-                }
-                orders.add(order);
-            }
-        } catch (RestaurantPersistenceException | CustomerPersistenceException | ProductPersistenceException |
-                 CustomerServiceException | RestaurantServiceException | SQLException e) {
+        try (Probe probe = METRICS.start("findAll"); PreparedStatement statement = conn.prepareStatement(SELECT)) {
+            return probe.ok(loadOrders(statement, conn));
+        } catch (RestaurantPersistenceException | CustomerPersistenceException | SQLException e) {
             throw new OrderPersistenceException("Erreur lors de la récupération de toutes les commandes", e);
         }
-        return orders;
     }
 
     /**
@@ -99,32 +101,105 @@ public class OrderMapper extends BaseMapper<Order> {
      * @throws OrderPersistenceException if an SQL error or ID generation error occurs.
      */
     public void insert(Order order, Connection conn) throws SQLException, OrderPersistenceException {
-        String sql = "INSERT INTO Commande (numero, fk_client, fk_resto, a_emporter, quand) VALUES (SEQ_COMMANDE.NEXTVAL, ?, ?, ?, ?)";
+        try (Probe probe = METRICS.start("insert")) {
+            SqlDialect dialect = SqlDialect.getInstance();
+            String sql = "INSERT INTO Commande (numero, fk_client, fk_resto, a_emporter, quand, montant_total, nb_produits) VALUES (" + dialect.nextValue("SEQ_COMMANDE") + ", ?, ?, ?, ?, ?, ?)";
+
+            try (PreparedStatement statement = conn.prepareStatement(sql, dialect.generatedKeyColumns("numero"))) {
+                statement.setLong(1, order.getCustomer().getId());
+                statement.setLong(2, order.getRestaurant().getId());
+                statement.setString(3, order.getTakeAway() ? "O" : "N");
+                statement.setTimestamp(4, Timestamp.valueOf(order.getWhen()));
+                setTotals(statement, 5, order);
+                statement.executeUpdate();
+
+                try (ResultSet generatedKeys = statement.getGeneratedKeys()) {
+                    if (generatedKeys.next()) {
+                        order.setId(generatedKeys.getLong(1));
+                    }
+                } catch (SQLException e) {
+                    throw new OrderPersistenceException("Échec de l'insertion de la commande, aucun ID généré.", e);
+                }
 
-        try (PreparedStatement statement = conn.prepareStatement(sql, new String[]{"numero"})) {
-            statement.setLong(1, order.getCustomer().getId());
-            statement.setLong(2, order.getRestaurant().getId());
-            statement.setString(3, order.getTakeAway() ? "O" : "N");
-            statement.setTimestamp(4, Timestamp.valueOf(order.getWhen()));
-            statement.executeUpdate();
+                try {
+                    insertOrderProducts(order.getId(), productIdsOf(order), conn);
+                } catch (SQLException e) {
+                    throw new OrderPersistenceException("Erreur lors de l'insertion des produits de la commande", e);
+                }
+                salesRollup.add(SalesRollupMapper.ORDER, conn, order.getId());
 
-            try (ResultSet generatedKeys = statement.getGeneratedKeys()) {
-                if (generatedKeys.next()) {
-                    order.setId(generatedKeys.getLong(1));
+                if (order.getId() != null) {
+                    addToCache(order.getId(), order);
                 }
-            } catch (SQLException e) {
-                throw new OrderPersistenceException("Échec de l'insertion de la commande, aucun ID généré.", e);
             }
+            probe.ok();
+        }
+    }
 
-            try {
-                insertOrderProducts(order, conn);
-            } catch (SQLException e) {
-                throw new OrderPersistenceException("Erreur lors de l'insertion des produits de la commande", e);
+    /**
+     * 📦 Inserts a batch of new orders with a fixed number of statements.
+     * <p>
+     * The IDs are reserved from {@code SEQ_COMMANDE} in one query, then the orders and their product
+     * lines are written with one JDBC batch each, and the sales rollups are updated by batches of
+     * {@link SqlUtils#MAX_IN_LIST_SIZE} orders. The orders get their ID as they are written; if an
+     * error occurs, the caller must roll back the transaction and discard these IDs.
+     *
+     * @param orders The {@link Order} entities to insert.
+     * @param conn   The database connection used for the operation.
+     * @throws OrderPersistenceException if an SQL error occurs.
+     */
+    public void insertAll(List<Order> orders, Connection conn) throws OrderPersistenceException {
+        try (Probe probe = METRICS.start("insertAll")) {
+            probe.attribute("orders", orders.size());
+            if (orders.isEmpty()) {
+                probe.ok();
+                return;
+            }
+            long[] ids = SqlUtils.nextValues(conn, "SEQ_COMMANDE", orders.size());
+
+            String orderSql = "INSERT INTO Commande (numero, fk_client, fk_resto, a_emporter, quand, montant_total, nb_produits) VALUES (?, ?, ?, ?, ?, ?, ?)";
+            String lineSql = "INSERT INTO PRODUIT_COMMANDE (fk_produit, fk_commande) VALUES (?, ?)";
+            try (PreparedStatement orderStatement = conn.prepareStatement(orderSql);
+                 PreparedStatement lineStatement = conn.prepareStatement(lineSql)) {
+                boolean hasLines = false;
+                for (int i = 0; i < orders.size(); i++) {
+                    Order order = orders.get(i);
+                    orderStatement.setLong(1, ids[i]);
+                    orderStatement.setLong(2, order.getCustomer().getId());
+                    orderStatement.setLong(3, order.getRestaurant().getId());
+                    orderStatement.setString(4, order.getTakeAway() ? "O" : "N");
+                    orderStatement.setTimestamp(5, Timestamp.valueOf(order.getWhen()));
+                    setTotals(orderStatement, 6, order);
+                    orderStatement.addBatch();
+
+                    for (Long productId : productIdsOf(order)) {
+                        lineStatement.setLong(1, productId);
+                        lineStatement.setLong(2, ids[i]);
+                        lineStatement.addBatch();
+                        hasLines = true;
+                    }
+                }
+                orderStatement.executeBatch();
+                // Les lignes après les commandes, pour la clé étrangère vers Commande
+                if (hasLines) {
+                    lineStatement.executeBatch();
+                }
             }
 
-            if (order.getId() != null) {
+            List<Long> orderIds = new ArrayList<>(ids.length);
+            for (int i = 0; i < orders.size(); i++) {
+                orders.get(i).setId(ids[i]);
+                orderIds.add(ids[i]);
+            }
+            for (List<Long> chunk : SqlUtils.partition(orderIds)) {
+                salesRollup.add(SalesRollupMapper.orders(chunk.size()), conn, chunk.stream().mapToLong(Long::longValue).toArray());
+            }
+            for (Order order : orders) {
                 addToCache(order.getId(), order);
             }
+            probe.ok();
+        } catch (SQLException e) {
+            throw new OrderPersistenceException("Erreur lors de l'insertion du lot de commandes", e);
         }
     }
 
@@ -136,24 +211,39 @@ public class OrderMapper extends BaseMapper<Order> {
      * @throws OrderPersistenceException if an SQL error occurs.
      */
     public void update(Order order, Connection conn) throws SQLException, OrderPersistenceException {
-        String sql = "UPDATE Commande SET fk_client = ?, fk_resto = ?, a_emporter = ?, quand = ? WHERE numero = ?";
-
-        try (PreparedStatement statement = conn.prepareStatement(sql)) {
-            statement.setLong(1, order.getCustomer().getId());
-            statement.setLong(2, order.getRestaurant().getId());
-            statement.setString(3, order.getTakeAway() ? "O" : "N");
-            statement.setTimestamp(4, Timestamp.valueOf(order.getWhen()));
-            statement.setLong(5, order.getId());
-            statement.executeUpdate();
-
-            deleteOrderProducts(order.getId(), conn);
-            insertOrderProducts(order, conn);
-
-            if (findInCache(order.getId()).isPresent()) {
-                updateInCache(order.getId(), order);
-            } else {
-                addToCache(order.getId(), order);
+        try (Probe probe = METRICS.start("update")) {
+            String sql = "UPDATE Commande SET fk_client = ?, fk_resto = ?, a_emporter = ?, quand = ?, montant_total = ?, nb_produits = ? WHERE numero = ?";
+
+            try (PreparedStatement statement = conn.prepareStatement(sql)) {
+                // Les ventes de la commande telle qu'enregistrée sont retirées, puis celles de la nouvelle version ajoutées
+                salesRollup.remove(SalesRollupMapper.ORDER, conn, order.getId());
+                statement.setLong(1, order.getCustomer().getId());
+                statement.setLong(2, order.getRestaurant().getId());
+                statement.setString(3, order.getTakeAway() ? "O" : "N");
+                statement.setTimestamp(4, Timestamp.valueOf(order.getWhen()));
+                setTotals(statement, 5, order);
+                statement.setLong(7, order.getId());
+                statement.executeUpdate();
+
+                // Seule la différence entre les lignes existantes et les produits de la commande est appliquée
+                Set<Long> wanted = productIdsOf(order);
+                Set<Long> existing = findProductIdsByOrderId(order.getId(), conn);
+                Set<Long> removed = new HashSet<>(existing);
+                removed.removeAll(wanted);
+                Set<Long> added = new HashSet<>(wanted);
+                added.removeAll(existing);
+
+                deleteOrderProducts(order.getId(), removed, conn);
+                insertOrderProducts(order.getId(), added, conn);
+                salesRollup.add(SalesRollupMapper.ORDER, conn, order.getId());
+
+                if (findInCache(order.getId()).isPresent()) {
+                    updateInCache(order.getId(), order);
+                } else {
+                    addToCache(order.getId(), order);
+                }
             }
+            probe.ok();
         }
     }
 
@@ -165,114 +255,246 @@ public class OrderMapper extends BaseMapper<Order> {
      * @throws OrderPersistenceException if an SQL error occurs.
      */
     public void delete(Long id, Connection conn) throws SQLException, OrderPersistenceException {
-        deleteOrderProducts(id, conn);
+        try (Probe probe = METRICS.start("delete")) {
+            salesRollup.remove(SalesRollupMapper.ORDER, conn, id);
+            deleteOrderProducts(id, conn);
 
-        String sql = "DELETE FROM Commande WHERE numero = ?";
-        try (PreparedStatement statement = conn.prepareStatement(sql)) {
-            statement.setLong(1, id);
-            statement.executeUpdate();
+            String sql = "DELETE FROM Commande WHERE numero = ?";
+            try (PreparedStatement statement = conn.prepareStatement(sql)) {
+                statement.setLong(1, id);
+                statement.executeUpdate();
 
-            findInCache(id).ifPresent(order -> removeFromCache(id));
+                findInCache(id).ifPresent(order -> removeFromCache(id));
+            }
+            probe.ok();
         }
     }
 
     /**
-     * 📦 Inserts products associated with an order into the database.
+     * 📦 Inserts product lines of an order into the database, in a single JDBC batch.
      *
-     * @param order The {@link Order} entity whose products to associate.
-     * @param conn  The database connection used for the operation.
+     * @param orderId    The ID of the order.
+     * @param productIds The IDs of the products to associate with the order.
+     * @param conn       The database connection used for the operation.
      * @throws SQLException if an SQL error occurs.
      */
-    private void insertOrderProducts(Order order, Connection conn) throws SQLException {
+    private void insertOrderProducts(Long orderId, Collection<Long> productIds, Connection conn) throws SQLException {
+        if (productIds.isEmpty()) {
+            return;
+        }
         String sql = "INSERT INTO PRODUIT_COMMANDE (fk_produit, fk_commande) VALUES (?, ?)";
-        Set<Long> insertedProducts = new HashSet<>();
 
         try (PreparedStatement statement = conn.prepareStatement(sql)) {
-            for (Product product : order.getProducts()) {
-                if (!insertedProducts.contains(product.getId())) {
-                    statement.setLong(1, product.getId());
-                    statement.setLong(2, order.getId());
-                    statement.executeUpdate();
-                    insertedProducts.add(product.getId());
-                }
+            for (Long productId : productIds) {
+                statement.setLong(1, productId);
+                statement.setLong(2, orderId);
+                statement.addBatch();
             }
+            statement.executeBatch();
         }
-
     }
 
     /**
-     * 🎨 Maps a row from a {@link ResultSet} to an {@link Order} object.
+     * 🗑️ Deletes all products associated with a specific order.
      *
-     * @param rs   The {@link ResultSet} containing the order data.
-     * @param conn The database connection used for the operation.
-     * @return The mapped {@link Order} entity.
-     * @throws SQLException               if an SQL error occurs.
-     * @throws RestaurantPersistenceException if related restaurant data retrieval fails.
-     * @throws CustomerPersistenceException if related customer data retrieval fails.
-     * @throws ProductPersistenceException if related product data retrieval fails.
+     * @param orderId The ID of the order whose products to delete.
+     * @param conn    The database connection used for the operation.
+     * @throws SQLException if an SQL error occurs.
      */
-    private Order mapRowToOrder(ResultSet rs, Connection conn) throws SQLException, RestaurantPersistenceException, CustomerPersistenceException, ProductPersistenceException, CustomerServiceException, RestaurantServiceException {
-        Long orderId = rs.getLong("numero");
-
-        Long customerId = rs.getLong("fk_client");
-        Customer customer = customerMapper.read(customerId, conn);
-
-        Long restaurantId = rs.getLong("fk_resto");
-        Restaurant restaurant = restaurantMapper.read(restaurantId, conn);
-
-        Boolean takeAway = "O".equalsIgnoreCase(rs.getString("a_emporter"));
-        LocalDateTime when = rs.getTimestamp("quand").toLocalDateTime();
-
-        Order order = new Order(orderId, customer, restaurant, takeAway, when);
+    private void deleteOrderProducts(Long orderId, Connection conn) throws SQLException {
+        String sql = "DELETE FROM Produit_Commande WHERE fk_commande = ?";
 
-        Set<Product> products = findProductsByOrderId(orderId, conn);
-        for (Product product : products) {
-            order.addProduct(product);
+        try (PreparedStatement statement = conn.prepareStatement(sql)) {
+            statement.setLong(1, orderId);
+            statement.executeUpdate();
         }
-        return order;
     }
 
     /**
-     * 🗑️ Deletes products associated with a specific order.
+     * 🗑️ Deletes some product lines of an order, in a single JDBC batch.
      *
-     * @param orderId The ID of the order whose products to delete.
-     * @param conn    The database connection used for the operation.
+     * @param orderId    The ID of the order.
+     * @param productIds The IDs of the products to dissociate from the order.
+     * @param conn       The database connection used for the operation.
      * @throws SQLException if an SQL error occurs.
      */
-    private void deleteOrderProducts(Long orderId, Connection conn) throws SQLException {
-        String sql = "DELETE FROM Produit_Commande WHERE fk_commande = ?";
+    private void deleteOrderProducts(Long orderId, Collection<Long> productIds, Connection conn) throws SQLException {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        String sql = "DELETE FROM Produit_Commande WHERE fk_commande = ? AND fk_produit = ?";
 
         try (PreparedStatement statement = conn.prepareStatement(sql)) {
-            statement.setLong(1, orderId);
-            statement.executeUpdate();
+            for (Long productId : productIds) {
+                statement.setLong(1, orderId);
+                statement.setLong(2, productId);
+                statement.addBatch();
+            }
+            statement.executeBatch();
         }
     }
 
     /**
-     * 🔗 Retrieves products associated with a given order ID.
+     * 🔗 Retrieves the IDs of the products currently associated with an order.
      *
      * @param orderId The ID of the order.
      * @param conn    The database connection used for the operation.
-     * @return A set of {@link Product} entities associated with the order.
-     * @throws ProductPersistenceException if an SQL error occurs or products cannot be retrieved.
+     * @return The product IDs of the order lines.
+     * @throws SQLException if an SQL error occurs.
      */
-    private Set<Product> findProductsByOrderId(Long orderId, Connection conn) throws ProductPersistenceException {
-        Set<Product> products = new HashSet<>();
+    private Set<Long> findProductIdsByOrderId(Long orderId, Connection conn) throws SQLException {
+        Set<Long> productIds = new HashSet<>();
         String sql = "SELECT fk_produit FROM Produit_Commande WHERE fk_commande = ?";
 
         try (PreparedStatement statement = conn.prepareStatement(sql)) {
             statement.setLong(1, orderId);
-            ResultSet rs = statement.executeQuery();
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    productIds.add(rs.getLong("fk_produit"));
+                }
+            }
+        }
+        return productIds;
+    }
+
+    /**
+     * 💰 Binds the total and product count of an order, computed from its products, and keeps the total on the order.
+     * <p>
+     * The total is stored at write time so that loaders, listings and reports never sum product prices.
+     * Like the lines written by {@link #productIdsOf}, a product counts once per ID, even if the order holds
+     * several instances of it.
+     */
+    private static void setTotals(PreparedStatement statement, int index, Order order) throws SQLException {
+        BigDecimal total = BigDecimal.ZERO;
+        Set<Long> productIds = new HashSet<>();
+        for (Product product : order.getProducts()) {
+            if (productIds.add(product.getId())) {
+                total = total.add(product.getUnitPrice());
+            }
+        }
+        order.setTotalAmount(total);
+        statement.setBigDecimal(index, total);
+        statement.setInt(index + 1, productIds.size());
+    }
+
+    private static Set<Long> productIdsOf(Order order) {
+        Set<Long> productIds = new HashSet<>();
+        for (Product product : order.getProducts()) {
+            productIds.add(product.getId());
+        }
+        return productIds;
+    }
+
+    /**
+     * 🧮 Executes an order query and loads the resulting orders with a fixed number of statements.
+     * <p>
+     * Instead of reading the customer, the restaurant and every product of each order one by one,
+     * the order rows are read first, then their product lines (joined with products and their
+     * restaurants), customers and remaining restaurants are fetched by batches of IDs.
+     * Orders already in cache are returned as is.
+     *
+     * @param statement The prepared order query, selecting {@code numero, fk_client, fk_resto, a_emporter, quand}.
+     * @param conn      The database connection used for the operation.
+     * @return The orders, in the order of the query rows.
+     * @throws SQLException                   if an SQL error occurs.
+     * @throws CustomerPersistenceException   if related customers cannot be retrieved.
+     * @throws RestaurantPersistenceException if related restaurants cannot be retrieved.
+     */
+    private List<Order> loadOrders(PreparedStatement statement, Connection conn) throws SQLException, CustomerPersistenceException, RestaurantPersistenceException {
+        return loadOrders(statement, conn, LoadScope.SHARED);
+    }
 
+    private List<Order> loadOrders(PreparedStatement statement, Connection conn, LoadScope scope) throws SQLException, CustomerPersistenceException, RestaurantPersistenceException {
+        OrderRows rows = new OrderRows();
+        try (ResultSet rs = statement.executeQuery()) {
             while (rs.next()) {
-                Long productId = rs.getLong("fk_produit");
-                Product product = productMapper.read(productId, conn);
-                products.add(product);
+                rows.read(rs, scope);
+            }
+        }
+        return resolveOrders(rows, conn, scope);
+    }
+
+    /**
+     * Builds the orders of the rows not found in the scope, loading their associations by batches of IDs.
+     */
+    private List<Order> resolveOrders(OrderRows rows, Connection conn, LoadScope scope) throws SQLException, CustomerPersistenceException, RestaurantPersistenceException {
+        if (!rows.pending.isEmpty()) {
+            Map<Long, Set<Product>> productsByOrder = findProductsByOrderIds(rows.pending.keySet(), conn, scope);
+
+            Set<Long> customerIds = new HashSet<>();
+            Set<Long> restaurantIds = new HashSet<>();
+            for (OrderRow row : rows.pending.values()) {
+                customerIds.add(row.customerId);
+                restaurantIds.add(row.restaurantId);
+            }
+            Map<Long, Customer> customers = customerMapper.readAll(customerIds, conn, scope);
+            Map<Long, Restaurant> restaurants = restaurantMapper.readAll(restaurantIds, conn, scope);
+
+            for (Map.Entry<Long, OrderRow> entry : rows.pending.entrySet()) {
+                OrderRow row = entry.getValue();
+                Order order = new Order(entry.getKey(), customers.get(row.customerId), restaurants.get(row.restaurantId), row.takeAway, row.when);
+                Set<Product> products = productsByOrder.getOrDefault(entry.getKey(), Collections.emptySet());
+                if (row.totalAmount != null) {
+                    // Total enregistré à l'écriture : pas de recalcul
+                    order.getProducts().addAll(products);
+                    order.setTotalAmount(row.totalAmount);
+                } else {
+                    // Commande antérieure aux totaux, pas encore complétée par OrderTotalsBackfill
+                    products.forEach(order::addProduct);
+                }
+                scope.add(this, order.getId(), order);
+                rows.orders.put(order.getId(), order);
+            }
+        }
+
+        // Le cache ne sert qu'à l'identité : il est borné et peut avoir évincé une partie du résultat
+        List<Order> orders = new ArrayList<>(rows.orderIds.size());
+        for (Long orderId : rows.orderIds) {
+            orders.add(rows.orders.get(orderId));
+        }
+        return orders;
+    }
+
+    /**
+     * 🔗 Retrieves the products of several orders, by batches of order IDs.
+     * <p>
+     * Product lines are joined with their product and restaurant so that no further query is needed per product.
+     *
+     * @param orderIds The IDs of the orders.
+     * @param conn     The database connection used for the operation.
+     * @return The products of each order, indexed by order ID.
+     * @throws SQLException if an SQL error occurs.
+     */
+    private Map<Long, Set<Product>> findProductsByOrderIds(Collection<Long> orderIds, Connection conn, LoadScope scope) throws SQLException {
+        Map<Long, Set<Product>> productsByOrder = new HashMap<>();
+
+        for (List<Long> chunk : SqlUtils.partition(orderIds)) {
+            String sql = "SELECT pc.fk_commande, p.numero, p.nom, p.prix_unitaire, p.description, p.fk_resto, " +
+                    "r.nom AS nom_resto, r.code_postal, r.localite, r.rue, r.num_rue, r.pays " +
+                    "FROM Produit_Commande pc " +
+                    "JOIN Produit p ON p.numero = pc.fk_produit " +
+                    "JOIN Restaurant r ON r.numero = p.fk_resto " +
+                    "WHERE pc.fk_commande IN (" + SqlUtils.placeholders(chunk.size()) + ")";
+
+            try (PreparedStatement statement = conn.prepareStatement(sql)) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    statement.setLong(i + 1, chunk.get(i));
+                }
+                try (ResultSet rs = statement.executeQuery()) {
+                    while (rs.next()) {
+                        Long productId = rs.getLong("numero");
+                        Product product = scope.find(productMapper, productId).orElse(null);
+                        if (product == null) {
+                            Restaurant restaurant = restaurantMapper.resolveFromRow(rs, rs.getLong("fk_resto"), "nom_resto", scope);
+                            product = productMapper.mapRowToProduct(rs, restaurant);
+                            scope.add(productMapper, productId, product);
+                        }
+                        productsByOrder.computeIfAbsent(rs.getLong("fk_commande"), k -> new HashSet<>()).add(product);
+                    }
+                }
             }
-        } catch (ProductPersistenceException | SQLException e) {
-            throw new ProductPersistenceException("Erreur lors de la récupération des produits par ID de commande", e);
         }
-        return products;
+        return productsByOrder;
     }
 
     /**
@@ -284,22 +506,204 @@ public class OrderMapper extends BaseMapper<Order> {
      * @throws OrderPersistenceException if an SQL error occurs or orders cannot be retrieved.
      */
     public List<Order> findOrdersByCustomer(Customer customer, Connection conn) throws SQLException, OrderPersistenceException {
-        List<Order> orders = new ArrayList<>();
-        String sql = "SELECT numero, fk_client, fk_resto, a_emporter, quand FROM Commande WHERE fk_client = ?";
+        try (Probe probe = METRICS.start("findOrdersByCustomer")) {
+            String sql = SELECT + " WHERE fk_client = ?";
+            try (PreparedStatement statement = conn.prepareStatement(sql)) {
+                statement.setLong(1, customer.getId());
+                return probe.ok(loadOrders(statement, conn));
+            } catch (RestaurantPersistenceException | CustomerPersistenceException | SQLException e) {
+                throw new OrderPersistenceException("Erreur lors de la récupération des commandes par client", e);
+            }
+        }
+    }
+
+    /**
+     * 🗒️ Reads the history of a customer: one summary per order, with its stored total.
+     * <p>
+     * A single query, whatever the number of orders; no order, product or restaurant is built or cached.
+     * Product lines are only summed for orders not yet completed by {@code OrderTotalsBackfill}.
+     *
+     * @param customerId The ID of the customer.
+     * @param conn       The database connection used for the operation.
+     * @return The summaries of the customer's orders, oldest first.
+     * @throws OrderPersistenceException if an SQL error occurs.
+     */
+    public List<OrderSummary> findSummariesByCustomer(Long customerId, Connection conn) throws OrderPersistenceException {
+        try (Probe probe = METRICS.start("findSummariesByCustomer")) {
+            String sql = "SELECT c.numero, c.quand, r.nom, COALESCE(c.montant_total, (" + SUM_OF_LINES + ")) AS total " +
+                    "FROM Commande c " +
+                    "JOIN Restaurant r ON r.numero = c.fk_resto " +
+                    "WHERE c.fk_client = ? " +
+                    "ORDER BY c.quand, c.numero";
+            List<OrderSummary> summaries = new ArrayList<>();
+            try (PreparedStatement statement = conn.prepareStatement(sql)) {
+                statement.setLong(1, customerId);
+                try (ResultSet rs = statement.executeQuery()) {
+                    while (rs.next()) {
+                        summaries.add(new OrderSummary(rs.getLong("numero"), customerId,
+                                rs.getTimestamp("quand").toLocalDateTime(), rs.getString("nom"), rs.getBigDecimal("total")));
+                    }
+                }
+            } catch (SQLException e) {
+                throw new OrderPersistenceException("Erreur lors de la lecture de l'historique du client", e);
+            }
+            return probe.ok(summaries);
+        }
+    }
+
+    /**
+     * 🧮 Stores the total and product count of the orders of an ID range, computed from their lines.
+     * The daily revenues of the range are updated in the same transaction.
+     *
+     * @param fromId   The first order ID of the range.
+     * @param toId     The last order ID of the range.
+     * @param onlyNull {@code true} to skip orders that already have a total.
+     * @param conn     The database connection used for the operation.
+     * @return The number of updated orders.
+     * @throws OrderPersistenceException if an SQL error occurs.
+     */
+    public int backfillTotals(long fromId, long toId, boolean onlyNull, Connection conn) throws OrderPersistenceException {
+        try (Probe probe = METRICS.start("backfillTotals")) {
+            String sql = "UPDATE Commande c SET montant_total = (" + SUM_OF_LINES + "), " +
+                    "nb_produits = (SELECT COUNT(*) FROM Produit_Commande pc WHERE pc.fk_commande = c.numero) " +
+                    "WHERE c.numero BETWEEN ? AND ?" + (onlyNull ? " AND c.montant_total IS NULL" : "");
+            try (PreparedStatement statement = conn.prepareStatement(sql)) {
+                salesRollup.removeRestaurantFigures(SalesRollupMapper.ORDER_RANGE, conn, fromId, toId);
+                statement.setLong(1, fromId);
+                statement.setLong(2, toId);
+                int updated = statement.executeUpdate();
+                salesRollup.addRestaurantFigures(SalesRollupMapper.ORDER_RANGE, conn, fromId, toId);
+                probe.ok();
+                return updated;
+            } catch (SQLException e) {
+                throw new OrderPersistenceException("Erreur lors du calcul des totaux des commandes " + fromId + " à " + toId, e);
+            }
+        }
+    }
+
+    /**
+     * 🧮 Recomputes the stored totals of the orders containing a product about to be deleted, from their other lines.
+     * To be called before the product is deleted, as its lines go with it ({@code ON DELETE CASCADE}).
+     * The daily revenues of the restaurant follow; the product's own daily rows are deleted with it.
+     */
+    static void recomputeTotalsWithout(Long productId, Connection conn) throws SQLException {
+        String sql = "UPDATE Commande c SET " +
+                "montant_total = (" + SUM_OF_LINES + " AND pc.fk_produit <> ?), " +
+                "nb_produits = (SELECT COUNT(*) FROM Produit_Commande pc WHERE pc.fk_commande = c.numero AND pc.fk_produit <> ?) " +
+                "WHERE c.numero IN (SELECT fk_commande FROM Produit_Commande WHERE fk_produit = ?)";
+        SalesRollupMapper salesRollup = new SalesRollupMapper();
         try (PreparedStatement statement = conn.prepareStatement(sql)) {
-            statement.setLong(1, customer.getId());
-            ResultSet rs = statement.executeQuery();
-            while (rs.next()) {
-                Order order = mapRowToOrder(rs, conn);
-                if (order.getId() != null) {
-                    addToCache(order.getId(), order);
+            salesRollup.removeRestaurantFigures(SalesRollupMapper.ORDERS_WITH_PRODUCT, conn, productId);
+            statement.setLong(1, productId);
+            statement.setLong(2, productId);
+            statement.setLong(3, productId);
+            statement.executeUpdate();
+            salesRollup.addRestaurantFigures(SalesRollupMapper.ORDERS_WITH_PRODUCT, conn, productId);
+        }
+    }
+
+    /**
+     * 📄 Reads a page of orders in ID order, without filling the cache.
+     *
+     * @param afterId The ID of the last order of the previous page, or {@code null} for the first page.
+     * @param limit   The maximum number of orders to return.
+     * @param conn    The database connection used for the operation.
+     * @return The orders of the page, with their customer, restaurant and products.
+     * @throws OrderPersistenceException if an SQL error occurs.
+     */
+    public List<Order> findPage(Long afterId, int limit, Connection conn) throws OrderPersistenceException {
+        try (Probe probe = METRICS.start("findPage"); PreparedStatement statement = conn.prepareStatement(SqlUtils.keysetPage(SELECT, "numero"))) {
+            SqlUtils.bindKeysetPage(statement, afterId, limit);
+            return probe.ok(loadOrders(statement, conn, LoadScope.scan()));
+        } catch (RestaurantPersistenceException | CustomerPersistenceException | SQLException e) {
+            throw new OrderPersistenceException("Erreur lors de la lecture d'une page de commandes", e);
+        }
+    }
+
+    /**
+     * 🌊 Hands every order to a consumer in ID order, without filling the cache.
+     * <p>
+     * Order rows are read through a single cursor; every {@code fetchSize} rows (at most
+     * {@link SqlUtils#MAX_IN_LIST_SIZE}), their associations are loaded in batch and the orders handed
+     * over, so only one chunk of orders is held in memory at a time.
+     *
+     * @param conn      The database connection used for the operation.
+     * @param fetchSize The number of rows fetched per round trip.
+     * @param consumer  Receives each order, with its customer, restaurant and products.
+     * @throws OrderPersistenceException if an SQL error occurs.
+     */
+    public void stream(Connection conn, int fetchSize, Consumer<Order> consumer) throws OrderPersistenceException {
+        if (fetchSize < 1) {
+            throw new IllegalArgumentException("La taille de lot doit être positive : " + fetchSize);
+        }
+        try (Probe probe = METRICS.start("stream")) {
+            int chunkSize = Math.min(fetchSize, SqlUtils.MAX_IN_LIST_SIZE);
+            Consumer<Order> counted = probe.counting(consumer);
+            try (PreparedStatement statement = conn.prepareStatement(SELECT + " ORDER BY numero")) {
+                statement.setFetchSize(fetchSize);
+                try (ResultSet rs = statement.executeQuery()) {
+                    LoadScope scope = LoadScope.scan();
+                    OrderRows rows = new OrderRows();
+                    while (rs.next()) {
+                        rows.read(rs, scope);
+                        if (rows.orderIds.size() == chunkSize) {
+                            resolveOrders(rows, conn, scope).forEach(counted);
+                            scope = LoadScope.scan();
+                            rows = new OrderRows();
+                        }
+                    }
+                    resolveOrders(rows, conn, scope).forEach(counted);
                 }
-                orders.add(order);
+            } catch (RestaurantPersistenceException | CustomerPersistenceException | SQLException e) {
+                throw new OrderPersistenceException("Erreur lors du parcours des commandes", e);
             }
-        } catch (RestaurantPersistenceException | CustomerPersistenceException | ProductPersistenceException |
-                 CustomerServiceException | RestaurantServiceException | SQLException e) {
-            throw new OrderPersistenceException("Erreur lors de la récupération des commandes par client", e);
+            probe.ok();
+        }
+    }
+
+    /**
+     * Order IDs in query order, and the rows of those still to be built.
+     */
+    private class OrderRows {
+        private final List<Long> orderIds = new ArrayList<>();
+        /** Orders of the result, by ID: the cache may evict them before the result is built. */
+        private final Map<Long, Order> orders = new HashMap<>();
+        private final Map<Long, OrderRow> pending = new HashMap<>();
+
+        private void read(ResultSet rs, LoadScope scope) throws SQLException {
+            Long orderId = rs.getLong("numero");
+            orderIds.add(orderId);
+            Optional<Order> found = scope.find(OrderMapper.this, orderId);
+            if (found.isPresent()) {
+                orders.put(orderId, found.get());
+            } else {
+                pending.put(orderId, new OrderRow(
+                        rs.getLong("fk_client"),
+                        rs.getLong("fk_resto"),
+                        "O".equalsIgnoreCase(rs.getString("a_emporter")),
+                        rs.getTimestamp("quand").toLocalDateTime(),
+                        rs.getBigDecimal("montant_total")
+                ));
+            }
+        }
+    }
+
+    /**
+     * Columns of a COMMANDE row kept aside until its customer, restaurant and products are loaded.
+     */
+    private static class OrderRow {
+        private final Long customerId;
+        private final Long restaurantId;
+        private final Boolean takeAway;
+        private final LocalDateTime when;
+        private final BigDecimal totalAmount;
+
+        private OrderRow(Long customerId, Long restaurantId, Boolean takeAway, LocalDateTime when, BigDecimal totalAmount) {
+            this.customerId = customerId;
+            this.restaurantId = restaurantId;
+            this.takeAway = takeAway;
+            this.when = when;
+            this.totalAmount = totalAmount;
         }
-        return orders;
     }
 }
@@ -1,15 +1,26 @@
 package ch.hearc.ig.orderresto.persistence.mappers;
 
+import ch.hearc.ig.orderresto.business.Order;
 import ch.hearc.ig.orderresto.business.Product;
 import ch.hearc.ig.orderresto.business.Restaurant;
+import ch.hearc.ig.orderresto.monitoring.ComponentMetrics;
+import ch.hearc.ig.orderresto.monitoring.Metrics;
+import ch.hearc.ig.orderresto.monitoring.Probe;
+import ch.hearc.ig.orderresto.persistence.dialect.SqlDialect;
 import ch.hearc.ig.orderresto.persistence.exceptions.ProductPersistenceException;
-import ch.hearc.ig.orderresto.persistence.exceptions.RestaurantPersistenceException;
+import ch.hearc.ig.orderresto.persistence.utils.SqlUtils;
 
 import java.math.BigDecimal;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * 🛒 ProductMapper - Manages database operations for {@link Product} entities.
@@ -17,32 +28,60 @@ import java.util.Optional;
  * Provides CRUD operations for products and manages associations with restaurants.
  */
 public class ProductMapper extends BaseMapper<Product> {
+    private static final ComponentMetrics METRICS = Metrics.getInstance().component(ProductMapper.class);
+
+    /**
+     * Products joined with their restaurant, so that a list of products costs a single query
+     * whatever the number of distinct restaurants.
+     */
+    private static final String SELECT_WITH_RESTAURANT =
+            "SELECT p.numero, p.nom, p.prix_unitaire, p.description, p.fk_resto, " +
+            "r.nom AS nom_resto, r.code_postal, r.localite, r.rue, r.num_rue, r.pays " +
+            "FROM Produit p JOIN Restaurant r ON r.numero = p.fk_resto";
+
     private final RestaurantMapper restaurantMapper = new RestaurantMapper();
 
+    public ProductMapper() {
+        super(Product.class);
+    }
+
     /**
-     * 🧩 Extracts a {@link Product} from a {@link ResultSet}.
+     * 🧩 Extracts a {@link Product} from a row of {@link #SELECT_WITH_RESTAURANT}.
+     * <p>
+     * The restaurant is taken from the cache or built from the joined columns: no query is issued per row.
      *
-     * @param rs   The {@link ResultSet} containing product data.
-     * @param conn The database connection used for the operation.
+     * @param rs The {@link ResultSet} containing product and restaurant data.
      * @return The {@link Product} entity extracted from the result set.
      * @throws ProductPersistenceException if an error occurs while extracting the product.
      */
-    private Product extractProductFromResultSet(ResultSet rs, Connection conn) throws ProductPersistenceException {
+    private Product extractProductFromResultSet(ResultSet rs) throws ProductPersistenceException {
         try {
-            Long productId = rs.getLong("numero");
-            String name = rs.getString("nom");
-            BigDecimal price = rs.getBigDecimal("prix_unitaire");
-            String description = rs.getString("description");
-            Long restaurantId = rs.getLong("fk_resto");
-            Restaurant restaurant = getRestaurantById(restaurantId, conn);
-
-            return new Product(productId, name, price, description, restaurant);
-
-        } catch (SQLException | RestaurantPersistenceException e) {
+            Restaurant restaurant = restaurantMapper.resolveFromRow(rs, rs.getLong("fk_resto"), "nom_resto");
+            return mapRowToProduct(rs, restaurant);
+        } catch (SQLException e) {
             throw new ProductPersistenceException("Erreur lors de l'extraction du produit du ResultSet", e);
         }
     }
 
+    /**
+     * 🧩 Builds a {@link Product} from the current row, using an already resolved restaurant.
+     * <p>
+     * Lets set-based loaders resolve restaurants once for many rows instead of once per row.
+     *
+     * @param rs         The {@link ResultSet} positioned on a row holding the product columns.
+     * @param restaurant The restaurant referenced by the row's {@code fk_resto}.
+     * @return The {@link Product} entity.
+     * @throws SQLException if a column cannot be read.
+     */
+    Product mapRowToProduct(ResultSet rs, Restaurant restaurant) throws SQLException {
+        Long productId = rs.getLong("numero");
+        String name = rs.getString("nom");
+        BigDecimal price = rs.getBigDecimal("prix_unitaire");
+        String description = rs.getString("description");
+
+        return new Product(productId, name, price, description, restaurant);
+    }
+
     /**
      * 🔍 Reads a product by its ID from the database, with cache support.
      *
@@ -52,27 +91,30 @@ public class ProductMapper extends BaseMapper<Product> {
      * @throws ProductPersistenceException if an SQL error or data retrieval error occurs.
      */
     public Product read(Long id, Connection conn) throws ProductPersistenceException {
-        Optional<Product> cachedProduct = findInCache(id);
-        if (cachedProduct.isPresent()) {
-            return cachedProduct.get();
-        }
+        try (Probe probe = METRICS.start("read")) {
+            probe.attribute("id", id);
+            Optional<Product> cachedProduct = findInCache(id);
+            if (cachedProduct.isPresent()) {
+                return probe.ok(cachedProduct.get());
+            }
 
-        String sql = "SELECT numero, nom, prix_unitaire, description, fk_resto FROM Produit WHERE numero = ?";
-        try (PreparedStatement statement = conn.prepareStatement(sql)) {
-            statement.setLong(1, id);
-            ResultSet rs = statement.executeQuery();
+            String sql = SELECT_WITH_RESTAURANT + " WHERE p.numero = ?";
+            try (PreparedStatement statement = conn.prepareStatement(sql)) {
+                statement.setLong(1, id);
+                ResultSet rs = statement.executeQuery();
 
 
 
-            if (rs.next()) {
-                Product product = extractProductFromResultSet(rs, conn);
-                addToCache(id, product);
-                return product;
+                if (rs.next()) {
+                    Product product = extractProductFromResultSet(rs);
+                    addToCache(id, product);
+                    return probe.ok(product);
+                }
+            } catch (SQLException e) {
+                throw new ProductPersistenceException("Erreur lors de la récupération du produit avec ID: " + id, e);
             }
-        } catch (SQLException e) {
-            throw new ProductPersistenceException("Erreur lors de la récupération du produit avec ID: " + id, e);
+            return probe.ok(null);
         }
-        return null;
     }
 
     /**
@@ -83,22 +125,25 @@ public class ProductMapper extends BaseMapper<Product> {
      * @throws ProductPersistenceException if an SQL error or ID generation error occurs.
      */
     public void insert(Product product, Connection conn) throws ProductPersistenceException {
-        String sql = "INSERT INTO Produit (nom, prix_unitaire, description, fk_resto) VALUES (?, ?, ?, ?)";
-
-        try (PreparedStatement statement = conn.prepareStatement(sql, new String[]{"NUMERO"})) {
-            statement.setString(1, product.getName());
-            statement.setBigDecimal(2, product.getUnitPrice());
-            statement.setString(3, product.getDescription());
-            statement.setLong(4, product.getRestaurant().getId());
-
-            statement.executeUpdate();
-            ResultSet generatedKeys = statement.getGeneratedKeys();
-            if (generatedKeys.next()) {
-                product.setId(generatedKeys.getLong(1));
-                addToCache(product.getId(), product);
+        try (Probe probe = METRICS.start("insert")) {
+            String sql = "INSERT INTO Produit (nom, prix_unitaire, description, fk_resto) VALUES (?, ?, ?, ?)";
+
+            try (PreparedStatement statement = conn.prepareStatement(sql, SqlDialect.getInstance().generatedKeyColumns("numero"))) {
+                statement.setString(1, product.getName());
+                statement.setBigDecimal(2, product.getUnitPrice());
+                statement.setString(3, product.getDescription());
+                statement.setLong(4, product.getRestaurant().getId());
+
+                statement.executeUpdate();
+                ResultSet generatedKeys = statement.getGeneratedKeys();
+                if (generatedKeys.next()) {
+                    product.setId(generatedKeys.getLong(1));
+                    addToCache(product.getId(), product);
+                }
+            } catch (SQLException e) {
+                throw new ProductPersistenceException("Erreur lors de l'insertion du produit: " + product, e);
             }
-        } catch (SQLException e) {
-            throw new ProductPersistenceException("Erreur lors de l'insertion du produit: " + product, e);
+            probe.ok();
         }
     }
 
@@ -110,19 +155,23 @@ public class ProductMapper extends BaseMapper<Product> {
      * @throws ProductPersistenceException if an SQL error occurs.
      */
     public void update(Product product, Connection conn) throws ProductPersistenceException {
-        String sql = "UPDATE Produit SET nom = ?, prix_unitaire = ?, description = ?, fk_resto = ? WHERE numero = ?";
+        try (Probe probe = METRICS.start("update")) {
+            String sql = "UPDATE Produit SET nom = ?, prix_unitaire = ?, description = ?, fk_resto = ? WHERE numero = ?";
 
-        try (PreparedStatement statement = conn.prepareStatement(sql)) {
-            statement.setString(1, product.getName());
-            statement.setBigDecimal(2, product.getUnitPrice());
-            statement.setString(3, product.getDescription());
-            statement.setLong(4, product.getRestaurant().getId());
-            statement.setLong(5, product.getId());
+            try (PreparedStatement statement = conn.prepareStatement(sql)) {
+                statement.setString(1, product.getName());
+                statement.setBigDecimal(2, product.getUnitPrice());
+                statement.setString(3, product.getDescription());
+                statement.setLong(4, product.getRestaurant().getId());
+                statement.setLong(5, product.getId());
 
-            statement.executeUpdate();
-            updateInCache(product.getId(), product);
-        } catch (SQLException e) {
-            throw new ProductPersistenceException("Erreur lors de la mise à jour du produit: " + product, e);
+                statement.executeUpdate();
+                updateInCache(product.getId(), product);
+                evictOrdersContaining(product.getId());
+            } catch (SQLException e) {
+                throw new ProductPersistenceException("Erreur lors de la mise à jour du produit: " + product, e);
+            }
+            probe.ok();
         }
     }
 
@@ -134,27 +183,64 @@ public class ProductMapper extends BaseMapper<Product> {
      * @throws ProductPersistenceException if an SQL error occurs.
      */
     public void delete(Long id, Connection conn) throws ProductPersistenceException {
-        String sql = "DELETE FROM Produit WHERE numero = ?";
+        try (Probe probe = METRICS.start("delete")) {
+            String sql = "DELETE FROM Produit WHERE numero = ?";
 
-        try (PreparedStatement statement = conn.prepareStatement(sql)) {
-            statement.setLong(1, id);
-            statement.executeUpdate();
-            removeFromCache(id);
-        } catch (SQLException e) {
-            throw new ProductPersistenceException("Erreur lors de la suppression du produit avec ID: " + id, e);
+            try (PreparedStatement statement = conn.prepareStatement(sql)) {
+                OrderMapper.recomputeTotalsWithout(id, conn);
+                statement.setLong(1, id);
+                statement.executeUpdate();
+                removeFromCache(id);
+                evictOrdersContaining(id);
+            } catch (SQLException e) {
+                throw new ProductPersistenceException("Erreur lors de la suppression du produit avec ID: " + id, e);
+            }
+            probe.ok();
         }
     }
 
     /**
-     * 🏠 Retrieves a {@link Restaurant} entity by its ID.
+     * 📚 Reads several products at once, querying the database only for those not already cached.
+     * <p>
+     * Missing products are fetched with one {@code IN} query per batch of {@link SqlUtils#MAX_IN_LIST_SIZE} IDs.
      *
-     * @param restaurantId The ID of the restaurant to retrieve.
-     * @param conn         The database connection used for the operation.
-     * @return The {@link Restaurant} associated with the given ID.
-     * @throws RestaurantPersistenceException if an SQL error occurs.
+     * @param ids  The IDs of the products to read.
+     * @param conn The database connection used for the operation.
+     * @return The found {@link Product} entities indexed by ID; unknown IDs are absent from the map.
+     * @throws ProductPersistenceException if an SQL error occurs.
      */
-    private Restaurant getRestaurantById(Long restaurantId, Connection conn) throws RestaurantPersistenceException {
-        return restaurantMapper.read(restaurantId, conn);
+    public Map<Long, Product> readAll(Collection<Long> ids, Connection conn) throws ProductPersistenceException {
+        try (Probe probe = METRICS.start("readAll")) {
+            Map<Long, Product> products = new HashMap<>();
+            Set<Long> missing = new HashSet<>();
+            for (Long id : ids) {
+                Optional<Product> cached = findInCache(id);
+                if (cached.isPresent()) {
+                    products.put(id, cached.get());
+                } else {
+                    missing.add(id);
+                }
+            }
+
+            for (List<Long> chunk : SqlUtils.partition(missing)) {
+                String sql = SELECT_WITH_RESTAURANT + " WHERE p.numero IN (" + SqlUtils.placeholders(chunk.size()) + ")";
+                try (PreparedStatement statement = conn.prepareStatement(sql)) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        statement.setLong(i + 1, chunk.get(i));
+                    }
+                    try (ResultSet rs = statement.executeQuery()) {
+                        while (rs.next()) {
+                            Product product = extractProductFromResultSet(rs);
+                            addToCache(product.getId(), product);
+                            products.put(product.getId(), product);
+                        }
+                    }
+                } catch (SQLException e) {
+                    throw new ProductPersistenceException("Erreur lors de la récupération des produits par lot", e);
+                }
+            }
+            return probe.ok(products);
+        }
     }
 
     /**
@@ -166,22 +252,24 @@ public class ProductMapper extends BaseMapper<Product> {
      * @throws ProductPersistenceException if an SQL error occurs.
      */
     public List<Product> getProductsByRestaurantId(Long restaurantId, Connection conn) throws ProductPersistenceException {
-        List<Product> products = new ArrayList<>();
-        String sql = "SELECT numero, nom, prix_unitaire, description, fk_resto FROM Produit WHERE fk_resto = ?";
+        try (Probe probe = METRICS.start("getProductsByRestaurantId")) {
+            List<Product> products = new ArrayList<>();
+            String sql = SELECT_WITH_RESTAURANT + " WHERE p.fk_resto = ?";
 
-        try (PreparedStatement statement = conn.prepareStatement(sql)) {
-            statement.setLong(1, restaurantId);
-            ResultSet rs = statement.executeQuery();
+            try (PreparedStatement statement = conn.prepareStatement(sql)) {
+                statement.setLong(1, restaurantId);
+                ResultSet rs = statement.executeQuery();
 
-            while (rs.next()) {
-                Product product = extractProductFromResultSet(rs, conn);
-                products.add(product);
-                addToCache(product.getId(), product);
+                while (rs.next()) {
+                    Product product = extractProductFromResultSet(rs);
+                    products.add(product);
+                    addToCache(product.getId(), product);
+                }
+            } catch (SQLException e) {
+                throw new ProductPersistenceException("Erreur lors de la récupération des produits pour le restaurant avec ID: " + restaurantId, e);
             }
-        } catch (SQLException e) {
-            throw new ProductPersistenceException("Erreur lors de la récupération des produits pour le restaurant avec ID: " + restaurantId, e);
+            return probe.ok(products);
         }
-        return products;
     }
 
     /**
@@ -192,20 +280,105 @@ public class ProductMapper extends BaseMapper<Product> {
      * @throws ProductPersistenceException if an SQL error occurs.
      */
     public List<Product> findAll(Connection conn) throws ProductPersistenceException {
-        List<Product> products = new ArrayList<>();
-        String sql = "SELECT numero, nom, prix_unitaire, description, fk_resto FROM Produit";
+        try (Probe probe = METRICS.start("findAll")) {
+            List<Product> products = new ArrayList<>();
+            String sql = SELECT_WITH_RESTAURANT;
+
+            try (PreparedStatement statement = conn.prepareStatement(sql)) {
+                ResultSet rs = statement.executeQuery();
 
-        try (PreparedStatement statement = conn.prepareStatement(sql)) {
-            ResultSet rs = statement.executeQuery();
+                while (rs.next()) {
+                    Product product = extractProductFromResultSet(rs);
+                    products.add(product);
+                    addToCache(product.getId(), product);
+                }
+            } catch (SQLException e) {
+                throw new ProductPersistenceException("Erreur lors de la récupération de tous les produits", e);
+            }
+            return probe.ok(products);
+        }
+    }
 
-            while (rs.next()) {
-                Product product = extractProductFromResultSet(rs, conn);
-                products.add(product);
-                addToCache(product.getId(), product);
+    /**
+     * 📄 Reads a page of products in ID order, without filling the cache.
+     *
+     * @param afterId The ID of the last product of the previous page, or {@code null} for the first page.
+     * @param limit   The maximum number of products to return.
+     * @param conn    The database connection used for the operation.
+     * @return The products of the page, with their restaurant.
+     * @throws ProductPersistenceException if an SQL error occurs.
+     */
+    public List<Product> findPage(Long afterId, int limit, Connection conn) throws ProductPersistenceException {
+        try (Probe probe = METRICS.start("findPage")) {
+            List<Product> products = new ArrayList<>();
+            LoadScope scope = LoadScope.scan();
+            try (PreparedStatement statement = conn.prepareStatement(SqlUtils.keysetPage(SELECT_WITH_RESTAURANT, "p.numero"))) {
+                SqlUtils.bindKeysetPage(statement, afterId, limit);
+                try (ResultSet rs = statement.executeQuery()) {
+                    while (rs.next()) {
+                        products.add(resolveFromRow(rs, scope));
+                    }
+                }
+            } catch (SQLException e) {
+                throw new ProductPersistenceException("Erreur lors de la lecture d'une page de produits", e);
             }
+            return probe.ok(products);
+        }
+    }
+
+    /**
+     * 🌊 Hands every product to a consumer in ID order, without filling the cache.
+     * <p>
+     * Only one fetch of rows is held in memory at a time, whatever the size of the table.
+     *
+     * @param conn      The database connection used for the operation.
+     * @param fetchSize The number of rows fetched per round trip.
+     * @param consumer  Receives each product, with its restaurant.
+     * @throws ProductPersistenceException if an SQL error occurs.
+     */
+    public void stream(Connection conn, int fetchSize, Consumer<Product> consumer) throws ProductPersistenceException {
+        if (fetchSize < 1) {
+            throw new IllegalArgumentException("La taille de lot doit être positive : " + fetchSize);
+        }
+        try (Probe probe = METRICS.start("stream"); PreparedStatement statement = conn.prepareStatement(SELECT_WITH_RESTAURANT + " ORDER BY p.numero")) {
+            statement.setFetchSize(fetchSize);
+            try (ResultSet rs = statement.executeQuery()) {
+                LoadScope scope = LoadScope.scan();
+                Consumer<Product> counted = probe.counting(consumer);
+                for (int row = 1; rs.next(); row++) {
+                    counted.accept(resolveFromRow(rs, scope));
+                    if (row % fetchSize == 0) {
+                        scope = LoadScope.scan();
+                    }
+                }
+            }
+            probe.ok();
         } catch (SQLException e) {
-            throw new ProductPersistenceException("Erreur lors de la récupération de tous les produits", e);
+            throw new ProductPersistenceException("Erreur lors du parcours des produits", e);
         }
-        return products;
+    }
+
+    /**
+     * Returns the product of the current row from the scope, or builds it with its joined restaurant.
+     */
+    private Product resolveFromRow(ResultSet rs, LoadScope scope) throws SQLException {
+        Long id = rs.getLong("numero");
+        Optional<Product> loaded = scope.find(this, id);
+        if (loaded.isPresent()) {
+            return loaded.get();
+        }
+        Restaurant restaurant = restaurantMapper.resolveFromRow(rs, rs.getLong("fk_resto"), "nom_resto", scope);
+        Product product = mapRowToProduct(rs, restaurant);
+        scope.add(this, id, product);
+        return product;
+    }
+
+    /**
+     * 🧹 Evicts cached orders containing a product, whose total or lines are no longer accurate.
+     *
+     * @param productId The ID of the modified or deleted product.
+     */
+    private void evictOrdersContaining(Long productId) {
+        evictDependents(Order.class, order -> order.getProducts().stream().anyMatch(p -> sameId(p.getId(), productId)));
     }
 }
@@ -1,121 +1,271 @@
 package ch.hearc.ig.orderresto.persistence.mappers;
 
 import ch.hearc.ig.orderresto.business.Address;
+import ch.hearc.ig.orderresto.business.Order;
+import ch.hearc.ig.orderresto.business.Product;
 import ch.hearc.ig.orderresto.business.Restaurant;
+import ch.hearc.ig.orderresto.monitoring.ComponentMetrics;
+import ch.hearc.ig.orderresto.monitoring.Metrics;
+import ch.hearc.ig.orderresto.monitoring.Probe;
+import ch.hearc.ig.orderresto.persistence.dialect.SqlDialect;
 import ch.hearc.ig.orderresto.persistence.exceptions.RestaurantPersistenceException;
 import ch.hearc.ig.orderresto.persistence.utils.AddressUtils;
+import ch.hearc.ig.orderresto.persistence.utils.SqlUtils;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 public class RestaurantMapper extends BaseMapper<Restaurant> {
+    private static final ComponentMetrics METRICS = Metrics.getInstance().component(RestaurantMapper.class);
+    private static final String SELECT = "SELECT numero, nom, code_postal, localite, rue, num_rue, pays FROM RESTAURANT";
+
+    public RestaurantMapper() {
+        super(Restaurant.class);
+    }
 
     public void insert(Restaurant restaurant, Connection conn) throws RestaurantPersistenceException {
-        String query = "INSERT INTO RESTAURANT (nom, code_postal, localite, rue, num_rue, pays) VALUES (?, ?, ?, ?, ?, ?)";
+        try (Probe probe = METRICS.start("insert")) {
+            String query = "INSERT INTO RESTAURANT (nom, code_postal, localite, rue, num_rue, pays) VALUES (?, ?, ?, ?, ?, ?)";
 
-        try (PreparedStatement stmt = conn.prepareStatement(query, new String[]{"NUMERO"})) {
+            try (PreparedStatement stmt = conn.prepareStatement(query, SqlDialect.getInstance().generatedKeyColumns("numero"))) {
 
-            stmt.setString(1, restaurant.getName());
-            AddressUtils.setPreparedStatementAddress(stmt, restaurant.getAddress(), 2);
+                stmt.setString(1, restaurant.getName());
+                AddressUtils.setPreparedStatementAddress(stmt, restaurant.getAddress(), 2);
 
-            stmt.executeUpdate();
+                stmt.executeUpdate();
 
-            try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
-                if (generatedKeys.next()) {
-                    restaurant.setId(generatedKeys.getLong(1));
-                    addToCache(restaurant.getId(), restaurant); // Ajouter au cache après insertion
+                try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                    if (generatedKeys.next()) {
+                        restaurant.setId(generatedKeys.getLong(1));
+                        addToCache(restaurant.getId(), restaurant); // Ajouter au cache après insertion
+                    }
                 }
-            }
 
-        } catch (SQLException e) {
-            throw new RestaurantPersistenceException("Erreur lors de l'insertion du restaurant : ", e);
+            } catch (SQLException e) {
+                throw new RestaurantPersistenceException("Erreur lors de l'insertion du restaurant : ", e);
+            }
+            probe.ok();
         }
     }
 
     public Restaurant read(Long id, Connection conn) throws RestaurantPersistenceException {
-        // Vérifie si le restaurant est déjà dans le cache
-        return findInCache(id).orElseGet(() -> {
-            String query = "SELECT nom, code_postal, localite, rue, num_rue, pays FROM RESTAURANT WHERE numero = ?";
-            try (PreparedStatement stmt = conn.prepareStatement(query)) {
+        try (Probe probe = METRICS.start("read")) {
+            probe.attribute("id", id);
+            // Vérifie si le restaurant est déjà dans le cache
+            return probe.ok(findInCache(id).orElseGet(() -> {
+                String query = "SELECT nom, code_postal, localite, rue, num_rue, pays FROM RESTAURANT WHERE numero = ?";
+                try (PreparedStatement stmt = conn.prepareStatement(query)) {
 
-                stmt.setLong(1, id);
-                ResultSet rs = stmt.executeQuery();
+                    stmt.setLong(1, id);
+                    ResultSet rs = stmt.executeQuery();
 
-                if (rs.next()) {
-                    Address address = AddressUtils.createAddressFromResultSet(rs);
-                    Restaurant restaurant = new Restaurant(id, rs.getString("nom"), address);
-                    addToCache(id, restaurant); // Ajouter au cache
-                    return restaurant;
+                    if (rs.next()) {
+                        Address address = AddressUtils.createAddressFromResultSet(rs);
+                        Restaurant restaurant = new Restaurant(id, rs.getString("nom"), address);
+                        addToCache(id, restaurant); // Ajouter au cache
+                        return restaurant;
+                    }
+                } catch (SQLException e) {
+                    throw new RuntimeException("Erreur lors de la récupération du restaurant", e);
+                }
+                return null;  // 404
+            }));
+        }
+    }
+
+    /**
+     * Returns the cached restaurant with this ID, or builds it from the address columns of the current row.
+     * Used by loaders that join RESTAURANT into a wider query.
+     */
+    Restaurant resolveFromRow(ResultSet rs, Long id, String nameColumn) throws SQLException {
+        return resolveFromRow(rs, id, nameColumn, LoadScope.SHARED);
+    }
+
+    Restaurant resolveFromRow(ResultSet rs, Long id, String nameColumn, LoadScope scope) throws SQLException {
+        Optional<Restaurant> cached = scope.find(this, id);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        Restaurant restaurant = new Restaurant(id, rs.getString(nameColumn), AddressUtils.createAddressFromResultSet(rs));
+        scope.add(this, id, restaurant);
+        return restaurant;
+    }
+
+    public Map<Long, Restaurant> readAll(Collection<Long> ids, Connection conn) throws RestaurantPersistenceException {
+        return readAll(ids, conn, LoadScope.SHARED);
+    }
+
+    Map<Long, Restaurant> readAll(Collection<Long> ids, Connection conn, LoadScope scope) throws RestaurantPersistenceException {
+        // Sondé ici : les commandes chargent leurs restaurants par cette méthode
+        try (Probe probe = METRICS.start("readAll")) {
+            probe.attribute("ids", ids.size());
+            Map<Long, Restaurant> restaurants = new HashMap<>();
+            Set<Long> missing = new HashSet<>();
+            for (Long id : ids) {
+                Optional<Restaurant> cached = scope.find(this, id);
+                if (cached.isPresent()) {
+                    restaurants.put(id, cached.get());
+                } else {
+                    missing.add(id);
                 }
-            } catch (SQLException e) {
-                throw new RuntimeException("Erreur lors de la récupération du restaurant", e);
             }
-            return null;  // 404
-        });
+
+            // Un seul aller-retour par tranche d'identifiants au lieu d'un par restaurant
+            for (List<Long> chunk : SqlUtils.partition(missing)) {
+                String query = SELECT + " WHERE numero IN (" + SqlUtils.placeholders(chunk.size()) + ")";
+                try (PreparedStatement stmt = conn.prepareStatement(query)) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        stmt.setLong(i + 1, chunk.get(i));
+                    }
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            Long id = rs.getLong("numero");
+                            restaurants.put(id, resolveFromRow(rs, id, "nom", scope));
+                        }
+                    }
+                } catch (SQLException e) {
+                    throw new RestaurantPersistenceException("Erreur lors de la récupération des restaurants par lot : ", e);
+                }
+            }
+            return probe.ok(restaurants);
+        }
     }
 
     public void update(Restaurant restaurant, Connection conn) throws RestaurantPersistenceException {
-        String query = "UPDATE RESTAURANT SET nom = ?, code_postal = ?, localite = ?, rue = ?, num_rue = ?, pays = ? WHERE numero = ?";
+        try (Probe probe = METRICS.start("update")) {
+            String query = "UPDATE RESTAURANT SET nom = ?, code_postal = ?, localite = ?, rue = ?, num_rue = ?, pays = ? WHERE numero = ?";
 
-        try (PreparedStatement stmt = conn.prepareStatement(query)) {
+            try (PreparedStatement stmt = conn.prepareStatement(query)) {
 
-            stmt.setString(1, restaurant.getName());
-            AddressUtils.setPreparedStatementAddress(stmt, restaurant.getAddress(), 2);
-            stmt.setLong(7, restaurant.getId());
+                stmt.setString(1, restaurant.getName());
+                AddressUtils.setPreparedStatementAddress(stmt, restaurant.getAddress(), 2);
+                stmt.setLong(7, restaurant.getId());
 
-            stmt.executeUpdate();
-            updateInCache(restaurant.getId(), restaurant); // Mettre à jour dans le cache
+                stmt.executeUpdate();
+                updateInCache(restaurant.getId(), restaurant); // Mettre à jour dans le cache
+                evictDependentsOf(restaurant.getId());
 
-        } catch (SQLException e) {
-            throw new RestaurantPersistenceException("Erreur lors de la mise à jour du restaurant : ", e);
+            } catch (SQLException e) {
+                throw new RestaurantPersistenceException("Erreur lors de la mise à jour du restaurant : ", e);
+            }
+            probe.ok();
         }
     }
 
     public void delete(Long id, Connection conn) throws RestaurantPersistenceException {
-        String query = "DELETE FROM RESTAURANT WHERE numero = ?";
+        try (Probe probe = METRICS.start("delete")) {
+            String query = "DELETE FROM RESTAURANT WHERE numero = ?";
 
-        try (PreparedStatement stmt = conn.prepareStatement(query)) {
+            try (PreparedStatement stmt = conn.prepareStatement(query)) {
 
-            stmt.setLong(1, id);
-            stmt.executeUpdate();
-            removeFromCache(id); // Supprimer du cache
+                stmt.setLong(1, id);
+                stmt.executeUpdate();
+                removeFromCache(id); // Supprimer du cache
+                evictDependentsOf(id);
 
-        } catch (SQLException e) {
-            throw new RestaurantPersistenceException("Erreur lors de la suppression du restaurant : ", e);
+            } catch (SQLException e) {
+                throw new RestaurantPersistenceException("Erreur lors de la suppression du restaurant : ", e);
+            }
+            probe.ok();
         }
     }
 
     public List<Restaurant> findAll(Connection conn) throws RestaurantPersistenceException {
-        List<Restaurant> restaurants = new ArrayList<>();
-        String query = "SELECT numero, nom, code_postal, localite, rue, num_rue, pays FROM RESTAURANT";
+        try (Probe probe = METRICS.start("findAll")) {
+            List<Restaurant> restaurants = new ArrayList<>();
+            try (PreparedStatement stmt = conn.prepareStatement(SELECT);
+                 ResultSet rs = stmt.executeQuery()) {
 
-        try (PreparedStatement stmt = conn.prepareStatement(query);
-             ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Long id = rs.getLong("numero");
 
-            while (rs.next()) {
-                Long id = rs.getLong("numero");
-
-                // Vérifier si le restaurant est déjà dans le cache
-                Restaurant restaurant = findInCache(id).orElse(null);
-                if (restaurant == null) {
-                    try {
-                        Address address = AddressUtils.createAddressFromResultSet(rs);
-                        restaurant = new Restaurant(id, rs.getString("nom"), address);
-                        addToCache(id, restaurant);
-                    } catch (SQLException e) {
-                        throw new RestaurantPersistenceException("Erreur lors de la récupération des données de l'adresse ou du nom", e);
+                    // Vérifier si le restaurant est déjà dans le cache
+                    Restaurant restaurant = findInCache(id).orElse(null);
+                    if (restaurant == null) {
+                        try {
+                            Address address = AddressUtils.createAddressFromResultSet(rs);
+                            restaurant = new Restaurant(id, rs.getString("nom"), address);
+                            addToCache(id, restaurant);
+                        } catch (SQLException e) {
+                            throw new RestaurantPersistenceException("Erreur lors de la récupération des données de l'adresse ou du nom", e);
+                        }
                     }
+
+                    restaurants.add(restaurant);
                 }
 
-                restaurants.add(restaurant);
+            } catch (SQLException e) {
+                throw new RestaurantPersistenceException("Erreur lors de la récupération des restaurants : ", e);
+            }
+            return probe.ok(restaurants);
+        }
+    }
+
+    /**
+     * 📄 Reads a page of restaurants in ID order, without filling the cache.
+     *
+     * @param afterId The ID of the last restaurant of the previous page, or {@code null} for the first page.
+     * @param limit   The maximum number of restaurants to return.
+     */
+    public List<Restaurant> findPage(Long afterId, int limit, Connection conn) throws RestaurantPersistenceException {
+        try (Probe probe = METRICS.start("findPage")) {
+            List<Restaurant> restaurants = new ArrayList<>();
+            LoadScope scope = LoadScope.scan();
+            try (PreparedStatement stmt = conn.prepareStatement(SqlUtils.keysetPage(SELECT, "numero"))) {
+                SqlUtils.bindKeysetPage(stmt, afterId, limit);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        restaurants.add(resolveFromRow(rs, rs.getLong("numero"), "nom", scope));
+                    }
+                }
+            } catch (SQLException e) {
+                throw new RestaurantPersistenceException("Erreur lors de la lecture d'une page de restaurants : ", e);
             }
+            return probe.ok(restaurants);
+        }
+    }
 
+    /**
+     * 🌊 Hands every restaurant to a consumer in ID order, without filling the cache.
+     *
+     * @param fetchSize The number of rows fetched per round trip.
+     */
+    public void stream(Connection conn, int fetchSize, Consumer<Restaurant> consumer) throws RestaurantPersistenceException {
+        if (fetchSize < 1) {
+            throw new IllegalArgumentException("La taille de lot doit être positive : " + fetchSize);
+        }
+        try (Probe probe = METRICS.start("stream"); PreparedStatement stmt = conn.prepareStatement(SELECT + " ORDER BY numero")) {
+            stmt.setFetchSize(fetchSize);
+            try (ResultSet rs = stmt.executeQuery()) {
+                LoadScope scope = LoadScope.scan();
+                Consumer<Restaurant> counted = probe.counting(consumer);
+                for (int row = 1; rs.next(); row++) {
+                    counted.accept(resolveFromRow(rs, rs.getLong("numero"), "nom", scope));
+                    if (row % fetchSize == 0) {
+                        scope = LoadScope.scan();
+                    }
+                }
+            }
+            probe.ok();
         } catch (SQLException e) {
-            throw new RestaurantPersistenceException("Erreur lors de la récupération des restaurants : ", e);
+            throw new RestaurantPersistenceException("Erreur lors du parcours des restaurants : ", e);
         }
-        return restaurants;
     }
 
-
+    /**
+     * Les produits et commandes en cache référencent l'ancienne instance du restaurant,
+     * ou ont été supprimés en cascade : ils sont évincés.
+     */
+    private void evictDependentsOf(Long restaurantId) {
+        evictDependents(Product.class, product -> product.getRestaurant() != null && sameId(product.getRestaurant().getId(), restaurantId));
+        evictDependents(Order.class, order -> order.getRestaurant() != null && sameId(order.getRestaurant().getId(), restaurantId));
+    }
 }
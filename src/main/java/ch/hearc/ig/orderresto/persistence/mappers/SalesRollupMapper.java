@@ -0,0 +1,175 @@
+package ch.hearc.ig.orderresto.persistence.mappers;
+
+import ch.hearc.ig.orderresto.monitoring.ComponentMetrics;
+import ch.hearc.ig.orderresto.monitoring.Metrics;
+import ch.hearc.ig.orderresto.monitoring.Probe;
+import ch.hearc.ig.orderresto.persistence.dialect.SqlDialect;
+import ch.hearc.ig.orderresto.persistence.utils.SqlUtils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * 📈 SalesRollupMapper - Maintains the daily sales tables read by the reports.
+ * <p>
+ * {@code VENTES_RESTAURANT_JOUR} holds the order count, revenue and take-away count of a restaurant for a
+ * day, {@code VENTES_PRODUIT_JOUR} the number of orders containing a product for a day. The mappers writing
+ * orders keep them up to date in their own transaction: the figures of the orders concerned are computed
+ * from the database and merged into the rollups, subtracted before a change and added after it.
+ * Rows are merged in key order, so that two transactions lock the rows they share in the same order
+ * instead of deadlocking.
+ * <p>
+ * Rows of a restaurant or product are deleted with it ({@code ON DELETE CASCADE}); rows whose orders were
+ * all removed stay with zero figures and are skipped by the reports. Orders written without going
+ * through the mappers (bulk loads, manual SQL) require a {@link #rebuild rebuild} of their days.
+ */
+public class SalesRollupMapper {
+    private static final ComponentMetrics METRICS = Metrics.getInstance().component(SalesRollupMapper.class);
+    private static final int MERGE_ATTEMPTS = 3;
+
+    /** Restricts the figures to one order, by ID. */
+    static final String ORDER = "c.numero = ?";
+    /** Restricts the figures to the orders of a customer, by ID. */
+    static final String CUSTOMER = "c.fk_client = ?";
+    /** Restricts the figures to the orders containing a product, by ID. */
+    static final String ORDERS_WITH_PRODUCT = "c.numero IN (SELECT fk_commande FROM Produit_Commande WHERE fk_produit = ?)";
+    /** Restricts the figures to a range of order IDs, bounds included. */
+    static final String ORDER_RANGE = "c.numero BETWEEN ? AND ?";
+
+    /**
+     * @return A filter restricting the figures to a list of order IDs, with {@code count} parameters.
+     */
+    static String orders(int count) {
+        return "c.numero IN (" + SqlUtils.placeholders(count) + ")";
+    }
+
+    /**
+     * ➕ Adds the figures of the matching orders, once they are written.
+     *
+     * @param filter A condition on the orders {@code c}, e.g. {@link #ORDER}.
+     * @param conn   The database connection used for the operation.
+     * @param params The values of the filter parameters.
+     */
+    void add(String filter, Connection conn, long... params) throws SQLException {
+        mergeRestaurants(1, filter, conn, params);
+        mergeProducts(1, filter, conn, params);
+    }
+
+    /**
+     * ➖ Subtracts the figures of the matching orders, before they are changed or deleted.
+     */
+    void remove(String filter, Connection conn, long... params) throws SQLException {
+        mergeRestaurants(-1, filter, conn, params);
+        mergeProducts(-1, filter, conn, params);
+    }
+
+    /**
+     * ➕ Adds the restaurant figures only, when the lines of the orders are left unchanged.
+     */
+    void addRestaurantFigures(String filter, Connection conn, long... params) throws SQLException {
+        mergeRestaurants(1, filter, conn, params);
+    }
+
+    /**
+     * ➖ Subtracts the restaurant figures only, before a change of the stored totals.
+     */
+    void removeRestaurantFigures(String filter, Connection conn, long... params) throws SQLException {
+        mergeRestaurants(-1, filter, conn, params);
+    }
+
+    /**
+     * 🔄 Recomputes the rollups of a range of days from the orders.
+     *
+     * @param from The first day of the range.
+     * @param to   The day after the range.
+     * @param conn The database connection used for the operation.
+     * @return The number of rollup rows written.
+     * @throws SQLException if an SQL error occurs.
+     */
+    public int rebuild(LocalDate from, LocalDate to, Connection conn) throws SQLException {
+        try (Probe probe = METRICS.start("rebuild")) {
+            String day = day();
+            String[] statements = {
+                    "DELETE FROM Ventes_Restaurant_Jour WHERE jour >= ? AND jour < ?",
+                    "DELETE FROM Ventes_Produit_Jour WHERE jour >= ? AND jour < ?",
+                    "INSERT INTO Ventes_Restaurant_Jour (jour, fk_resto, nb_commandes, montant_total, nb_emporter) " +
+                            "SELECT " + day + ", c.fk_resto, COUNT(*), COALESCE(SUM(c.montant_total), 0), " +
+                            "SUM(CASE WHEN c.a_emporter = 'O' THEN 1 ELSE 0 END) " +
+                            "FROM Commande c WHERE c.quand >= ? AND c.quand < ? GROUP BY " + day + ", c.fk_resto",
+                    "INSERT INTO Ventes_Produit_Jour (jour, fk_produit, quantite) " +
+                            "SELECT " + day + ", pc.fk_produit, COUNT(*) " +
+                            "FROM Commande c JOIN Produit_Commande pc ON pc.fk_commande = c.numero " +
+                            "WHERE c.quand >= ? AND c.quand < ? GROUP BY " + day + ", pc.fk_produit"
+            };
+            int written = 0;
+            for (int i = 0; i < statements.length; i++) {
+                try (PreparedStatement statement = conn.prepareStatement(statements[i])) {
+                    statement.setTimestamp(1, Timestamp.valueOf(from.atStartOfDay()));
+                    statement.setTimestamp(2, Timestamp.valueOf(to.atStartOfDay()));
+                    int count = statement.executeUpdate();
+                    if (i >= 2) {
+                        written += count;
+                    }
+                }
+            }
+            probe.ok();
+            return written;
+        }
+    }
+
+    private void mergeRestaurants(int sign, String filter, Connection conn, long... params) throws SQLException {
+        String day = day();
+        String sql = "MERGE INTO Ventes_Restaurant_Jour v USING (" +
+                "SELECT " + day + " AS jour, c.fk_resto, COUNT(*) AS nb, COALESCE(SUM(c.montant_total), 0) AS montant, " +
+                "SUM(CASE WHEN c.a_emporter = 'O' THEN 1 ELSE 0 END) AS emporter " +
+                "FROM Commande c WHERE " + filter + " GROUP BY " + day + ", c.fk_resto ORDER BY 1, 2" +
+                ") d ON (v.jour = d.jour AND v.fk_resto = d.fk_resto) " +
+                "WHEN MATCHED THEN UPDATE SET nb_commandes = v.nb_commandes + " + sign + " * d.nb, " +
+                "montant_total = v.montant_total + " + sign + " * d.montant, " +
+                "nb_emporter = v.nb_emporter + " + sign + " * d.emporter " +
+                "WHEN NOT MATCHED THEN INSERT (jour, fk_resto, nb_commandes, montant_total, nb_emporter) " +
+                "VALUES (d.jour, d.fk_resto, " + sign + " * d.nb, " + sign + " * d.montant, " + sign + " * d.emporter)";
+        execute(sql, conn, params);
+    }
+
+    private void mergeProducts(int sign, String filter, Connection conn, long... params) throws SQLException {
+        String day = day();
+        String sql = "MERGE INTO Ventes_Produit_Jour v USING (" +
+                "SELECT " + day + " AS jour, pc.fk_produit, COUNT(*) AS quantite " +
+                "FROM Commande c JOIN Produit_Commande pc ON pc.fk_commande = c.numero " +
+                "WHERE " + filter + " GROUP BY " + day + ", pc.fk_produit ORDER BY 1, 2" +
+                ") d ON (v.jour = d.jour AND v.fk_produit = d.fk_produit) " +
+                "WHEN MATCHED THEN UPDATE SET quantite = v.quantite + " + sign + " * d.quantite " +
+                "WHEN NOT MATCHED THEN INSERT (jour, fk_produit, quantite) VALUES (d.jour, d.fk_produit, " + sign + " * d.quantite)";
+        execute(sql, conn, params);
+    }
+
+    /**
+     * Runs a merge, again if a concurrent transaction inserted one of its rows first: a MERGE is not an
+     * atomic upsert, and the row it found missing then exists, so the retry updates it.
+     */
+    private static void execute(String sql, Connection conn, long... params) throws SQLException {
+        for (int attempt = 1; ; attempt++) {
+            try (PreparedStatement statement = conn.prepareStatement(sql)) {
+                for (int i = 0; i < params.length; i++) {
+                    statement.setLong(i + 1, params[i]);
+                }
+                statement.executeUpdate();
+                return;
+            } catch (SQLException e) {
+                // Seule l'instruction est annulée : la transaction de la commande continue
+                if (attempt >= MERGE_ATTEMPTS || !SqlDialect.getInstance().isDuplicateKey(e)) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private static String day() {
+        return SqlDialect.getInstance().truncate("c.quand", ChronoUnit.DAYS);
+    }
+}
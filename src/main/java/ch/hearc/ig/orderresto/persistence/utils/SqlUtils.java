@@ -0,0 +1,93 @@
+package ch.hearc.ig.orderresto.persistence.utils;
+
+import ch.hearc.ig.orderresto.persistence.dialect.SqlDialect;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+public class SqlUtils {
+
+    /**
+     * Oracle refuse plus de 1000 expressions dans une liste IN (ORA-01795).
+     */
+    public static final int MAX_IN_LIST_SIZE = 1000;
+
+    /**
+     * Builds the {@code ?, ?, ?} placeholder list of an {@code IN (...)} clause.
+     */
+    public static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    /**
+     * Splits ids into chunks small enough for a single {@code IN (...)} clause.
+     */
+    public static <T> List<List<T>> partition(Collection<T> values, int chunkSize) {
+        List<List<T>> chunks = new ArrayList<>();
+        List<T> current = new ArrayList<>(Math.min(values.size(), chunkSize));
+        for (T value : values) {
+            current.add(value);
+            if (current.size() == chunkSize) {
+                chunks.add(current);
+                current = new ArrayList<>(chunkSize);
+            }
+        }
+        if (!current.isEmpty()) {
+            chunks.add(current);
+        }
+        return chunks;
+    }
+
+    public static List<List<Long>> partition(Collection<Long> ids) {
+        return partition(ids, MAX_IN_LIST_SIZE);
+    }
+
+    /**
+     * Appends a keyset pagination clause to a query: the rows following a key, in key order, at most a limit.
+     * Unlike an offset, the cost of a page does not grow with its position. See {@link #bindKeysetPage}.
+     */
+    public static String keysetPage(String select, String keyColumn) {
+        return select + " WHERE " + keyColumn + " > ? ORDER BY " + keyColumn + " FETCH FIRST ? ROWS ONLY";
+    }
+
+    /**
+     * Binds the parameters of a {@link #keysetPage} query and fetches the page in a single round trip.
+     *
+     * @param afterId The last key of the previous page, or {@code null} for the first page.
+     * @param limit   The maximum number of rows of the page.
+     */
+    public static void bindKeysetPage(PreparedStatement stmt, Long afterId, int limit) throws SQLException {
+        if (limit < 1) {
+            throw new IllegalArgumentException("La taille de page doit être positive : " + limit);
+        }
+        stmt.setLong(1, afterId == null ? 0L : afterId);
+        stmt.setInt(2, limit);
+        stmt.setFetchSize(Math.min(limit, MAX_IN_LIST_SIZE));
+    }
+
+    /**
+     * Reserves a block of IDs from a sequence in a single round trip, for inserts that assign their own keys.
+     */
+    public static long[] nextValues(Connection conn, String sequence, int count) throws SQLException {
+        long[] ids = new long[count];
+        try (PreparedStatement stmt = conn.prepareStatement(SqlDialect.getInstance().nextValues(sequence))) {
+            stmt.setInt(1, count);
+            try (ResultSet rs = stmt.executeQuery()) {
+                int i = 0;
+                while (rs.next() && i < count) {
+                    ids[i++] = rs.getLong(1);
+                }
+                if (i < count) {
+                    throw new SQLException("Séquence " + sequence + " : " + i + " valeurs obtenues sur " + count);
+                }
+            }
+        }
+        return ids;
+    }
+}
@@ -12,7 +12,6 @@ import ch.hearc.ig.orderresto.persistence.mappers.CustomerMapper;
 import ch.hearc.ig.orderresto.presentation.AbstractCLI;
 import ch.hearc.ig.orderresto.service.CustomerService;
 import ch.hearc.ig.orderresto.service.exceptions.CustomerServiceException;
-import oracle.as.management.opmn.integrator.OpmnIntegrator;
 
 import java.sql.SQLException;
 import java.util.Objects;
@@ -2,6 +2,7 @@ package ch.hearc.ig.orderresto.presentation.cli;
 
 import ch.hearc.ig.orderresto.business.Customer;
 import ch.hearc.ig.orderresto.business.Order;
+import ch.hearc.ig.orderresto.business.OrderSummary;
 import ch.hearc.ig.orderresto.business.Product;
 import ch.hearc.ig.orderresto.business.Restaurant;
 import ch.hearc.ig.orderresto.persistence.exceptions.CustomerPersistenceException;
@@ -115,27 +116,32 @@ public class OrderCLI extends AbstractCLI {
 
     public Order selectOrder() throws SQLException, CustomerServiceException, RestaurantPersistenceException, CustomerPersistenceException, ProductPersistenceException {
         Customer customer = (new CustomerCLI()).getExistingCustomer();
-        List<Order> orders;
+        List<OrderSummary> history;
         try {
-            orders = orderService.findOrdersByCustomer(customer);
+            history = orderService.getOrderHistory(customer);
         } catch (ch.hearc.ig.orderresto.service.exceptions.OrderServiceException e) {
             throw new RuntimeException(e);
         }
 
-        if (orders.isEmpty()) {
+        if (history.isEmpty()) {
             this.ln(String.format("Désolé, il n'y a aucune commande pour %s", customer.getEmail()));
             return null;
         }
 
         this.ln("Choisissez une commande:");
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd.MM.yyyy à hh:mm");
-        for (int i = 0; i < orders.size(); i++) {
-            Order order = orders.get(i);
-            LocalDateTime when = order.getWhen();
-            this.ln(String.format("%d. %.2f CHF, le %s chez %s.", i, order.getTotalAmount(), when.format(formatter), order.getRestaurant().getName()));
+        for (int i = 0; i < history.size(); i++) {
+            OrderSummary summary = history.get(i);
+            LocalDateTime when = summary.getWhen();
+            this.ln(String.format("%d. %.2f CHF, le %s chez %s.", i, summary.getTotalAmount(), when.format(formatter), summary.getRestaurantName()));
+        }
+        int index = this.readIntFromUser(history.size() - 1);
+        // Seule la commande choisie est chargée en entier
+        try {
+            return orderService.getOrderById(history.get(index).getOrderId());
+        } catch (ch.hearc.ig.orderresto.service.exceptions.OrderServiceException e) {
+            throw new RuntimeException(e);
         }
-        int index = this.readIntFromUser(orders.size() - 1);
-        return orders.get(index);
     }
 
     public void displayOrder(Order order) {
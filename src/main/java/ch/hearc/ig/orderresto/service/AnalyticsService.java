@@ -0,0 +1,71 @@
+package ch.hearc.ig.orderresto.service;
+
+import ch.hearc.ig.orderresto.business.PeriodSales;
+import ch.hearc.ig.orderresto.business.ProductSales;
+import ch.hearc.ig.orderresto.business.RestaurantSales;
+import ch.hearc.ig.orderresto.monitoring.ComponentMetrics;
+import ch.hearc.ig.orderresto.monitoring.Metrics;
+import ch.hearc.ig.orderresto.monitoring.Probe;
+import ch.hearc.ig.orderresto.persistence.mappers.AnalyticsMapper;
+import ch.hearc.ig.orderresto.service.exceptions.AnalyticsServiceException;
+import ch.hearc.ig.orderresto.service.utils.TransactionHandler;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+public class AnalyticsService {
+    private static final ComponentMetrics METRICS = Metrics.getInstance().component(AnalyticsService.class);
+
+    private final AnalyticsMapper analyticsMapper;
+    private final TransactionHandler transactionHandler;
+
+    public AnalyticsService() {
+        this.analyticsMapper = new AnalyticsMapper();
+        this.transactionHandler = new TransactionHandler();
+    }
+
+    public AnalyticsService(AnalyticsMapper analyticsMapper, TransactionHandler transactionHandler) {
+        this.analyticsMapper = analyticsMapper;
+        this.transactionHandler = transactionHandler;
+    }
+
+    public List<RestaurantSales> getSalesByRestaurant(LocalDate from, LocalDate to) throws AnalyticsServiceException {
+        checkPeriod(from, to);
+        try (Probe probe = METRICS.start("getSalesByRestaurant")) {
+            return probe.ok(transactionHandler.executeReadOnly(conn -> analyticsMapper.salesByRestaurant(from, to, conn)));
+        } catch (Exception e) {
+            throw new AnalyticsServiceException("Failed to get sales by restaurant", e);
+        }
+    }
+
+    public List<PeriodSales> getSalesByPeriod(ChronoUnit unit, Long restaurantId, LocalDate from, LocalDate to) throws AnalyticsServiceException {
+        checkPeriod(from, to);
+        if (unit != ChronoUnit.DAYS && unit != ChronoUnit.WEEKS && unit != ChronoUnit.MONTHS) {
+            throw new AnalyticsServiceException("Sales can only be grouped by day, week or month");
+        }
+        try (Probe probe = METRICS.start("getSalesByPeriod")) {
+            return probe.ok(transactionHandler.executeReadOnly(conn -> analyticsMapper.salesByPeriod(unit, restaurantId, from, to, conn)));
+        } catch (Exception e) {
+            throw new AnalyticsServiceException("Failed to get sales by period", e);
+        }
+    }
+
+    public List<ProductSales> getTopProducts(Long restaurantId, LocalDate from, LocalDate to, int limit) throws AnalyticsServiceException {
+        checkPeriod(from, to);
+        if (limit <= 0) {
+            throw new AnalyticsServiceException("The number of products must be positive");
+        }
+        try (Probe probe = METRICS.start("getTopProducts")) {
+            return probe.ok(transactionHandler.executeReadOnly(conn -> analyticsMapper.topProducts(restaurantId, from, to, limit, conn)));
+        } catch (Exception e) {
+            throw new AnalyticsServiceException("Failed to get top products", e);
+        }
+    }
+
+    private static void checkPeriod(LocalDate from, LocalDate to) throws AnalyticsServiceException {
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new AnalyticsServiceException("The period must start before it ends");
+        }
+    }
+}
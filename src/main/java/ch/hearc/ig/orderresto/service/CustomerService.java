@@ -1,15 +1,22 @@
 package ch.hearc.ig.orderresto.service;
 
 import ch.hearc.ig.orderresto.business.Customer;
+import ch.hearc.ig.orderresto.monitoring.ComponentMetrics;
+import ch.hearc.ig.orderresto.monitoring.Metrics;
+import ch.hearc.ig.orderresto.monitoring.Probe;
 import ch.hearc.ig.orderresto.persistence.exceptions.CustomerPersistenceException;
 import ch.hearc.ig.orderresto.persistence.mappers.CustomerMapper;
 import ch.hearc.ig.orderresto.service.exceptions.CustomerServiceException;
 import ch.hearc.ig.orderresto.service.utils.TransactionHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.sql.Connection;
 import java.sql.SQLException;
 
 public class CustomerService {
+    private static final Logger LOG = LoggerFactory.getLogger(CustomerService.class);
+    private static final ComponentMetrics METRICS = Metrics.getInstance().component(CustomerService.class);
 
     private final CustomerMapper customerMapper;
     private final TransactionHandler transactionHandler;
@@ -25,51 +32,56 @@ public class CustomerService {
     }
 
     public void addCustomer(Customer customer) throws CustomerServiceException {
-        try {
+        try (Probe probe = METRICS.start("addCustomer")) {
             transactionHandler.executeInTransaction(conn -> {
                 customerMapper.insert(customer, conn);
                 return null; // Void equivalent
             });
+            LOG.atInfo().addKeyValue("operation", "addCustomer").addKeyValue("customerId", customer.getId()).log("Customer added");
+            probe.ok();
         } catch (Exception e) {
             throw new CustomerServiceException("Failed to add customer", e);
         }
     }
 
     public Customer getExistingCustomer(String email) throws CustomerServiceException {
-        try {
-            return transactionHandler.executeInTransaction(conn -> customerMapper.findByEmail(email, conn));
+        try (Probe probe = METRICS.start("getExistingCustomer")) {
+            return probe.ok(transactionHandler.executeReadOnly(conn -> customerMapper.findByEmail(email, conn)));
         } catch (Exception e) {
             throw new CustomerServiceException("Failed to get customer by email", e);
         }
     }
 
     public Customer getCustomerById(Long id) throws CustomerServiceException {
-        try {
-            return transactionHandler.executeInTransaction(conn -> customerMapper.read(id, conn));
+        try (Probe probe = METRICS.start("getCustomerById")) {
+            return probe.ok(transactionHandler.executeReadOnly(conn -> customerMapper.read(id, conn)));
         } catch (Exception e) {
             throw new CustomerServiceException("Failed to get customer by id", e);
         }
     }
 
     public void updateCustomer(Customer customer) throws CustomerServiceException {
-        try {
+        try (Probe probe = METRICS.start("updateCustomer")) {
             transactionHandler.executeInTransaction(conn -> {
                 customerMapper.update(customer, conn);
                 return null; // Void equivalent
             });
-            System.out.println("Client updated successfully!");
+            LOG.atInfo().addKeyValue("operation", "updateCustomer").addKeyValue("customerId", customer.getId()).log("Customer updated");
+            probe.ok();
         } catch (Exception e) {
             throw new CustomerServiceException("Failed to update customer", e);
         }
     }
 
     public void deleteCustomer(Customer customer) throws CustomerServiceException {
-        try {
+        try (Probe probe = METRICS.start("deleteCustomer")) {
             transactionHandler.executeInTransaction(conn -> {
                 customerMapper.delete(customer.getId(), conn);
                 return null; // Void equivalent
             });
-            System.out.println("Client deleted successfully!");
+            OrderHistoryIndex.getInstance().removeCustomer(customer.getId());
+            LOG.atInfo().addKeyValue("operation", "deleteCustomer").addKeyValue("customerId", customer.getId()).log("Customer deleted");
+            probe.ok();
         } catch (Exception e) {
             throw new CustomerServiceException("Failed to delete customer", e);
         }
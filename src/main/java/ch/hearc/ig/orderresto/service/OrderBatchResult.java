@@ -0,0 +1,75 @@
+package ch.hearc.ig.orderresto.service;
+
+import ch.hearc.ig.orderresto.business.Order;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of {@link OrderService#createOrders}: the orders created, with their ID, and the orders
+ * rejected, each with its position in the batch and the cause.
+ */
+public class OrderBatchResult {
+
+    private final List<Order> created = new ArrayList<>();
+    private final List<Failure> failures = new ArrayList<>();
+
+    void created(Order order) {
+        created.add(order);
+    }
+
+    void failed(int index, Order order, Exception cause) {
+        failures.add(new Failure(index, order, cause));
+    }
+
+    /**
+     * @return The orders created, in the order of the batch.
+     */
+    public List<Order> getCreated() {
+        return Collections.unmodifiableList(created);
+    }
+
+    /**
+     * @return The orders rejected, by position in the batch.
+     */
+    public List<Failure> getFailures() {
+        return Collections.unmodifiableList(failures);
+    }
+
+    public boolean isComplete() {
+        return failures.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return created.size() + " created, " + failures.size() + " failed";
+    }
+
+    public static class Failure {
+        private final int index;
+        private final Order order;
+        private final Exception cause;
+
+        Failure(int index, Order order, Exception cause) {
+            this.index = index;
+            this.order = order;
+            this.cause = cause;
+        }
+
+        /**
+         * @return The position of the order in the batch, from 0.
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        public Order getOrder() {
+            return order;
+        }
+
+        public Exception getCause() {
+            return cause;
+        }
+    }
+}
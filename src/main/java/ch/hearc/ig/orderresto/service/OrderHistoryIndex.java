@@ -0,0 +1,210 @@
+package ch.hearc.ig.orderresto.service;
+
+import ch.hearc.ig.orderresto.business.OrderSummary;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory order history of the most recently active customers: one {@link OrderSummary} per order,
+ * so that opening a history costs no database access once the customer is indexed.
+ * <p>
+ * A customer is loaded on first access, then kept up to date by {@code OrderService} after each
+ * committed creation, update or deletion. Changes made elsewhere that alter summaries (product deletions,
+ * restaurant names, cascading deletions) call {@link #clear()} or {@link #removeCustomer(Long)}.
+ * The least recently used customer is dropped beyond {@code maxCustomers}.
+ */
+public class OrderHistoryIndex {
+    public static final int DEFAULT_MAX_CUSTOMERS = 10_000;
+
+    private static final OrderHistoryIndex INSTANCE = new OrderHistoryIndex(DEFAULT_MAX_CUSTOMERS);
+    private static final Comparator<OrderSummary> CHRONOLOGICAL =
+            Comparator.comparing(OrderSummary::getWhen).thenComparing(OrderSummary::getOrderId);
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<Long, List<OrderSummary>> histories;
+    private final Map<Long, Long> customerByOrder = new HashMap<>();
+    /** Incremented by every change, so that a history read before a change is not indexed after it. */
+    private long version;
+    /** Version of the last change of each recently changed customer. */
+    private final LinkedHashMap<Long, Long> changedAt;
+    /** Version of the last change of every customer not in {@code changedAt}. */
+    private long changedAtLeast;
+
+    public OrderHistoryIndex(int maxCustomers) {
+        this.changedAt = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+                if (size() > maxCustomers) {
+                    // Le client oublié est considéré comme modifié à la version la plus récente oubliée
+                    changedAtLeast = Math.max(changedAtLeast, eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+        this.histories = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, List<OrderSummary>> eldest) {
+                if (size() > maxCustomers) {
+                    eldest.getValue().forEach(summary -> customerByOrder.remove(summary.getOrderId()));
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public static OrderHistoryIndex getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @return The indexed history of the customer, oldest order first, or {@code null} if not indexed.
+     */
+    public List<OrderSummary> get(Long customerId) {
+        lock.lock();
+        try {
+            List<OrderSummary> history = histories.get(customerId);
+            return history == null ? null : Collections.unmodifiableList(new ArrayList<>(history));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return A version to pass to {@link #fill}, taken before reading a history from the database.
+     */
+    public long version() {
+        lock.lock();
+        try {
+            return version;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Indexes the history of a customer read from the database, unless the orders of this customer changed
+     * since the read began. Changes of other customers do not prevent it.
+     */
+    public void fill(Long customerId, List<OrderSummary> history, long readVersion) {
+        lock.lock();
+        try {
+            if (Math.max(changedAtLeast, changedAt.getOrDefault(customerId, 0L)) > readVersion) {
+                return;
+            }
+            List<OrderSummary> sorted = new ArrayList<>(history);
+            sorted.sort(CHRONOLOGICAL);
+            histories.put(customerId, sorted);
+            sorted.forEach(summary -> customerByOrder.put(summary.getOrderId(), customerId));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adds or replaces the summary of a created or updated order, for its customer if indexed.
+     */
+    public void put(OrderSummary summary) {
+        lock.lock();
+        try {
+            changedLocked(customerByOrder.get(summary.getOrderId()));
+            changedLocked(summary.getCustomerId());
+            removeOrderLocked(summary.getOrderId());
+            List<OrderSummary> history = histories.get(summary.getCustomerId());
+            if (history != null) {
+                int position = Collections.binarySearch(history, summary, CHRONOLOGICAL);
+                history.add(position < 0 ? -position - 1 : position, summary);
+                customerByOrder.put(summary.getOrderId(), summary.getCustomerId());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the summary of a deleted order.
+     *
+     * @param customerId The customer of the order, {@code null} if unknown.
+     */
+    public void removeOrder(Long customerId, Long orderId) {
+        lock.lock();
+        try {
+            Long indexedCustomerId = customerByOrder.get(orderId);
+            if (customerId == null && indexedCustomerId == null) {
+                // Client inconnu : aucun historique lu avant la suppression n'est indexé
+                changedAtLeast = ++version;
+            } else {
+                changedLocked(customerId);
+                changedLocked(indexedCustomerId);
+            }
+            removeOrderLocked(orderId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drops the history of a customer, to be reloaded on next access.
+     */
+    public void removeCustomer(Long customerId) {
+        lock.lock();
+        try {
+            changedLocked(customerId);
+            List<OrderSummary> history = histories.remove(customerId);
+            if (history != null) {
+                history.forEach(summary -> customerByOrder.remove(summary.getOrderId()));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drops every history, e.g. after a change of price or restaurant name.
+     */
+    public void clear() {
+        lock.lock();
+        try {
+            changedAtLeast = ++version;
+            changedAt.clear();
+            histories.clear();
+            customerByOrder.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return histories.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void changedLocked(Long customerId) {
+        if (customerId != null) {
+            changedAt.remove(customerId);
+            changedAt.put(customerId, ++version);
+        }
+    }
+
+    private void removeOrderLocked(Long orderId) {
+        Long customerId = customerByOrder.remove(orderId);
+        if (customerId != null) {
+            List<OrderSummary> history = histories.get(customerId);
+            if (history != null) {
+                history.removeIf(summary -> summary.getOrderId().equals(orderId));
+            }
+        }
+    }
+}
@@ -2,71 +2,239 @@ package ch.hearc.ig.orderresto.service;
 
 import ch.hearc.ig.orderresto.business.Customer;
 import ch.hearc.ig.orderresto.business.Order;
+import ch.hearc.ig.orderresto.business.OrderSummary;
+import ch.hearc.ig.orderresto.business.Product;
+import ch.hearc.ig.orderresto.monitoring.ComponentMetrics;
+import ch.hearc.ig.orderresto.monitoring.Metrics;
+import ch.hearc.ig.orderresto.monitoring.Probe;
 import ch.hearc.ig.orderresto.persistence.mappers.OrderMapper;
 import ch.hearc.ig.orderresto.service.exceptions.OrderServiceException;
 import ch.hearc.ig.orderresto.service.utils.TransactionHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
 public class OrderService {
+    public static final int DEFAULT_CHUNK_SIZE = 500;
+
+    private static final Logger LOG = LoggerFactory.getLogger(OrderService.class);
+    private static final ComponentMetrics METRICS = Metrics.getInstance().component(OrderService.class);
+
     private final OrderMapper orderMapper;
     private final TransactionHandler transactionHandler;
+    private final OrderHistoryIndex historyIndex;
 
     public OrderService() {
-        this.orderMapper = new OrderMapper();
-        this.transactionHandler = new TransactionHandler();
+        this(new OrderMapper(), new TransactionHandler());
     }
 
     public OrderService(OrderMapper orderMapper, TransactionHandler transactionHandler) {
+        this(orderMapper, transactionHandler, OrderHistoryIndex.getInstance());
+    }
+
+    public OrderService(OrderMapper orderMapper, TransactionHandler transactionHandler, OrderHistoryIndex historyIndex) {
         this.orderMapper = orderMapper;
         this.transactionHandler = transactionHandler;
+        this.historyIndex = historyIndex;
     }
 
     public boolean createOrder(Order order) throws OrderServiceException {
-        try {
+        try (Probe probe = METRICS.start("createOrder")) {
             transactionHandler.executeInTransaction(conn -> {
                 orderMapper.insert(order, conn);
                 return null;
             });
+            indexSummary(order);
+            LOG.atInfo().addKeyValue("operation", "createOrder").addKeyValue("orderId", order.getId()).log("Order created");
+            probe.ok();
             return true;
         } catch (Exception e) {
             throw new OrderServiceException("Failed to create order", e);
         }
     }
 
-    public List<Order> findOrdersByCustomer(Customer customer) throws OrderServiceException {
+    public OrderBatchResult createOrders(Collection<Order> orders) throws OrderServiceException {
+        return createOrders(orders, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Creates a batch of orders, {@code chunkSize} orders per transaction. When a chunk fails, its orders
+     * are created one by one, so that an invalid order only rejects itself.
+     */
+    public OrderBatchResult createOrders(Collection<Order> orders, int chunkSize) throws OrderServiceException {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("The chunk size must be positive: " + chunkSize);
+        }
+        try (Probe probe = METRICS.start("createOrders")) {
+            probe.attribute("orders", orders.size());
+            List<Order> batch = new ArrayList<>(orders);
+            OrderBatchResult result = new OrderBatchResult();
+            for (int from = 0; from < batch.size(); from += chunkSize) {
+                createChunk(batch, from, Math.min(from + chunkSize, batch.size()), result);
+            }
+            for (Order order : result.getCreated()) {
+                indexSummary(order);
+            }
+            LOG.atInfo().addKeyValue("operation", "createOrders").addKeyValue("created", result.getCreated().size())
+                    .addKeyValue("failed", result.getFailures().size()).log("Orders created");
+            return probe.ok(result);
+        } catch (Exception e) {
+            throw new OrderServiceException("Failed to create orders", e);
+        }
+    }
+
+    private void createChunk(List<Order> batch, int from, int to, OrderBatchResult result) {
+        // Validées une seule fois : une fois écrites, les commandes ont un ID et ne passeraient plus la validation
+        String[] reasons = new String[to - from];
+        List<Order> valid = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            reasons[i - from] = invalidReason(batch.get(i));
+            if (reasons[i - from] == null) {
+                valid.add(batch.get(i));
+            }
+        }
         try {
-            return transactionHandler.executeInTransaction(conn -> orderMapper.findOrdersByCustomer(customer, conn));
+            transactionHandler.executeInTransaction(conn -> {
+                orderMapper.insertAll(valid, conn);
+                return null;
+            });
+            for (int i = from; i < to; i++) {
+                if (reasons[i - from] == null) {
+                    result.created(batch.get(i));
+                } else {
+                    result.failed(i, batch.get(i), new IllegalArgumentException(reasons[i - from]));
+                }
+            }
+            return;
+        } catch (Exception e) {
+            LOG.atWarn().addKeyValue("operation", "createOrders").addKeyValue("orders", valid.size())
+                    .addKeyValue("cause", e.toString()).log("Order chunk rolled back, creating its orders one by one");
+        }
+
+        for (int i = from; i < to; i++) {
+            Order order = batch.get(i);
+            if (reasons[i - from] != null) {
+                result.failed(i, order, new IllegalArgumentException(reasons[i - from]));
+                continue;
+            }
+            // Les ID attribués par le lot annulé ne sont plus valables
+            order.setId(null);
+            try {
+                transactionHandler.executeInTransaction(conn -> {
+                    orderMapper.insert(order, conn);
+                    return null;
+                });
+                result.created(order);
+            } catch (Exception e) {
+                order.setId(null);
+                result.failed(i, order, e);
+            }
+        }
+    }
+
+    private static String invalidReason(Order order) {
+        if (order == null) {
+            return "Missing order";
+        }
+        if (order.getId() != null) {
+            return "Order already created: " + order.getId();
+        }
+        if (order.getCustomer() == null || order.getCustomer().getId() == null) {
+            return "Order without a saved customer";
+        }
+        if (order.getRestaurant() == null || order.getRestaurant().getId() == null) {
+            return "Order without a saved restaurant";
+        }
+        if (order.getWhen() == null || order.getTakeAway() == null) {
+            return "Order without a date or take-away choice";
+        }
+        for (Product product : order.getProducts()) {
+            if (product.getId() == null) {
+                return "Order with an unsaved product";
+            }
+        }
+        return null;
+    }
+
+    public List<Order> findOrdersByCustomer(Customer customer) throws OrderServiceException {
+        try (Probe probe = METRICS.start("findOrdersByCustomer")) {
+            return probe.ok(transactionHandler.executeReadOnly(conn -> orderMapper.findOrdersByCustomer(customer, conn)));
         } catch (Exception e) {
             throw new OrderServiceException("Failed to find orders by customer", e);
         }
     }
 
+    public List<OrderSummary> getOrderHistory(Customer customer) throws OrderServiceException {
+        try (Probe probe = METRICS.start("getOrderHistory")) {
+            List<OrderSummary> history = historyIndex.get(customer.getId());
+            if (history == null) {
+                long version = historyIndex.version();
+                history = transactionHandler.executeReadOnly(conn -> orderMapper.findSummariesByCustomer(customer.getId(), conn));
+                historyIndex.fill(customer.getId(), history, version);
+            }
+            return probe.ok(history);
+        } catch (Exception e) {
+            throw new OrderServiceException("Failed to get order history", e);
+        }
+    }
+
     public Order getOrderById(Long id) throws OrderServiceException {
-        try {
-            return transactionHandler.executeInTransaction(conn -> orderMapper.read(id, conn));
+        try (Probe probe = METRICS.start("getOrderById")) {
+            return probe.ok(transactionHandler.executeReadOnly(conn -> orderMapper.read(id, conn)));
         } catch (Exception e) {
             throw new OrderServiceException("Failed to get order by id", e);
         }
     }
 
+    /**
+     * @deprecated Loads every order in memory; use {@link #getOrdersPage} or {@link #streamOrders}.
+     */
     @Deprecated
     public List<Order> getAllOrders() {
-        try {
-            return transactionHandler.executeInTransaction(orderMapper::findAll);
+        try (Probe probe = METRICS.start("getAllOrders")) {
+            return probe.ok(transactionHandler.executeReadOnly(orderMapper::findAll));
         } catch (Exception e) {
-            System.err.println("Error while finding orders: " + e.getMessage());
+            LOG.warn("Error while finding orders", e);
             return null;
         }
     }
 
+    public List<Order> getOrdersPage(Long afterId, int limit) throws OrderServiceException {
+        try (Probe probe = METRICS.start("getOrdersPage")) {
+            return probe.ok(transactionHandler.executeReadOnly(conn -> orderMapper.findPage(afterId, limit, conn)));
+        } catch (Exception e) {
+            throw new OrderServiceException("Failed to get orders page", e);
+        }
+    }
+
+    public void streamOrders(int fetchSize, Consumer<Order> consumer) throws OrderServiceException {
+        if (fetchSize < 1) {
+            throw new IllegalArgumentException("The fetch size must be positive: " + fetchSize);
+        }
+        try (Probe probe = METRICS.start("streamOrders")) {
+            transactionHandler.executeReadOnly(conn -> {
+                orderMapper.stream(conn, fetchSize, probe.counting(consumer));
+                return null;
+            });
+            probe.ok();
+        } catch (Exception e) {
+            throw new OrderServiceException("Failed to stream orders", e);
+        }
+    }
+
     public boolean updateOrder(Order order) throws OrderServiceException {
-        try {
+        try (Probe probe = METRICS.start("updateOrder")) {
             transactionHandler.executeInTransaction(conn -> {
                 orderMapper.update(order, conn);
                 return null; // Void equivalent
             });
-            System.out.println("Order updated successfully!");
+            indexSummary(order);
+            LOG.atInfo().addKeyValue("operation", "updateOrder").addKeyValue("orderId", order.getId()).log("Order updated");
+            probe.ok();
             return true;
         } catch (Exception e) {
             throw new OrderServiceException("Failed to update order", e);
@@ -74,15 +242,23 @@ public class OrderService {
     }
 
     public boolean deleteOrder(Order order) throws OrderServiceException {
-        try {
+        try (Probe probe = METRICS.start("deleteOrder")) {
             transactionHandler.executeInTransaction(conn -> {
                 orderMapper.delete(order.getId(), conn);
                 return null; // Void equivalent
             });
-            System.out.println("Order deleted successfully!");
+            historyIndex.removeOrder(order.getCustomer() == null ? null : order.getCustomer().getId(), order.getId());
+            LOG.atInfo().addKeyValue("operation", "deleteOrder").addKeyValue("orderId", order.getId()).log("Order deleted");
+            probe.ok();
             return true;
         } catch (Exception e) {
             throw new OrderServiceException("Failed to delete order", e);
         }
     }
-}
\ No newline at end of file
+
+    private void indexSummary(Order order) {
+        if (order.getId() != null && order.getCustomer() != null && order.getRestaurant() != null) {
+            historyIndex.put(OrderSummary.of(order));
+        }
+    }
+}
@@ -1,16 +1,24 @@
 package ch.hearc.ig.orderresto.service;
 
 import ch.hearc.ig.orderresto.business.Product;
+import ch.hearc.ig.orderresto.monitoring.ComponentMetrics;
+import ch.hearc.ig.orderresto.monitoring.Metrics;
+import ch.hearc.ig.orderresto.monitoring.Probe;
 import ch.hearc.ig.orderresto.persistence.exceptions.ProductPersistenceException;
 import ch.hearc.ig.orderresto.persistence.mappers.ProductMapper;
 import ch.hearc.ig.orderresto.service.exceptions.ProductServiceException;
 import ch.hearc.ig.orderresto.service.utils.TransactionHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.List;
+import java.util.function.Consumer;
 
 public class ProductService {
+    private static final Logger LOG = LoggerFactory.getLogger(ProductService.class);
+    private static final ComponentMetrics METRICS = Metrics.getInstance().component(ProductService.class);
 
     private final ProductMapper productMapper;
     private final TransactionHandler transactionHandler;
@@ -26,20 +34,21 @@ public class ProductService {
     }
 
     public Product getProductById(Long id) throws ProductServiceException {
-        try {
-            return transactionHandler.executeInTransaction(conn -> productMapper.read(id, conn));
+        try (Probe probe = METRICS.start("getProductById")) {
+            return probe.ok(transactionHandler.executeReadOnly(conn -> productMapper.read(id, conn)));
         } catch (Exception e) {
             throw new ProductServiceException("Error while getting product by id", e);
         }
     }
 
     public boolean addProduct(Product product) throws ProductServiceException {
-        try {
+        try (Probe probe = METRICS.start("addProduct")) {
             transactionHandler.executeInTransaction(conn -> {
                 productMapper.insert(product, conn);
                 return null; // Void equivalent
             });
-            System.out.println("Product added successfully!");
+            LOG.atInfo().addKeyValue("operation", "addProduct").addKeyValue("productId", product.getId()).log("Product added");
+            probe.ok();
             return true;
         } catch (Exception e) {
             throw new ProductServiceException("Failed to add product", e);
@@ -47,20 +56,21 @@ public class ProductService {
     }
 
     public List<Product> getProductsByRestaurantId(Long restaurantId) throws ProductServiceException {
-        try {
-            return transactionHandler.executeInTransaction(conn -> productMapper.getProductsByRestaurantId(restaurantId, conn));
+        try (Probe probe = METRICS.start("getProductsByRestaurantId")) {
+            return probe.ok(transactionHandler.executeReadOnly(conn -> productMapper.getProductsByRestaurantId(restaurantId, conn)));
         } catch (Exception e) {
             throw new ProductServiceException("Failed to get products by restaurant id", e);
         }
     }
 
     public boolean updateProduct(Product product) throws ProductServiceException {
-        try {
+        try (Probe probe = METRICS.start("updateProduct")) {
             transactionHandler.executeInTransaction(conn -> {
                 productMapper.update(product, conn);
                 return null; // Void equivalent
             });
-            System.out.println("Product updated successfully!");
+            LOG.atInfo().addKeyValue("operation", "updateProduct").addKeyValue("productId", product.getId()).log("Product updated");
+            probe.ok();
             return true;
         } catch (Exception e) {
             throw new ProductServiceException("Failed to update product", e);
@@ -68,12 +78,15 @@ public class ProductService {
     }
 
     public boolean deleteProduct(Long id) throws ProductServiceException {
-        try {
+        try (Probe probe = METRICS.start("deleteProduct")) {
             transactionHandler.executeInTransaction(conn -> {
                 productMapper.delete(id, conn);
                 return null; // Void equivalent
             });
-            System.out.println("Product deleted successfully!");
+            // Les totaux des commandes contenant le produit ont été recalculés
+            OrderHistoryIndex.getInstance().clear();
+            LOG.atInfo().addKeyValue("operation", "deleteProduct").addKeyValue("productId", id).log("Product deleted");
+            probe.ok();
             return true;
         } catch (Exception e) {
             throw new ProductServiceException("Failed to delete product", e);
@@ -81,10 +94,33 @@ public class ProductService {
     }
 
     public List<Product> getAllProducts() throws ProductServiceException {
-        try {
-            return transactionHandler.executeInTransaction(productMapper::findAll);
+        try (Probe probe = METRICS.start("getAllProducts")) {
+            return probe.ok(transactionHandler.executeReadOnly(productMapper::findAll));
         } catch (Exception e) {
             throw new ProductServiceException("Failed to get all products", e);
         }
     }
-}
\ No newline at end of file
+
+    public List<Product> getProductsPage(Long afterId, int limit) throws ProductServiceException {
+        try (Probe probe = METRICS.start("getProductsPage")) {
+            return probe.ok(transactionHandler.executeReadOnly(conn -> productMapper.findPage(afterId, limit, conn)));
+        } catch (Exception e) {
+            throw new ProductServiceException("Failed to get products page", e);
+        }
+    }
+
+    public void streamProducts(int fetchSize, Consumer<Product> consumer) throws ProductServiceException {
+        if (fetchSize < 1) {
+            throw new IllegalArgumentException("The fetch size must be positive: " + fetchSize);
+        }
+        try (Probe probe = METRICS.start("streamProducts")) {
+            transactionHandler.executeReadOnly(conn -> {
+                productMapper.stream(conn, fetchSize, probe.counting(consumer));
+                return null;
+            });
+            probe.ok();
+        } catch (Exception e) {
+            throw new ProductServiceException("Failed to stream products", e);
+        }
+    }
+}
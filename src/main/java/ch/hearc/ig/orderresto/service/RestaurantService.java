@@ -1,13 +1,21 @@
 package ch.hearc.ig.orderresto.service;
 
 import ch.hearc.ig.orderresto.business.Restaurant;
+import ch.hearc.ig.orderresto.monitoring.ComponentMetrics;
+import ch.hearc.ig.orderresto.monitoring.Metrics;
+import ch.hearc.ig.orderresto.monitoring.Probe;
 import ch.hearc.ig.orderresto.persistence.mappers.RestaurantMapper;
 import ch.hearc.ig.orderresto.service.exceptions.RestaurantServiceException;
 import ch.hearc.ig.orderresto.service.utils.TransactionHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public class RestaurantService {
+    private static final Logger LOG = LoggerFactory.getLogger(RestaurantService.class);
+    private static final ComponentMetrics METRICS = Metrics.getInstance().component(RestaurantService.class);
 
     private final RestaurantMapper restaurantMapper;
     private final TransactionHandler transactionHandler;
@@ -23,20 +31,21 @@ public class RestaurantService {
     }
 
     public Restaurant getRestaurantById(Long id) throws RestaurantServiceException {
-        try {
-            return transactionHandler.executeInTransaction(conn -> restaurantMapper.read(id, conn));
+        try (Probe probe = METRICS.start("getRestaurantById")) {
+            return probe.ok(transactionHandler.executeReadOnly(conn -> restaurantMapper.read(id, conn)));
         } catch (Exception e) {
             throw new RestaurantServiceException("Error while getting restaurant by id", e);
         }
     }
 
     public boolean addRestaurant(Restaurant restaurant) throws RestaurantServiceException {
-        try {
+        try (Probe probe = METRICS.start("addRestaurant")) {
             transactionHandler.executeInTransaction(conn -> {
                 restaurantMapper.insert(restaurant, conn);
                 return null; // Void equivalent
             });
-            System.out.println("Restaurant ajouté avec succès !");
+            LOG.atInfo().addKeyValue("operation", "addRestaurant").addKeyValue("restaurantId", restaurant.getId()).log("Restaurant added");
+            probe.ok();
             return true;
         } catch (Exception e) {
             throw new RestaurantServiceException("Failed to add restaurant", e);
@@ -44,12 +53,15 @@ public class RestaurantService {
     }
 
     public boolean updateRestaurant(Restaurant restaurant) throws RestaurantServiceException {
-        try {
+        try (Probe probe = METRICS.start("updateRestaurant")) {
             transactionHandler.executeInTransaction(conn -> {
                 restaurantMapper.update(restaurant, conn);
                 return null; // Void equivalent
             });
-            System.out.println("Restaurant updated successfully!");
+            // Le nom du restaurant figure dans les historiques
+            OrderHistoryIndex.getInstance().clear();
+            LOG.atInfo().addKeyValue("operation", "updateRestaurant").addKeyValue("restaurantId", restaurant.getId()).log("Restaurant updated");
+            probe.ok();
             return true;
         } catch (Exception e) {
             throw new RestaurantServiceException("Failed to update restaurant", e);
@@ -57,12 +69,14 @@ public class RestaurantService {
     }
 
     public boolean deleteRestaurant(Long id) throws RestaurantServiceException {
-        try {
+        try (Probe probe = METRICS.start("deleteRestaurant")) {
             transactionHandler.executeInTransaction(conn -> {
                 restaurantMapper.delete(id, conn);
                 return null; // Void equivalent
             });
-            System.out.println("Restaurant deleted successfully!");
+            OrderHistoryIndex.getInstance().clear();
+            LOG.atInfo().addKeyValue("operation", "deleteRestaurant").addKeyValue("restaurantId", id).log("Restaurant deleted");
+            probe.ok();
             return true;
         } catch (Exception e) {
             throw new RestaurantServiceException("Failed to delete restaurant", e);
@@ -70,10 +84,33 @@ public class RestaurantService {
     }
 
     public List<Restaurant> getAllRestaurants() throws RestaurantServiceException {
-        try {
-            return transactionHandler.executeInTransaction(restaurantMapper::findAll);
+        try (Probe probe = METRICS.start("getAllRestaurants")) {
+            return probe.ok(transactionHandler.executeReadOnly(restaurantMapper::findAll));
         } catch (Exception e) {
             throw new RestaurantServiceException("Failed to get all restaurants", e);
         }
     }
+
+    public List<Restaurant> getRestaurantsPage(Long afterId, int limit) throws RestaurantServiceException {
+        try (Probe probe = METRICS.start("getRestaurantsPage")) {
+            return probe.ok(transactionHandler.executeReadOnly(conn -> restaurantMapper.findPage(afterId, limit, conn)));
+        } catch (Exception e) {
+            throw new RestaurantServiceException("Failed to get restaurants page", e);
+        }
+    }
+
+    public void streamRestaurants(int fetchSize, Consumer<Restaurant> consumer) throws RestaurantServiceException {
+        if (fetchSize < 1) {
+            throw new IllegalArgumentException("The fetch size must be positive: " + fetchSize);
+        }
+        try (Probe probe = METRICS.start("streamRestaurants")) {
+            transactionHandler.executeReadOnly(conn -> {
+                restaurantMapper.stream(conn, fetchSize, probe.counting(consumer));
+                return null;
+            });
+            probe.ok();
+        } catch (Exception e) {
+            throw new RestaurantServiceException("Failed to stream restaurants", e);
+        }
+    }
 }
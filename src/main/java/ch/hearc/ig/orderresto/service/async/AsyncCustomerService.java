@@ -0,0 +1,53 @@
+package ch.hearc.ig.orderresto.service.async;
+
+import ch.hearc.ig.orderresto.business.Customer;
+import ch.hearc.ig.orderresto.service.CustomerService;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * {@link CustomerService} returning futures; failures complete them with the {@code CustomerServiceException}.
+ */
+public class AsyncCustomerService {
+
+    private final CustomerService customerService;
+    private final AsyncExecutor executor;
+
+    public AsyncCustomerService() {
+        this(new CustomerService(), AsyncExecutor.getInstance());
+    }
+
+    public AsyncCustomerService(CustomerService customerService, AsyncExecutor executor) {
+        this.customerService = customerService;
+        this.executor = executor;
+    }
+
+    public CompletableFuture<Void> addCustomer(Customer customer) {
+        return executor.submit(() -> {
+            customerService.addCustomer(customer);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Customer> getExistingCustomer(String email) {
+        return executor.submitReadOnly(() -> customerService.getExistingCustomer(email));
+    }
+
+    public CompletableFuture<Customer> getCustomerById(Long id) {
+        return executor.submitReadOnly(() -> customerService.getCustomerById(id));
+    }
+
+    public CompletableFuture<Void> updateCustomer(Customer customer) {
+        return executor.submit(() -> {
+            customerService.updateCustomer(customer);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Void> deleteCustomer(Customer customer) {
+        return executor.submit(() -> {
+            customerService.deleteCustomer(customer);
+            return null;
+        });
+    }
+}
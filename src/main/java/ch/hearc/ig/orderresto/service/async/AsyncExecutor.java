@@ -0,0 +1,310 @@
+package ch.hearc.ig.orderresto.service.async;
+
+import ch.hearc.ig.orderresto.monitoring.Span;
+import ch.hearc.ig.orderresto.monitoring.Tracer;
+import ch.hearc.ig.orderresto.service.utils.ConnectionManager;
+import ch.hearc.ig.orderresto.service.utils.PoolConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs blocking service calls on a bounded set of threads and hands back their results as futures.
+ * <p>
+ * Each call holds a connection for its whole duration, so the shared instance has as many threads as
+ * the connection pool has connections: more threads would only wait in the pool. Read-only calls
+ * ({@link #submitReadOnly}) borrow from the read-only pool when {@code db.readonly.url} is set, and then
+ * run on threads of their own, as many as that pool has connections. On each side, at most
+ * {@code threads + queueCapacity} calls are accepted at once; beyond that, {@link #submit} blocks the
+ * caller until a call completes, and fails the future with a {@link RejectedExecutionException} if none
+ * completes within the timeout. Callers producing work faster than the database absorbs it are thus
+ * slowed down instead of queueing without limit.
+ * <p>
+ * A call runs with the MDC and the current tracing span of the thread that submitted it, so that its log
+ * events and spans belong to the caller's request.
+ * <p>
+ * A task must not wait for another task of the same executor: with every thread waiting, none would run.
+ * Compose futures with {@code thenCombine}, {@code thenCompose} or {@code allOf} instead.
+ * <p>
+ * On Java 21 and later, {@code -Dasync.virtualThreads=true} runs each call of the shared instance on its own
+ * virtual thread ({@link #virtual}): a call waiting for a connection or for the database then parks without
+ * holding a platform thread, and up to {@code async.maxPendingCalls} calls (10 000 by default) are accepted
+ * at once. The connection pool still bounds how many of them reach the database.
+ */
+public class AsyncExecutor implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AsyncExecutor.class);
+
+    /** Calls waiting for a thread, per thread of the shared instance. */
+    public static final int QUEUED_CALLS_PER_THREAD = 4;
+    /** Calls accepted at once by the shared instance on virtual threads. */
+    public static final int DEFAULT_MAX_VIRTUAL_CALLS = 10_000;
+
+    private final Lane lane;
+    private final Lane readOnlyLane;
+    private final long submitTimeoutMs;
+    private final boolean virtual;
+
+    /**
+     * Creates an executor running the read-only calls on the same threads as the others.
+     *
+     * @param threads         The number of calls run at the same time.
+     * @param queueCapacity   The number of calls accepted while all threads are busy.
+     * @param submitTimeoutMs How long {@link #submit} waits for room before rejecting a call.
+     */
+    public AsyncExecutor(int threads, int queueCapacity, long submitTimeoutMs) {
+        this(new Lane(newPlatformExecutor(threads, queueCapacity), threads + queueCapacity), null, submitTimeoutMs, false);
+    }
+
+    /**
+     * Creates an executor running the read-only calls on threads of their own, for a read-only pool sized apart.
+     *
+     * @param readOnlyThreads       The number of read-only calls run at the same time.
+     * @param readOnlyQueueCapacity The number of read-only calls accepted while all their threads are busy.
+     */
+    public AsyncExecutor(int threads, int queueCapacity, int readOnlyThreads, int readOnlyQueueCapacity, long submitTimeoutMs) {
+        this(new Lane(newPlatformExecutor(threads, queueCapacity), threads + queueCapacity),
+                new Lane(newPlatformExecutor(readOnlyThreads, readOnlyQueueCapacity), readOnlyThreads + readOnlyQueueCapacity),
+                submitTimeoutMs, false);
+    }
+
+    private AsyncExecutor(Lane lane, Lane readOnlyLane, long submitTimeoutMs, boolean virtual) {
+        this.lane = lane;
+        this.readOnlyLane = readOnlyLane == null ? lane : readOnlyLane;
+        this.submitTimeoutMs = submitTimeoutMs;
+        this.virtual = virtual;
+    }
+
+    /**
+     * Threads and room for the calls borrowing from one connection pool.
+     */
+    private static class Lane {
+        private final ExecutorService executor;
+        private final Semaphore permits;
+        private final int maxPendingCalls;
+
+        private Lane(ExecutorService executor, int maxPendingCalls) {
+            this.executor = executor;
+            this.permits = new Semaphore(maxPendingCalls);
+            this.maxPendingCalls = maxPendingCalls;
+        }
+
+        private int getPendingCount() {
+            return maxPendingCalls - permits.availablePermits();
+        }
+    }
+
+    /**
+     * Creates an executor running each call on a new virtual thread. Requires Java 21 or later.
+     *
+     * @param maxPendingCalls The number of calls accepted at once.
+     * @param submitTimeoutMs How long {@link #submit} waits for room before rejecting a call.
+     * @throws UnsupportedOperationException if the running JVM has no virtual threads.
+     */
+    public static AsyncExecutor virtual(int maxPendingCalls, long submitTimeoutMs) {
+        if (maxPendingCalls < 1) {
+            throw new IllegalArgumentException("Invalid number of calls: " + maxPendingCalls);
+        }
+        return new AsyncExecutor(new Lane(newVirtualThreadPerTaskExecutor(), maxPendingCalls), null, submitTimeoutMs, true);
+    }
+
+    /**
+     * @return {@code true} if the running JVM has virtual threads (Java 21 or later).
+     */
+    public static boolean isVirtualThreadsSupported() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    private static ExecutorService newPlatformExecutor(int threads, int queueCapacity) {
+        if (threads < 1 || queueCapacity < 0) {
+            throw new IllegalArgumentException("Invalid executor size: threads=" + threads + ", queue=" + queueCapacity);
+        }
+        // File non bornée : le sémaphore limite déjà le nombre de tâches acceptées
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), new NamedThreadFactory());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        // Appel par réflexion : le code est compilé pour Java 11, les threads virtuels datent de Java 21
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (NoSuchMethodException e) {
+            throw new UnsupportedOperationException("Virtual threads require Java 21 or later, running on " + Runtime.version(), e);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("Cannot create the virtual thread executor", e);
+        }
+    }
+
+    /**
+     * @return The executor shared by the async services, sized to the connection pools.
+     */
+    public static AsyncExecutor getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    private static class Holder {
+        private static final AsyncExecutor INSTANCE = create();
+
+        private static AsyncExecutor create() {
+            PoolConfig config = ConnectionManager.getPoolConfig();
+            AsyncExecutor executor = null;
+            if (Boolean.getBoolean("async.virtualThreads")) {
+                if (isVirtualThreadsSupported()) {
+                    executor = virtual(Integer.getInteger("async.maxPendingCalls", DEFAULT_MAX_VIRTUAL_CALLS), config.getBorrowTimeoutMs());
+                } else {
+                    LOG.warn("async.virtualThreads ignored: virtual threads require Java 21, running on {}", Runtime.version());
+                }
+            }
+            if (executor == null && ConnectionManager.hasReadOnlyPool()) {
+                PoolConfig readOnly = ConnectionManager.getReadOnlyPoolConfig();
+                executor = new AsyncExecutor(config.getMaxSize(), config.getMaxSize() * QUEUED_CALLS_PER_THREAD,
+                        readOnly.getMaxSize(), readOnly.getMaxSize() * QUEUED_CALLS_PER_THREAD, config.getBorrowTimeoutMs());
+            } else if (executor == null) {
+                executor = new AsyncExecutor(config.getMaxSize(),
+                        config.getMaxSize() * QUEUED_CALLS_PER_THREAD, config.getBorrowTimeoutMs());
+            }
+            Runtime.getRuntime().addShutdownHook(new Thread(executor::close, "async-executor-shutdown"));
+            return executor;
+        }
+    }
+
+    /**
+     * Runs a call on one of the executor threads, waiting for room if too many calls are pending.
+     *
+     * @param call The blocking call.
+     * @param <T>  The type of its result.
+     * @return A future completed with the result of the call, or exceptionally with the exception it threw,
+     * or with a {@link RejectedExecutionException} if the executor stayed saturated for the whole timeout.
+     */
+    public <T> CompletableFuture<T> submit(Callable<T> call) {
+        return submit(lane, call);
+    }
+
+    /**
+     * Runs a call that only reads, through {@code TransactionHandler.executeReadOnly}, on the threads sized
+     * to the read-only pool.
+     *
+     * @see #submit
+     */
+    public <T> CompletableFuture<T> submitReadOnly(Callable<T> call) {
+        return submit(readOnlyLane, call);
+    }
+
+    private <T> CompletableFuture<T> submit(Lane lane, Callable<T> call) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            if (!lane.permits.tryAcquire(submitTimeoutMs, TimeUnit.MILLISECONDS)) {
+                future.completeExceptionally(new RejectedExecutionException(
+                        "No room for the call after " + submitTimeoutMs + " ms: " + lane.getPendingCount() + " calls pending"));
+                return future;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.completeExceptionally(e);
+            return future;
+        }
+        // Contexte de l'appelant, rétabli sur le thread qui exécute l'appel
+        Map<String, String> context = MDC.getCopyOfContextMap();
+        Tracer tracer = Tracer.getInstance();
+        Span parent = tracer.current();
+        try {
+            lane.executor.execute(() -> {
+                Map<String, String> previousContext = MDC.getCopyOfContextMap();
+                Span previousSpan = tracer.attach(parent);
+                setContext(context);
+                try {
+                    future.complete(call.call());
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                } finally {
+                    tracer.attach(previousSpan);
+                    setContext(previousContext);
+                    lane.permits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            lane.permits.release();
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    private static void setContext(Map<String, String> context) {
+        if (context == null) {
+            MDC.clear();
+        } else {
+            MDC.setContextMap(context);
+        }
+    }
+
+    /**
+     * @return The number of calls running or waiting for a thread.
+     */
+    public int getPendingCount() {
+        return readOnlyLane == lane ? lane.getPendingCount() : lane.getPendingCount() + readOnlyLane.getPendingCount();
+    }
+
+    /**
+     * @return {@code true} if calls run on virtual threads.
+     */
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    /**
+     * Stops accepting calls and waits for the pending ones to complete.
+     */
+    @Override
+    public void close() {
+        lane.executor.shutdown();
+        readOnlyLane.executor.shutdown();
+        try {
+            for (Lane closing : List.of(lane, readOnlyLane)) {
+                if (!closing.executor.awaitTermination(submitTimeoutMs, TimeUnit.MILLISECONDS)) {
+                    closing.executor.shutdownNow();
+                }
+            }
+        } catch (InterruptedException e) {
+            lane.executor.shutdownNow();
+            readOnlyLane.executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class NamedThreadFactory implements ThreadFactory {
+        private static final AtomicInteger EXECUTORS = new AtomicInteger();
+        private final int executorNumber = EXECUTORS.incrementAndGet();
+        private final AtomicInteger threads = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "async-service-" + executorNumber + "-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package ch.hearc.ig.orderresto.service.async;
+
+import ch.hearc.ig.orderresto.business.Customer;
+import ch.hearc.ig.orderresto.business.Order;
+import ch.hearc.ig.orderresto.business.OrderSummary;
+import ch.hearc.ig.orderresto.service.OrderBatchResult;
+import ch.hearc.ig.orderresto.service.OrderService;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * {@link OrderService} returning futures; failures complete them with the {@code OrderServiceException}.
+ */
+public class AsyncOrderService {
+
+    private final OrderService orderService;
+    private final AsyncExecutor executor;
+
+    public AsyncOrderService() {
+        this(new OrderService(), AsyncExecutor.getInstance());
+    }
+
+    public AsyncOrderService(OrderService orderService, AsyncExecutor executor) {
+        this.orderService = orderService;
+        this.executor = executor;
+    }
+
+    public CompletableFuture<Boolean> createOrder(Order order) {
+        return executor.submit(() -> orderService.createOrder(order));
+    }
+
+    public CompletableFuture<OrderBatchResult> createOrders(Collection<Order> orders) {
+        return executor.submit(() -> orderService.createOrders(orders));
+    }
+
+    public CompletableFuture<List<Order>> findOrdersByCustomer(Customer customer) {
+        return executor.submitReadOnly(() -> orderService.findOrdersByCustomer(customer));
+    }
+
+    public CompletableFuture<List<OrderSummary>> getOrderHistory(Customer customer) {
+        return executor.submitReadOnly(() -> orderService.getOrderHistory(customer));
+    }
+
+    public CompletableFuture<Order> getOrderById(Long id) {
+        return executor.submitReadOnly(() -> orderService.getOrderById(id));
+    }
+
+    public CompletableFuture<List<Order>> getOrdersPage(Long afterId, int limit) {
+        return executor.submitReadOnly(() -> orderService.getOrdersPage(afterId, limit));
+    }
+
+    /**
+     * The consumer is called on an executor thread.
+     */
+    public CompletableFuture<Void> streamOrders(int fetchSize, Consumer<Order> consumer) {
+        return executor.submitReadOnly(() -> {
+            orderService.streamOrders(fetchSize, consumer);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Boolean> updateOrder(Order order) {
+        return executor.submit(() -> orderService.updateOrder(order));
+    }
+
+    public CompletableFuture<Boolean> deleteOrder(Order order) {
+        return executor.submit(() -> orderService.deleteOrder(order));
+    }
+}
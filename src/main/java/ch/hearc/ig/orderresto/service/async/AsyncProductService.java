@@ -0,0 +1,64 @@
+package ch.hearc.ig.orderresto.service.async;
+
+import ch.hearc.ig.orderresto.business.Product;
+import ch.hearc.ig.orderresto.service.ProductService;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * {@link ProductService} returning futures; failures complete them with the {@code ProductServiceException}.
+ */
+public class AsyncProductService {
+
+    private final ProductService productService;
+    private final AsyncExecutor executor;
+
+    public AsyncProductService() {
+        this(new ProductService(), AsyncExecutor.getInstance());
+    }
+
+    public AsyncProductService(ProductService productService, AsyncExecutor executor) {
+        this.productService = productService;
+        this.executor = executor;
+    }
+
+    public CompletableFuture<Product> getProductById(Long id) {
+        return executor.submitReadOnly(() -> productService.getProductById(id));
+    }
+
+    public CompletableFuture<Boolean> addProduct(Product product) {
+        return executor.submit(() -> productService.addProduct(product));
+    }
+
+    public CompletableFuture<List<Product>> getProductsByRestaurantId(Long restaurantId) {
+        return executor.submitReadOnly(() -> productService.getProductsByRestaurantId(restaurantId));
+    }
+
+    public CompletableFuture<Boolean> updateProduct(Product product) {
+        return executor.submit(() -> productService.updateProduct(product));
+    }
+
+    public CompletableFuture<Boolean> deleteProduct(Long id) {
+        return executor.submit(() -> productService.deleteProduct(id));
+    }
+
+    public CompletableFuture<List<Product>> getAllProducts() {
+        return executor.submitReadOnly(productService::getAllProducts);
+    }
+
+    public CompletableFuture<List<Product>> getProductsPage(Long afterId, int limit) {
+        return executor.submitReadOnly(() -> productService.getProductsPage(afterId, limit));
+    }
+
+    /**
+     * The consumer is called on an executor thread.
+     */
+    public CompletableFuture<Void> streamProducts(int fetchSize, Consumer<Product> consumer) {
+        return executor.submitReadOnly(() -> {
+            productService.streamProducts(fetchSize, consumer);
+            return null;
+        });
+    }
+}
@@ -0,0 +1,60 @@
+package ch.hearc.ig.orderresto.service.async;
+
+import ch.hearc.ig.orderresto.business.Restaurant;
+import ch.hearc.ig.orderresto.service.RestaurantService;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * {@link RestaurantService} returning futures; failures complete them with the {@code RestaurantServiceException}.
+ */
+public class AsyncRestaurantService {
+
+    private final RestaurantService restaurantService;
+    private final AsyncExecutor executor;
+
+    public AsyncRestaurantService() {
+        this(new RestaurantService(), AsyncExecutor.getInstance());
+    }
+
+    public AsyncRestaurantService(RestaurantService restaurantService, AsyncExecutor executor) {
+        this.restaurantService = restaurantService;
+        this.executor = executor;
+    }
+
+    public CompletableFuture<Restaurant> getRestaurantById(Long id) {
+        return executor.submitReadOnly(() -> restaurantService.getRestaurantById(id));
+    }
+
+    public CompletableFuture<Boolean> addRestaurant(Restaurant restaurant) {
+        return executor.submit(() -> restaurantService.addRestaurant(restaurant));
+    }
+
+    public CompletableFuture<Boolean> updateRestaurant(Restaurant restaurant) {
+        return executor.submit(() -> restaurantService.updateRestaurant(restaurant));
+    }
+
+    public CompletableFuture<Boolean> deleteRestaurant(Long id) {
+        return executor.submit(() -> restaurantService.deleteRestaurant(id));
+    }
+
+    public CompletableFuture<List<Restaurant>> getAllRestaurants() {
+        return executor.submitReadOnly(restaurantService::getAllRestaurants);
+    }
+
+    public CompletableFuture<List<Restaurant>> getRestaurantsPage(Long afterId, int limit) {
+        return executor.submitReadOnly(() -> restaurantService.getRestaurantsPage(afterId, limit));
+    }
+
+    /**
+     * The consumer is called on an executor thread.
+     */
+    public CompletableFuture<Void> streamRestaurants(int fetchSize, Consumer<Restaurant> consumer) {
+        return executor.submitReadOnly(() -> {
+            restaurantService.streamRestaurants(fetchSize, consumer);
+            return null;
+        });
+    }
+}
@@ -0,0 +1,12 @@
+package ch.hearc.ig.orderresto.service.exceptions;
+
+public class AnalyticsServiceException extends Exception {
+
+    public AnalyticsServiceException(String message) {
+        super(message);
+    }
+
+    public AnalyticsServiceException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -1,16 +1,41 @@
 package ch.hearc.ig.orderresto.service.utils;
 
+import ch.hearc.ig.orderresto.monitoring.Span;
+import ch.hearc.ig.orderresto.monitoring.SqlProfiler;
+import ch.hearc.ig.orderresto.monitoring.Tracer;
+import ch.hearc.ig.orderresto.persistence.dialect.SqlDialect;
+import ch.hearc.ig.orderresto.persistence.dialect.SqlScripts;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import java.io.IOException;
 import java.io.InputStream;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.util.Properties;
+import java.util.concurrent.locks.ReentrantLock;
 
 public class ConnectionManager {
+    private static final Logger LOG = LoggerFactory.getLogger(ConnectionManager.class);
+
     protected static String url;
     protected static String username;
     protected static String password;
+    protected static PoolConfig poolConfig;
+    protected static String readOnlyUrl;
+    protected static String readOnlyUsername;
+    protected static String readOnlyPassword;
+    protected static PoolConfig readOnlyPoolConfig;
+    protected static boolean embedded;
+    protected static boolean embeddedSeed;
+
+    private static final ReentrantLock POOL_LOCK = new ReentrantLock();
+    private static volatile ConnectionPool pool;
+    private static volatile ConnectionPool readOnlyPool;
+
+    public static final String EMBEDDED_PROFILE = "embedded";
+    public static final String EMBEDDED_URL = "jdbc:h2:mem:orderresto;MODE=Oracle;DB_CLOSE_DELAY=-1";
 
     static {
         loadProperties();
@@ -19,28 +44,199 @@ public class ConnectionManager {
     private static void loadProperties() {
         Properties prop = new Properties();
         try (InputStream input = ConnectionManager.class.getClassLoader().getResourceAsStream("config.properties")) {
-            if (input == null) {
-                System.out.println("Sorry, unable to find config.properties");
-                return;
+            if (input != null) {
+                prop.load(input);
+            }
+            embedded = EMBEDDED_PROFILE.equalsIgnoreCase(System.getProperty("db.profile", prop.getProperty("db.profile", "")).trim());
+            if (embedded) {
+                // Base embarquée : aucune configuration n'est requise
+                url = prop.getProperty("db.embedded.url", EMBEDDED_URL);
+                username = prop.getProperty("db.embedded.username", "sa");
+                password = prop.getProperty("db.embedded.password", "");
+                embeddedSeed = Boolean.parseBoolean(prop.getProperty("db.embedded.seed", "true"));
+            } else {
+                if (input == null) {
+                    LOG.error("Sorry, unable to find config.properties");
+                    return;
+                }
+                url = prop.getProperty("db.url");
+                username = prop.getProperty("db.username");
+                password = prop.getProperty("db.password");
             }
-            prop.load(input);
-            url = prop.getProperty("db.url");
-            username = prop.getProperty("db.username");
-            password = prop.getProperty("db.password");
 
             if (url == null || username == null || password == null) {
                 throw new RuntimeException("Database credentials are missing in config.properties");
             }
+            SqlDialect.setInstance(SqlDialect.forUrl(url));
+            poolConfig = PoolConfig.fromProperties(prop);
+
+            // Base de lecture optionnelle (réplique, service dédié) ; sinon les lectures partagent le pool principal
+            readOnlyUrl = embedded ? null : prop.getProperty("db.readonly.url");
+            readOnlyUsername = prop.getProperty("db.readonly.username", username);
+            readOnlyPassword = prop.getProperty("db.readonly.password", password);
+            readOnlyPoolConfig = PoolConfig.fromProperties(prop, "db.readonly.pool.", poolConfig);
         } catch (IOException ex) {
-            System.err.println("Error loading properties: " + ex.getMessage());
+            LOG.error("Error loading properties", ex);
             throw new RuntimeException("Database configuration error", ex);
         }
     }
 
+    /**
+     * Creates the schema, and loads the sample data unless {@code db.embedded.seed=false}, in the embedded database.
+     */
+    private static void initializeEmbeddedDatabase() {
+        try (Connection conn = DriverManager.getConnection(url, username, password)) {
+            conn.setAutoCommit(false);
+            SqlScripts.run(conn, SqlDialect.getInstance(), SqlScripts.SCHEMA);
+            if (embeddedSeed) {
+                SqlScripts.run(conn, SqlDialect.getInstance(), SqlScripts.DATA);
+            }
+        } catch (SQLException | IOException e) {
+            throw new RuntimeException("Embedded database initialization error", e);
+        }
+    }
+
+    /**
+     * @return {@code true} if the application runs on the embedded database ({@code db.profile=embedded}).
+     */
+    public static boolean isEmbedded() {
+        return embedded;
+    }
+
+    /**
+     * @return The settings of the main connection pool, or the defaults if the configuration could not be read.
+     */
+    public static PoolConfig getPoolConfig() {
+        return poolConfig != null ? poolConfig : PoolConfig.DEFAULTS;
+    }
+
+    /**
+     * @return {@code true} if read-only connections come from a pool of their own ({@code db.readonly.url}).
+     */
+    public static boolean hasReadOnlyPool() {
+        return readOnlyUrl != null && !readOnlyUrl.isBlank();
+    }
+
+    /**
+     * @return The settings of the pool lending read-only connections: the main pool's without {@code db.readonly.url}.
+     */
+    public static PoolConfig getReadOnlyPoolConfig() {
+        return hasReadOnlyPool() && readOnlyPoolConfig != null ? readOnlyPoolConfig : getPoolConfig();
+    }
+
+    /**
+     * Lazily creates the pool the first time a connection is requested.
+     * <p>
+     * A lock rather than a holder class: creating the pool opens connections, and a virtual thread waiting
+     * for a class initializer would keep its carrier thread blocked meanwhile.
+     */
+    private static ConnectionPool pool() {
+        ConnectionPool current = pool;
+        if (current == null) {
+            POOL_LOCK.lock();
+            try {
+                if (pool == null) {
+                    if (embedded) {
+                        initializeEmbeddedDatabase();
+                    }
+                    ConnectionPool created = new ConnectionPool(() -> DriverManager.getConnection(url, username, password), poolConfig,
+                            SqlProfiler.getInstance());
+                    Runtime.getRuntime().addShutdownHook(new Thread(created::close, "connection-pool-shutdown"));
+                    pool = created;
+                }
+                current = pool;
+            } finally {
+                POOL_LOCK.unlock();
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Lazily creates the pool of the read-only database, or reuses the main pool when none is configured.
+     */
+    private static ConnectionPool readOnlyPool() {
+        ConnectionPool current = readOnlyPool;
+        if (current == null) {
+            if (!hasReadOnlyPool()) {
+                return pool();
+            }
+            POOL_LOCK.lock();
+            try {
+                if (readOnlyPool == null) {
+                    ConnectionPool created = new ConnectionPool(() -> DriverManager.getConnection(readOnlyUrl, readOnlyUsername, readOnlyPassword), readOnlyPoolConfig,
+                            SqlProfiler.getInstance());
+                    Runtime.getRuntime().addShutdownHook(new Thread(created::close, "readonly-connection-pool-shutdown"));
+                    readOnlyPool = created;
+                }
+                current = readOnlyPool;
+            } finally {
+                POOL_LOCK.unlock();
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Borrows a connection from the pool. Closing it returns it to the pool.
+     */
     public static Connection getConnection() throws SQLException {
         if (url == null || username == null || password == null) {
             throw new RuntimeException("Database credentials not loaded properly");
         }
-        return DriverManager.getConnection(url, username, password);
+        // Le span mesure l'attente d'une connexion libre, et la création du pool au premier appel
+        try (Span span = Tracer.getInstance().start("ConnectionManager.getConnection")) {
+            try {
+                return pool().borrow();
+            } catch (SQLException | RuntimeException e) {
+                span.markFailed().attribute("error", e.getClass().getSimpleName());
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Borrows a read-only connection in autocommit mode, from the {@code db.readonly.url} pool if configured.
+     * Closing it returns it to the pool, which clears the read-only flag.
+     */
+    public static Connection getReadOnlyConnection() throws SQLException {
+        if (url == null || username == null || password == null) {
+            throw new RuntimeException("Database credentials not loaded properly");
+        }
+        try (Span span = Tracer.getInstance().start("ConnectionManager.getReadOnlyConnection")) {
+            try {
+                Connection conn = readOnlyPool().borrow();
+                try {
+                    conn.setReadOnly(true);
+                } catch (SQLException e) {
+                    conn.close();
+                    throw e;
+                }
+                return conn;
+            } catch (SQLException | RuntimeException e) {
+                span.markFailed().attribute("error", e.getClass().getSimpleName());
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * @return Wait time and active/idle counts of the connection pool.
+     */
+    public static PoolStats getPoolStats() {
+        if (url == null || username == null || password == null) {
+            throw new RuntimeException("Database credentials not loaded properly");
+        }
+        return pool().getStats();
+    }
+
+    /**
+     * @return Wait time and active/idle counts of the read-only pool (the main pool if none is configured).
+     */
+    public static PoolStats getReadOnlyPoolStats() {
+        if (url == null || username == null || password == null) {
+            throw new RuntimeException("Database credentials not loaded properly");
+        }
+        return readOnlyPool().getStats();
     }
 }
@@ -0,0 +1,251 @@
+package ch.hearc.ig.orderresto.service.utils;
+
+import ch.hearc.ig.orderresto.monitoring.SqlProfiler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded pool of physical JDBC connections.
+ * <p>
+ * At most {@code maxSize} connections are lent at the same time; further borrowers wait up to
+ * {@code borrowTimeoutMs}. Idle connections are validated on borrow, evicted after
+ * {@code idleTimeoutMs} (down to {@code minSize}) and connections held longer than
+ * {@code leakDetectionThresholdMs} are reported with the stack trace of the borrower.
+ * Each physical connection keeps up to {@code statementCacheSize} prepared statements open.
+ * With a {@link SqlProfiler}, every statement handed out is timed.
+ */
+public class ConnectionPool implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ConnectionPool.class);
+
+    @FunctionalInterface
+    public interface ConnectionFactory {
+        Connection create() throws SQLException;
+    }
+
+    private final ConnectionFactory factory;
+    private final PoolConfig config;
+    private final SqlProfiler profiler;
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Set<PooledConnection> borrowed = ConcurrentHashMap.newKeySet();
+    private final Semaphore permits;
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+
+    private final LongAdder borrowCount = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder leaksDetected = new LongAdder();
+    private final LongAdder statementCacheHits = new LongAdder();
+    private final LongAdder statementCacheMisses = new LongAdder();
+    private final LongAdder statementCacheEvictions = new LongAdder();
+
+    public ConnectionPool(ConnectionFactory factory, PoolConfig config) {
+        this(factory, config, null);
+    }
+
+    /**
+     * @param profiler Times the statements of the lent connections, {@code null} for none.
+     */
+    public ConnectionPool(ConnectionFactory factory, PoolConfig config, SqlProfiler profiler) {
+        this.factory = factory;
+        this.config = config;
+        this.profiler = profiler;
+        this.permits = new Semaphore(config.getMaxSize(), true);
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "connection-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = config.getHousekeepingIntervalMs();
+        if (interval > 0) {
+            housekeeper.scheduleWithFixedDelay(this::housekeep, interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Borrows a connection. Closing the returned connection gives it back to the pool.
+     *
+     * @throws SQLTimeoutException if no connection became available within the borrow timeout.
+     */
+    public Connection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(config.getBorrowTimeoutMs(), TimeUnit.MILLISECONDS)) {
+                timeouts.increment();
+                throw new SQLTimeoutException("No connection available after " + config.getBorrowTimeoutMs() + " ms (" + getStats() + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection", e);
+        }
+
+        try {
+            PooledConnection pooled = takeValidIdle();
+            if (pooled == null) {
+                pooled = new PooledConnection(factory.create(), this);
+            }
+            borrowed.add(pooled);
+            recordWait(System.nanoTime() - start);
+            return pooled.lease(config.getLeakDetectionThresholdMs() > 0);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private PooledConnection takeValidIdle() {
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            if (isValid(pooled)) {
+                return pooled;
+            }
+            pooled.closePhysical();
+        }
+        return null;
+    }
+
+    private boolean isValid(PooledConnection pooled) {
+        try {
+            return pooled.getPhysical().isValid(config.getValidationTimeoutSec());
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void recordWait(long waitNanos) {
+        borrowCount.increment();
+        totalWaitNanos.add(waitNanos);
+        maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+    }
+
+    /**
+     * @return The statement cache of a new physical connection, or {@code null} if disabled.
+     */
+    StatementCache newStatementCache() {
+        if (config.getStatementCacheSize() == 0) {
+            return null;
+        }
+        return new StatementCache(config.getStatementCacheSize(), statementCacheHits, statementCacheMisses, statementCacheEvictions);
+    }
+
+    /**
+     * @return The profiler of the statements, or {@code null} if they are not timed.
+     */
+    SqlProfiler getProfiler() {
+        return profiler;
+    }
+
+    /**
+     * Called by the connection proxy when the borrower closes it.
+     */
+    void release(PooledConnection pooled) {
+        if (!borrowed.remove(pooled)) {
+            return;
+        }
+        try {
+            pooled.reset();
+            if (closed) {
+                pooled.closePhysical();
+            } else {
+                // LIFO : la connexion la plus récemment utilisée est la plus susceptible d'être encore valide
+                idle.offerFirst(pooled);
+            }
+        } catch (SQLException e) {
+            pooled.closePhysical();
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Evicts idle connections past their timeout, refills the pool up to its minimum size and
+     * reports borrowed connections held past the leak detection threshold.
+     */
+    void housekeep() {
+        long now = System.currentTimeMillis();
+
+        if (config.getIdleTimeoutMs() > 0) {
+            for (PooledConnection pooled : idle) {
+                if (idle.size() + borrowed.size() <= config.getMinSize()) {
+                    break;
+                }
+                if (now - pooled.getLastReturnedAt() > config.getIdleTimeoutMs() && idle.remove(pooled)) {
+                    pooled.closePhysical();
+                }
+            }
+        }
+
+        while (!closed && idle.size() + borrowed.size() < config.getMinSize()) {
+            try {
+                idle.offerLast(new PooledConnection(factory.create(), this));
+            } catch (SQLException e) {
+                LOG.warn("Unable to refill connection pool: {}", e.getMessage());
+                break;
+            }
+        }
+
+        long threshold = config.getLeakDetectionThresholdMs();
+        if (threshold > 0) {
+            for (PooledConnection pooled : borrowed) {
+                if (!pooled.isLeakReported() && now - pooled.getBorrowedAt() > threshold) {
+                    pooled.markLeakReported();
+                    leaksDetected.increment();
+                    // La trace de l'emprunt, si capturée, indique le code qui garde la connexion
+                    LOG.warn("Possible connection leak: connection held for more than {} ms", threshold, pooled.getBorrowSite());
+                }
+            }
+        }
+    }
+
+    public PoolStats getStats() {
+        return new PoolStats(
+                borrowed.size(),
+                idle.size(),
+                config.getMaxSize(),
+                permits.getQueueLength(),
+                borrowCount.sum(),
+                totalWaitNanos.sum(),
+                maxWaitNanos.get(),
+                timeouts.sum(),
+                leaksDetected.sum(),
+                statementCacheHits.sum(),
+                statementCacheMisses.sum(),
+                statementCacheEvictions.sum()
+        );
+    }
+
+    public PoolConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * Closes idle connections immediately; borrowed ones are closed when they are returned.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            pooled.closePhysical();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package ch.hearc.ig.orderresto.service.utils;
+
+import java.util.Properties;
+
+/**
+ * Sizing and timing settings of the {@link ConnectionPool}.
+ * <p>
+ * Read from the {@code db.pool.*} keys of {@code config.properties}; every key is optional.
+ */
+public class PoolConfig {
+
+    public static final int DEFAULT_STATEMENT_CACHE_SIZE = 20;
+    public static final PoolConfig DEFAULTS = new PoolConfig(2, 10, 600_000L, 30_000L, 2, 0L, 30_000L, DEFAULT_STATEMENT_CACHE_SIZE);
+
+    private final int minSize;
+    private final int maxSize;
+    private final long idleTimeoutMs;
+    private final long borrowTimeoutMs;
+    private final int validationTimeoutSec;
+    private final long leakDetectionThresholdMs;
+    private final long housekeepingIntervalMs;
+    private final int statementCacheSize;
+
+    public PoolConfig(int minSize, int maxSize, long idleTimeoutMs, long borrowTimeoutMs,
+                      int validationTimeoutSec, long leakDetectionThresholdMs, long housekeepingIntervalMs) {
+        this(minSize, maxSize, idleTimeoutMs, borrowTimeoutMs, validationTimeoutSec, leakDetectionThresholdMs,
+                housekeepingIntervalMs, DEFAULT_STATEMENT_CACHE_SIZE);
+    }
+
+    public PoolConfig(int minSize, int maxSize, long idleTimeoutMs, long borrowTimeoutMs,
+                      int validationTimeoutSec, long leakDetectionThresholdMs, long housekeepingIntervalMs,
+                      int statementCacheSize) {
+        if (maxSize < 1 || minSize < 0 || minSize > maxSize) {
+            throw new IllegalArgumentException("Invalid pool size: min=" + minSize + ", max=" + maxSize);
+        }
+        if (statementCacheSize < 0) {
+            throw new IllegalArgumentException("Invalid statement cache size: " + statementCacheSize);
+        }
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.idleTimeoutMs = idleTimeoutMs;
+        this.borrowTimeoutMs = borrowTimeoutMs;
+        this.validationTimeoutSec = validationTimeoutSec;
+        this.leakDetectionThresholdMs = leakDetectionThresholdMs;
+        this.housekeepingIntervalMs = housekeepingIntervalMs;
+        this.statementCacheSize = statementCacheSize;
+    }
+
+    public static PoolConfig fromProperties(Properties prop) {
+        return fromProperties(prop, "db.pool.", DEFAULTS);
+    }
+
+    /**
+     * Reads the keys starting with {@code prefix}, falling back to {@code defaults} for missing ones.
+     * Used to configure a second pool (e.g. {@code db.readonly.pool.*}) that inherits the main pool settings.
+     */
+    public static PoolConfig fromProperties(Properties prop, String prefix, PoolConfig defaults) {
+        return new PoolConfig(
+                intProperty(prop, prefix + "minSize", defaults.minSize),
+                intProperty(prop, prefix + "maxSize", defaults.maxSize),
+                longProperty(prop, prefix + "idleTimeoutMs", defaults.idleTimeoutMs),
+                longProperty(prop, prefix + "borrowTimeoutMs", defaults.borrowTimeoutMs),
+                intProperty(prop, prefix + "validationTimeoutSec", defaults.validationTimeoutSec),
+                longProperty(prop, prefix + "leakDetectionThresholdMs", defaults.leakDetectionThresholdMs),
+                longProperty(prop, prefix + "housekeepingIntervalMs", defaults.housekeepingIntervalMs),
+                intProperty(prop, prefix + "statementCacheSize", defaults.statementCacheSize)
+        );
+    }
+
+    static int intProperty(Properties prop, String key, int defaultValue) {
+        String value = prop.getProperty(key);
+        return value == null || value.isBlank() ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    static long longProperty(Properties prop, String key, long defaultValue) {
+        String value = prop.getProperty(key);
+        return value == null || value.isBlank() ? defaultValue : Long.parseLong(value.trim());
+    }
+
+    public int getMinSize() {
+        return minSize;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getIdleTimeoutMs() {
+        return idleTimeoutMs;
+    }
+
+    public long getBorrowTimeoutMs() {
+        return borrowTimeoutMs;
+    }
+
+    public int getValidationTimeoutSec() {
+        return validationTimeoutSec;
+    }
+
+    /**
+     * @return Time after which a borrowed connection is reported as leaked, {@code 0} to disable.
+     */
+    public long getLeakDetectionThresholdMs() {
+        return leakDetectionThresholdMs;
+    }
+
+    public long getHousekeepingIntervalMs() {
+        return housekeepingIntervalMs;
+    }
+
+    /**
+     * @return Number of prepared statements kept open per connection, {@code 0} to disable the cache.
+     */
+    public int getStatementCacheSize() {
+        return statementCacheSize;
+    }
+}
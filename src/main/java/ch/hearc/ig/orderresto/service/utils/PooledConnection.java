@@ -0,0 +1,263 @@
+package ch.hearc.ig.orderresto.service.utils;
+
+import ch.hearc.ig.orderresto.monitoring.Probe;
+import ch.hearc.ig.orderresto.monitoring.SqlProfiler;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * A physical connection owned by a {@link ConnectionPool}.
+ * <p>
+ * Callers never see this object: each borrow hands out a fresh {@link Connection} proxy whose
+ * {@code close()} gives the physical connection back to the pool instead of closing it.
+ * Prepared statements are kept open across borrows in a {@link StatementCache} unless disabled,
+ * and wrapped by the pool's {@link SqlProfiler} if any.
+ */
+class PooledConnection {
+
+    private static final int MIN_PRUNE_SIZE = 16;
+
+    private final Connection physical;
+    private final ConnectionPool pool;
+    private final StatementCache statementCache;
+    private final long createdAt;
+    private volatile long lastReturnedAt;
+    private volatile long borrowedAt;
+    private volatile Throwable borrowSite;
+    private volatile boolean leakReported;
+
+    PooledConnection(Connection physical, ConnectionPool pool) {
+        this.physical = physical;
+        this.pool = pool;
+        this.statementCache = pool.newStatementCache();
+        this.createdAt = System.currentTimeMillis();
+        this.lastReturnedAt = createdAt;
+    }
+
+    Connection getPhysical() {
+        return physical;
+    }
+
+    long getLastReturnedAt() {
+        return lastReturnedAt;
+    }
+
+    long getBorrowedAt() {
+        return borrowedAt;
+    }
+
+    Throwable getBorrowSite() {
+        return borrowSite;
+    }
+
+    boolean isLeakReported() {
+        return leakReported;
+    }
+
+    void markLeakReported() {
+        this.leakReported = true;
+    }
+
+    /**
+     * Marks this connection as borrowed and returns the proxy handed to the caller.
+     *
+     * @param captureSite {@code true} to record the caller's stack trace for leak reports.
+     */
+    Connection lease(boolean captureSite) {
+        this.borrowedAt = System.currentTimeMillis();
+        this.borrowSite = captureSite ? new Throwable("Connection borrowed here") : null;
+        this.leakReported = false;
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new Handle()
+        );
+    }
+
+    /**
+     * Restores the default session state before the connection goes back to the idle list.
+     * Uncommitted work left by a careless caller is rolled back.
+     */
+    void reset() throws SQLException {
+        if (!physical.getAutoCommit()) {
+            physical.rollback();
+            physical.setAutoCommit(true);
+        }
+        if (physical.isReadOnly()) {
+            physical.setReadOnly(false);
+        }
+        physical.clearWarnings();
+        this.lastReturnedAt = System.currentTimeMillis();
+        this.borrowSite = null;
+    }
+
+    void closePhysical() {
+        if (statementCache != null) {
+            statementCache.close();
+        }
+        try {
+            physical.close();
+        } catch (SQLException e) {
+            // La connexion est déjà inutilisable, rien de plus à faire
+        }
+    }
+
+    /**
+     * Per-borrow view of the connection. Once closed, the handle refuses every call so that a stale
+     * reference cannot touch a connection that has since been lent to someone else.
+     */
+    private class Handle implements InvocationHandler {
+        private boolean closed;
+        /** Cached statements handed out during this borrow, closed ones pruned as the list grows. */
+        private final List<PreparedStatement> statements = new ArrayList<>();
+        private int pruneAt = MIN_PRUNE_SIZE;
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        // Les statements oubliés par l'appelant retournent au cache
+                        for (PreparedStatement statement : statements) {
+                            statement.close();
+                        }
+                        pool.release(PooledConnection.this);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled[" + physical + "]";
+                default:
+                    break;
+            }
+            if (closed) {
+                throw new SQLException("Connection is closed");
+            }
+            if (!method.getName().startsWith("prepare") && !method.getName().equals("createStatement")) {
+                return invokePhysical(method, args);
+            }
+            if (statementCache != null && isCacheable(method)) {
+                PreparedStatement statement = statementCache.prepare(cacheKey(args), (Connection) proxy,
+                        () -> (PreparedStatement) invokePhysical(method, args));
+                track(statement);
+                return profiled(statement, args);
+            }
+            return profiled(invokePhysical(method, args), args);
+        }
+
+        private void track(PreparedStatement statement) throws SQLException {
+            if (statements.size() >= pruneAt) {
+                // Une boucle qui prépare et ferme ses statements ne doit pas faire grossir la liste
+                Iterator<PreparedStatement> iterator = statements.iterator();
+                while (iterator.hasNext()) {
+                    if (iterator.next().isClosed()) {
+                        iterator.remove();
+                    }
+                }
+                pruneAt = Math.max(MIN_PRUNE_SIZE, statements.size() * 2);
+            }
+            statements.add(statement);
+        }
+    }
+
+    private Object profiled(Object statement, Object[] args) {
+        SqlProfiler profiler = pool.getProfiler();
+        if (profiler == null || !profiler.isEnabled() || statement instanceof CallableStatement) {
+            // Les procédures stockées gardent leur type : le proxy n'implémente que PreparedStatement
+            return counting((Statement) statement);
+        }
+        if (statement instanceof PreparedStatement) {
+            return profiler.wrap((PreparedStatement) statement, (String) args[0]);
+        }
+        return profiler.wrap((Statement) statement);
+    }
+
+    /**
+     * Counts the executions of a statement the profiler does not wrap, with the interface of its type.
+     */
+    private static Statement counting(Statement statement) {
+        Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+                : statement instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+        return (Statement) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        default:
+                            break;
+                    }
+                    if (method.getName().startsWith("execute")) {
+                        Probe.statementExecuted();
+                    }
+                    try {
+                        return method.invoke(statement, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    private Object invokePhysical(Method method, Object[] args) throws SQLException {
+        try {
+            return method.invoke(physical, args);
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new SQLException(cause);
+        } catch (IllegalAccessException e) {
+            throw new SQLException(e);
+        }
+    }
+
+    /**
+     * Only {@code prepareStatement(sql)} and its generated keys variants are cached; statements with
+     * a specific cursor type or holdability are rare and prepared directly.
+     */
+    private static boolean isCacheable(Method method) {
+        if (!method.getName().equals("prepareStatement")) {
+            return false;
+        }
+        Class<?>[] types = method.getParameterTypes();
+        return types.length == 1
+                || (types.length == 2 && (types[1] == String[].class || types[1] == int.class));
+    }
+
+    private static String cacheKey(Object[] args) {
+        String sql = (String) args[0];
+        if (args.length == 1) {
+            return sql;
+        }
+        if (args[1] instanceof String[]) {
+            return sql + "\u0000keys=" + Arrays.toString((String[]) args[1]);
+        }
+        return sql + "\u0000autoKeys=" + args[1];
+    }
+}
@@ -0,0 +1,214 @@
+package ch.hearc.ig.orderresto.service.utils;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Prepared statements kept open on one physical connection, keyed by SQL text.
+ * <p>
+ * The mappers prepare the same constant SQL on every call; reusing the statement skips the driver's
+ * parse and the server's soft parse. A statement is taken out of the cache while a caller uses it, so
+ * two nested uses of the same SQL never share a statement, and goes back in when the caller closes it.
+ * The least recently used statement is really closed when the cache is full.
+ * <p>
+ * Like the connection it belongs to, a cache is used by one thread at a time.
+ */
+class StatementCache {
+
+    private final int maxSize;
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LongAdder evictions;
+    private final LinkedHashMap<String, PreparedStatement> statements;
+
+    StatementCache(int maxSize, LongAdder hits, LongAdder misses, LongAdder evictions) {
+        this.maxSize = maxSize;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                if (size() > StatementCache.this.maxSize) {
+                    evictions.increment();
+                    closeQuietly(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns a statement for this key, reusing a cached one if available.
+     *
+     * @param key      The SQL text, plus the generated keys variant if any.
+     * @param owner    The connection proxy returned by {@link PreparedStatement#getConnection()}.
+     * @param preparer Prepares a new physical statement on a cache miss.
+     * @return A statement whose {@code close()} gives it back to the cache.
+     */
+    PreparedStatement prepare(String key, Connection owner, StatementPreparer preparer) throws SQLException {
+        PreparedStatement statement = statements.remove(key);
+        if (statement != null && !statement.isClosed()) {
+            hits.increment();
+        } else {
+            misses.increment();
+            statement = preparer.prepare();
+        }
+        return (PreparedStatement) Proxy.newProxyInstance(
+                PreparedStatement.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class},
+                new CachedStatement(key, statement, owner)
+        );
+    }
+
+    int size() {
+        return statements.size();
+    }
+
+    /**
+     * Closes every cached statement, before the physical connection is closed.
+     */
+    void close() {
+        statements.values().forEach(StatementCache::closeQuietly);
+        statements.clear();
+    }
+
+    private void giveBack(String key, PreparedStatement statement) {
+        if (statements.containsKey(key)) {
+            // Même SQL utilisé en parallèle sur cette connexion : un seul exemplaire est conservé
+            closeQuietly(statement);
+        } else {
+            statements.put(key, statement);
+        }
+    }
+
+    private static void closeQuietly(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            // Le statement est abandonné de toute façon
+        }
+    }
+
+    @FunctionalInterface
+    interface StatementPreparer {
+        PreparedStatement prepare() throws SQLException;
+    }
+
+    /**
+     * Caller's view of a cached statement. Closing it closes its result sets, clears its parameters,
+     * restores the fetch size, maximum rows and query timeout it was handed out with and returns it to
+     * the cache instead of closing it.
+     */
+    private class CachedStatement implements InvocationHandler {
+        private final String key;
+        private final PreparedStatement statement;
+        private final Connection owner;
+        private final List<ResultSet> resultSets = new ArrayList<>();
+        private boolean closed;
+        // Valeurs d'origine des réglages modifiés par l'appelant, -1 si inchangés
+        private int originalFetchSize = -1;
+        private int originalMaxRows = -1;
+        private int originalQueryTimeout = -1;
+
+        CachedStatement(String key, PreparedStatement statement, Connection owner) {
+            this.key = key;
+            this.statement = statement;
+            this.owner = owner;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    close();
+                    return null;
+                case "isClosed":
+                    return closed;
+                case "getConnection":
+                    return owner;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Cached[" + statement + "]";
+                default:
+                    break;
+            }
+            if (closed) {
+                throw new SQLException("Statement is closed");
+            }
+            switch (method.getName()) {
+                case "setFetchSize":
+                    if (originalFetchSize < 0) {
+                        originalFetchSize = statement.getFetchSize();
+                    }
+                    break;
+                case "setMaxRows":
+                case "setLargeMaxRows":
+                    if (originalMaxRows < 0) {
+                        originalMaxRows = statement.getMaxRows();
+                    }
+                    break;
+                case "setQueryTimeout":
+                    if (originalQueryTimeout < 0) {
+                        originalQueryTimeout = statement.getQueryTimeout();
+                    }
+                    break;
+                default:
+                    break;
+            }
+            Object result;
+            try {
+                result = method.invoke(statement, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (result instanceof ResultSet) {
+                resultSets.add((ResultSet) result);
+            }
+            return result;
+        }
+
+        private void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                for (ResultSet rs : resultSets) {
+                    rs.close();
+                }
+                statement.clearParameters();
+                statement.clearBatch();
+                statement.clearWarnings();
+                // Le prochain appelant doit retrouver le statement tel qu'il a été préparé
+                if (originalFetchSize >= 0) {
+                    statement.setFetchSize(originalFetchSize);
+                }
+                if (originalMaxRows >= 0) {
+                    statement.setMaxRows(originalMaxRows);
+                }
+                if (originalQueryTimeout >= 0) {
+                    statement.setQueryTimeout(originalQueryTimeout);
+                }
+                giveBack(key, statement);
+            } catch (SQLException e) {
+                closeQuietly(statement);
+            }
+        }
+    }
+}
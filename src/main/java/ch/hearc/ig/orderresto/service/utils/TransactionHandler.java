@@ -1,24 +1,82 @@
 package ch.hearc.ig.orderresto.service.utils;
 
+import ch.hearc.ig.orderresto.monitoring.Span;
+import ch.hearc.ig.orderresto.monitoring.Tracer;
+import ch.hearc.ig.orderresto.persistence.UnitOfWork;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
 import java.sql.Connection;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class TransactionHandler {
 
+    private static final Logger LOG = LoggerFactory.getLogger(TransactionHandler.class);
+    private static final AtomicLong TRANSACTION_IDS = new AtomicLong();
+
     public interface TransactionCallable<T> {
         T execute(Connection connection) throws Exception;
     }
 
+    /**
+     * Runs an action in a transaction, committed if the action succeeds and rolled back otherwise.
+     * The log events of the transaction carry its number in the {@code tx} MDC field.
+     */
     public <T> T executeInTransaction(TransactionCallable<T> action) throws Exception {
-        try (Connection conn = ConnectionManager.getConnection()) {
+        long start = System.nanoTime();
+        // Une transaction imbriquée rend le numéro de la transaction englobante en sortant
+        String outerTx = MDC.get("tx");
+        MDC.put("tx", Long.toString(TRANSACTION_IDS.incrementAndGet()));
+        // Les modifications du cache ne sont publiées qu'une fois la transaction validée
+        try (Span span = Tracer.getInstance().start("TransactionHandler.executeInTransaction");
+             UnitOfWork unitOfWork = UnitOfWork.begin();
+             Connection conn = ConnectionManager.getConnection()) {
             conn.setAutoCommit(false);
+            LOG.debug("Transaction started");
             try {
                 T result = action.execute(conn);
                 conn.commit();
+                unitOfWork.commit();
+                span.attribute("outcome", "commit");
+                if (LOG.isDebugEnabled()) {
+                    LOG.atDebug().addKeyValue("durationMs", elapsedMillis(start)).log("Transaction committed");
+                }
                 return result;
             } catch (Exception e) {
                 conn.rollback();
+                unitOfWork.rollback();
+                span.markFailed().attribute("outcome", "rollback").attribute("error", e.getClass().getSimpleName());
+                LOG.atWarn().addKeyValue("durationMs", elapsedMillis(start)).addKeyValue("cause", e.toString())
+                        .log("Transaction rolled back");
+                throw e;
+            }
+        } finally {
+            if (outerTx == null) {
+                MDC.remove("tx");
+            } else {
+                MDC.put("tx", outerTx);
+            }
+        }
+    }
+
+    /**
+     * Runs a read-only action on a read-only connection in autocommit mode: no transaction is opened,
+     * so there is no commit or rollback round trip. Must not be used for writes.
+     */
+    public <T> T executeReadOnly(TransactionCallable<T> action) throws Exception {
+        try (Span span = Tracer.getInstance().start("TransactionHandler.executeReadOnly");
+             Connection conn = ConnectionManager.getReadOnlyConnection()) {
+            try {
+                return action.execute(conn);
+            } catch (Exception e) {
+                span.markFailed().attribute("error", e.getClass().getSimpleName());
                 throw e;
             }
         }
     }
+
+    private static double elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000.0;
+    }
 }
@@ -0,0 +1,80 @@
+package ch.hearc.ig.orderresto.application.data;
+
+import ch.hearc.ig.orderresto.persistence.H2TestDatabase;
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DataGeneratorTests {
+
+    private static Connection conn;
+
+    @BeforeAll
+    public static void setUpClass() throws SQLException, IOException {
+        conn = H2TestDatabase.open("data-generator");
+        DataOptions options = new DataOptions().customers(500).restaurants(20).orders(2_000)
+                .until(LocalDate.of(2026, 1, 1)).batchSize(128);
+        new DataGenerator(options).generate(conn);
+    }
+
+    @AfterAll
+    public static void tearDownClass() throws SQLException {
+        conn.close();
+    }
+
+    private long count(String sql) throws SQLException {
+        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    @Test
+    public void testGeneratesRequestedVolumes() throws Exception {
+        assertEquals(20, count("SELECT COUNT(*) FROM RESTAURANT"));
+        assertEquals(500, count("SELECT COUNT(*) FROM CLIENT"));
+        assertEquals(2_000, count("SELECT COUNT(*) FROM COMMANDE"));
+        assertTrue(count("SELECT COUNT(*) FROM CLIENT WHERE type = 'O'") > 0, "Organizations should be generated");
+        assertTrue(count("SELECT COUNT(*) FROM CLIENT WHERE type = 'P'") > 0, "Private customers should be generated");
+        assertEquals(0, count("SELECT COUNT(*) FROM COMMANDE c WHERE NOT EXISTS (SELECT 1 FROM PRODUIT_COMMANDE pc WHERE pc.fk_commande = c.numero)"));
+    }
+
+    @Test
+    public void testOrdersOnlyContainProductsOfTheirRestaurant() throws Exception {
+        assertEquals(0, count("SELECT COUNT(*) FROM PRODUIT_COMMANDE pc JOIN COMMANDE c ON c.numero = pc.fk_commande "
+                + "JOIN PRODUIT p ON p.numero = pc.fk_produit WHERE p.fk_resto <> c.fk_resto"));
+        assertEquals(0, count("SELECT COUNT(*) FROM COMMANDE WHERE quand >= DATE '2026-01-01' OR quand < DATE '2023-01-01'"));
+        assertEquals(0, count("SELECT COUNT(*) FROM COMMANDE c WHERE c.montant_total <> (SELECT SUM(p.prix_unitaire) FROM PRODUIT_COMMANDE pc "
+                + "JOIN PRODUIT p ON p.numero = pc.fk_produit WHERE pc.fk_commande = c.numero) "
+                + "OR c.nb_produits <> (SELECT COUNT(*) FROM PRODUIT_COMMANDE pc WHERE pc.fk_commande = c.numero)"));
+    }
+
+    @Test
+    public void testSequencesAreAheadOfGeneratedIds() throws Exception {
+        long maxOrder = count("SELECT MAX(numero) FROM COMMANDE");
+        assertTrue(count("SELECT NEXT VALUE FOR SEQ_COMMANDE") > maxOrder, "Application inserts must not collide with generated rows");
+    }
+
+    @Test
+    public void testZipfSamplerIsSkewed() {
+        ZipfSampler sampler = new ZipfSampler(1_000, 0.9);
+        SplittableRandom random = new SplittableRandom(1);
+        int top = 0;
+        for (int i = 0; i < 10_000; i++) {
+            int rank = sampler.rank(random);
+            assertTrue(rank >= 0 && rank < 1_000);
+            if (rank < 10) {
+                top++;
+            }
+        }
+        assertTrue(top > 1_000, "The 1% most popular ranks should get well over 1% of the draws, got " + top);
+    }
+}
@@ -0,0 +1,67 @@
+package ch.hearc.ig.orderresto.application.load;
+
+import ch.hearc.ig.orderresto.business.Customer;
+import ch.hearc.ig.orderresto.business.Order;
+import ch.hearc.ig.orderresto.business.PrivateCustomer;
+import ch.hearc.ig.orderresto.business.Product;
+import ch.hearc.ig.orderresto.business.Restaurant;
+import ch.hearc.ig.orderresto.service.OrderService;
+import ch.hearc.ig.orderresto.service.ProductService;
+import ch.hearc.ig.orderresto.service.exceptions.OrderServiceException;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class LoadGeneratorTests {
+
+    @Test
+    public void testParseOptions() {
+        LoadOptions options = LoadOptions.parse(new String[]{
+                "--mode", "open", "--rate", "250", "--duration", "90s", "--warmup", "500ms", "--mix", "create=1,menu=3"
+        });
+
+        assertEquals(LoadOptions.Mode.OPEN, options.getMode());
+        assertEquals(250.0, options.getRate());
+        assertEquals(Duration.ofSeconds(90), options.getDuration());
+        assertEquals(Duration.ofMillis(500), options.getWarmup());
+        assertEquals(4, options.totalWeight());
+        assertEquals(Operation.CREATE, options.pick(0));
+        assertEquals(Operation.MENU, options.pick(1));
+        assertEquals(Operation.MENU, options.pick(3));
+        assertThrows(IllegalArgumentException.class, () -> LoadOptions.parse(new String[]{"--rate", "0"}));
+        assertThrows(IllegalArgumentException.class, () -> LoadOptions.parse(new String[]{"--rate", "2e9"}));
+        assertThrows(IllegalArgumentException.class, () -> LoadOptions.parse(new String[]{"--rate", "NaN"}));
+        assertThrows(IllegalArgumentException.class, () -> LoadOptions.parse(new String[]{"--mix", "create=5,menu=-1"}));
+        assertThrows(IllegalArgumentException.class, () -> LoadOptions.parse(new String[]{"--unknown", "1"}));
+    }
+
+    @Test
+    public void testClosedLoopRecordsEveryOperationOfTheMix() throws Exception {
+        OrderService orderService = Mockito.mock(OrderService.class);
+        ProductService productService = Mockito.mock(ProductService.class);
+        Customer customer = new PrivateCustomer(1L, "123456789", "load@test.com", null, "N", "John", "Doe");
+        Restaurant restaurant = new Restaurant(1L, "Load Resto", null);
+        Product product = new Product(1L, "Pizza", new BigDecimal("18.00"), "Pizza", restaurant);
+        when(orderService.createOrder(any(Order.class))).thenReturn(true);
+        when(orderService.findOrdersByCustomer(customer)).thenThrow(new OrderServiceException("Boom"));
+        when(productService.getProductsByRestaurantId(1L)).thenReturn(List.of(product));
+
+        LoadOptions options = LoadOptions.parse(new String[]{
+                "--mode", "closed", "--concurrency", "2", "--duration", "200ms", "--warmup", "0"
+        });
+        LoadGenerator generator = new LoadGenerator(options, new Workload(orderService, productService, List.of(customer), List.of(product)));
+        generator.run();
+
+        assertTrue(generator.getStats().get(Operation.CREATE).snapshot().getTotalCount() > 0);
+        assertTrue(generator.getStats().get(Operation.MENU).snapshot().getTotalCount() > 0);
+        assertEquals(0, generator.getStats().get(Operation.HISTORY).snapshot().getTotalCount());
+        assertTrue(generator.getStats().get(Operation.HISTORY).getErrors() > 0, "Failed operations are counted as errors");
+        verify(orderService, atLeastOnce()).createOrder(argThat(order -> !order.getProducts().isEmpty()));
+    }
+}
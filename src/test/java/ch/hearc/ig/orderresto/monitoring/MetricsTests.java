@@ -0,0 +1,144 @@
+package ch.hearc.ig.orderresto.monitoring;
+
+import ch.hearc.ig.orderresto.business.*;
+import ch.hearc.ig.orderresto.business.Order;
+import ch.hearc.ig.orderresto.persistence.EntityCache;
+import ch.hearc.ig.orderresto.persistence.H2TestDatabase;
+import ch.hearc.ig.orderresto.persistence.mappers.CustomerMapper;
+import ch.hearc.ig.orderresto.persistence.mappers.OrderMapper;
+import ch.hearc.ig.orderresto.persistence.mappers.ProductMapper;
+import ch.hearc.ig.orderresto.persistence.mappers.RestaurantMapper;
+import ch.hearc.ig.orderresto.service.utils.ConnectionPool;
+import ch.hearc.ig.orderresto.service.utils.PoolConfig;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MetricsTests {
+
+    private final Metrics metrics = new Metrics(true);
+    private final ComponentMetrics component = metrics.component(MetricsTests.class);
+
+    @Test
+    public void testProbeCountsCallsErrorsAndRows() {
+        try (Probe probe = component.start("find")) {
+            probe.ok(List.of("a", "b", "c"));
+        }
+        component.start("find").close(); // Sortie sans ok() : l'appel a échoué
+
+        MethodStats stats = component.stats("find");
+        assertEquals(2, stats.getCalls());
+        assertEquals(1, stats.getErrors());
+        assertEquals(3, stats.getRows());
+        assertTrue(stats.getMaxMillis() >= stats.getP50Millis());
+    }
+
+    @Test
+    public void testStatementsCountForEveryOpenProbe() {
+        try (Probe outer = component.start("service")) {
+            Probe.statementExecuted();
+            try (Probe inner = component.start("mapper")) {
+                Probe.statementExecuted();
+                inner.ok();
+            }
+            outer.ok();
+        }
+        Probe.statementExecuted();
+
+        assertEquals(2, component.stats("service").getStatements());
+        assertEquals(1, component.stats("mapper").getStatements());
+    }
+
+    @Test
+    public void testMapperCallsThroughThePool() throws Exception {
+        String url = "jdbc:h2:mem:metrics;MODE=Oracle;DB_CLOSE_DELAY=-1";
+        Long orderId;
+        try (Connection conn = H2TestDatabase.open("metrics")) {
+            Address address = new Address("CH", "2000", "Neuchâtel", "Rue", "1");
+            Customer customer = new PrivateCustomer(null, "123456789", "metrics@test.com", address, "N", "John", "Doe");
+            new CustomerMapper().insert(customer, conn);
+            Restaurant restaurant = new Restaurant(null, "Metrics Resto", address);
+            new RestaurantMapper().insert(restaurant, conn);
+            Product product = new Product(null, "Pizza", new BigDecimal("18.00"), "Pizza", restaurant);
+            new ProductMapper().insert(product, conn);
+            Order order = new Order(null, customer, restaurant, false, LocalDateTime.now());
+            order.addProduct(product);
+            new OrderMapper().insert(order, conn);
+            conn.commit();
+            orderId = order.getId();
+        }
+        EntityCache.getInstance().clear();
+
+        MethodStats read = Metrics.getInstance().component(OrderMapper.class).stats("read");
+        CacheStats cache = Metrics.getInstance().cache(OrderMapper.class);
+        long calls = read.getCalls();
+        long statements = read.getStatements();
+        long hits = cache.getHits();
+        long misses = cache.getMisses();
+        try (ConnectionPool pool = new ConnectionPool(() -> DriverManager.getConnection(url), PoolConfig.DEFAULTS);
+             Connection conn = pool.borrow()) {
+            OrderMapper mapper = new OrderMapper();
+            assertEquals(orderId, mapper.read(orderId, conn).getId());
+            long loadStatements = read.getStatements() - statements;
+            assertTrue(loadStatements > 0, "The statements of the nested loads are counted");
+
+            mapper.read(orderId, conn);
+            assertEquals(loadStatements, read.getStatements() - statements, "A cached order costs no statement");
+        }
+        assertEquals(2, read.getCalls() - calls);
+        assertTrue(cache.getMisses() > misses);
+        assertTrue(cache.getHits() > hits);
+    }
+
+    @Test
+    public void testStatementsAreCountedWhenExecuted() throws Exception {
+        String url = "jdbc:h2:mem:executions;MODE=Oracle;DB_CLOSE_DELAY=-1";
+        for (SqlProfiler profiler : List.of(new SqlProfiler(true, 1_000, 10), new SqlProfiler(false, 1_000, 10))) {
+            String method = profiler.isEnabled() ? "profiled" : "unprofiled";
+            try (ConnectionPool pool = new ConnectionPool(() -> DriverManager.getConnection(url), PoolConfig.DEFAULTS, profiler);
+                 Connection conn = pool.borrow();
+                 Probe probe = component.start(method)) {
+                conn.prepareStatement("SELECT 1 FROM DUAL").close();
+                try (PreparedStatement statement = conn.prepareStatement("SELECT 1 FROM DUAL")) {
+                    statement.executeQuery().close();
+                    statement.executeQuery().close();
+                }
+                probe.ok();
+            }
+            assertEquals(2, component.stats(method).getStatements(), method);
+        }
+    }
+
+    @Test
+    public void testPrometheusText() {
+        try (Probe probe = component.start("find")) {
+            probe.ok("x");
+        }
+        metrics.cache(OrderMapper.class).record(true);
+
+        String text = metrics.getPrometheusText();
+        assertTrue(text.contains("# TYPE orderresto_calls_total counter\n"));
+        assertTrue(text.contains("orderresto_calls_total{component=\"MetricsTests\",method=\"find\"} 1\n"));
+        assertTrue(text.contains("orderresto_rows_total{component=\"MetricsTests\",method=\"find\"} 1\n"));
+        assertTrue(text.contains("orderresto_call_duration_seconds{component=\"MetricsTests\",method=\"find\",quantile=\"0.99\"} "));
+        assertTrue(text.contains("orderresto_call_duration_seconds_count{component=\"MetricsTests\",method=\"find\"} 1\n"));
+        assertTrue(text.contains("orderresto_cache_hits_total{mapper=\"OrderMapper\"} 1\n"));
+    }
+
+    @Test
+    public void testDisabledRegistryRecordsNothing() {
+        ComponentMetrics disabled = new Metrics(false).component(MetricsTests.class);
+        try (Probe probe = disabled.start("find")) {
+            assertSame(Probe.NOOP, probe);
+            probe.ok(List.of(1, 2));
+        }
+        assertEquals(0, disabled.stats("find").getCalls());
+    }
+}
@@ -0,0 +1,124 @@
+package ch.hearc.ig.orderresto.monitoring;
+
+import ch.hearc.ig.orderresto.service.utils.ConnectionPool;
+import ch.hearc.ig.orderresto.service.utils.PoolConfig;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SqlProfilerTests {
+
+    private static final String URL = "jdbc:h2:mem:profiler;MODE=Oracle;DB_CLOSE_DELAY=-1";
+
+    @Test
+    public void testNormalize() {
+        assertEquals("SELECT * FROM CLIENT WHERE email = ? AND numero > ?",
+                SqlProfiler.normalize("SELECT *\n  FROM CLIENT\tWHERE email = 'o''neil@test.com' AND numero > 42"));
+        assertEquals("SELECT col1 FROM t2 WHERE numero IN (?...) AND prix = ?",
+                SqlProfiler.normalize("SELECT col1 FROM t2 WHERE numero IN (?, ?,?) AND prix = 18.50"));
+    }
+
+    @Test
+    public void testStatementsAreTimedAndLoggedWithoutValues() throws Exception {
+        SqlProfiler profiler = new SqlProfiler(true, 0, 256);
+        Logger logger = (Logger) LoggerFactory.getLogger(SqlProfiler.class);
+        ListAppender<ILoggingEvent> slowLog = new ListAppender<>();
+        slowLog.start();
+        logger.addAppender(slowLog);
+        try (ConnectionPool pool = new ConnectionPool(() -> DriverManager.getConnection(URL), PoolConfig.DEFAULTS, profiler);
+             Connection conn = pool.borrow()) {
+            try (Statement statement = conn.createStatement()) {
+                statement.execute("CREATE TABLE IF NOT EXISTS T_PROFILER (id NUMBER, email VARCHAR2(100))");
+            }
+            for (int i = 1; i <= 3; i++) {
+                try (PreparedStatement statement = conn.prepareStatement("INSERT INTO T_PROFILER (id, email) VALUES (?, ?)")) {
+                    statement.setLong(1, i);
+                    statement.setString(2, "secret" + i + "@test.com");
+                    statement.executeUpdate();
+                }
+            }
+            try (PreparedStatement statement = conn.prepareStatement("SELECT email FROM T_PROFILER WHERE id <= ?")) {
+                statement.setLong(1, 2);
+                try (ResultSet rs = statement.executeQuery()) {
+                    while (rs.next()) {
+                        assertTrue(rs.getString(1).startsWith("secret"));
+                    }
+                }
+            }
+        } finally {
+            logger.detachAppender(slowLog);
+        }
+
+        SqlStats insert = find(profiler, "INSERT INTO T_PROFILER (id, email) VALUES (?, ?)");
+        assertEquals(3, insert.getExecutions());
+        assertEquals(3, insert.getRows());
+        SqlStats select = find(profiler, "SELECT email FROM T_PROFILER WHERE id <= ?");
+        assertEquals(1, select.getExecutions());
+        assertEquals(2, select.getRows());
+
+        assertEquals(5, profiler.getSlowExecutions());
+        List<String> lines = slowLog.list.stream()
+                .map(event -> event.getFormattedMessage() + " " + event.getKeyValuePairs())
+                .collect(Collectors.toList());
+        assertEquals(5, lines.size());
+        assertTrue(lines.stream().anyMatch(line -> line.contains("binds=\"[Long, String]\"")), lines::toString);
+        assertTrue(lines.stream().noneMatch(line -> line.contains("secret")));
+        assertTrue(profiler.report(1).contains("Top 1 of 3 SQL statements"));
+    }
+
+    @Test
+    public void testQueriesAreRecordedWhenTheirResultSetIsClosed() throws Exception {
+        SqlProfiler profiler = new SqlProfiler(true, -1, 256);
+        String sql = "SELECT X FROM SYSTEM_RANGE(1, 3)";
+        try (ConnectionPool pool = new ConnectionPool(() -> DriverManager.getConnection(URL), PoolConfig.DEFAULTS, profiler);
+             Connection conn = pool.borrow();
+             PreparedStatement statement = conn.prepareStatement(sql)) {
+            try (ResultSet rs = statement.executeQuery()) {
+                assertSame(statement, rs.getStatement());
+                while (rs.next()) {
+                    // Traitement de la ligne par l'appelant, hors du pilote
+                    Thread.sleep(50);
+                }
+                assertEquals(0, profiler.stats(sql).getExecutions(), "Recorded once the rows are read");
+            }
+            SqlStats select = profiler.stats(sql);
+            assertEquals(1, select.getExecutions());
+            assertEquals(3, select.getRows());
+            assertTrue(select.getTotalMillis() < 100, "The work between two rows is not counted: " + select);
+
+            statement.executeQuery();
+        }
+        assertEquals(2, profiler.stats(sql).getExecutions(), "Closing the statement ends its open query");
+    }
+
+    @Test
+    public void testStatementsBeyondTheLimitAreGrouped() {
+        SqlProfiler profiler = new SqlProfiler(true, -1, 2);
+        profiler.stats("SELECT a FROM t");
+        profiler.stats("SELECT b FROM t");
+        SqlStats other = profiler.stats("SELECT c FROM t");
+
+        assertEquals(SqlProfiler.OTHER_STATEMENTS, other.getSql());
+        assertSame(other, profiler.stats("SELECT d FROM t"));
+        assertEquals(3, profiler.getStatementCount());
+    }
+
+    private static SqlStats find(SqlProfiler profiler, String sql) {
+        return profiler.getStatements().stream()
+                .filter(stats -> stats.getSql().equals(sql))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No statistics for " + sql));
+    }
+}
@@ -0,0 +1,120 @@
+package ch.hearc.ig.orderresto.monitoring;
+
+import ch.hearc.ig.orderresto.business.*;
+import ch.hearc.ig.orderresto.business.Order;
+import ch.hearc.ig.orderresto.persistence.EntityCache;
+import ch.hearc.ig.orderresto.persistence.H2TestDatabase;
+import ch.hearc.ig.orderresto.persistence.mappers.CustomerMapper;
+import ch.hearc.ig.orderresto.persistence.mappers.OrderMapper;
+import ch.hearc.ig.orderresto.persistence.mappers.ProductMapper;
+import ch.hearc.ig.orderresto.persistence.mappers.RestaurantMapper;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TracerTests {
+
+    @Test
+    public void testSpansAreLinkedToTheirParent() {
+        Tracer tracer = new Tracer(1, 100);
+        try (Span root = tracer.start("OrderService.getOrderById")) {
+            root.attribute("orderId", 12);
+            try (Span transaction = tracer.start("TransactionHandler.executeReadOnly")) {
+                tracer.start("ConnectionManager.getReadOnlyConnection").close();
+                try (Span read = tracer.start("OrderMapper.read")) {
+                    read.attribute("id", 12);
+                }
+                transaction.markFailed();
+            }
+        }
+
+        List<Span> spans = tracer.getRecentSpans();
+        assertEquals(4, spans.size());
+        Span root = spans.get(0);
+        assertNull(root.getParentId());
+        assertTrue(spans.stream().allMatch(span -> span.getTraceId().equals(root.getTraceId())));
+        assertEquals(spans.get(1).getSpanId(), spans.get(2).getParentId());
+        assertEquals(spans.get(1).getSpanId(), spans.get(3).getParentId());
+        assertTrue(spans.get(1).isFailed());
+
+        String waterfall = tracer.waterfall(root.getTraceId());
+        assertTrue(waterfall.contains("  OrderService.getOrderById orderId=12" + System.lineSeparator()), waterfall);
+        assertTrue(waterfall.contains("      OrderMapper.read id=12"), waterfall);
+        assertTrue(waterfall.contains("TransactionHandler.executeReadOnly FAILED"), waterfall);
+    }
+
+    @Test
+    public void testUnsampledTraceRecordsNothing() {
+        Tracer tracer = new Tracer(Double.MIN_VALUE, 100);
+        try (Span root = tracer.start("OrderService.getOrderById")) {
+            try (Span child = tracer.start("OrderMapper.read")) {
+                assertFalse(child.isRecording());
+            }
+            assertFalse(root.isRecording());
+        }
+        assertEquals(0, tracer.getFinishedSpans());
+
+        tracer.setSampleRatio(1);
+        tracer.start("OrderService.getOrderById").close();
+        List<Span> spans = tracer.getRecentSpans();
+        assertEquals(1, spans.size());
+        assertNull(spans.get(0).getParentId(), "The unsampled trace is no longer open");
+    }
+
+    @Test
+    public void testMapperProbesOpenSpans() throws Exception {
+        Tracer tracer = Tracer.getInstance();
+        try (Connection conn = H2TestDatabase.open("tracing")) {
+            Address address = new Address("CH", "2000", "Neuchâtel", "Rue", "1");
+            Customer customer = new PrivateCustomer(null, "123456789", "tracing@test.com", address, "N", "John", "Doe");
+            new CustomerMapper().insert(customer, conn);
+            Restaurant restaurant = new Restaurant(null, "Tracing Resto", address);
+            new RestaurantMapper().insert(restaurant, conn);
+            Product product = new Product(null, "Pizza", new BigDecimal("18.00"), "Pizza", restaurant);
+            new ProductMapper().insert(product, conn);
+            Order order = new Order(null, customer, restaurant, false, LocalDateTime.now());
+            order.addProduct(product);
+            new OrderMapper().insert(order, conn);
+            conn.commit();
+            EntityCache.getInstance().clear();
+
+            String traceId;
+            tracer.setSampleRatio(1);
+            try (Span root = tracer.start("test")) {
+                traceId = root.getTraceId();
+                new OrderMapper().read(order.getId(), conn);
+            } finally {
+                tracer.setSampleRatio(0);
+            }
+
+            Map<String, Span> byName = tracer.getTrace(traceId).stream()
+                    .collect(Collectors.toMap(Span::getName, span -> span, (first, second) -> first));
+            Span read = byName.get("OrderMapper.read");
+            assertNotNull(read, byName::toString);
+            assertEquals(byName.get("test").getSpanId(), read.getParentId());
+            assertTrue(read.getAttributes().contains(Map.entry("id", String.valueOf(order.getId()))));
+            assertEquals(read.getSpanId(), byName.get("CustomerMapper.readAll").getParentId());
+            assertEquals(read.getSpanId(), byName.get("RestaurantMapper.readAll").getParentId());
+        }
+    }
+
+    @Test
+    public void testJsonLine() {
+        Tracer tracer = new Tracer(1, 10);
+        try (Span span = tracer.start("OrderMapper.read")) {
+            span.attribute("sql", "SELECT \"x\"");
+        }
+        String json = SpanFileExporter.toJson(tracer.getRecentSpans().get(0));
+        assertTrue(json.startsWith("{\"traceId\":\""), json);
+        assertFalse(json.contains("parentId"), json);
+        assertTrue(json.contains("\"name\":\"OrderMapper.read\""), json);
+        assertTrue(json.endsWith("\"failed\":false,\"attributes\":{\"sql\":\"SELECT \\\"x\\\"\"}}"), json);
+    }
+}
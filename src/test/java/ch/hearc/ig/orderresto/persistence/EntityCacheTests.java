@@ -0,0 +1,90 @@
+package ch.hearc.ig.orderresto.persistence;
+
+import ch.hearc.ig.orderresto.business.*;
+import ch.hearc.ig.orderresto.business.Order;
+import ch.hearc.ig.orderresto.persistence.mappers.CustomerMapper;
+import ch.hearc.ig.orderresto.persistence.mappers.OrderMapper;
+import ch.hearc.ig.orderresto.persistence.mappers.ProductMapper;
+import ch.hearc.ig.orderresto.persistence.mappers.RestaurantMapper;
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EntityCacheTests {
+
+    private static Connection conn;
+    private final EntityCache cache = EntityCache.getInstance();
+
+    @BeforeAll
+    public static void setUpClass() throws SQLException, IOException {
+        conn = H2TestDatabase.open("entity-cache");
+    }
+
+    @AfterEach
+    public void tearDown() throws SQLException {
+        conn.rollback();
+        cache.clear();
+    }
+
+    @AfterAll
+    public static void tearDownClass() throws SQLException {
+        conn.close();
+    }
+
+    @Test
+    public void testEntityCachedByOneMapperIsSeenByAnother() throws Exception {
+        Restaurant restaurant = new Restaurant(null, "Shared Resto", new Address("CH", "2000", "Neuchâtel", "Rue", "1"));
+        new RestaurantMapper().insert(restaurant, conn);
+
+        Restaurant read = new RestaurantMapper().read(restaurant.getId(), conn);
+
+        assertSame(restaurant, read, "A second mapper instance should hit the shared cache");
+        assertSame(restaurant, cache.region(Restaurant.class).get(restaurant.getId()));
+    }
+
+    @Test
+    public void testDeletingRestaurantEvictsItsProductsAndOrders() throws Exception {
+        Address address = new Address("CH", "2000", "Neuchâtel", "Rue", "1");
+        PrivateCustomer customer = new PrivateCustomer(null, "123456789", "cache@test.com", address, "N", "John", "Doe");
+        new CustomerMapper().insert(customer, conn);
+        Restaurant restaurant = new Restaurant(null, "Doomed Resto", address);
+        new RestaurantMapper().insert(restaurant, conn);
+        Product product = new Product(null, "Pizza", new BigDecimal("18.00"), "Pizza", restaurant);
+        new ProductMapper().insert(product, conn);
+        Order order = new Order(null, customer, restaurant, false, LocalDateTime.now());
+        order.addProduct(product);
+        new OrderMapper().insert(order, conn);
+
+        new RestaurantMapper().delete(restaurant.getId(), conn);
+
+        assertFalse(cache.region(Restaurant.class).contains(restaurant.getId()));
+        assertFalse(cache.region(Product.class).contains(product.getId()), "Products deleted by cascade should be evicted");
+        assertFalse(cache.region(Order.class).contains(order.getId()), "Orders deleted by cascade should be evicted");
+        assertTrue(cache.region(Customer.class).contains(customer.getId()));
+    }
+
+    @Test
+    public void testUpdatingProductEvictsOrdersContainingIt() throws Exception {
+        Address address = new Address("CH", "2000", "Neuchâtel", "Rue", "1");
+        PrivateCustomer customer = new PrivateCustomer(null, "123456789", "price@test.com", address, "N", "John", "Doe");
+        new CustomerMapper().insert(customer, conn);
+        Restaurant restaurant = new Restaurant(null, "Price Resto", address);
+        new RestaurantMapper().insert(restaurant, conn);
+        Product product = new Product(null, "Pizza", new BigDecimal("18.00"), "Pizza", restaurant);
+        new ProductMapper().insert(product, conn);
+        Order order = new Order(null, customer, restaurant, false, LocalDateTime.now());
+        order.addProduct(product);
+        new OrderMapper().insert(order, conn);
+
+        product.setUnitPrice(new BigDecimal("20.00"));
+        new ProductMapper().update(product, conn);
+
+        assertFalse(cache.region(Order.class).contains(order.getId()), "The cached order total is stale and should be evicted");
+    }
+}
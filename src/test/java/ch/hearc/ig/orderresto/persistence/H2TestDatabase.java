@@ -0,0 +1,47 @@
+package ch.hearc.ig.orderresto.persistence;
+
+import ch.hearc.ig.orderresto.persistence.dialect.H2Dialect;
+import ch.hearc.ig.orderresto.persistence.dialect.SqlDialect;
+import ch.hearc.ig.orderresto.persistence.dialect.SqlScripts;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Opens an in-memory H2 database in Oracle mode with the application schema (translated from
+ * {@code CREATE_TABLES.sql}), for tests that need a real database without an Oracle instance.
+ */
+public class H2TestDatabase {
+
+    public static Connection open(String name) throws SQLException, IOException {
+        Connection conn = DriverManager.getConnection("jdbc:h2:mem:" + name + ";MODE=Oracle;DB_CLOSE_DELAY=-1");
+        SqlDialect.setInstance(new H2Dialect());
+        SqlScripts.run(conn, SqlDialect.getInstance(), SqlScripts.SCHEMA);
+        conn.setAutoCommit(false);
+        return conn;
+    }
+
+    /**
+     * Wraps a connection so that every statement prepared or created through it is counted.
+     */
+    public static Connection counting(Connection conn, AtomicInteger statementCount) {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if (method.getName().startsWith("prepare") || method.getName().equals("createStatement")) {
+                        statementCount.incrementAndGet();
+                    }
+                    try {
+                        return method.invoke(conn, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+}
@@ -0,0 +1,103 @@
+package ch.hearc.ig.orderresto.persistence;
+
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IdentityMapTests {
+
+    @Test
+    public void testGetReturnsStoredEntityAndCountsHitsAndMisses() {
+        IdentityMap<String> map = new IdentityMap<>();
+        map.put(1L, "one");
+
+        assertEquals("one", map.get(1L));
+        assertNull(map.get(2L));
+        assertEquals(1, map.getHitCount());
+        assertEquals(1, map.getMissCount());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEntityIsEvicted() {
+        IdentityMap<String> map = new IdentityMap<>(2, 0, TimeUnit.SECONDS);
+        map.put(1L, "one");
+        map.put(2L, "two");
+        map.get(1L); // 1 devient le plus récemment utilisé
+        map.put(3L, "three");
+
+        assertTrue(map.contains(1L));
+        assertFalse(map.contains(2L), "The least recently used entity should be evicted");
+        assertTrue(map.contains(3L));
+        assertEquals(2, map.size());
+        assertEquals(1, map.getEvictionCount());
+    }
+
+    @Test
+    public void testEntityExpiresAfterTimeToLive() {
+        AtomicLong now = new AtomicLong(0);
+        IdentityMap<String> map = new IdentityMap<>(10, 100, now::get);
+        map.put(1L, "one");
+
+        now.set(50);
+        assertEquals("one", map.get(1L));
+        now.set(151);
+        assertNull(map.get(1L), "The entity should have expired");
+        assertEquals(0, map.size());
+        assertEquals(1, map.getEvictionCount());
+    }
+
+    @Test
+    public void testPurgeExpired() {
+        AtomicLong now = new AtomicLong(0);
+        IdentityMap<String> map = new IdentityMap<>(10, 100, now::get);
+        map.put(1L, "one");
+        now.set(80);
+        map.put(2L, "two");
+
+        now.set(150);
+        map.purgeExpired();
+
+        assertEquals(1, map.size());
+        assertTrue(map.contains(2L));
+    }
+
+    @Test
+    public void testConcurrentAccessKeepsSizeBounded() throws Exception {
+        IdentityMap<Long> map = new IdentityMap<>(100, 0, TimeUnit.SECONDS);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < 8; t++) {
+                long offset = t * 10_000L;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (long i = 0; i < 5_000; i++) {
+                        map.put(offset + i, i);
+                        map.get(offset + i / 2);
+                        map.remove(offset + i - 10);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(map.size() <= 100, "The map should never exceed its maximum size");
+        assertEquals(8 * 5_000, map.getHitCount() + map.getMissCount());
+    }
+}
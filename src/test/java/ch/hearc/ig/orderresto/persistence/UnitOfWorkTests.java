@@ -0,0 +1,117 @@
+package ch.hearc.ig.orderresto.persistence;
+
+import ch.hearc.ig.orderresto.business.Address;
+import ch.hearc.ig.orderresto.business.Product;
+import ch.hearc.ig.orderresto.business.Restaurant;
+import ch.hearc.ig.orderresto.persistence.mappers.ProductMapper;
+import ch.hearc.ig.orderresto.persistence.mappers.RestaurantMapper;
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UnitOfWorkTests {
+
+    private static Connection conn;
+    private final IdentityMap<Restaurant> restaurants = EntityCache.getInstance().region(Restaurant.class);
+    private final IdentityMap<Product> products = EntityCache.getInstance().region(Product.class);
+
+    @BeforeAll
+    public static void setUpClass() throws SQLException, IOException {
+        conn = H2TestDatabase.open("unit-of-work");
+    }
+
+    @AfterEach
+    public void tearDown() throws SQLException {
+        conn.rollback();
+        EntityCache.getInstance().clear();
+        assertNull(UnitOfWork.current(), "A test left a unit of work bound to the thread");
+    }
+
+    @AfterAll
+    public static void tearDownClass() throws SQLException {
+        conn.close();
+    }
+
+    private Restaurant newRestaurant(String name) {
+        return new Restaurant(null, name, new Address("CH", "2000", "Neuchâtel", "Rue", "1"));
+    }
+
+    @Test
+    public void testInsertIsPublishedOnlyOnCommit() throws Exception {
+        RestaurantMapper mapper = new RestaurantMapper();
+        Restaurant restaurant = newRestaurant("Committed Resto");
+
+        try (UnitOfWork unitOfWork = UnitOfWork.begin()) {
+            mapper.insert(restaurant, conn);
+
+            assertFalse(restaurants.contains(restaurant.getId()), "Staged entity must not be visible to other transactions");
+            assertSame(restaurant, mapper.read(restaurant.getId(), conn), "Staged entity must be visible to its own transaction");
+
+            conn.commit();
+            unitOfWork.commit();
+        }
+
+        assertSame(restaurant, restaurants.get(restaurant.getId()));
+    }
+
+    @Test
+    public void testInsertIsDiscardedOnRollback() throws Exception {
+        Restaurant restaurant = newRestaurant("Phantom Resto");
+
+        try (UnitOfWork unitOfWork = UnitOfWork.begin()) {
+            new RestaurantMapper().insert(restaurant, conn);
+            conn.rollback();
+            unitOfWork.rollback();
+        }
+
+        assertFalse(restaurants.contains(restaurant.getId()));
+        assertNull(new RestaurantMapper().read(restaurant.getId(), conn));
+    }
+
+    @Test
+    public void testRolledBackUpdateEvictsModifiedInstance() throws Exception {
+        Restaurant restaurant = newRestaurant("Resto");
+        new RestaurantMapper().insert(restaurant, conn);
+        Product product = new Product(null, "Pizza", new BigDecimal("18.00"), "Pizza", restaurant);
+        new ProductMapper().insert(product, conn);
+        conn.commit();
+
+        try (UnitOfWork unitOfWork = UnitOfWork.begin()) {
+            product.setUnitPrice(new BigDecimal("99.00"));
+            new ProductMapper().update(product, conn);
+            conn.rollback();
+            unitOfWork.rollback();
+        }
+
+        assertFalse(products.contains(product.getId()), "The instance modified in place must not survive the rollback");
+        assertEquals(0, new BigDecimal("18.00").compareTo(new ProductMapper().read(product.getId(), conn).getUnitPrice()));
+
+        new RestaurantMapper().delete(restaurant.getId(), conn);
+        conn.commit();
+    }
+
+    @Test
+    public void testStagedEvictionHidesSharedEntries() throws Exception {
+        Restaurant restaurant = newRestaurant("Evicted Resto");
+        new RestaurantMapper().insert(restaurant, conn);
+        Product product = new Product(null, "Pasta", new BigDecimal("15.00"), "Pasta", restaurant);
+        new ProductMapper().insert(product, conn);
+
+        try (UnitOfWork unitOfWork = UnitOfWork.begin()) {
+            new RestaurantMapper().delete(restaurant.getId(), conn);
+
+            assertTrue(products.contains(product.getId()), "The shared cache is untouched until commit");
+            assertNull(unitOfWork.get(products, product.getId()), "The transaction no longer sees the deleted restaurant's products");
+
+            unitOfWork.commit();
+        }
+
+        assertFalse(products.contains(product.getId()));
+        assertFalse(restaurants.contains(restaurant.getId()));
+    }
+}
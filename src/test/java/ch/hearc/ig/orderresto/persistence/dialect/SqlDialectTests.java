@@ -0,0 +1,67 @@
+package ch.hearc.ig.orderresto.persistence.dialect;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SqlDialectTests {
+
+    private static final String SCRIPT = "DROP TABLE COMMANDE CASCADE CONSTRAINTS;\n" +
+            "CREATE TABLE COMMANDE (\n    numero number(9) NOT NULL\n);\n" +
+            "ALTER TABLE COMMANDE ADD CONSTRAINT PK PRIMARY KEY (numero); /* commentaire */\n" +
+            "CREATE OR REPLACE TRIGGER TR_BI_COMMANDE\nBEFORE INSERT ON COMMANDE\nFOR EACH ROW\nBEGIN\n" +
+            "\tIF :NEW.NUMERO IS NULL THEN\n\t\t:NEW.NUMERO := SEQ_COMMANDE.NEXTVAL;\nEND IF;\nEND;\n/\n" +
+            "SET DEFINE OFF;\n";
+
+    @Test
+    public void testOracleScriptKeepsPlSqlBlocksWhole() {
+        List<String> statements = new OracleDialect().parseScript(SCRIPT);
+
+        assertEquals(4, statements.size());
+        assertEquals("ALTER TABLE COMMANDE ADD CONSTRAINT PK PRIMARY KEY (numero)", statements.get(2));
+        assertTrue(statements.get(3).startsWith("CREATE OR REPLACE TRIGGER TR_BI_COMMANDE"));
+        assertTrue(statements.get(3).endsWith("END;"), "The PL/SQL block keeps its inner semicolons");
+    }
+
+    @Test
+    public void testH2TranslatesDropsAndSequenceTriggers() {
+        List<String> statements = new H2Dialect().parseScript(SCRIPT);
+
+        assertEquals(4, statements.size());
+        assertEquals("DROP TABLE IF EXISTS COMMANDE CASCADE", statements.get(0));
+        assertEquals("ALTER TABLE COMMANDE ALTER COLUMN NUMERO SET DEFAULT NEXT VALUE FOR SEQ_COMMANDE", statements.get(3));
+    }
+
+    @Test
+    public void testForUrl() {
+        assertEquals("h2", SqlDialect.forUrl("jdbc:h2:mem:test;MODE=Oracle").getName());
+        assertEquals("oracle", SqlDialect.forUrl("jdbc:oracle:thin:@localhost:1521/XE").getName());
+        assertEquals("NEXT VALUE FOR SEQ_CLIENT", new H2Dialect().nextValue("SEQ_CLIENT"));
+        assertEquals("SEQ_CLIENT.NEXTVAL", new OracleDialect().nextValue("SEQ_CLIENT"));
+    }
+
+    @Test
+    public void testApplicationScriptsRunOnH2() throws Exception {
+        try (Connection conn = DriverManager.getConnection("jdbc:h2:mem:scripts;MODE=Oracle;DB_CLOSE_DELAY=-1")) {
+            H2Dialect dialect = new H2Dialect();
+            SqlScripts.run(conn, dialect, SqlScripts.SCHEMA);
+            SqlScripts.run(conn, dialect, SqlScripts.DATA);
+            // Le script de schéma peut être rejoué sur une base existante
+            SqlScripts.run(conn, dialect, SqlScripts.SCHEMA);
+            SqlScripts.run(conn, dialect, SqlScripts.DATA);
+
+            try (Statement statement = conn.createStatement();
+                 ResultSet rs = statement.executeQuery("SELECT COUNT(*), MAX(numero) FROM PRODUIT")) {
+                assertTrue(rs.next());
+                assertEquals(6, rs.getInt(1));
+                assertEquals(6, rs.getInt(2), "IDs should come from the sequence default, as with the Oracle triggers");
+            }
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package ch.hearc.ig.orderresto.persistence.mappers;
+
+import ch.hearc.ig.orderresto.business.*;
+import ch.hearc.ig.orderresto.business.Order;
+import ch.hearc.ig.orderresto.persistence.EntityCache;
+import ch.hearc.ig.orderresto.persistence.H2TestDatabase;
+import org.junit.jupiter.api.*;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the reports read from the daily rollups, on a handful of orders of March and April 2026.
+ */
+public class AnalyticsMapperTests {
+
+    private static final LocalDate MARCH = LocalDate.of(2026, 3, 1);
+    private static final LocalDate APRIL = LocalDate.of(2026, 4, 1);
+    private static final LocalDate MAY = LocalDate.of(2026, 5, 1);
+
+    private static Connection conn;
+    private static Restaurant first;
+    private static Restaurant second;
+    private final AnalyticsMapper mapper = new AnalyticsMapper();
+
+    @BeforeAll
+    public static void setUpClass() throws Exception {
+        conn = H2TestDatabase.open("analytics");
+        Address address = new Address("CH", "2000", "Neuchâtel", "Rue", "1");
+        PrivateCustomer customer = new PrivateCustomer(null, "123456789", "stats@test.com", address, "N", "John", "Doe");
+        new CustomerMapper().insert(customer, conn);
+        first = new Restaurant(null, "First Resto", address);
+        second = new Restaurant(null, "Second Resto", address);
+        new RestaurantMapper().insert(first, conn);
+        new RestaurantMapper().insert(second, conn);
+        Product pizza = new Product(null, "Pizza", new BigDecimal("18.00"), "Pizza", first);
+        Product pasta = new Product(null, "Pasta", new BigDecimal("15.00"), "Pasta", first);
+        Product burger = new Product(null, "Burger", new BigDecimal("12.00"), "Burger", second);
+        for (Product product : List.of(pizza, pasta, burger)) {
+            new ProductMapper().insert(product, conn);
+        }
+
+        insertOrder(customer, first, true, LocalDateTime.of(2026, 3, 2, 12, 0), pizza, pasta);
+        insertOrder(customer, first, false, LocalDateTime.of(2026, 3, 4, 19, 0), pizza);
+        insertOrder(customer, first, true, LocalDateTime.of(2026, 3, 10, 12, 0), pizza);
+        insertOrder(customer, second, false, LocalDateTime.of(2026, 3, 3, 12, 0), burger);
+        insertOrder(customer, second, true, LocalDateTime.of(2026, 4, 1, 12, 0), burger);
+        conn.commit();
+        EntityCache.getInstance().clear();
+    }
+
+    @AfterAll
+    public static void tearDownClass() throws SQLException {
+        conn.close();
+    }
+
+    private static void insertOrder(Customer customer, Restaurant restaurant, boolean takeAway, LocalDateTime when,
+                                    Product... products) throws Exception {
+        Order order = new Order(null, customer, restaurant, takeAway, when);
+        for (Product product : products) {
+            order.addProduct(product);
+        }
+        new OrderMapper().insert(order, conn);
+    }
+
+    @Test
+    public void testSalesByRestaurant() throws Exception {
+        List<RestaurantSales> sales = mapper.salesByRestaurant(MARCH, APRIL, conn);
+
+        assertEquals(2, sales.size());
+        RestaurantSales best = sales.get(0);
+        assertEquals(first.getId(), best.getRestaurantId());
+        assertEquals(3, best.getOrderCount());
+        assertEquals(0, new BigDecimal("69.00").compareTo(best.getRevenue()));
+        assertEquals(2.0 / 3, best.getTakeAwayShare(), 1e-9);
+        assertEquals(0, new BigDecimal("23.00").compareTo(best.getAverageOrder()));
+        assertEquals("Second Resto", sales.get(1).getRestaurantName());
+        assertEquals(0, sales.get(1).getTakeAwayCount());
+    }
+
+    @Test
+    public void testSalesByWeekStartOnMonday() throws Exception {
+        List<PeriodSales> weeks = mapper.salesByPeriod(ChronoUnit.WEEKS, null, MARCH, APRIL, conn);
+
+        assertEquals(2, weeks.size());
+        assertEquals(LocalDate.of(2026, 3, 2), weeks.get(0).getPeriodStart());
+        assertEquals(3, weeks.get(0).getOrderCount());
+        assertEquals(0, new BigDecimal("63.00").compareTo(weeks.get(0).getRevenue()));
+        assertEquals(LocalDate.of(2026, 3, 9), weeks.get(1).getPeriodStart());
+        assertEquals(1, weeks.get(1).getTakeAwayCount());
+    }
+
+    @Test
+    public void testSalesByMonthOfOneRestaurant() throws Exception {
+        List<PeriodSales> months = mapper.salesByPeriod(ChronoUnit.MONTHS, second.getId(), MARCH, MAY, conn);
+
+        assertEquals(2, months.size());
+        assertEquals(LocalDate.of(2026, 3, 1), months.get(0).getPeriodStart());
+        assertEquals(LocalDate.of(2026, 4, 1), months.get(1).getPeriodStart());
+        assertEquals(0, new BigDecimal("12.00").compareTo(months.get(1).getRevenue()));
+    }
+
+    @Test
+    public void testTopProducts() throws Exception {
+        List<ProductSales> top = mapper.topProducts(null, MARCH, APRIL, 2, conn);
+
+        assertEquals(2, top.size());
+        assertEquals("Pizza", top.get(0).getProductName());
+        assertEquals(3, top.get(0).getQuantity());
+        assertEquals(0, new BigDecimal("54.00").compareTo(top.get(0).getRevenue()));
+        assertEquals("Pasta", top.get(1).getProductName(), "Ties are broken by product ID");
+
+        List<ProductSales> secondTop = mapper.topProducts(second.getId(), MARCH, MAY, 10, conn);
+        assertEquals(1, secondTop.size());
+        assertEquals("Second Resto", secondTop.get(0).getRestaurantName());
+        assertEquals(2, secondTop.get(0).getQuantity());
+    }
+}
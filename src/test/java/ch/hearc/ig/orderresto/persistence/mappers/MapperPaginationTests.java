@@ -0,0 +1,124 @@
+package ch.hearc.ig.orderresto.persistence.mappers;
+
+import ch.hearc.ig.orderresto.business.*;
+import ch.hearc.ig.orderresto.business.Order;
+import ch.hearc.ig.orderresto.persistence.EntityCache;
+import ch.hearc.ig.orderresto.persistence.H2TestDatabase;
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that keyset pages and streams visit every row once, in ID order, without filling the cache.
+ */
+public class MapperPaginationTests {
+
+    private static final int ORDER_COUNT = 7;
+    private static Connection conn;
+    private final EntityCache cache = EntityCache.getInstance();
+
+    @BeforeAll
+    public static void setUpClass() throws Exception {
+        conn = H2TestDatabase.open("pagination");
+        Address address = new Address("CH", "2000", "Neuchâtel", "Rue", "1");
+        PrivateCustomer customer = new PrivateCustomer(null, "123456789", "page@test.com", address, "N", "John", "Doe");
+        new CustomerMapper().insert(customer, conn);
+        List<Product> products = new ArrayList<>();
+        for (int r = 0; r < 2; r++) {
+            Restaurant restaurant = new Restaurant(null, "Resto " + r, address);
+            new RestaurantMapper().insert(restaurant, conn);
+            for (int p = 0; p < 3; p++) {
+                Product product = new Product(null, "Plat " + r + p, new BigDecimal("10.00"), "Plat", restaurant);
+                new ProductMapper().insert(product, conn);
+                products.add(product);
+            }
+        }
+        for (int i = 0; i < ORDER_COUNT; i++) {
+            Product product = products.get(i % products.size());
+            Order order = new Order(null, customer, product.getRestaurant(), false, LocalDateTime.now());
+            order.addProduct(product);
+            new OrderMapper().insert(order, conn);
+        }
+        conn.commit();
+    }
+
+    @BeforeEach
+    public void setUp() {
+        cache.clear();
+    }
+
+    @AfterAll
+    public static void tearDownClass() throws SQLException {
+        conn.close();
+    }
+
+    private void assertCacheEmpty() {
+        assertEquals(0, cache.region(Order.class).size(), "Scanned orders must not be cached");
+        assertEquals(0, cache.region(Product.class).size(), "Scanned products must not be cached");
+        assertEquals(0, cache.region(Restaurant.class).size(), "Scanned restaurants must not be cached");
+        assertEquals(0, cache.region(Customer.class).size(), "Scanned customers must not be cached");
+    }
+
+    @Test
+    public void testOrderPagesCoverAllOrdersInIdOrder() throws Exception {
+        OrderMapper mapper = new OrderMapper();
+        List<Long> ids = new ArrayList<>();
+        Long afterId = null;
+        List<Order> page;
+        while (!(page = mapper.findPage(afterId, 3, conn)).isEmpty()) {
+            assertTrue(page.size() <= 3);
+            for (Order order : page) {
+                assertEquals(1, order.getProducts().size());
+                assertNotNull(order.getCustomer());
+                ids.add(order.getId());
+            }
+            afterId = page.get(page.size() - 1).getId();
+        }
+
+        assertEquals(ORDER_COUNT, ids.size());
+        assertEquals(ids.stream().sorted().distinct().collect(Collectors.toList()), ids);
+        assertCacheEmpty();
+    }
+
+    @Test
+    public void testStreamsVisitEveryRowWithoutCaching() throws Exception {
+        List<Order> orders = new ArrayList<>();
+        new OrderMapper().stream(conn, 2, orders::add);
+        List<Product> products = new ArrayList<>();
+        new ProductMapper().stream(conn, 4, products::add);
+        List<Restaurant> restaurants = new ArrayList<>();
+        new RestaurantMapper().stream(conn, 1, restaurants::add);
+
+        assertEquals(ORDER_COUNT, orders.size());
+        assertEquals(6, products.size());
+        assertEquals(2, restaurants.size());
+        assertSame(products.get(0).getRestaurant(), products.get(1).getRestaurant(), "A restaurant is shared within a fetch");
+        assertCacheEmpty();
+    }
+
+    @Test
+    public void testStreamsRejectNonPositiveFetchSize() {
+        assertThrows(IllegalArgumentException.class, () -> new OrderMapper().stream(conn, 0, order -> { }));
+        assertThrows(IllegalArgumentException.class, () -> new ProductMapper().stream(conn, 0, product -> { }));
+        assertThrows(IllegalArgumentException.class, () -> new RestaurantMapper().stream(conn, -1, restaurant -> { }));
+    }
+
+    @Test
+    public void testPagesReuseCachedEntities() throws Exception {
+        Product cached = new ProductMapper().findPage(null, 1, conn).get(0);
+        new ProductMapper().read(cached.getId(), conn);
+        Product fromCache = cache.region(Product.class).get(cached.getId());
+
+        assertSame(fromCache, new ProductMapper().findPage(null, 1, conn).get(0));
+        assertEquals(2, new RestaurantMapper().findPage(null, 10, conn).size());
+    }
+}
@@ -0,0 +1,219 @@
+package ch.hearc.ig.orderresto.persistence.mappers;
+
+import ch.hearc.ig.orderresto.business.*;
+import ch.hearc.ig.orderresto.business.Order;
+import ch.hearc.ig.orderresto.persistence.EntityCache;
+import ch.hearc.ig.orderresto.persistence.H2TestDatabase;
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that loading orders costs a fixed number of statements, whatever the number of orders.
+ * Runs on an in-memory H2 database in Oracle mode.
+ */
+public class OrderMapperQueryCountTests {
+
+    private static Connection conn;
+    private final AtomicInteger statementCount = new AtomicInteger();
+
+    @BeforeAll
+    public static void setUpClass() throws SQLException, IOException {
+        conn = H2TestDatabase.open("query-count");
+    }
+
+    @AfterEach
+    public void tearDown() throws SQLException {
+        conn.rollback();
+        EntityCache.getInstance().clear();
+    }
+
+    @AfterAll
+    public static void tearDownClass() throws SQLException {
+        conn.close();
+    }
+
+    private Connection countingConnection() {
+        return H2TestDatabase.counting(conn, statementCount);
+    }
+
+    private Customer insertCustomerWithOrders(String email, int orderCount) throws Exception {
+        CustomerMapper customerMapper = new CustomerMapper();
+        RestaurantMapper restaurantMapper = new RestaurantMapper();
+        ProductMapper productMapper = new ProductMapper();
+        OrderMapper orderMapper = new OrderMapper();
+
+        Address address = new Address("CH", "2000", "Neuchâtel", "Rue", "1");
+        PrivateCustomer customer = new PrivateCustomer(null, "123456789", email, address, "N", "John", "Doe");
+        customerMapper.insert(customer, conn);
+
+        Restaurant first = new Restaurant(null, "First Resto", address);
+        Restaurant second = new Restaurant(null, "Second Resto", address);
+        restaurantMapper.insert(first, conn);
+        restaurantMapper.insert(second, conn);
+
+        Product[] products = {
+                new Product(null, "Pizza", new BigDecimal("18.00"), "Pizza", first),
+                new Product(null, "Pasta", new BigDecimal("15.00"), "Pasta", first),
+                new Product(null, "Burger", new BigDecimal("12.00"), "Burger", second),
+                new Product(null, "Fries", new BigDecimal("5.00"), "Fries", second)
+        };
+        for (Product product : products) {
+            productMapper.insert(product, conn);
+        }
+
+        for (int i = 0; i < orderCount; i++) {
+            Restaurant restaurant = i % 2 == 0 ? first : second;
+            Order order = new Order(null, customer, restaurant, i % 3 == 0, LocalDateTime.now().minusDays(i));
+            order.addProduct(products[(i % 2) * 2]);
+            order.addProduct(products[(i % 2) * 2 + 1]);
+            orderMapper.insert(order, conn);
+        }
+        return customer;
+    }
+
+    private int countStatementsForFindOrdersByCustomer(Customer customer, int expectedOrders) throws Exception {
+        statementCount.set(0);
+        // Cache vidé : tout doit venir de la base
+        EntityCache.getInstance().clear();
+        List<Order> orders = new OrderMapper().findOrdersByCustomer(customer, countingConnection());
+
+        assertEquals(expectedOrders, orders.size());
+        for (Order order : orders) {
+            assertNotNull(order.getCustomer());
+            assertNotNull(order.getRestaurant());
+            assertEquals(2, order.getProducts().size());
+        }
+        return statementCount.get();
+    }
+
+    @Test
+    public void testFindOrdersByCustomerUsesFixedNumberOfStatements() throws Exception {
+        Customer fewOrders = insertCustomerWithOrders("few@test.com", 2);
+        Customer manyOrders = insertCustomerWithOrders("many@test.com", 60);
+
+        int fewStatements = countStatementsForFindOrdersByCustomer(fewOrders, 2);
+        int manyStatements = countStatementsForFindOrdersByCustomer(manyOrders, 60);
+
+        assertEquals(fewStatements, manyStatements, "The number of statements should not depend on the number of orders");
+        assertTrue(manyStatements <= 4, "Expected at most 4 statements, got " + manyStatements);
+    }
+
+    @Test
+    public void testReadOrderLoadsProductsAndTotal() throws Exception {
+        Customer customer = insertCustomerWithOrders("read@test.com", 1);
+        Order inserted = new OrderMapper().findOrdersByCustomer(customer, conn).get(0);
+        EntityCache.getInstance().clear();
+
+        statementCount.set(0);
+        Order order = new OrderMapper().read(inserted.getId(), countingConnection());
+
+        assertNotNull(order);
+        assertEquals(new BigDecimal("33.00"), order.getTotalAmount());
+        assertEquals("First Resto", order.getRestaurant().getName());
+        assertTrue(statementCount.get() <= 4, "Expected at most 4 statements, got " + statementCount.get());
+    }
+
+    @Test
+    public void testUpdateOrderAppliesOnlyProductDiff() throws Exception {
+        Customer customer = insertCustomerWithOrders("update@test.com", 1);
+        OrderMapper orderMapper = new OrderMapper();
+        Order order = orderMapper.findOrdersByCustomer(customer, conn).get(0);
+        Product pizza = order.getProducts().stream().filter(p -> p.getName().equals("Pizza")).findFirst().orElseThrow();
+        Product extra = new Product(null, "Tiramisu", new BigDecimal("8.00"), "Dessert", order.getRestaurant());
+        new ProductMapper().insert(extra, conn);
+
+        order.getProducts().remove(pizza);
+        order.addProduct(extra);
+        statementCount.set(0);
+        orderMapper.update(order, countingConnection());
+
+        // UPDATE de l'entête, lecture des lignes existantes, un lot de suppressions et un lot d'insertions,
+        // plus le retrait et l'ajout des ventes journalières (restaurant et produits)
+        assertEquals(8, statementCount.get());
+        EntityCache.getInstance().clear();
+        Order reloaded = new OrderMapper().read(order.getId(), conn);
+        assertEquals(2, reloaded.getProducts().size());
+        assertTrue(reloaded.getProducts().stream().anyMatch(p -> p.getName().equals("Tiramisu")));
+        assertTrue(reloaded.getProducts().stream().noneMatch(p -> p.getName().equals("Pizza")));
+    }
+
+    private int countStatementsForInsertAll(Customer customer, int orderCount) throws Exception {
+        Order template = new OrderMapper().findOrdersByCustomer(customer, conn).get(0);
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < orderCount; i++) {
+            Order order = new Order(null, customer, template.getRestaurant(), i % 2 == 0, LocalDateTime.now().minusDays(i));
+            template.getProducts().forEach(order::addProduct);
+            orders.add(order);
+        }
+
+        statementCount.set(0);
+        new OrderMapper().insertAll(orders, countingConnection());
+        int statements = statementCount.get();
+
+        EntityCache.getInstance().clear();
+        for (Order order : orders) {
+            Order reloaded = new OrderMapper().read(order.getId(), conn);
+            assertEquals(2, reloaded.getProducts().size());
+            assertEquals(new BigDecimal("33.00"), reloaded.getTotalAmount());
+        }
+        return statements;
+    }
+
+    @Test
+    public void testInsertAllUsesFixedNumberOfStatements() throws Exception {
+        Customer customer = insertCustomerWithOrders("batch@test.com", 1);
+
+        int fewStatements = countStatementsForInsertAll(customer, 2);
+        int manyStatements = countStatementsForInsertAll(customer, 50);
+
+        // Réservation des ID, un lot d'entêtes, un lot de lignes et les ventes journalières (restaurant et produits)
+        assertEquals(5, fewStatements);
+        assertEquals(fewStatements, manyStatements, "The number of statements should not depend on the number of orders");
+        assertEquals(53, new OrderMapper().findOrdersByCustomer(customer, conn).size());
+    }
+
+    @Test
+    public void testFindOrdersByCustomerReturnsMoreOrdersThanTheCacheHolds() throws Exception {
+        Customer customer = insertCustomerWithOrders("large@test.com", 1);
+        Order template = new OrderMapper().findOrdersByCustomer(customer, conn).get(0);
+        int maxSize = EntityCache.getInstance().region(Order.class).getMaxSize();
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < maxSize + 50; i++) {
+            Order order = new Order(null, customer, template.getRestaurant(), false, LocalDateTime.now().minusMinutes(i));
+            template.getProducts().forEach(order::addProduct);
+            orders.add(order);
+        }
+        new OrderMapper().insertAll(orders, conn);
+        EntityCache.getInstance().clear();
+
+        List<Order> found = new OrderMapper().findOrdersByCustomer(customer, conn);
+
+        assertEquals(maxSize + 51, found.size());
+        assertTrue(found.stream().allMatch(order -> order.getProducts().size() == 2));
+    }
+
+    @Test
+    public void testFindSummariesByCustomerUsesOneStatement() throws Exception {
+        Customer customer = insertCustomerWithOrders("history@test.com", 5);
+        EntityCache.getInstance().clear();
+
+        statementCount.set(0);
+        List<OrderSummary> summaries = new OrderMapper().findSummariesByCustomer(customer.getId(), countingConnection());
+
+        assertEquals(1, statementCount.get());
+        assertEquals(5, summaries.size());
+        assertEquals(0, new BigDecimal("33.00").compareTo(summaries.get(0).getTotalAmount()));
+        assertEquals("First Resto", summaries.get(0).getRestaurantName());
+        assertEquals(0, EntityCache.getInstance().region(Order.class).size(), "Summaries must not build orders");
+    }
+}
@@ -0,0 +1,131 @@
+package ch.hearc.ig.orderresto.persistence.mappers;
+
+import ch.hearc.ig.orderresto.application.data.OrderTotalsBackfill;
+import ch.hearc.ig.orderresto.business.*;
+import ch.hearc.ig.orderresto.business.Order;
+import ch.hearc.ig.orderresto.persistence.EntityCache;
+import ch.hearc.ig.orderresto.persistence.H2TestDatabase;
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that order totals are stored at write time, used by the loaders and backfilled for older orders.
+ */
+public class OrderTotalsTests {
+
+    private static Connection conn;
+    private Product pizza;
+    private Product pasta;
+    private Order order;
+
+    @BeforeAll
+    public static void setUpClass() throws SQLException, IOException {
+        conn = H2TestDatabase.open("order-totals");
+    }
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        Address address = new Address("CH", "2000", "Neuchâtel", "Rue", "1");
+        PrivateCustomer customer = new PrivateCustomer(null, "123456789", "totals@test.com", address, "N", "John", "Doe");
+        new CustomerMapper().insert(customer, conn);
+        Restaurant restaurant = new Restaurant(null, "Totals Resto", address);
+        new RestaurantMapper().insert(restaurant, conn);
+        pizza = new Product(null, "Pizza", new BigDecimal("18.00"), "Pizza", restaurant);
+        pasta = new Product(null, "Pasta", new BigDecimal("15.50"), "Pasta", restaurant);
+        new ProductMapper().insert(pizza, conn);
+        new ProductMapper().insert(pasta, conn);
+        order = new Order(null, customer, restaurant, false, LocalDateTime.now());
+        order.addProduct(pizza);
+        order.addProduct(pasta);
+        new OrderMapper().insert(order, conn);
+    }
+
+    @AfterEach
+    public void tearDown() throws SQLException {
+        conn.rollback();
+        EntityCache.getInstance().clear();
+    }
+
+    @AfterAll
+    public static void tearDownClass() throws SQLException {
+        conn.close();
+    }
+
+    private BigDecimal storedTotal() throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT montant_total, nb_produits FROM COMMANDE WHERE numero = " + order.getId())) {
+            rs.next();
+            return rs.getBigDecimal(1) == null ? null : rs.getBigDecimal(1).setScale(2);
+        }
+    }
+
+    @Test
+    public void testTotalIsStoredAndKeptWhenPricesChange() throws Exception {
+        assertEquals(new BigDecimal("33.50"), storedTotal());
+
+        pizza.setUnitPrice(new BigDecimal("25.00"));
+        new ProductMapper().update(pizza, conn);
+        EntityCache.getInstance().clear();
+
+        Order reloaded = new OrderMapper().read(order.getId(), conn);
+        assertEquals(0, new BigDecimal("33.50").compareTo(reloaded.getTotalAmount()), "The total is the one paid, not recomputed");
+        assertEquals(2, reloaded.getProducts().size());
+    }
+
+    @Test
+    public void testUpdateStoresTotalOfRemainingProducts() throws Exception {
+        order.getProducts().remove(pasta);
+        new OrderMapper().update(order, conn);
+
+        assertEquals(new BigDecimal("18.00"), storedTotal());
+        assertEquals(0, new BigDecimal("18.00").compareTo(order.getTotalAmount()));
+    }
+
+    @Test
+    public void testTotalsCountEachProductOnceLikeTheLines() throws Exception {
+        Product samePizza = new Product(pizza.getId(), pizza.getName(), pizza.getUnitPrice(), pizza.getDescription(), pizza.getRestaurant());
+        order.addProduct(samePizza);
+        assertEquals(3, order.getProducts().size(), "Another instance of the same product");
+        new OrderMapper().update(order, conn);
+
+        assertEquals(new BigDecimal("33.50"), storedTotal());
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT c.nb_produits, COUNT(*) FROM COMMANDE c"
+                     + " JOIN PRODUIT_COMMANDE pc ON pc.fk_commande = c.numero WHERE c.numero = " + order.getId()
+                     + " GROUP BY c.nb_produits")) {
+            rs.next();
+            assertEquals(2, rs.getInt(1));
+            assertEquals(rs.getInt(2), rs.getInt(1), "As many products as lines written");
+        }
+    }
+
+    @Test
+    public void testDeletingProductRecomputesTotals() throws Exception {
+        new ProductMapper().delete(pasta.getId(), conn);
+
+        assertEquals(new BigDecimal("18.00"), storedTotal());
+    }
+
+    @Test
+    public void testBackfillCompletesOlderOrders() throws Exception {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("UPDATE COMMANDE SET montant_total = NULL, nb_produits = NULL");
+        }
+        EntityCache.getInstance().clear();
+        assertEquals(0, new BigDecimal("33.50").compareTo(new OrderMapper().read(order.getId(), conn).getTotalAmount()),
+                "Orders without stored total are summed at load");
+
+        assertEquals(1, OrderTotalsBackfill.run(conn, 1, true));
+        assertEquals(new BigDecimal("33.50"), storedTotal());
+        assertEquals(0, OrderTotalsBackfill.run(conn, 1, true), "Nothing is left to backfill");
+    }
+}
@@ -0,0 +1,94 @@
+package ch.hearc.ig.orderresto.persistence.mappers;
+
+import ch.hearc.ig.orderresto.business.Address;
+import ch.hearc.ig.orderresto.business.Product;
+import ch.hearc.ig.orderresto.business.Restaurant;
+import ch.hearc.ig.orderresto.persistence.EntityCache;
+import ch.hearc.ig.orderresto.persistence.H2TestDatabase;
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that product lists resolve their restaurants without one query per product.
+ * Runs on an in-memory H2 database in Oracle mode.
+ */
+public class ProductMapperQueryCountTests {
+
+    private static Connection conn;
+    private final AtomicInteger statementCount = new AtomicInteger();
+
+    @BeforeAll
+    public static void setUpClass() throws SQLException, IOException {
+        conn = H2TestDatabase.open("product-query-count");
+    }
+
+    @AfterEach
+    public void tearDown() throws SQLException {
+        conn.rollback();
+        EntityCache.getInstance().clear();
+    }
+
+    @AfterAll
+    public static void tearDownClass() throws SQLException {
+        conn.close();
+    }
+
+    private List<Product> insertProducts(Restaurant restaurant, int count) throws Exception {
+        new RestaurantMapper().insert(restaurant, conn);
+        ProductMapper productMapper = new ProductMapper();
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Product product = new Product(null, "Product " + i, new BigDecimal("10.00"), "Description", restaurant);
+            productMapper.insert(product, conn);
+            products.add(product);
+        }
+        return products;
+    }
+
+    @Test
+    public void testGetProductsByRestaurantIdUsesOneStatement() throws Exception {
+        Restaurant restaurant = new Restaurant(null, "Resto", new Address("CH", "2000", "Neuchâtel", "Rue", "1"));
+        insertProducts(restaurant, 25);
+        EntityCache.getInstance().clear();
+
+        statementCount.set(0);
+        List<Product> products = new ProductMapper().getProductsByRestaurantId(restaurant.getId(), H2TestDatabase.counting(conn, statementCount));
+
+        assertEquals(25, products.size());
+        assertEquals(1, statementCount.get());
+        Restaurant loaded = products.get(0).getRestaurant();
+        assertEquals("Resto", loaded.getName());
+        assertTrue(products.stream().allMatch(p -> p.getRestaurant() == loaded), "Every product should share one restaurant instance");
+    }
+
+    @Test
+    public void testReadAllFetchesOnlyMissingProducts() throws Exception {
+        Address address = new Address("CH", "2000", "Neuchâtel", "Rue", "1");
+        List<Product> products = insertProducts(new Restaurant(null, "First", address), 3);
+        products.addAll(insertProducts(new Restaurant(null, "Second", address), 3));
+        List<Long> ids = new ArrayList<>();
+        products.forEach(p -> ids.add(p.getId()));
+        ids.add(-1L);
+
+        EntityCache.getInstance().clear();
+        Product cached = new ProductMapper().read(ids.get(0), conn);
+
+        statementCount.set(0);
+        Map<Long, Product> loaded = new ProductMapper().readAll(ids, H2TestDatabase.counting(conn, statementCount));
+
+        assertEquals(6, loaded.size(), "Unknown IDs should be absent");
+        assertSame(cached, loaded.get(ids.get(0)));
+        assertEquals("Second", loaded.get(ids.get(5)).getRestaurant().getName());
+        assertEquals(1, statementCount.get());
+    }
+}
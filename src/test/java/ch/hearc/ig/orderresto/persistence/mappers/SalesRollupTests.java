@@ -0,0 +1,144 @@
+package ch.hearc.ig.orderresto.persistence.mappers;
+
+import ch.hearc.ig.orderresto.business.*;
+import ch.hearc.ig.orderresto.business.Order;
+import ch.hearc.ig.orderresto.persistence.EntityCache;
+import ch.hearc.ig.orderresto.persistence.H2TestDatabase;
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that the daily rollups maintained by the mappers always equal a rebuild from the orders.
+ */
+public class SalesRollupTests {
+
+    private static final LocalDate FIRST_DAY = LocalDate.of(2000, 1, 1);
+    private static final LocalDate LAST_DAY = LocalDate.of(2100, 1, 1);
+
+    private static Connection conn;
+    private Address address;
+    private Restaurant restaurant;
+    private Product pizza;
+    private Product pasta;
+
+    @BeforeAll
+    public static void setUpClass() throws SQLException, IOException {
+        conn = H2TestDatabase.open("sales-rollup");
+    }
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        address = new Address("CH", "2000", "Neuchâtel", "Rue", "1");
+        restaurant = new Restaurant(null, "Rollup Resto", address);
+        new RestaurantMapper().insert(restaurant, conn);
+        pizza = new Product(null, "Pizza", new BigDecimal("18.00"), "Pizza", restaurant);
+        pasta = new Product(null, "Pasta", new BigDecimal("15.00"), "Pasta", restaurant);
+        new ProductMapper().insert(pizza, conn);
+        new ProductMapper().insert(pasta, conn);
+    }
+
+    @AfterEach
+    public void tearDown() throws SQLException {
+        conn.rollback();
+        EntityCache.getInstance().clear();
+    }
+
+    @AfterAll
+    public static void tearDownClass() throws SQLException {
+        conn.close();
+    }
+
+    private Customer newCustomer(String email) throws Exception {
+        PrivateCustomer customer = new PrivateCustomer(null, "123456789", email, address, "N", "John", "Doe");
+        new CustomerMapper().insert(customer, conn);
+        return customer;
+    }
+
+    private Order insertOrder(Customer customer, boolean takeAway, LocalDateTime when, Product... products) throws Exception {
+        Order order = new Order(null, customer, restaurant, takeAway, when);
+        for (Product product : products) {
+            order.addProduct(product);
+        }
+        new OrderMapper().insert(order, conn);
+        return order;
+    }
+
+    /**
+     * @return The non-zero rollup rows, as text, keyed by table and day.
+     */
+    private static Map<String, String> rollups() throws SQLException {
+        Map<String, String> rows = new TreeMap<>();
+        String[] queries = {
+                "SELECT 'R' || jour || '/' || fk_resto, nb_commandes || ' ' || montant_total || ' ' || nb_emporter " +
+                        "FROM Ventes_Restaurant_Jour WHERE nb_commandes <> 0",
+                "SELECT 'P' || jour || '/' || fk_produit, '' || quantite FROM Ventes_Produit_Jour WHERE quantite <> 0"
+        };
+        for (String query : queries) {
+            try (PreparedStatement statement = conn.prepareStatement(query); ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    rows.put(rs.getString(1), rs.getString(2));
+                }
+            }
+        }
+        return rows;
+    }
+
+    private static void assertMatchesRebuild() throws SQLException {
+        Map<String, String> maintained = rollups();
+        new SalesRollupMapper().rebuild(FIRST_DAY, LAST_DAY, conn);
+        assertEquals(rollups(), maintained);
+    }
+
+    @Test
+    public void testInsertAddsTheOrderToItsDay() throws Exception {
+        insertOrder(newCustomer("insert@test.com"), true, LocalDateTime.of(2026, 3, 2, 12, 0), pizza, pasta);
+        insertOrder(newCustomer("other@test.com"), false, LocalDateTime.of(2026, 3, 2, 19, 0), pizza);
+
+        Map<String, String> rows = rollups();
+        assertEquals("2 51.00 1", rows.get("R2026-03-02 00:00:00/" + restaurant.getId()));
+        assertEquals("2", rows.get("P2026-03-02 00:00:00/" + pizza.getId()));
+        assertMatchesRebuild();
+    }
+
+    @Test
+    public void testUpdateMovesTheOrder() throws Exception {
+        Customer customer = newCustomer("update@test.com");
+        Order order = insertOrder(customer, false, LocalDateTime.of(2026, 3, 2, 12, 0), pizza);
+        Order moved = new Order(order.getId(), customer, restaurant, true, LocalDateTime.of(2026, 3, 5, 12, 0));
+        moved.addProduct(pasta);
+        new OrderMapper().update(moved, conn);
+
+        assertMatchesRebuild();
+    }
+
+    @Test
+    public void testDeletesSubtractTheOrders() throws Exception {
+        Customer kept = newCustomer("kept@test.com");
+        Customer gone = newCustomer("gone@test.com");
+        Order deleted = insertOrder(kept, false, LocalDateTime.of(2026, 3, 2, 12, 0), pizza);
+        insertOrder(kept, true, LocalDateTime.of(2026, 3, 2, 13, 0), pizza, pasta);
+        insertOrder(gone, false, LocalDateTime.of(2026, 3, 3, 12, 0), pasta);
+
+        new OrderMapper().delete(deleted.getId(), conn);
+        assertMatchesRebuild();
+
+        new CustomerMapper().delete(gone.getId(), conn);
+        assertMatchesRebuild();
+
+        new ProductMapper().delete(pasta.getId(), conn);
+        assertMatchesRebuild();
+        assertEquals("1 18.00 1", rollups().get("R2026-03-02 00:00:00/" + restaurant.getId()));
+    }
+}
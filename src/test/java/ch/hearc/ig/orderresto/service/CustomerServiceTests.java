@@ -72,7 +72,7 @@ public class CustomerServiceTests {
         doAnswer(invocation -> {
             TransactionHandler.TransactionCallable<?> action = invocation.getArgument(0);
             return action.execute(Mockito.mock(Connection.class));
-        }).when(transactionHandlerMock).executeInTransaction(any(TransactionHandler.TransactionCallable.class));
+        }).when(transactionHandlerMock).executeReadOnly(any(TransactionHandler.TransactionCallable.class));
 
         // Act
         Customer fetchedCustomer = customerService.getCustomerById(customer.getId());
@@ -1,18 +1,31 @@
 
 package ch.hearc.ig.orderresto.service;
 
+import ch.hearc.ig.orderresto.business.Address;
 import ch.hearc.ig.orderresto.business.PrivateCustomer;
 import ch.hearc.ig.orderresto.business.Order;
+import ch.hearc.ig.orderresto.business.OrderSummary;
+import ch.hearc.ig.orderresto.business.Product;
 import ch.hearc.ig.orderresto.business.Restaurant;
+import ch.hearc.ig.orderresto.persistence.EntityCache;
+import ch.hearc.ig.orderresto.persistence.H2TestDatabase;
+import ch.hearc.ig.orderresto.persistence.exceptions.OrderPersistenceException;
+import ch.hearc.ig.orderresto.persistence.mappers.CustomerMapper;
 import ch.hearc.ig.orderresto.persistence.mappers.OrderMapper;
+import ch.hearc.ig.orderresto.persistence.mappers.ProductMapper;
+import ch.hearc.ig.orderresto.persistence.mappers.RestaurantMapper;
 import ch.hearc.ig.orderresto.service.exceptions.OrderServiceException;
 import ch.hearc.ig.orderresto.service.utils.TransactionHandler;
 import org.junit.jupiter.api.*;
 import org.mockito.Mockito;
 
+import java.math.BigDecimal;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -28,7 +41,7 @@ public class OrderServiceTests {
     public void setUp() {
         orderMapperMock = Mockito.mock(OrderMapper.class);
         transactionHandlerMock = Mockito.mock(TransactionHandler.class);
-        orderService = new OrderService(orderMapperMock, transactionHandlerMock);
+        orderService = new OrderService(orderMapperMock, transactionHandlerMock, new OrderHistoryIndex(100));
     }
 
     @Test
@@ -70,6 +83,94 @@ public class OrderServiceTests {
         assertEquals("Failed to create order", exception.getMessage());
     }
 
+    @Test
+    public void testCreateOrdersFallsBackToSingleOrdersWhenAChunkFails() throws Exception {
+        PrivateCustomer customer = new PrivateCustomer(1L, "123456789", "test@example.com", null, "N", "John", "Doe");
+        Restaurant restaurant = new Restaurant(1L, "Test Restaurant", null);
+        Order first = new Order(null, customer, restaurant, false, LocalDateTime.now());
+        Order rejected = new Order(null, customer, restaurant, false, LocalDateTime.now());
+        Order withoutCustomer = new Order(null, null, restaurant, false, LocalDateTime.now());
+        Order last = new Order(null, customer, restaurant, true, LocalDateTime.now());
+
+        doThrow(new OrderPersistenceException("Simulated batch failure", null)).when(orderMapperMock).insertAll(anyList(), any(Connection.class));
+        doAnswer(invocation -> {
+            Order order = invocation.getArgument(0);
+            if (order == rejected) {
+                throw new SQLException("Simulated SQL exception");
+            }
+            order.setId(order == first ? 1L : 2L);
+            return null;
+        }).when(orderMapperMock).insert(any(Order.class), any(Connection.class));
+        doAnswer(invocation -> {
+            TransactionHandler.TransactionCallable<?> action = invocation.getArgument(0);
+            return action.execute(Mockito.mock(Connection.class));
+        }).when(transactionHandlerMock).executeInTransaction(any(TransactionHandler.TransactionCallable.class));
+
+        OrderBatchResult result = orderService.createOrders(List.of(first, rejected, withoutCustomer, last));
+
+        assertEquals(List.of(first, last), result.getCreated());
+        assertEquals(2, result.getFailures().size());
+        assertEquals(1, result.getFailures().get(0).getIndex());
+        assertNull(rejected.getId());
+        assertEquals(2, result.getFailures().get(1).getIndex());
+        assertInstanceOf(IllegalArgumentException.class, result.getFailures().get(1).getCause());
+        verify(orderMapperMock, never()).insert(same(withoutCustomer), any(Connection.class));
+    }
+
+    @Test
+    public void testCreateOrdersOnDatabase() throws Exception {
+        try (Connection conn = H2TestDatabase.open("create-orders")) {
+            Address address = new Address("CH", "2000", "Neuchâtel", "Rue", "1");
+            PrivateCustomer customer = new PrivateCustomer(null, "123456789", "batch@test.com", address, "N", "John", "Doe");
+            new CustomerMapper().insert(customer, conn);
+            Restaurant restaurant = new Restaurant(null, "Batch Resto", address);
+            new RestaurantMapper().insert(restaurant, conn);
+            Product product = new Product(null, "Pizza", new BigDecimal("18.00"), "Pizza", restaurant);
+            new ProductMapper().insert(product, conn);
+            conn.commit();
+
+            TransactionHandler transactionHandler = Mockito.mock(TransactionHandler.class);
+            doAnswer(invocation -> {
+                TransactionHandler.TransactionCallable<?> action = invocation.getArgument(0);
+                try {
+                    Object result = action.execute(conn);
+                    conn.commit();
+                    return result;
+                } catch (Exception e) {
+                    conn.rollback();
+                    throw e;
+                }
+            }).when(transactionHandler).executeInTransaction(any(TransactionHandler.TransactionCallable.class));
+            OrderHistoryIndex historyIndex = new OrderHistoryIndex(100);
+            historyIndex.fill(customer.getId(), List.of(), historyIndex.version());
+            OrderService service = new OrderService(new OrderMapper(), transactionHandler, historyIndex);
+
+            List<Order> orders = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                Order order = new Order(null, customer, restaurant, false, LocalDateTime.now().minusDays(i));
+                order.addProduct(product);
+                orders.add(order);
+            }
+            orders.add(1, new Order(null, null, restaurant, false, LocalDateTime.now()));
+
+            OrderBatchResult result = service.createOrders(orders, 2);
+
+            assertEquals(3, result.getCreated().size());
+            assertEquals(1, result.getFailures().size());
+            assertEquals(1, result.getFailures().get(0).getIndex());
+            assertEquals(3, historyIndex.get(customer.getId()).size());
+            try (PreparedStatement statement = conn.prepareStatement("SELECT COUNT(*) FROM Commande WHERE fk_client = ?")) {
+                statement.setLong(1, customer.getId());
+                try (ResultSet rs = statement.executeQuery()) {
+                    rs.next();
+                    assertEquals(3, rs.getInt(1));
+                }
+            }
+        } finally {
+            EntityCache.getInstance().clear();
+        }
+    }
+
     @Test
     public void testGetOrderById() throws Exception {
         Order order = new Order(1L, null, null, false, LocalDateTime.now());
@@ -78,7 +179,7 @@ public class OrderServiceTests {
         doAnswer(invocation -> {
             TransactionHandler.TransactionCallable<?> action = invocation.getArgument(0);
             return action.execute(Mockito.mock(Connection.class));
-        }).when(transactionHandlerMock).executeInTransaction(any(TransactionHandler.TransactionCallable.class));
+        }).when(transactionHandlerMock).executeReadOnly(any(TransactionHandler.TransactionCallable.class));
 
         Order retrievedOrder = orderService.getOrderById(1L);
         assertNotNull(retrievedOrder, "Order should be retrieved successfully");
@@ -128,10 +229,73 @@ public class OrderServiceTests {
         doAnswer(invocation -> {
             TransactionHandler.TransactionCallable<?> action = invocation.getArgument(0);
             return action.execute(Mockito.mock(Connection.class));
-        }).when(transactionHandlerMock).executeInTransaction(any(TransactionHandler.TransactionCallable.class));
+        }).when(transactionHandlerMock).executeReadOnly(any(TransactionHandler.TransactionCallable.class));
 
         List<Order> retrievedOrders = orderService.findOrdersByCustomer(customer);
         assertNotNull(retrievedOrders, "Orders should be retrieved successfully");
         assertEquals(1, retrievedOrders.size(), "There should be one order retrieved");
     }
+
+    @Test
+    public void testOrderHistoryIsServedFromIndexAndUpdatedIncrementally() throws Exception {
+        PrivateCustomer customer = new PrivateCustomer(1L, "123456789", "test@example.com", null, "N", "John", "Doe");
+        Restaurant restaurant = new Restaurant(1L, "Test Restaurant", null);
+        LocalDateTime now = LocalDateTime.now();
+        OrderSummary existing = new OrderSummary(1L, 1L, now.minusDays(1), "Test Restaurant", new BigDecimal("20.00"));
+        when(orderMapperMock.findSummariesByCustomer(eq(1L), any(Connection.class))).thenReturn(List.of(existing));
+        doAnswer(invocation -> {
+            TransactionHandler.TransactionCallable<?> action = invocation.getArgument(0);
+            return action.execute(Mockito.mock(Connection.class));
+        }).when(transactionHandlerMock).executeReadOnly(any(TransactionHandler.TransactionCallable.class));
+        doAnswer(invocation -> {
+            TransactionHandler.TransactionCallable<?> action = invocation.getArgument(0);
+            return action.execute(Mockito.mock(Connection.class));
+        }).when(transactionHandlerMock).executeInTransaction(any(TransactionHandler.TransactionCallable.class));
+
+        assertEquals(1, orderService.getOrderHistory(customer).size());
+
+        Order created = new Order(null, customer, restaurant, false, now);
+        doAnswer(invocation -> {
+            created.setId(2L);
+            return null;
+        }).when(orderMapperMock).insert(eq(created), any(Connection.class));
+        orderService.createOrder(created);
+        List<OrderSummary> history = orderService.getOrderHistory(customer);
+        assertEquals(List.of(1L, 2L), List.of(history.get(0).getOrderId(), history.get(1).getOrderId()));
+
+        orderService.deleteOrder(new Order(1L, customer, restaurant, false, now.minusDays(1)));
+        assertEquals(1, orderService.getOrderHistory(customer).size());
+        assertEquals(2L, orderService.getOrderHistory(customer).get(0).getOrderId());
+        verify(orderMapperMock, times(1)).findSummariesByCustomer(eq(1L), any(Connection.class));
+    }
+
+    @Test
+    public void testHistoryReadIsOnlyDiscardedWhenItsCustomerChanged() {
+        OrderHistoryIndex historyIndex = new OrderHistoryIndex(100);
+        LocalDateTime now = LocalDateTime.now();
+        OrderSummary read = new OrderSummary(1L, 1L, now, "Test Restaurant", new BigDecimal("20.00"));
+
+        long version = historyIndex.version();
+        historyIndex.put(new OrderSummary(2L, 2L, now, "Test Restaurant", new BigDecimal("10.00")));
+        historyIndex.removeOrder(3L, 3L);
+        historyIndex.fill(1L, List.of(read), version);
+        assertEquals(List.of(read), historyIndex.get(1L), "Changes of other customers are not in the way");
+
+        version = historyIndex.version();
+        historyIndex.removeOrder(4L, 4L);
+        historyIndex.removeCustomer(4L);
+        historyIndex.fill(4L, List.of(), version);
+        assertNull(historyIndex.get(4L), "The history may still hold the deleted order");
+
+        version = historyIndex.version();
+        historyIndex.clear();
+        historyIndex.fill(1L, List.of(read), version);
+        assertNull(historyIndex.get(1L));
+    }
+
+    @Test
+    public void testStreamOrdersRejectsNonPositiveFetchSize() throws Exception {
+        assertThrows(IllegalArgumentException.class, () -> orderService.streamOrders(0, order -> { }));
+        verify(transactionHandlerMock, never()).executeReadOnly(any(TransactionHandler.TransactionCallable.class));
+    }
 }
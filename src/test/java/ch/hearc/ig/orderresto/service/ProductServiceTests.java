@@ -76,11 +76,13 @@ public class ProductServiceTests {
         doAnswer(invocation -> {
             TransactionHandler.TransactionCallable<?> action = invocation.getArgument(0);
             return action.execute(Mockito.mock(Connection.class));
-        }).when(transactionHandlerMock).executeInTransaction(any(TransactionHandler.TransactionCallable.class));
+        }).when(transactionHandlerMock).executeReadOnly(any(TransactionHandler.TransactionCallable.class));
 
         Product retrievedProduct = productService.getProductById(1L);
         assertNotNull(retrievedProduct, "Product should be retrieved successfully");
         assertEquals(1L, retrievedProduct.getId(), "Product ID should match");
+        // Une lecture ne doit ni ouvrir de transaction ni valider
+        verify(transactionHandlerMock, never()).executeInTransaction(any(TransactionHandler.TransactionCallable.class));
     }
 
     @Test
@@ -126,10 +128,16 @@ public class ProductServiceTests {
         doAnswer(invocation -> {
             TransactionHandler.TransactionCallable<?> action = invocation.getArgument(0);
             return action.execute(Mockito.mock(Connection.class));
-        }).when(transactionHandlerMock).executeInTransaction(any(TransactionHandler.TransactionCallable.class));
+        }).when(transactionHandlerMock).executeReadOnly(any(TransactionHandler.TransactionCallable.class));
 
         List<Product> retrievedProducts = productService.getAllProducts();
         assertNotNull(retrievedProducts, "Products should be retrieved successfully");
         assertEquals(1, retrievedProducts.size(), "There should be one product retrieved");
     }
+
+    @Test
+    public void testStreamProductsRejectsNonPositiveFetchSize() throws Exception {
+        assertThrows(IllegalArgumentException.class, () -> productService.streamProducts(0, product -> { }));
+        verify(transactionHandlerMock, never()).executeReadOnly(any(TransactionHandler.TransactionCallable.class));
+    }
 }
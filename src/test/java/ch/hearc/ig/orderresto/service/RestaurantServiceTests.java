@@ -70,7 +70,7 @@ public class RestaurantServiceTests {
         doAnswer(invocation -> {
             TransactionHandler.TransactionCallable<?> action = invocation.getArgument(0);
             return action.execute(Mockito.mock(Connection.class));
-        }).when(transactionHandlerMock).executeInTransaction(any(TransactionHandler.TransactionCallable.class));
+        }).when(transactionHandlerMock).executeReadOnly(any(TransactionHandler.TransactionCallable.class));
 
         Restaurant retrievedRestaurant = restaurantService.getRestaurantById(1L);
         assertNotNull(retrievedRestaurant, "Restaurant should be retrieved successfully");
@@ -117,7 +117,7 @@ public class RestaurantServiceTests {
         doAnswer(invocation -> {
             TransactionHandler.TransactionCallable<?> action = invocation.getArgument(0);
             return action.execute(Mockito.mock(Connection.class));
-        }).when(transactionHandlerMock).executeInTransaction(any(TransactionHandler.TransactionCallable.class));
+        }).when(transactionHandlerMock).executeReadOnly(any(TransactionHandler.TransactionCallable.class));
 
         List<Restaurant> retrievedRestaurants = restaurantService.getAllRestaurants();
         assertNotNull(retrievedRestaurants, "Restaurants should be retrieved successfully");
@@ -0,0 +1,141 @@
+package ch.hearc.ig.orderresto.service.async;
+
+import ch.hearc.ig.orderresto.business.Address;
+import ch.hearc.ig.orderresto.business.Customer;
+import ch.hearc.ig.orderresto.business.PrivateCustomer;
+import ch.hearc.ig.orderresto.business.Product;
+import ch.hearc.ig.orderresto.business.Restaurant;
+import ch.hearc.ig.orderresto.monitoring.Span;
+import ch.hearc.ig.orderresto.monitoring.Tracer;
+import ch.hearc.ig.orderresto.service.CustomerService;
+import ch.hearc.ig.orderresto.service.ProductService;
+import ch.hearc.ig.orderresto.service.RestaurantService;
+import ch.hearc.ig.orderresto.service.exceptions.RestaurantServiceException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class AsyncExecutorTests {
+
+    private AsyncExecutor executor;
+
+    @AfterEach
+    public void tearDown() {
+        executor.close();
+    }
+
+    @Test
+    public void testFetchesRunInParallel() throws Exception {
+        executor = new AsyncExecutor(3, 0, 1_000);
+        Address address = new Address("CH", "2000", "Neuchâtel", "Rue", "1");
+        Restaurant restaurant = new Restaurant(1L, "Resto", address);
+        Customer customer = new PrivateCustomer(2L, "123456789", "async@test.com", address, "N", "John", "Doe");
+        Product product = new Product(3L, "Pizza", new BigDecimal("18.00"), "Pizza", restaurant);
+
+        // Chaque appel attend que les deux autres aient commencé : ils ne passent que s'ils tournent en même temps
+        CountDownLatch started = new CountDownLatch(3);
+        RestaurantService restaurantService = mock(RestaurantService.class);
+        ProductService productService = mock(ProductService.class);
+        CustomerService customerService = mock(CustomerService.class);
+        when(restaurantService.getRestaurantById(1L)).thenAnswer(invocation -> awaitOthers(started, restaurant));
+        when(productService.getProductsByRestaurantId(1L)).thenAnswer(invocation -> awaitOthers(started, List.of(product)));
+        when(customerService.getExistingCustomer("async@test.com")).thenAnswer(invocation -> awaitOthers(started, customer));
+
+        CompletableFuture<Restaurant> restaurantFuture = new AsyncRestaurantService(restaurantService, executor).getRestaurantById(1L);
+        CompletableFuture<List<Product>> productsFuture = new AsyncProductService(productService, executor).getProductsByRestaurantId(1L);
+        CompletableFuture<Customer> customerFuture = new AsyncCustomerService(customerService, executor).getExistingCustomer("async@test.com");
+        CompletableFuture.allOf(restaurantFuture, productsFuture, customerFuture).get(5, TimeUnit.SECONDS);
+
+        assertSame(restaurant, restaurantFuture.join());
+        assertEquals(List.of(product), productsFuture.join());
+        assertSame(customer, customerFuture.join());
+    }
+
+    private static <T> T awaitOthers(CountDownLatch started, T result) throws InterruptedException {
+        started.countDown();
+        assertTrue(started.await(2, TimeUnit.SECONDS), "The calls did not run in parallel");
+        return result;
+    }
+
+    @Test
+    public void testCallsRunInTheCallerContext() throws Exception {
+        executor = new AsyncExecutor(1, 0, 1, 0, 1_000);
+        Tracer tracer = Tracer.getInstance();
+        tracer.setSampleRatio(1);
+        MDC.put("tx", "42");
+        try (Span root = tracer.start("test")) {
+            CompletableFuture<Span> parent = executor.submitReadOnly(() -> {
+                assertEquals("42", MDC.get("tx"));
+                try (Span child = tracer.start("AsyncExecutorTests.call")) {
+                    return child;
+                }
+            });
+            assertEquals(root.getSpanId(), parent.get(5, TimeUnit.SECONDS).getParentId());
+            assertEquals(root.getTraceId(), parent.get().getTraceId());
+        } finally {
+            MDC.remove("tx");
+            tracer.setSampleRatio(0);
+        }
+        assertNull(executor.submit(() -> MDC.get("tx")).get(5, TimeUnit.SECONDS), "The caller context is not kept");
+        assertNull(executor.submitReadOnly(tracer::current).get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testServiceExceptionCompletesTheFuture() throws Exception {
+        executor = new AsyncExecutor(1, 0, 1_000);
+        RestaurantService restaurantService = mock(RestaurantService.class);
+        when(restaurantService.getRestaurantById(1L)).thenThrow(new RestaurantServiceException("Restaurant not found"));
+
+        CompletableFuture<Restaurant> future = new AsyncRestaurantService(restaurantService, executor).getRestaurantById(1L);
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(RestaurantServiceException.class, e.getCause());
+    }
+
+    @Test
+    public void testSaturatedExecutorRejectsAfterTimeout() throws Exception {
+        executor = new AsyncExecutor(1, 1, 50);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Integer> running = executor.submit(() -> {
+            release.await();
+            return 1;
+        });
+        CompletableFuture<Integer> queued = executor.submit(() -> 2);
+        long start = System.nanoTime();
+        CompletableFuture<Integer> rejected = executor.submit(() -> 3);
+
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50), "The caller should have waited for room");
+        ExecutionException e = assertThrows(ExecutionException.class, rejected::get);
+        assertInstanceOf(RejectedExecutionException.class, e.getCause());
+
+        release.countDown();
+        assertEquals(1, running.get(5, TimeUnit.SECONDS));
+        assertEquals(2, queued.get(5, TimeUnit.SECONDS));
+        assertEquals(3, executor.submit(() -> 3).get(5, TimeUnit.SECONDS), "Room is made again once calls complete");
+    }
+
+    @Test
+    public void testVirtualThreadsRequireJava21() throws Exception {
+        if (!AsyncExecutor.isVirtualThreadsSupported()) {
+            executor = new AsyncExecutor(1, 0, 1_000);
+            assertThrows(UnsupportedOperationException.class, () -> AsyncExecutor.virtual(10, 1_000));
+            return;
+        }
+        executor = AsyncExecutor.virtual(10, 1_000);
+        assertTrue(executor.isVirtual());
+        CompletableFuture<Boolean> future = executor.submit(() -> Thread.currentThread().isDaemon());
+        assertTrue(future.get(5, TimeUnit.SECONDS), "Virtual threads are daemon threads");
+    }
+}
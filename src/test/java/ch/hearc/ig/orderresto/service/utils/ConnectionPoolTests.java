@@ -0,0 +1,263 @@
+package ch.hearc.ig.orderresto.service.utils;
+
+import org.junit.jupiter.api.*;
+import org.mockito.Mockito;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ConnectionPoolTests {
+
+    private List<Connection> created;
+    private List<PreparedStatement> prepared;
+    private ConnectionPool pool;
+
+    @BeforeEach
+    public void setUp() {
+        created = new ArrayList<>();
+        prepared = new ArrayList<>();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    private ConnectionPool newPool(int minSize, int maxSize, long idleTimeoutMs, long leakThresholdMs) {
+        PoolConfig config = new PoolConfig(minSize, maxSize, idleTimeoutMs, 100, 1, leakThresholdMs, 0);
+        return new ConnectionPool(() -> {
+            Connection connection = Mockito.mock(Connection.class);
+            when(connection.isValid(anyInt())).thenReturn(true);
+            when(connection.getAutoCommit()).thenReturn(true);
+            created.add(connection);
+            return connection;
+        }, config);
+    }
+
+    private ConnectionPool newPoolWithStatementCache(int statementCacheSize) {
+        PoolConfig config = new PoolConfig(0, 1, 60_000, 100, 1, 0, 0, statementCacheSize);
+        return new ConnectionPool(() -> {
+            Connection connection = Mockito.mock(Connection.class);
+            when(connection.isValid(anyInt())).thenReturn(true);
+            when(connection.getAutoCommit()).thenReturn(true);
+            when(connection.prepareStatement(anyString())).thenAnswer(invocation -> {
+                PreparedStatement statement = Mockito.mock(PreparedStatement.class);
+                when(statement.executeQuery()).thenReturn(Mockito.mock(ResultSet.class));
+                prepared.add(statement);
+                return statement;
+            });
+            created.add(connection);
+            return connection;
+        }, config);
+    }
+
+    @Test
+    public void testConnectionIsReusedAfterClose() throws SQLException {
+        pool = newPool(0, 2, 60_000, 0);
+
+        Connection first = pool.borrow();
+        first.close();
+        Connection second = pool.borrow();
+        second.close();
+
+        assertEquals(1, created.size(), "The physical connection should be reused");
+        assertEquals(2, pool.getStats().getBorrowCount());
+        verify(created.get(0), never()).close();
+    }
+
+    @Test
+    public void testClosedHandleIsUnusable() throws SQLException {
+        pool = newPool(0, 1, 60_000, 0);
+
+        Connection conn = pool.borrow();
+        conn.close();
+
+        assertTrue(conn.isClosed());
+        assertThrows(SQLException.class, () -> conn.prepareStatement("SELECT 1 FROM dual"));
+    }
+
+    @Test
+    public void testBorrowTimesOutWhenPoolIsExhausted() throws SQLException {
+        pool = newPool(0, 1, 60_000, 0);
+
+        Connection held = pool.borrow();
+
+        assertThrows(SQLTimeoutException.class, () -> pool.borrow());
+        assertEquals(1, pool.getStats().getTimeouts());
+        assertEquals(1, pool.getStats().getActive());
+        held.close();
+        assertEquals(0, pool.getStats().getActive());
+        assertEquals(1, pool.getStats().getIdle());
+    }
+
+    @Test
+    public void testInvalidIdleConnectionIsDiscardedOnBorrow() throws SQLException {
+        pool = newPool(0, 2, 60_000, 0);
+
+        pool.borrow().close();
+        when(created.get(0).isValid(anyInt())).thenReturn(false);
+        pool.borrow().close();
+
+        assertEquals(2, created.size(), "A new connection should replace the invalid one");
+        verify(created.get(0)).close();
+    }
+
+    @Test
+    public void testUncommittedWorkIsRolledBackOnRelease() throws SQLException {
+        pool = newPool(0, 1, 60_000, 0);
+
+        Connection conn = pool.borrow();
+        when(created.get(0).getAutoCommit()).thenReturn(false);
+        conn.close();
+
+        verify(created.get(0)).rollback();
+        verify(created.get(0)).setAutoCommit(true);
+    }
+
+    @Test
+    public void testHousekeepingEvictsIdleAndRefillsMinimum() throws SQLException, InterruptedException {
+        pool = newPool(1, 3, 1, 0);
+
+        Connection a = pool.borrow();
+        Connection b = pool.borrow();
+        a.close();
+        b.close();
+        Thread.sleep(5);
+        pool.housekeep();
+
+        assertEquals(1, pool.getStats().getIdle(), "Idle connections should be evicted down to the minimum size");
+    }
+
+    @Test
+    public void testLeakDetection() throws SQLException, InterruptedException {
+        pool = newPool(0, 1, 60_000, 1);
+
+        Connection conn = pool.borrow();
+        Thread.sleep(5);
+        pool.housekeep();
+        pool.housekeep();
+
+        assertEquals(1, pool.getStats().getLeaksDetected(), "A leak should be reported exactly once");
+        conn.close();
+    }
+
+    @Test
+    public void testReadOnlyPoolConfigInheritsMainPoolSettings() {
+        Properties prop = new Properties();
+        prop.setProperty("db.pool.maxSize", "20");
+        prop.setProperty("db.pool.borrowTimeoutMs", "5000");
+        prop.setProperty("db.readonly.pool.maxSize", "40");
+
+        PoolConfig main = PoolConfig.fromProperties(prop);
+        PoolConfig readOnly = PoolConfig.fromProperties(prop, "db.readonly.pool.", main);
+
+        assertEquals(20, main.getMaxSize());
+        assertEquals(40, readOnly.getMaxSize());
+        assertEquals(5000, readOnly.getBorrowTimeoutMs());
+        assertEquals(PoolConfig.DEFAULTS.getMinSize(), readOnly.getMinSize());
+    }
+
+    @Test
+    public void testPreparedStatementIsReusedAcrossBorrows() throws SQLException {
+        pool = newPoolWithStatementCache(10);
+        String sql = "SELECT numero FROM Produit WHERE numero = ?";
+
+        for (int i = 0; i < 3; i++) {
+            try (Connection conn = pool.borrow();
+                 PreparedStatement statement = conn.prepareStatement(sql)) {
+                statement.setLong(1, i);
+                statement.executeQuery();
+            }
+        }
+
+        assertEquals(1, prepared.size(), "The statement should be prepared once");
+        verify(prepared.get(0), never()).close();
+        verify(prepared.get(0), times(3)).clearParameters();
+        assertEquals(2, pool.getStats().getStatementCacheHits());
+        assertEquals(1, pool.getStats().getStatementCacheMisses());
+    }
+
+    @Test
+    public void testNestedUseOfSameSqlGetsDistinctStatements() throws SQLException {
+        pool = newPoolWithStatementCache(10);
+        String sql = "SELECT * FROM RESTAURANT WHERE numero = ?";
+
+        try (Connection conn = pool.borrow()) {
+            PreparedStatement outer = conn.prepareStatement(sql);
+            ResultSet rs = outer.executeQuery();
+            PreparedStatement inner = conn.prepareStatement(sql);
+            inner.close();
+            outer.close();
+
+            verify(rs).close();
+            assertThrows(SQLException.class, outer::executeQuery, "A statement returned to the cache is unusable");
+        }
+
+        assertEquals(2, prepared.size());
+        verify(prepared.get(1), never()).close();
+        verify(prepared.get(0)).close();
+    }
+
+    @Test
+    public void testStatementSettingsAreRestoredWhenReturnedToTheCache() throws SQLException {
+        pool = newPoolWithStatementCache(10);
+        String sql = "SELECT * FROM COMMANDE";
+
+        try (Connection conn = pool.borrow()) {
+            PreparedStatement statement = conn.prepareStatement(sql);
+            when(prepared.get(0).getFetchSize()).thenReturn(10);
+            statement.setFetchSize(500);
+            statement.setFetchSize(1000);
+            statement.setMaxRows(1);
+            statement.close();
+            conn.prepareStatement(sql).close();
+        }
+
+        assertEquals(1, prepared.size());
+        verify(prepared.get(0)).setFetchSize(10);
+        verify(prepared.get(0)).setMaxRows(0);
+        verify(prepared.get(0), never()).setQueryTimeout(anyInt());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedStatementIsClosedWhenCacheIsFull() throws SQLException {
+        pool = newPoolWithStatementCache(2);
+
+        try (Connection conn = pool.borrow()) {
+            conn.prepareStatement("SELECT 1 FROM DUAL").close();
+            conn.prepareStatement("SELECT 2 FROM DUAL").close();
+            conn.prepareStatement("SELECT 1 FROM DUAL").close();
+            conn.prepareStatement("SELECT 3 FROM DUAL").close();
+        }
+
+        assertEquals(3, prepared.size());
+        verify(prepared.get(1)).close();
+        verify(prepared.get(0), never()).close();
+        assertEquals(1, pool.getStats().getStatementCacheEvictions());
+    }
+
+    @Test
+    public void testStatementCacheCanBeDisabled() throws SQLException {
+        pool = newPoolWithStatementCache(0);
+
+        try (Connection conn = pool.borrow()) {
+            conn.prepareStatement("SELECT 1 FROM DUAL").close();
+            conn.prepareStatement("SELECT 1 FROM DUAL").close();
+        }
+
+        assertEquals(2, prepared.size());
+        verify(prepared.get(0)).close();
+        assertEquals(0, pool.getStats().getStatementCacheMisses());
+    }
+}